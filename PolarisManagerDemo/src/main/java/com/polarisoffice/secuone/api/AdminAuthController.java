@@ -5,6 +5,8 @@ import com.polarisoffice.secuone.domain.AdminUserEntity;
 import com.polarisoffice.secuone.domain.CustomerUserEntity;
 import com.polarisoffice.secuone.repository.AdminUserRepository;
 import com.polarisoffice.secuone.repository.CustomerUserRepository;
+import com.polarisoffice.secuone.service.LoginActivityWriter;
+import com.polarisoffice.secuone.service.PasswordVerifier;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
@@ -18,6 +20,7 @@ import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/admin/auth")
@@ -28,6 +31,8 @@ public class AdminAuthController {
   private final AdminUserRepository adminRepo;
   private final CustomerUserRepository customerRepo;
   private final PasswordEncoder encoder;
+  private final PasswordVerifier verifier;
+  private final LoginActivityWriter logins;
 
   @Value("${admin.signup.secret:}")
   private String signupSecret;
@@ -35,11 +40,15 @@ public class AdminAuthController {
   public AdminAuthController(
       AdminUserRepository adminRepo,
       CustomerUserRepository customerRepo,
-      PasswordEncoder encoder
+      PasswordEncoder encoder,
+      PasswordVerifier verifier,
+      LoginActivityWriter logins
   ) {
     this.adminRepo = adminRepo;
     this.customerRepo = customerRepo;
     this.encoder = encoder;
+    this.verifier = verifier;
+    this.logins = logins;
   }
 
   // DTOs
@@ -76,31 +85,33 @@ public class AdminAuthController {
   }
 
   // ----- 관리자 로그인 (세션 + null-safe 응답)
+  // 비밀번호 검증은 PasswordVerifier 풀, lastLoginAt/재해시는 LoginActivityWriter 로 지연 반영
   @PostMapping("/login")
-  public ResponseEntity<?> login(@Valid @RequestBody LoginReq in, HttpSession session) {
+  public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginReq in, HttpSession session) {
     Optional<AdminUserEntity> opt = adminRepo.findByUsernameAndIsActiveTrue(in.username());
-    if (opt.isEmpty() || !encoder.matches(in.password(), opt.get().getPasswordHash())) {
-      return ResponseEntity.status(401).body(Map.of("message", "아이디 또는 비밀번호가 올바르지 않습니다."));
-    }
+    if (opt.isEmpty()) return CompletableFuture.completedFuture(unauthorized());
 
     AdminUserEntity u = opt.get();
-    u.setLastLoginAt(Instant.now());
-    adminRepo.save(u);
-
-    session.setAttribute(ADMIN_SESSION_KEY, u.getId());
-
-    Map<String, Object> user = Map.of(
-        "id", u.getId(),
-        "username", u.getUsername(),
-        "role", u.getRole()
-    );
-
-    // ⚠️ Map.of 는 null 금지 → 가변 Map 로 응답 구성
-    Map<String, Object> resp = new HashMap<>();
-    resp.put("type", "admin");
-    resp.put("user", user);
-    // token 없으면 추가하지 않음 (login.js는 token 없어도 동작)
-    return ResponseEntity.ok(resp);
+    return verifier.verify(in.password(), u.getPasswordHash()).thenApply(r -> {
+      if (r.status() == PasswordVerifier.Status.BUSY) return busy();
+      if (!r.matched()) return unauthorized();
+
+      logins.record(LoginActivityWriter.Kind.ADMIN, u.getId(), u.getPasswordHash(), r.rehash());
+      session.setAttribute(ADMIN_SESSION_KEY, u.getId());
+
+      Map<String, Object> user = Map.of(
+          "id", u.getId(),
+          "username", u.getUsername(),
+          "role", u.getRole()
+      );
+
+      // ⚠️ Map.of 는 null 금지 → 가변 Map 로 응답 구성
+      Map<String, Object> resp = new HashMap<>();
+      resp.put("type", "admin");
+      resp.put("user", user);
+      // token 없으면 추가하지 않음 (login.js는 token 없어도 동작)
+      return ResponseEntity.ok(resp);
+    });
   }
 
   // ----- 관리자 me (세션 기반)
@@ -122,32 +133,40 @@ public class AdminAuthController {
 
   // ----- (옵션) 고객사 가장/대리 로그인 (null-safe 응답)
   @PostMapping("/customer-login")
-  public ResponseEntity<?> customerLogin(@Valid @RequestBody CustomerLoginReq in) {
+  public CompletableFuture<ResponseEntity<?>> customerLogin(@Valid @RequestBody CustomerLoginReq in) {
     final String username = in.username().trim().toLowerCase();
     Optional<CustomerUserEntity> opt = customerRepo.findByCustomer_CodeAndUsername(in.customerCode(), username);
 
-    if (opt.isEmpty()) {
-      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "아이디 또는 비밀번호가 올바르지 않습니다."));
-    }
+    if (opt.isEmpty()) return CompletableFuture.completedFuture(unauthorized());
 
     CustomerUserEntity u = opt.get();
     if (!Boolean.TRUE.equals(u.getIsActive())) {
-      return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "비활성화된 계정입니다."));
-    }
-    if (u.getPasswordHash() == null || !encoder.matches(in.password(), u.getPasswordHash())) {
-      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "아이디 또는 비밀번호가 올바르지 않습니다."));
+      return CompletableFuture.completedFuture(
+          ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "비활성화된 계정입니다.")));
     }
-
-    u.setLastLoginAt(Instant.now());
-    customerRepo.save(u);
+    if (u.getPasswordHash() == null) return CompletableFuture.completedFuture(unauthorized());
 
     Map<String, Object> user = Map.of(
         "username", u.getUsername(),
         "role", u.getRole(),
         "customerCode", u.getCustomer().getCode()
     );
-    Map<String, Object> resp = new HashMap<>();
-    resp.put("user", user);
-    return ResponseEntity.ok(resp);
+    return verifier.verify(in.password(), u.getPasswordHash()).thenApply(r -> {
+      if (r.status() == PasswordVerifier.Status.BUSY) return busy();
+      if (!r.matched()) return unauthorized();
+
+      logins.record(LoginActivityWriter.Kind.CUSTOMER, u.getId(), u.getPasswordHash(), r.rehash());
+      Map<String, Object> resp = new HashMap<>();
+      resp.put("user", user);
+      return ResponseEntity.ok(resp);
+    });
+  }
+
+  private static ResponseEntity<?> unauthorized() {
+    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "아이디 또는 비밀번호가 올바르지 않습니다."));
+  }
+
+  private static ResponseEntity<?> busy() {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", "로그인 요청이 많습니다. 잠시 후 다시 시도해 주세요."));
   }
 }
@@ -0,0 +1,61 @@
+// src/main/java/com/polarisoffice/secuone/api/AdminCacheController.java
+package com.polarisoffice.secuone.api;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 관리자 - 로컬 캐시 상태 조회/비우기
+ */
+@RestController
+@RequestMapping("/api/admin/caches")
+public class AdminCacheController {
+
+  private final CacheManager caches;
+
+  public AdminCacheController(CacheManager caches) {
+    this.caches = caches;
+  }
+
+  /** GET /api/admin/caches : 캐시별 크기/적중률/축출 수 */
+  @GetMapping
+  public Map<String, Object> stats() {
+    Map<String, Object> out = new LinkedHashMap<>();
+    for (String name : caches.getCacheNames()) {
+      Cache c = caches.getCache(name);
+      if (c instanceof CaffeineCache cc) out.put(name, toMap(cc));
+    }
+    return out;
+  }
+
+  /** POST /api/admin/caches/{name}/clear */
+  @PostMapping("/{name}/clear")
+  public ResponseEntity<?> clear(@PathVariable String name) {
+    Cache c = caches.getCache(name);
+    if (c == null || !caches.getCacheNames().contains(name)) {
+      return ResponseEntity.status(404).body(Map.of("message", "존재하지 않는 캐시입니다: " + name));
+    }
+    c.clear();
+    return ResponseEntity.ok(Map.of("ok", true, "cache", name));
+  }
+
+  private static Map<String, Object> toMap(CaffeineCache cc) {
+    var nat = cc.getNativeCache();
+    CacheStats s = nat.stats();
+    Map<String, Object> m = new LinkedHashMap<>();
+    m.put("size", nat.estimatedSize());
+    m.put("hits", s.hitCount());
+    m.put("misses", s.missCount());
+    m.put("hitRate", s.hitRate());
+    m.put("evictions", s.evictionCount());
+    m.put("loadAvgMs", s.averageLoadPenalty() / 1_000_000.0);
+    return m;
+  }
+}
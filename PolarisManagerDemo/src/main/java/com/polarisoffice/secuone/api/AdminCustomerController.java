@@ -6,6 +6,7 @@ import com.polarisoffice.secuone.domain.SettlementEntity;
 import com.polarisoffice.secuone.dto.Customers;
 import com.polarisoffice.secuone.repository.CustomerRepository;
 import com.polarisoffice.secuone.repository.SettlementRepository;
+import com.polarisoffice.secuone.support.CustomerCodes;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
@@ -56,14 +57,15 @@ public class AdminCustomerController {
   /** 코드 중복 체크 */
   @GetMapping("/exists")
   public Map<String, Object> exists(@RequestParam("code") String code) {
-    boolean exists = repo.existsByCodeIgnoreCase((code == null ? "" : code).trim());
+    String norm = CustomerCodes.normalize(code);
+    boolean exists = norm != null && repo.existsById(norm);
     return Map.of("code", code, "exists", exists);
   }
 
   /** 생성 */
   @PostMapping
   public ResponseEntity<?> create(@Valid @RequestBody Customers.CreateReq in) {
-      String code = in.getCode().trim().toLowerCase();
+      String code = CustomerCodes.normalize(in.getCode());
       if (repo.existsByCode(code)) {
           return ResponseEntity.status(409).body(Map.of("message", "이미 존재하는 코드입니다."));
       }
@@ -92,6 +94,10 @@ public class AdminCustomerController {
     if (in.rsRate       != null) c.setRsPercent(in.rsRate);
     if (in.cpiRate        != null) c.setCpiValue(in.cpiRate);
     if (in.getNote()            != null) c.setNote(in.getNote());
+    if (in.ingestRatePerSec != null) c.setIngestRatePerSec(limit(in.ingestRatePerSec));
+    if (in.ingestBurst      != null) c.setIngestBurst(limit(in.ingestBurst));
+    if (in.deviceRatePerMin != null) c.setDeviceRatePerMin(limit(in.deviceRatePerMin));
+    if (in.deviceBurst      != null) c.setDeviceBurst(limit(in.deviceBurst));
 
     c = repo.save(c);
     return ResponseEntity.ok(toRes(c));
@@ -187,6 +193,9 @@ public class AdminCustomerController {
     );
   }
 
+  /** 유입 제한 값: 음수면 null(기본값 사용) */
+  private static Integer limit(Integer v) { return v < 0 ? null : v; }
+
   //--- NPE 방지 헬퍼 ---
   private static long nzl(Long v) { return v == null ? 0L : v; }
   private static BigDecimal nzbd(BigDecimal v) { return v == null ? BigDecimal.ZERO : v; }
@@ -0,0 +1,62 @@
+// src/main/java/com/polarisoffice/secuone/api/AdminIngestController.java
+package com.polarisoffice.secuone.api;
+
+import com.polarisoffice.secuone.service.IngestAdmission;
+import com.polarisoffice.secuone.service.IngestDedup;
+import com.polarisoffice.secuone.service.OutboxRelay;
+import com.polarisoffice.secuone.service.SecurityEventWriter;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 관리자 - 이벤트 수집 경로 상태 조회 (유입 제한 / 중복 필터 / write-behind 큐 / 아웃박스)
+ */
+@RestController
+@RequestMapping("/api/admin/ingest")
+public class AdminIngestController {
+
+  private final IngestAdmission admission;
+  private final IngestDedup dedup;
+  private final SecurityEventWriter writer;
+  private final OutboxRelay outbox;
+
+  public AdminIngestController(IngestAdmission admission, IngestDedup dedup,
+                               SecurityEventWriter writer, OutboxRelay outbox) {
+    this.admission = admission;
+    this.dedup = dedup;
+    this.writer = writer;
+    this.outbox = outbox;
+  }
+
+  /** GET /api/admin/ingest/stats */
+  @GetMapping("/stats")
+  public Map<String, Object> stats() {
+    Map<String, Object> w = new LinkedHashMap<>();
+    w.put("queueDepth", writer.queueDepth());
+    w.put("written", writer.writtenCount());
+    w.put("rejected", writer.rejectedCount());
+    w.put("failed", writer.failedCount());
+    w.put("duplicates", writer.duplicateCount());
+
+    Map<String, Object> o = new LinkedHashMap<>();
+    o.put("pending", outbox.pending());
+    o.put("processed", outbox.processedCount());
+    o.put("retried", outbox.retriedCount());
+    o.put("dropped", outbox.droppedCount());
+
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("admission", admission.stats());
+    out.put("dedup", dedup.stats());
+    out.put("writer", w);
+    out.put("outbox", o);
+    return out;
+  }
+
+  /** GET /api/admin/ingest/admission : 유입 제한 판정/거절 카운터 */
+  @GetMapping("/admission")
+  public Map<String, Object> admission() {
+    return admission.stats();
+  }
+}
@@ -0,0 +1,89 @@
+// src/main/java/com/polarisoffice/secuone/api/AdminPushJobController.java
+package com.polarisoffice.secuone.api;
+
+import com.polarisoffice.secuone.domain.PushJobEntity;
+import com.polarisoffice.secuone.repository.PushJobRepository;
+import com.polarisoffice.secuone.service.PushJobQueue;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 관리자 - 푸시 작업 상태 조회/재시도
+ */
+@RestController
+@RequestMapping("/api/admin/push-jobs")
+public class AdminPushJobController {
+
+  public record JobRes(Long id, String idempotencyKey, String topic, String status, int attempts,
+                       Instant nextAttemptAt, String messageId, String lastError,
+                       Instant createdAt, Instant updatedAt) {
+    static JobRes of(PushJobEntity j) {
+      return new JobRes(j.getId(), j.getIdempotencyKey(), j.getTopic(), j.getStatus().name(), j.getAttempts(),
+          j.getNextAttemptAt(), j.getMessageId(), j.getLastError(), j.getCreatedAt(), j.getUpdatedAt());
+    }
+  }
+
+  private final PushJobRepository repo;
+  private final PushJobQueue queue;
+
+  public AdminPushJobController(PushJobRepository repo, PushJobQueue queue) {
+    this.repo = repo;
+    this.queue = queue;
+  }
+
+  /** GET /api/admin/push-jobs?status=&limit= : 최근 작업 목록 */
+  @GetMapping
+  public List<JobRes> list(@RequestParam(required = false) PushJobEntity.Status status,
+                           @RequestParam(defaultValue = "50") int limit) {
+    PageRequest page = PageRequest.of(0, Math.max(1, Math.min(limit, 500)));
+    List<PushJobEntity> rows = (status == null)
+        ? repo.findAllByOrderByIdDesc(page)
+        : repo.findByStatusOrderByIdDesc(status, page);
+    return rows.stream().map(JobRes::of).toList();
+  }
+
+  /** GET /api/admin/push-jobs/stats : 상태별 건수 + 처리 중 워커 수 */
+  @GetMapping("/stats")
+  public Map<String, Object> stats() {
+    Map<String, Object> counts = new LinkedHashMap<>();
+    for (PushJobEntity.Status s : PushJobEntity.Status.values()) counts.put(s.name(), 0L);
+    for (PushJobRepository.StatusCount c : repo.countByStatus()) counts.put(c.getStatus().name(), c.getCnt());
+
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("counts", counts);
+    out.put("busyWorkers", queue.busyWorkers());
+    out.put("maxAttempts", queue.maxAttempts());
+    return out;
+  }
+
+  /** GET /api/admin/push-jobs/{id} */
+  @GetMapping("/{id}")
+  public ResponseEntity<?> get(@PathVariable Long id) {
+    return repo.findById(id)
+        .<ResponseEntity<?>>map(j -> ResponseEntity.ok(JobRes.of(j)))
+        .orElseGet(() -> ResponseEntity.status(404).body(Map.of("message", "존재하지 않는 작업입니다: " + id)));
+  }
+
+  /** GET /api/admin/push-jobs/by-key?key=notice:{id} : 멱등 키로 조회 */
+  @GetMapping("/by-key")
+  public ResponseEntity<?> byKey(@RequestParam String key) {
+    return repo.findByIdempotencyKey(key)
+        .<ResponseEntity<?>>map(j -> ResponseEntity.ok(JobRes.of(j)))
+        .orElseGet(() -> ResponseEntity.status(404).body(Map.of("message", "존재하지 않는 작업입니다: " + key)));
+  }
+
+  /** POST /api/admin/push-jobs/{id}/retry : FAILED 작업 재시도 */
+  @PostMapping("/{id}/retry")
+  public ResponseEntity<?> retry(@PathVariable Long id) {
+    if (!queue.retry(id)) {
+      return ResponseEntity.status(409).body(Map.of("message", "FAILED 상태의 작업만 재시도할 수 있습니다: " + id));
+    }
+    return ResponseEntity.ok(Map.of("ok", true, "id", id));
+  }
+}
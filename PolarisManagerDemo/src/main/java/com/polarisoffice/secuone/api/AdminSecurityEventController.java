@@ -0,0 +1,65 @@
+// src/main/java/com/polarisoffice/secuone/api/AdminSecurityEventController.java
+package com.polarisoffice.secuone.api;
+
+import com.polarisoffice.secuone.service.SecurityEventMalwareBackfill;
+import com.polarisoffice.secuone.service.SecurityEventRollupService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 관리자 - 보안 이벤트 유지보수 (집계 재생성 등)
+ */
+@RestController
+@RequestMapping("/api/admin/events")
+public class AdminSecurityEventController {
+
+  private final SecurityEventRollupService rollups;
+  private final SecurityEventMalwareBackfill malwareBackfill;
+
+  public AdminSecurityEventController(SecurityEventRollupService rollups,
+                                      SecurityEventMalwareBackfill malwareBackfill) {
+    this.rollups = rollups;
+    this.malwareBackfill = malwareBackfill;
+  }
+
+  /**
+   * POST /api/admin/events/rollup/rebuild?from=YYYY-MM-DD&to=YYYY-MM-DD (UTC 일자, to 포함)
+   * rollup 도입 이전 데이터 backfill 또는 보정용. 현재 버킷은 건드리지 않음.
+   */
+  @PostMapping("/rollup/rebuild")
+  public ResponseEntity<?> rebuildRollup(@RequestParam String from,
+                                         @RequestParam(required = false) String to) {
+    LocalDate f = LocalDate.parse(from);
+    LocalDate t = (to == null || to.isBlank()) ? LocalDate.now(ZoneOffset.UTC) : LocalDate.parse(to);
+    if (t.isBefore(f)) {
+      return ResponseEntity.badRequest().body(Map.of("message", "from 이 to 보다 늦습니다."));
+    }
+
+    long scanned = rollups.rebuild(
+        f.atStartOfDay(ZoneOffset.UTC).toInstant(),
+        t.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+
+    Map<String, Object> res = new LinkedHashMap<>();
+    res.put("ok", true);
+    res.put("from", f.toString());
+    res.put("to", t.toString());
+    res.put("scanned", scanned);
+    return ResponseEntity.ok(res);
+  }
+
+  /**
+   * POST /api/admin/events/malware/backfill?afterId=0&limit=50000
+   * 기존 payloadJson 에서 malware_package/type 컬럼 채우기. done=false 면 lastId 로 이어서 호출.
+   */
+  @PostMapping("/malware/backfill")
+  public SecurityEventMalwareBackfill.Result backfillMalware(
+      @RequestParam(defaultValue = "0") long afterId,
+      @RequestParam(defaultValue = "50000") int limit) {
+    return malwareBackfill.run(afterId, Math.min(limit, 500_000));
+  }
+}
@@ -4,15 +4,16 @@ import com.polarisoffice.secuone.domain.AdminUserEntity;
 import com.polarisoffice.secuone.domain.CustomerUserEntity;
 import com.polarisoffice.secuone.repository.AdminUserRepository;
 import com.polarisoffice.secuone.repository.CustomerUserRepository;
+import com.polarisoffice.secuone.service.LoginActivityWriter;
+import com.polarisoffice.secuone.service.PasswordVerifier;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -20,14 +21,17 @@ public class AuthController {
 
   private final AdminUserRepository adminRepo;
   private final CustomerUserRepository customerRepo;
-  private final PasswordEncoder encoder;
+  private final PasswordVerifier verifier;
+  private final LoginActivityWriter logins;
 
   public AuthController(AdminUserRepository adminRepo,
                         CustomerUserRepository customerRepo,
-                        PasswordEncoder encoder) {
+                        PasswordVerifier verifier,
+                        LoginActivityWriter logins) {
     this.adminRepo = adminRepo;
     this.customerRepo = customerRepo;
-    this.encoder = encoder;
+    this.verifier = verifier;
+    this.logins = logins;
   }
 
   // ===== DTOs (record 대신 일반 클래스) =====
@@ -82,7 +86,7 @@ public class AuthController {
   // =======================================
 
   @PostMapping("/login")
-  public ResponseEntity<?> login(@Valid @RequestBody LoginReq in) {
+  public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginReq in) {
     final String type = Optional.ofNullable(in.getType()).orElse("admin").toLowerCase();
 
     if ("customer".equals(type)) {
@@ -92,49 +96,59 @@ public class AuthController {
     }
   }
 
-  private ResponseEntity<?> adminLogin(LoginReq in) {
+  /** 비밀번호 검증은 PasswordVerifier 풀에서, lastLoginAt/재해시는 LoginActivityWriter 로 지연 반영 */
+  private CompletableFuture<ResponseEntity<?>> adminLogin(LoginReq in) {
     Optional<AdminUserEntity> uOpt = adminRepo.findActiveByUsername(in.getUsername());
-    if (uOpt.isEmpty() || !encoder.matches(in.getPassword(), uOpt.get().getPasswordHash())) {
-      return ResponseEntity.status(401).body(Map.of("message", "아이디 또는 비밀번호가 올바르지 않습니다."));
-    }
+    if (uOpt.isEmpty()) return CompletableFuture.completedFuture(unauthorized());
 
     AdminUserEntity u = uOpt.get();
-    u.setLastLoginAt(Instant.now());
-    adminRepo.save(u);
-
-    return ResponseEntity.ok(new LoginRes(
+    LoginRes res = new LoginRes(
         "admin",
         new UserDto(u.getId(), u.getUsername(), u.getRole(), null),
         null // JWT 쓰면 여기서 발급
-    ));
+    );
+    return verifier.verify(in.getPassword(), u.getPasswordHash()).thenApply(r -> {
+      if (r.status() == PasswordVerifier.Status.BUSY) return busy();
+      if (!r.matched()) return unauthorized();
+      logins.record(LoginActivityWriter.Kind.ADMIN, u.getId(), u.getPasswordHash(), r.rehash());
+      return ResponseEntity.ok(res);
+    });
   }
 
-  private ResponseEntity<?> customerLogin(LoginReq in) {
+  private CompletableFuture<ResponseEntity<?>> customerLogin(LoginReq in) {
       final String cc   = Optional.ofNullable(in.customerCode).orElse("").trim();
       final String user = Optional.ofNullable(in.username).orElse("").trim();
       if (cc.isEmpty()) {
-        return ResponseEntity.badRequest().body(Map.of("message","customerCode가 필요합니다."));
+        return CompletableFuture.completedFuture(
+            ResponseEntity.badRequest().body(Map.of("message","customerCode가 필요합니다.")));
       }
 
       var uOpt = customerRepo.findByCustomerCodeIgnoreCaseAndUsernameIgnoreCaseAndIsActiveTrue(cc, user);
 
       if (uOpt.isEmpty()) {
-        return ResponseEntity.status(401).body(Map.of("message","아이디 또는 비밀번호가 올바르지 않습니다."));
+        return CompletableFuture.completedFuture(unauthorized());
       }
 
       var u = uOpt.get();
-      if (!encoder.matches(in.password, u.getPasswordHash())) {
-        return ResponseEntity.status(401).body(Map.of("message","아이디 또는 비밀번호가 올바르지 않습니다."));
-      }
-
-      u.setLastLoginAt(Instant.now());
-      customerRepo.save(u);
-
-      return ResponseEntity.ok(new LoginRes(
+      LoginRes res = new LoginRes(
           "customer",
           new UserDto(u.getId(), u.getUsername(), u.getRole(), u.getCustomer().getCode()),
           null
-      ));
+      );
+      return verifier.verify(in.password, u.getPasswordHash()).thenApply(r -> {
+        if (r.status() == PasswordVerifier.Status.BUSY) return busy();
+        if (!r.matched()) return unauthorized();
+        logins.record(LoginActivityWriter.Kind.CUSTOMER, u.getId(), u.getPasswordHash(), r.rehash());
+        return ResponseEntity.ok(res);
+      });
     }
 
+  private static ResponseEntity<?> unauthorized() {
+    return ResponseEntity.status(401).body(Map.of("message","아이디 또는 비밀번호가 올바르지 않습니다."));
+  }
+
+  private static ResponseEntity<?> busy() {
+    return ResponseEntity.status(503).body(Map.of("message","로그인 요청이 많습니다. 잠시 후 다시 시도해 주세요."));
+  }
+
 }
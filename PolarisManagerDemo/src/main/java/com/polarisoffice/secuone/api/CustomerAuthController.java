@@ -6,6 +6,8 @@ import com.polarisoffice.secuone.domain.CustomerEntity;
 import com.polarisoffice.secuone.domain.CustomerUserEntity;
 import com.polarisoffice.secuone.repository.CustomerContactRepository;
 import com.polarisoffice.secuone.repository.CustomerUserRepository;
+import com.polarisoffice.secuone.service.LoginActivityWriter;
+import com.polarisoffice.secuone.service.PasswordVerifier;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
@@ -15,8 +17,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 //com.polarisoffice.secuone.api.CustomerAuthController
 @RestController
@@ -28,13 +30,19 @@ private static final String SESSION_KEY = "AUTH_CUSTOMER_ID";
 private final CustomerUserRepository users;
 private final CustomerContactRepository contacts;
 private final PasswordEncoder encoder;
+private final PasswordVerifier verifier;
+private final LoginActivityWriter logins;
 
 public CustomerAuthController(CustomerUserRepository users,
                              CustomerContactRepository contacts,
-                             PasswordEncoder encoder) {
+                             PasswordEncoder encoder,
+                             PasswordVerifier verifier,
+                             LoginActivityWriter logins) {
  this.users = users;
  this.contacts = contacts;
  this.encoder = encoder;
+ this.verifier = verifier;
+ this.logins = logins;
 }
 
 public record LoginReq(@NotBlank String customerCode,
@@ -44,23 +52,30 @@ public record LoginRes(Map<String,Object> user, String token) {}
 public record ChangePasswordReq(@NotBlank String currentPassword,
                                @NotBlank @Size(min = 8, max = 72) String newPassword) {}
 
-/** 로그인 */
+/** 로그인 (비밀번호 검증은 PasswordVerifier 풀, lastLoginAt/재해시는 LoginActivityWriter 로 지연 반영) */
 @PostMapping("/login")
-@Transactional
-public ResponseEntity<?> login(@Valid @RequestBody LoginReq req, HttpSession session) {
+public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginReq req, HttpSession session) {
  var userOpt = users.findByCustomer_CodeAndUsernameAndIsActiveTrue(
      req.customerCode(), req.username().trim().toLowerCase());
 
- if (userOpt.isEmpty() || !encoder.matches(req.password(), userOpt.get().getPasswordHash())) {
-   return ResponseEntity.status(401).body(Map.of("message", "아이디 또는 비밀번호가 올바르지 않습니다."));
+ if (userOpt.isEmpty()) {
+   return CompletableFuture.completedFuture(
+       ResponseEntity.status(401).body(Map.of("message", "아이디 또는 비밀번호가 올바르지 않습니다.")));
  }
 
  var user = userOpt.get();
- user.setLastLoginAt(Instant.now());
- users.save(user);
-
- session.setAttribute(SESSION_KEY, user.getId());
- return ResponseEntity.ok(new LoginRes(userMapForNav(user), null));
+ Map<String,Object> nav = userMapForNav(user);
+ return verifier.verify(req.password(), user.getPasswordHash()).thenApply(r -> {
+   if (r.status() == PasswordVerifier.Status.BUSY) {
+     return ResponseEntity.status(503).body(Map.of("message", "로그인 요청이 많습니다. 잠시 후 다시 시도해 주세요."));
+   }
+   if (!r.matched()) {
+     return ResponseEntity.status(401).body(Map.of("message", "아이디 또는 비밀번호가 올바르지 않습니다."));
+   }
+   logins.record(LoginActivityWriter.Kind.CUSTOMER, user.getId(), user.getPasswordHash(), r.rehash());
+   session.setAttribute(SESSION_KEY, user.getId());
+   return ResponseEntity.ok(new LoginRes(nav, null));
+ });
 }
 
 /** 내 정보(me) – Lazy 문제 방지 위해 트랜잭션 & EntityGraph 사용 */
@@ -1,14 +1,19 @@
 package com.polarisoffice.secuone.api;
 
+import com.polarisoffice.secuone.service.ImageProxyCache;
+import com.polarisoffice.secuone.support.ImageResizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
-
-import java.net.*;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.*;
 
@@ -30,108 +35,102 @@ public class ImageProxyController {
       ".pstatic.net", ".naver.com", ".naver.net"
   );
 
-  // UA/Referer
-  private static final String UA = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) "
-      + "AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+  /** 변환 요청 최대 변 길이 */
+  private static final int MAX_SIDE = 2000;
 
-  
-  
-  private static ProxySelector buildProxySelectorFromEnv() {
-    try {
-      String https = System.getenv("HTTPS_PROXY");
-      String http  = System.getenv("HTTP_PROXY");
-      URI u = https != null ? URI.create(https) : (http != null ? URI.create(http) : null);
-      if (u == null || u.getHost() == null || u.getPort() == -1) {
-        // 자바 시스템 속성에 설정되어 있을 수 있음(예: -Dhttps.proxyHost= -Dhttps.proxyPort=)
-        return ProxySelector.getDefault();
-      }
-      InetSocketAddress addr = new InetSocketAddress(u.getHost(), u.getPort());
-      return ProxySelector.of(addr);
-    } catch (Exception e) {
-      return ProxySelector.getDefault();
-    }
-  }
+  private final ImageProxyCache cache;
 
-  // HTTP/2 기본, 실패시 1.1로 재시도
-  private final HttpClient clientH2 = HttpClient.newBuilder()
-      .version(HttpClient.Version.HTTP_2)
-      .followRedirects(HttpClient.Redirect.ALWAYS)
-      .connectTimeout(Duration.ofSeconds(8))
-      .proxy(buildProxySelectorFromEnv())
-      .build();
-
-  private final HttpClient clientH1 = HttpClient.newBuilder()
-      .version(HttpClient.Version.HTTP_1_1)
-      .followRedirects(HttpClient.Redirect.ALWAYS)
-      .connectTimeout(Duration.ofSeconds(8))
-      .proxy(buildProxySelectorFromEnv())
-      .build();
+  public ImageProxyController(ImageProxyCache cache) {
+    this.cache = cache;
+  }
 
+  /**
+   * 허용 호스트 이미지 프록시 (ImageProxyCache 디스크 캐시 경유)
+   * - 클라이언트 If-None-Match 가 캐시 ETag 와 같으면 본문 없이 304
+   * - 본문은 캐시 파일 채널에서 바로 스트리밍 (힙 버퍼링 없음)
+   * - w/h(최대 변 길이, 비율 유지)/q(JPEG 품질) 지정 시 서버에서 축소한 변환본 응답 (변환본도 캐시)
+   *   w/h/q 는 허용 단계로 스냅(ImageResizer.spec), q 만 있으면 원본 그대로
+   */
   @GetMapping("/img-proxy")
-  public ResponseEntity<byte[]> proxy(@RequestParam("u") String url) {
+  public ResponseEntity<?> proxy(@RequestParam("u") String url,
+                                 @RequestParam(value = "w", required = false) Integer w,
+                                 @RequestParam(value = "h", required = false) Integer h,
+                                 @RequestParam(value = "q", required = false) Integer q,
+                                 @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
     URI uri;
     try {
       uri = new URI(url);
     } catch (URISyntaxException e) {
-      return ResponseEntity.badRequest().body(("bad url").getBytes());
+      return text(HttpStatus.BAD_REQUEST, "bad url");
     }
 
     String scheme = uri.getScheme();
     if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme)) {
-      return ResponseEntity.badRequest().body(("unsupported scheme").getBytes());
+      return text(HttpStatus.BAD_REQUEST, "unsupported scheme");
     }
 
     String host = uri.getHost();
     if (!isAllowedHost(host)) {
-      return ResponseEntity.status(HttpStatus.FORBIDDEN).body(("forbidden host").getBytes());
+      return text(HttpStatus.FORBIDDEN, "forbidden host");
     }
 
-    HttpRequest.Builder rb = HttpRequest.newBuilder(uri)
-        .timeout(Duration.ofSeconds(12))
-        .header("Accept", "image/avif,image/webp,image/apng,image/*,*/*;q=0.8")
-        .header("User-Agent", UA);
-
-    String referer = guessReferer(host);
-    if (referer != null) rb.header("Referer", referer);
-
-    // 1차: HTTP/2
+    ImageProxyCache.Hit hit;
     try {
-      HttpResponse<byte[]> r = clientH2.send(rb.build(), HttpResponse.BodyHandlers.ofByteArray());
-      return toResponse(r);
+      ImageResizer.Spec spec = ImageResizer.spec(w, h, q, MAX_SIDE);
+      hit = (spec == null) ? cache.open(uri) : cache.openVariant(uri, spec);
+    } catch (ImageProxyCache.UpstreamException e) {
+      // 업스트림 상태 그대로 반영 (비표준 코드 포함)
+      return text(e.status(), e.getMessage());
     } catch (Exception e) {
-      log.warn("[img-proxy] h2 request failed for {}: {}", host, e.toString());
-      // 2차: HTTP/1.1 재시도
-      try {
-        HttpResponse<byte[]> r1 = clientH1.send(rb.build(), HttpResponse.BodyHandlers.ofByteArray());
-        return toResponse(r1);
-      } catch (Exception e1) {
-        log.error("[img-proxy] h1 retry failed for {}: {}", host, e1.toString());
-        return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
-            .contentType(MediaType.TEXT_PLAIN)
-            .body(("bad gateway: " + e1.getClass().getSimpleName()).getBytes());
-      }
+      log.error("[img-proxy] fetch failed for {}: {}", host, e.toString());
+      return text(HttpStatus.BAD_GATEWAY, "bad gateway: " + e.getClass().getSimpleName());
     }
-  }
 
-  private ResponseEntity<byte[]> toResponse(HttpResponse<byte[]> r) {
-    int st = r.statusCode();
-    if (st < 200 || st >= 300 || r.body() == null) {
-      // 업스트림 상태 그대로 반영
-      return ResponseEntity.status(st).contentType(MediaType.TEXT_PLAIN)
-          .body(("upstream " + st).getBytes());
-    }
+    ImageProxyCache.Entry en = hit.entry();
     HttpHeaders out = new HttpHeaders();
+    out.setETag(en.etag());
+    out.setCacheControl(CacheControl.maxAge(Duration.ofSeconds(en.maxAgeSec(System.currentTimeMillis()))).cachePublic());
+
+    if (ifNoneMatch != null && ifNoneMatch.contains(en.etag())) {
+      closeQuietly(hit.channel());
+      return new ResponseEntity<>(out, HttpStatus.NOT_MODIFIED);
+    }
+
     MediaType media = null;
-    String ct = r.headers().firstValue("content-type").orElse(null);
-    if (ct != null) {
-      try { media = MediaType.parseMediaType(ct); } catch (Exception ignore) {}
+    if (en.contentType() != null) {
+      try { media = MediaType.parseMediaType(en.contentType()); } catch (Exception ignore) {}
     }
     if (media == null || media.includes(MediaType.TEXT_HTML)) media = MediaType.IMAGE_PNG;
     out.setContentType(media);
-    r.headers().firstValue("cache-control").ifPresent(out::setCacheControl);
-    r.headers().firstValue("etag").ifPresent(out::setETag);
-    r.headers().firstValue("last-modified").ifPresent(v -> out.set("Last-Modified", v));
-    return new ResponseEntity<>(r.body(), out, HttpStatus.OK);
+    out.setContentLength(en.size());
+    if (en.upstreamLastModified() != null) out.set("Last-Modified", en.upstreamLastModified());
+
+    FileChannel ch = hit.channel();
+    StreamingResponseBody body = os -> {
+      try (ch) {
+        WritableByteChannel target = Channels.newChannel(os);
+        long pos = 0, size = ch.size();
+        while (pos < size) pos += ch.transferTo(pos, size - pos, target);
+      }
+    };
+    return new ResponseEntity<>(body, out, HttpStatus.OK);
+  }
+
+  @GetMapping("/api/admin/img-proxy/stats")
+  public Map<String, Object> stats() {
+    return cache.stats();
+  }
+
+  private static ResponseEntity<byte[]> text(HttpStatus st, String msg) {
+    return text(st.value(), msg);
+  }
+
+  private static ResponseEntity<byte[]> text(int status, String msg) {
+    return ResponseEntity.status(status).contentType(MediaType.TEXT_PLAIN).body(msg.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void closeQuietly(FileChannel ch) {
+    try { ch.close(); } catch (Exception ignore) {}
   }
 
   private static boolean isAllowedHost(String host) {
@@ -140,10 +139,4 @@ public class ImageProxyController {
     for (String sfx : ALLOW_SUFFIXES) if (host.endsWith(sfx)) return true;
     return false;
   }
-
-  private static String guessReferer(String host) {
-    if (host.endsWith(".pstatic.net") || host.endsWith(".naver.com") || host.endsWith(".naver.net"))
-      return "https://blog.naver.com/";
-    return null;
-  }
 }
@@ -39,16 +39,24 @@ public class NoticeController {
     return res == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(res);
   }
 
-  /** 생성: POST /api/notices?sendPush=&test=  (프런트의 쿼리 키와 맞춤) */
+  /**
+   * 생성: POST /api/notices?sendPush=&test=  (프런트의 쿼리 키와 맞춤)
+   * - sendPush=true 면 푸시 작업만 적재하고 즉시 응답 (X-Push-Job-Id 헤더로 작업 id, 상태는 /api/admin/push-jobs/{id})
+   */
   @PostMapping(consumes = "application/json")
   public ResponseEntity<String> create(
       @Valid @RequestBody NoticeCreateReq req,
       @RequestParam(value = "sendPush", defaultValue = "false") boolean sendPush,
-      @RequestParam(value = "test",     defaultValue = "false") boolean test   // 필요 시 서비스에 반영
+      @RequestParam(value = "test",     defaultValue = "false") boolean test
   ) throws Exception {
-    // 기존 코드가 push 값을 무시하던 문제 수정
-    String id = svc.createAndPush(req, sendPush); // test도 쓰려면 서비스 시그니처 확장
-    return ResponseEntity.created(URI.create("/api/notices/" + id)).body(id);
+    if (!sendPush) {
+      String id = svc.create(req);
+      return ResponseEntity.created(URI.create("/api/notices/" + id)).body(id);
+    }
+    NoticeService.Created c = svc.createAndPush(req, test);
+    return ResponseEntity.created(URI.create("/api/notices/" + c.id()))
+        .header("X-Push-Job-Id", String.valueOf(c.pushJobId()))
+        .body(c.id());
   }
 
   /** 수정: PUT /api/notices/{id} */
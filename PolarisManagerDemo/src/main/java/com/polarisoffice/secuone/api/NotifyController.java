@@ -9,9 +9,10 @@ import org.springframework.web.bind.annotation.RestController;
 import com.google.firebase.messaging.FirebaseMessagingException;
 import com.polarisoffice.secuone.dto.PushRequest;
 import com.polarisoffice.secuone.service.FcmService;
-import com.google.firebase.messaging.BatchResponse;
+import com.polarisoffice.secuone.service.PushDispatcher;
 import jakarta.validation.constraints.NotBlank;
 import java.util.List;
+import java.util.Map;
 
 record PushReq(@NotBlank String token, @NotBlank String title, @NotBlank String body) {}
 
@@ -32,12 +33,21 @@ public class NotifyController {
         return ResponseEntity.ok().body(new ApiResult("OK", messageId));
     }
 
-    // 멀티캐스트 발송
+    // 토큰 등록/갱신 (앱 onNewToken, 재설치): 무효 기록 해제
+    @PostMapping("/token/register")
+    public ResponseEntity<?> registerToken(@RequestBody PushRequest req) {
+        if (req.getToken() == null || req.getToken().isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "token 이 필요합니다."));
+        }
+        fcmService.registerToken(req.getToken());
+        return ResponseEntity.ok().body(new ApiResult("OK", null));
+    }
+
+    // 멀티캐스트 발송 (500개 초과 목록도 청크 분할 발송, 무효 기록 토큰은 skipped)
     @PostMapping("/tokens")
-    public ResponseEntity<?> sendToTokens(@RequestBody PushRequest req) throws FirebaseMessagingException {
-        BatchResponse res = fcmService.sendMulticast(req);
-        List<String> invalid = fcmService.extractInvalidTokens(res, req.getTokens());
-        return ResponseEntity.ok().body(new BulkResult("OK", res.getSuccessCount(), res.getFailureCount(), invalid));
+    public ResponseEntity<?> sendToTokens(@RequestBody PushRequest req) {
+        PushDispatcher.Result res = fcmService.sendMulticast(req);
+        return ResponseEntity.ok().body(new BulkResult("OK", res.success(), res.failure(), res.skipped(), res.invalidTokens()));
     }
 
     // 토픽 발송
@@ -49,5 +59,5 @@ public class NotifyController {
 
     // 간단 응답 모델
     record ApiResult(String status, String messageId) {}
-    record BulkResult(String status, int success, int failure, List<String> invalidTokens) {}
+    record BulkResult(String status, int success, int failure, int skipped, List<String> invalidTokens) {}
 }
@@ -5,7 +5,9 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import com.polarisoffice.secuone.dto.DirectAd;
 import com.polarisoffice.secuone.dto.DirectAdCreateReq;
 import com.polarisoffice.secuone.dto.DirectAdRes;
 import com.polarisoffice.secuone.dto.DirectAdUpdateReq;
@@ -45,6 +47,28 @@ public class PolarisDirectAdsController {
         return ResponseEntity.ok(svc.list(limit, status, adType, platform));
     }
 
+    /**
+     * 앱 서빙: 지금 노출 가능한 광고 (ACTIVE + 기간 + locale + 앱 버전)
+     * ?adType=&locale=&appVersion=&limit=
+     */
+    @GetMapping(value = "/serve", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> serve(
+            @RequestParam(defaultValue="ALL") String adType,
+            @RequestParam(required=false) String locale,
+            @RequestParam(required=false) String appVersion,
+            @RequestParam(defaultValue="20") int limit
+    ) throws Exception {
+        DirectAd.AdType type = null;
+        if (!adType.isBlank() && !"ALL".equalsIgnoreCase(adType)) {
+            try {
+                type = DirectAd.AdType.valueOf(adType.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("message", "unknown adType: " + adType));
+            }
+        }
+        return ResponseEntity.ok(svc.serve(type, locale, appVersion, limit));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(@PathVariable String id) throws Exception {
         return svc.delete(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
@@ -83,6 +107,22 @@ public class PolarisDirectAdsController {
         return (m == null) ? ResponseEntity.notFound().build() : ResponseEntity.ok(m);
     }
 
+    /** 샤드 카운터 전환/확장 (마이그레이션). 샤드 수는 늘리기만 가능 */
+    @PostMapping("/{id}/counters/shards")
+    public ResponseEntity<Map<String, Object>> reshard(
+            @PathVariable String id,
+            @RequestParam(name = "n", defaultValue = "10") int shards
+    ) throws Exception {
+        Integer n = svc.reshard(id, shards);
+        return (n == null) ? ResponseEntity.notFound().build()
+                           : ResponseEntity.ok(Map.of("id", id, "counterShards", n));
+    }
+
+    /** 전체 광고 일괄 전환 (샤드 수가 n 미만인 광고만) */
+    @PostMapping("/counters/shards")
+    public Map<String, Object> reshardAll(@RequestParam(name = "n", defaultValue = "10") int shards) throws Exception {
+        return Map.of("shards", shards, "migrated", svc.reshardAll(shards));
+    }
 
     @GetMapping(value="/_ping", produces = MediaType.TEXT_PLAIN_VALUE)
     public String ping() { return "ok"; }
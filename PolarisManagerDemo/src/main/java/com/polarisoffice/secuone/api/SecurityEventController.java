@@ -1,23 +1,35 @@
 // src/main/java/com/polarisoffice/secuone/api/SecurityEventController.java
 package com.polarisoffice.secuone.api;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.polarisoffice.secuone.domain.SecurityEventEntity;
 import com.polarisoffice.secuone.repository.SecurityEventRepository;
+import com.polarisoffice.secuone.service.IngestAdmission;
+import com.polarisoffice.secuone.service.IngestDedup;
+import com.polarisoffice.secuone.service.SecurityEventWriter;
 import com.polarisoffice.secuone.service.TenantResolverService;
+import com.polarisoffice.secuone.support.CustomerCodes;
+import com.polarisoffice.secuone.support.KeysetCursor;
+import com.polarisoffice.secuone.support.MalwarePayloads;
+import com.polarisoffice.secuone.support.MalwarePayloads.MalwareInfo;
+import com.polarisoffice.secuone.support.RequestDecompressionFilter;
 import jakarta.persistence.criteria.Expression;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.*;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/events")
@@ -29,57 +41,213 @@ public class SecurityEventController {
   private static final String T_ROOTING = "ROOTING_DETECTED";
   private static final String T_REMOTE  = "REMOTE_CONTROL_APP";
 
+  /** 클라이언트 eventId 최대 길이 (security_events.client_event_id) */
+  private static final int MAX_EVENT_ID = 64;
+
   public record EventReq(
       String packageName,
       String domain,
       String deviceId,
       String eventType,
-      Map<String,Object> data
+      Map<String,Object> data,
+      String eventId              // 선택: SDK 이벤트 id (재전송 중복 차단, 최대 64자)
   ) {}
-  public record EventRes(boolean ok) {}
+  /** duplicate: 이미 받은 eventId 라 저장 없이 확인 응답 */
+  public record EventRes(boolean ok, boolean duplicate) {}
 
   private final TenantResolverService resolver;
   private final SecurityEventRepository repo;
+  private final SecurityEventWriter writer;
+  private final IngestDedup dedup;
+  private final IngestAdmission admission;
   private final ObjectMapper om;
+  private final ObjectMapper cbor;
+  private final int bulkMaxItems;
 
   public SecurityEventController(
       TenantResolverService resolver,
       SecurityEventRepository repo,
-      ObjectMapper om
+      SecurityEventWriter writer,
+      IngestDedup dedup,
+      IngestAdmission admission,
+      ObjectMapper om,
+      @Value("${events.bulk.max-items:1000}") int bulkMaxItems
   ) {
     this.resolver = resolver;
     this.repo = repo;
+    this.writer = writer;
+    this.dedup = dedup;
+    this.admission = admission;
     this.om = om;
+    this.cbor = om.copyWith(new CBORFactory());
+    this.bulkMaxItems = Math.max(1, bulkMaxItems);
   }
 
   /* ===================== 1) 이벤트 리포트 ===================== */
   @PostMapping("/report")
   public ResponseEntity<?> report(@RequestBody EventReq req) {
+    if (!validEventId(req.eventId())) {
+      return ResponseEntity.badRequest().body(Map.of("message", "eventId 는 최대 " + MAX_EVENT_ID + "자입니다."));
+    }
     var resolved = resolver.resolve(nz(req.packageName()), nz(req.domain()));
     if (resolved.isEmpty()) {
       return ResponseEntity.badRequest().body(Map.of("message","고객사 식별 실패(패키지/도메인 매핑 없음)"));
     }
     var t = resolved.get();
 
+    // 유입 제한: 큐/DB 작업 전에 판정
+    IngestAdmission.Verdict v = admission.admit(t.customerCode(), nz(req.deviceId()));
+    if (v != IngestAdmission.Verdict.OK) return throttled(v);
+
+    // 재전송 중복: 메모리 창에서 먼저 확인 (창 밖 재전송은 writer 의 DB 유니크 키 확인에서 걸러짐)
+    String dedupKey = dedupKey(t.customerCode(), req.eventId());
+    if (dedupKey != null && !dedup.firstSeen(dedupKey)) {
+      return ResponseEntity.ok(new EventRes(true, true));
+    }
+
+    var e = toEntity(req, t);
+
+    // DB 저장은 write-behind 큐로 위임 (가득 차면 429 로 재시도 유도)
+    if (!writer.offer(e)) {
+      if (dedupKey != null) dedup.forget(dedupKey);
+      log.warn("[SEC] ingest queue full: customer={}, type={}, queue={}",
+          t.customerCode(), e.getEventType(), writer.queueDepth());
+      return ResponseEntity.status(429)
+          .header("Retry-After", "1")
+          .body(Map.of("message", "이벤트 적재 대기열이 가득 찼습니다. 잠시 후 다시 시도하세요."));
+    }
+    return ResponseEntity.ok(new EventRes(true, false));
+  }
+
+  /* ===================== 1-1) 벌크 리포트 ===================== */
+
+  /**
+   * 여러 이벤트 한 번에 리포트: JSON 배열([{...},{...}]) 또는 NDJSON(한 줄에 EventReq 하나)
+   * - application/cbor 면 같은 구조를 CBOR 로 (배열 또는 CBOR 값 연속). gzip 은 RequestDecompressionFilter 가 해제
+   * - 본문 전체를 트리/문자열로 읽지 않고 스트리밍 파서로 항목 단위 바인딩 (최대 bulk-max-items 건)
+   * - 본문 전체를 검증한 뒤에 유입 제한/중복 확인 → 400/413 으로 끝난 요청은 한도도 중복 키도 소비하지 않음
+   * - 고객사 식별은 (packageName, domain) 조합당 1회
+   * - 식별된 항목은 한 번에 write-behind 큐로 넘겨 배치 insert (큐가 차면 이후 항목은 queue_full)
+   * - eventId 가 있으면 단건과 같은 중복 확인 (중복은 duplicate, 64자 초과는 invalid)
+   * - 항목마다 IngestAdmission 유입 제한 확인 (초과 항목은 throttled)
+   * - results: 입력 순서대로 ok | duplicate | invalid | unknown_tenant | throttled | queue_full
+   */
+  @PostMapping(value = "/report/bulk", consumes = {"application/json", "application/x-ndjson", "application/cbor"})
+  public ResponseEntity<?> reportBulk(HttpServletRequest request) {
+    // 1) 본문 전체를 먼저 읽고 검증 (중간에 실패하면 유입 한도/중복 키를 건드리지 않고 끝냄)
+    List<EventReq> reqs = new ArrayList<>();
+    ObjectMapper mapper = isCbor(request.getContentType()) ? cbor : om;
+    try (JsonParser p = mapper.getFactory().createParser(request.getInputStream())) {
+      JsonToken tok = p.nextToken();
+      if (tok == JsonToken.START_ARRAY) tok = p.nextToken(); // 배열이 아니면 NDJSON (루트 값 연속)
+      while (tok != null && tok != JsonToken.END_ARRAY) {
+        if (tok != JsonToken.START_OBJECT) {
+          return ResponseEntity.badRequest().body(Map.of("message", "이벤트 객체가 아닙니다: index=" + reqs.size()));
+        }
+        if (reqs.size() >= bulkMaxItems) {
+          return ResponseEntity.status(413).body(Map.of("message", "한 번에 보낼 수 있는 이벤트는 최대 " + bulkMaxItems + "건입니다."));
+        }
+        reqs.add(mapper.readValue(p, EventReq.class));
+        tok = p.nextToken();
+      }
+    } catch (JsonProcessingException ex) {
+      return ResponseEntity.badRequest().body(Map.of("message", "본문 파싱 실패: " + ex.getOriginalMessage()));
+    } catch (RequestDecompressionFilter.TooLargeException ex) {
+      return ResponseEntity.status(413).body(Map.of("message", "요청 본문이 너무 큽니다."));
+    } catch (IOException ex) {
+      return ResponseEntity.badRequest().body(Map.of("message", "본문 읽기 실패"));
+    }
+
+    // 2) 건별 고객 식별 → 유입 제한 → 중복 확인
+    List<String> results = new ArrayList<>(reqs.size());
+    List<SecurityEventEntity> rows = new ArrayList<>();
+    List<Integer> rowIndex = new ArrayList<>();
+    List<String> rowKeys = new ArrayList<>();
+    Map<String, Optional<TenantResolverService.Resolved>> tenants = new HashMap<>();
+    try {
+      for (EventReq req : reqs) {
+        if (!validEventId(req.eventId())) {
+          results.add("invalid");
+          continue;
+        }
+        String key = nzs(req.packageName()) + "\n" + nzs(req.domain());
+        var resolved = tenants.computeIfAbsent(key, k -> resolver.resolve(nz(req.packageName()), nz(req.domain())));
+        if (resolved.isEmpty()) {
+          results.add("unknown_tenant");
+          continue;
+        }
+        if (admission.admit(resolved.get().customerCode(), nz(req.deviceId())) != IngestAdmission.Verdict.OK) {
+          results.add("throttled");
+          continue;
+        }
+        String dedupKey = dedupKey(resolved.get().customerCode(), req.eventId());
+        if (dedupKey != null && !dedup.firstSeen(dedupKey)) {
+          results.add("duplicate");
+          continue;
+        }
+        rowIndex.add(results.size());
+        rowKeys.add(dedupKey);
+        results.add("ok");
+        rows.add(toEntity(req, resolved.get()));
+      }
+    } catch (RuntimeException ex) {
+      // 적재되지 않은 건이 재전송 때 duplicate 로 처리되지 않도록 선점한 키 반환
+      for (String k : rowKeys) if (k != null) dedup.forget(k);
+      throw ex;
+    }
+
+    int accepted = writer.offerAll(rows);
+    for (int i = accepted; i < rows.size(); i++) {
+      results.set(rowIndex.get(i), "queue_full");
+      if (rowKeys.get(i) != null) dedup.forget(rowKeys.get(i));
+    }
+    if (accepted < rows.size()) {
+      log.warn("[SEC] bulk ingest queue full: accepted={}/{}, queue={}", accepted, rows.size(), writer.queueDepth());
+    }
+
+    Map<String, Object> res = new LinkedHashMap<>();
+    long duplicates = results.stream().filter("duplicate"::equals).count();
+    res.put("ok", accepted + duplicates == results.size());
+    res.put("accepted", accepted);
+    res.put("duplicates", duplicates);
+    res.put("rejected", results.size() - accepted - duplicates);
+    res.put("results", results);
+    ResponseEntity.BodyBuilder b = ResponseEntity.ok();
+    if (accepted < rows.size() || results.contains("throttled")) b.header("Retry-After", "1");
+    return b.body(res);
+  }
+
+  /** 유입 제한 초과 응답 (429) */
+  static ResponseEntity<?> throttled(IngestAdmission.Verdict v) {
+    String msg = (v == IngestAdmission.Verdict.DEVICE_LIMITED)
+        ? "디바이스 이벤트 전송 한도를 초과했습니다. 잠시 후 다시 시도하세요."
+        : "고객사 이벤트 유입 한도를 초과했습니다. 잠시 후 다시 시도하세요.";
+    return ResponseEntity.status(429).header("Retry-After", "1").body(Map.of("message", msg));
+  }
+
+  private SecurityEventEntity toEntity(EventReq req, TenantResolverService.Resolved t) {
     var e = new SecurityEventEntity();
     e.setCustomerCode(t.customerCode());
     e.setDeviceId(nz(req.deviceId()));
     e.setEventType(nz(req.eventType()));
     e.setSourcePackage(nz(req.packageName()));
     e.setSourceDomain(nz(req.domain()));
+    e.setClientEventId(nz(req.eventId()) == null ? null : req.eventId().trim());
     e.setCreatedAt(Instant.now());
 
     if (T_MALWARE.equalsIgnoreCase(nz(req.eventType()))) {
-      // data에서 악성앱 정보 추출
-      MalwareInfo mi = extractMalwareFromData(req.data());
+      // data에서 악성앱 정보 추출 (적재 시 1회 → 컬럼 저장)
+      MalwareInfo mi = MalwarePayloads.fromData(req.data());
+      e.setMalwarePackage(MalwarePayloads.clip(mi.pkg(), 255));
+      e.setMalwareType(MalwarePayloads.clip(mi.type(), 128));
 
       // 🔎 로그: 악성앱 패키지/유형 찍기 (INFO)
-      String rawShort = mi.raw == null ? null : (mi.raw.length() > 300 ? mi.raw.substring(0,300) + "..." : mi.raw);
+      String rawShort = mi.raw() == null ? null : (mi.raw().length() > 300 ? mi.raw().substring(0,300) + "..." : mi.raw());
       log.info("[SEC] MALWARE event: customer={}, deviceId={}, pkg={}, type={}, sourcePkg={}, domain={}, raw={}",
           t.customerCode(),
           nz(req.deviceId()),
-          nz(mi.pkg),
-          nz(mi.type),
+          nz(mi.pkg()),
+          nz(mi.type()),
           nz(req.packageName()),
           nz(req.domain()),
           rawShort
@@ -87,30 +255,43 @@ public class SecurityEventController {
 
       // 저장 페이로드(JSON)
       Map<String,Object> payload = new LinkedHashMap<>();
-      if (mi.pkg  != null) payload.put("malwarePackage", mi.pkg);
-      if (mi.type != null) payload.put("malwareType",   mi.type);
-      if (mi.raw  != null) payload.put("raw",           mi.raw);
+      if (mi.pkg()  != null) payload.put("malwarePackage", mi.pkg());
+      if (mi.type() != null) payload.put("malwareType",   mi.type());
+      if (mi.raw()  != null) payload.put("raw",           mi.raw());
       e.setPayloadJson(toJson(payload));
     } else {
       // 기타 타입은 데이터 전체 저장
       e.setPayloadJson(toJson(req.data()));
     }
-
-    repo.save(e);
-    return ResponseEntity.ok(new EventRes(true));
+    return e;
   }
 
   /* ===================== 2) 대시보드 조회 ===================== */
   @GetMapping("/security")
-  public Map<String, Object> list(
+  public ResponseEntity<?> list(
       @RequestParam String customerCode,
       @RequestParam String from,
       @RequestParam String to,
       @RequestParam(defaultValue = "ALL") String type,
       @RequestParam(defaultValue = "0") int page,
       @RequestParam(defaultValue = "20") int size,
-      @RequestParam(defaultValue = "createdAt,DESC") String sort
+      @RequestParam(defaultValue = "createdAt,DESC") String sort,
+      @RequestParam(defaultValue = "page") String mode,          // page | slice(총건수 생략, hasNext) | keyset
+      @RequestParam(required = false) String cursor,             // keyset: 이전 응답의 nextCursor
+      @RequestParam(defaultValue = "true") boolean withKpi
   ) {
+    KeysetCursor after;
+    try {
+      after = KeysetCursor.decode(cursor);
+    } catch (IllegalArgumentException ex) {
+      return ResponseEntity.badRequest().body(Map.of("message", "cursor 형식이 올바르지 않습니다."));
+    }
+
+    customerCode = CustomerCodes.normalize(customerCode); // 저장된 정규형(소문자)과 equality 비교
+    if (customerCode == null) {
+      return ResponseEntity.badRequest().body(Map.of("message", "customerCode 가 필요합니다."));
+    }
+
     ZoneId zone = ZoneId.systemDefault();
     Instant start = LocalDate.parse(from).atStartOfDay(zone).toInstant();
     Instant end   = LocalDate.parse(to).plusDays(1).atStartOfDay(zone).minusNanos(1).toInstant();
@@ -133,15 +314,54 @@ public class SecurityEventController {
     }
     Pageable pageable = PageRequest.of(Math.max(page,0), Math.max(size,1), s);
 
-    Page<SecurityEventEntity> pg = repo.findAll(spec, pageable);
-
-    long total   = repo.count(base);
-    long malware = repo.count(base.and(eq("eventType", T_MALWARE)));
-    long rooting = repo.count(base.and(eq("eventType", T_ROOTING)));
-    long remote  = repo.count(base.and(eq("eventType", T_REMOTE)));
+    // KPI: 조건부 집계 1회
+    SecurityEventRepository.KpiRow k = withKpi ? repo.kpi(customerCode, start, end) : null;
+    long total   = k == null ? 0 : nzl(k.getTotal());
+    long malware = k == null ? 0 : nzl(k.getMalware());
+    long rooting = k == null ? 0 : nzl(k.getRooting());
+    long remote  = k == null ? 0 : nzl(k.getRemote());
+
+    // 목록
+    // - keyset: (createdAt, id) < cursor 조건 + size+1 조회 → OFFSET 없이 깊은 페이지도 인덱스 seek
+    // - page/slice: count 쿼리 없이 size+1 조회(slice). 총건수는 KPI 로 알 수 있으면 재사용
+    boolean keysetMode = "keyset".equalsIgnoreCase(mode) || (cursor != null && !cursor.isBlank());
+    boolean sliceMode  = "slice".equalsIgnoreCase(mode);
+
+    List<SecurityEventEntity> content;
+    boolean hasNext;
+    String nextCursor = null;
+    Page<SecurityEventEntity> pg = null;
+    Slice<SecurityEventEntity> sl = null;
+
+    if (keysetMode) {
+      int lim = Math.max(size, 1);
+      Specification<SecurityEventEntity> ks = (after == null) ? spec : spec.and(after.before());
+      List<SecurityEventEntity> rows =
+          repo.findBy(ks, q -> q.sortBy(KeysetCursor.SORT).limit(lim + 1).all());
+      hasNext = rows.size() > lim;
+      content = hasNext ? rows.subList(0, lim) : rows;
+      if (hasNext) {
+        SecurityEventEntity last = content.get(content.size() - 1);
+        nextCursor = KeysetCursor.of(last.getCreatedAt(), last.getId());
+      }
+    } else {
+      sl = repo.findBy(spec, q -> q.sortBy(pageable.getSort()).slice(pageable));
+      content = sl.getContent();
+      hasNext = sl.hasNext();
+      if (!sliceMode) {
+        Long known = (k == null) ? null : switch (type.toUpperCase()) {
+          case "ALL"     -> total;
+          case T_MALWARE -> malware;
+          case T_ROOTING -> rooting;
+          case T_REMOTE  -> remote;
+          default        -> null;
+        };
+        pg = new PageImpl<>(content, pageable, known != null ? known : repo.count(spec));
+      }
+    }
 
     List<Map<String, Object>> items = new ArrayList<>();
-    for (SecurityEventEntity e : pg.getContent()) {
+    for (SecurityEventEntity e : content) {
       Map<String,Object> m = new LinkedHashMap<>();
       m.put("id",            e.getId());
       m.put("createdAt",     e.getCreatedAt());
@@ -152,35 +372,57 @@ public class SecurityEventController {
       m.put("payload",       e.getPayloadJson());
 
       if (T_MALWARE.equalsIgnoreCase(nz(e.getEventType()))) {
-        MalwareInfo mi = extractMalwareFromPayloadJson(e.getPayloadJson());
-        if (mi.pkg  != null && !mi.pkg.isBlank())  m.put("malwarePackage", mi.pkg);
-        if (mi.type != null && !mi.type.isBlank()) m.put("malwareType",   mi.type);
+        String pkg  = e.getMalwarePackage();
+        String mtype = e.getMalwareType();
+        if (pkg == null && mtype == null) {
+          // backfill 전 행만 payload 파싱
+          MalwareInfo mi = MalwarePayloads.fromPayloadJson(e.getPayloadJson(), om);
+          pkg = mi.pkg();
+          mtype = mi.type();
+        }
+        if (pkg   != null && !pkg.isBlank())   m.put("malwarePackage", pkg);
+        if (mtype != null && !mtype.isBlank()) m.put("malwareType",   mtype);
       }
       items.add(m);
     }
 
     Map<String,Object> kpi = new LinkedHashMap<>();
-    kpi.put("total", total);
-    kpi.put("malware", malware);
-    kpi.put("rooting", rooting);
-    kpi.put("remote", remote);
+    if (withKpi) {
+      kpi.put("total", total);
+      kpi.put("malware", malware);
+      kpi.put("rooting", rooting);
+      kpi.put("remote", remote);
+    }
 
     Map<String,Object> pageMap = new LinkedHashMap<>();
-    pageMap.put("page", pg.getNumber());
-    pageMap.put("size", pg.getSize());
-    pageMap.put("totalElements", pg.getTotalElements());
-    pageMap.put("totalPages", pg.getTotalPages());
+    if (sl != null) pageMap.put("page", sl.getNumber());
+    pageMap.put("size", Math.max(size, 1));
+    pageMap.put("hasNext", hasNext);
+    if (keysetMode) pageMap.put("nextCursor", nextCursor);
+    if (pg != null) {
+      pageMap.put("totalElements", pg.getTotalElements());
+      pageMap.put("totalPages", pg.getTotalPages());
+    }
 
     Map<String,Object> result = new LinkedHashMap<>();
     result.put("kpi", kpi);
     result.put("items", items);
     result.put("page", pageMap);
-    return result;
+    return ResponseEntity.ok(result);
   }
 
   /* ===================== 유틸 ===================== */
 
   private static String nz(String s){ return (s == null || s.isBlank()) ? null : s; }
+  private static String nzs(String s){ return s == null ? "" : s.trim(); }
+  private static boolean validEventId(String id){ return id == null || id.trim().length() <= MAX_EVENT_ID; }
+  private static String dedupKey(String customerCode, String eventId){
+    return nz(eventId) == null ? null : "sec:" + customerCode + ":" + eventId.trim();
+  }
+  private static boolean isCbor(String contentType){
+    return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("application/cbor");
+  }
+  private static long nzl(Long v){ return v == null ? 0L : v; }
 
   private String toJson(Object o){
     if (o == null) return "{}";
@@ -201,100 +443,4 @@ public class SecurityEventController {
       return cb.lessThanOrEqualTo(expr, to);
     };
   }
-
-  /* ===== 악성앱 정보 추출 ===== */
-
-  private static class MalwareInfo {
-    String pkg;   // com.xxx.yyy
-    String type;  // Android.TestVirus
-    String raw;   // 원본 문자열(있으면)
-  }
-
-  private MalwareInfo extractMalwareFromData(Map<String,Object> data) {
-    MalwareInfo r = new MalwareInfo();
-    if (data == null) return r;
-
-    r.pkg  = toStrOrNull(data.get("malwarePackage"));
-    if (r.pkg == null) r.pkg = toStrOrNull(data.get("pkg"));
-    if (r.pkg == null) r.pkg = toStrOrNull(data.get("packageName"));
-
-    r.type = toStrOrNull(data.get("malwareType"));
-    if (r.type == null) r.type = toStrOrNull(data.get("type"));
-
-    String raw = toStrOrNull(data.get("payload"));
-    r.raw = raw;
-    if ((r.pkg == null || r.type == null) && raw != null) {
-      MalwareInfo fromRaw = extractMalwareFromRawText(raw);
-      if (r.pkg == null)  r.pkg  = fromRaw.pkg;
-      if (r.type == null) r.type = fromRaw.type;
-    }
-    return r;
-  }
-
-  private MalwareInfo extractMalwareFromPayloadJson(String payloadJson) {
-    MalwareInfo r = new MalwareInfo();
-    if (payloadJson == null || payloadJson.isBlank()) return r;
-
-    try {
-      JsonNode n = om.readTree(payloadJson);
-      if (n.isObject()) {
-        if (n.hasNonNull("malwarePackage") || n.hasNonNull("pkg") || n.hasNonNull("packageName")) {
-          r.pkg = textOrNull(n.get("malwarePackage"));
-          if (r.pkg == null) r.pkg = textOrNull(n.get("pkg"));
-          if (r.pkg == null) r.pkg = textOrNull(n.get("packageName"));
-        }
-        if (n.hasNonNull("malwareType") || n.hasNonNull("type")) {
-          r.type = textOrNull(n.get("malwareType"));
-          if (r.type == null) r.type = textOrNull(n.get("type"));
-        }
-        if (n.hasNonNull("raw")) r.raw = textOrNull(n.get("raw"));
-        if (r.pkg != null || r.type != null) return r;
-      }
-    } catch (Exception ignore) { /* not JSON */ }
-
-    return extractMalwareFromRawText(payloadJson);
-  }
-
-  private static MalwareInfo extractMalwareFromRawText(String text) {
-    MalwareInfo r = new MalwareInfo();
-    if (text == null) return r;
-
-    Pattern P = Pattern.compile(
-        "/([a-zA-Z0-9_]+(?:\\.[a-zA-Z0-9_]+)+)[^/]*?/base\\.apk(?:\\s*,\\s*([^\\r\\n,]+))?",
-        Pattern.CASE_INSENSITIVE);
-    Matcher m = P.matcher(text);
-    if (m.find()) {
-      r.pkg = trimOrNull(m.group(1));
-      r.type = (m.groupCount() >= 2) ? trimOrNull(m.group(2)) : null;
-      return r;
-    }
-
-    int idx = text.lastIndexOf(',');
-    if (idx >= 0 && idx + 1 < text.length()) {
-      String t = text.substring(idx + 1).trim();
-      int nl = t.indexOf('\n');
-      if (nl >= 0) t = t.substring(0, nl).trim();
-      if (!t.isEmpty()) r.type = t;
-    }
-
-    Matcher m2 = Pattern.compile("\\b(com[\\w.]+)\\b").matcher(text);
-    if (m2.find()) r.pkg = m2.group(1);
-    return r;
-  }
-
-  private static String toStrOrNull(Object v) {
-    if (v == null) return null;
-    String s = String.valueOf(v).trim();
-    return s.isEmpty() ? null : s;
-  }
-  private static String textOrNull(JsonNode n) {
-    if (n == null || n.isNull()) return null;
-    String s = n.asText(null);
-    return (s == null || s.isBlank()) ? null : s;
-  }
-  private static String trimOrNull(String s) {
-    if (s == null) return null;
-    s = s.trim();
-    return s.isEmpty() ? null : s;
-  }
 }
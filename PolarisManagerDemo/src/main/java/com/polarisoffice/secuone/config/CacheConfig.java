@@ -0,0 +1,66 @@
+// src/main/java/com/polarisoffice/secuone/config/CacheConfig.java
+package com.polarisoffice.secuone.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 로컬 캐시 (Caffeine)
+ * - 모든 캐시는 크기 상한 + TTL + 통계(recordStats) 기본 적용
+ * - tenantResolve: 미등록 패키지/도메인 결과(Optional.empty → null)도 캐시하되 TTL 을 짧게
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+  public static final String TENANT_RESOLVE = "tenantResolve";
+
+  @Bean
+  public CacheManager cacheManager(
+      @Value("${cache.default.max-size:10000}") long defaultMaxSize,
+      @Value("${cache.default.ttl-sec:600}") long defaultTtlSec,
+      @Value("${cache.tenant-resolve.max-size:50000}") long tenantMaxSize,
+      @Value("${cache.tenant-resolve.ttl-sec:600}") long tenantTtlSec,
+      @Value("${cache.tenant-resolve.negative-ttl-sec:60}") long tenantNegativeTtlSec
+  ) {
+    CaffeineCacheManager m = new CaffeineCacheManager();
+    m.setAllowNullValues(true); // negative caching
+    m.setCaffeine(Caffeine.newBuilder()
+        .maximumSize(defaultMaxSize)
+        .expireAfterWrite(Duration.ofSeconds(defaultTtlSec))
+        .recordStats());
+
+    m.registerCustomCache(TENANT_RESOLVE, Caffeine.newBuilder()
+        .maximumSize(tenantMaxSize)
+        .expireAfter(positiveNegative(Duration.ofSeconds(tenantTtlSec), Duration.ofSeconds(tenantNegativeTtlSec)))
+        .recordStats()
+        .build());
+    return m;
+  }
+
+  /** 값이 있으면 ttl, 부재(NullValue)면 negativeTtl — 쓰기 기준 만료 */
+  static Expiry<Object, Object> positiveNegative(Duration ttl, Duration negativeTtl) {
+    long pos = ttl.toNanos();
+    long neg = negativeTtl.toNanos();
+    return new Expiry<>() {
+      @Override public long expireAfterCreate(Object k, Object v, long now) {
+        return v == NullValue.INSTANCE ? neg : pos;
+      }
+      @Override public long expireAfterUpdate(Object k, Object v, long now, long current) {
+        return expireAfterCreate(k, v, now);
+      }
+      @Override public long expireAfterRead(Object k, Object v, long now, long current) {
+        return current;
+      }
+    };
+  }
+}
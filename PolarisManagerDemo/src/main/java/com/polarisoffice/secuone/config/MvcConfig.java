@@ -1,16 +1,32 @@
 // src/main/java/com/polarisoffice/secuone/config/MvcConfig.java
 package com.polarisoffice.secuone.config;
 
+import com.polarisoffice.secuone.support.CustomerCodeResolver;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class MvcConfig implements WebMvcConfigurer {
 
+  private final CustomerCodeResolver customerCodeResolver;
+
+  public MvcConfig(CustomerCodeResolver customerCodeResolver) {
+    this.customerCodeResolver = customerCodeResolver;
+  }
+
   @Override
   public void addViewControllers(ViewControllerRegistry registry) {
     // 루트 → /overview 로 302 리다이렉트
     registry.addRedirectViewController("/", "/overview");
   }
+
+  @Override
+  public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+    // @CurrentCustomerCode String code
+    resolvers.add(customerCodeResolver);
+  }
 }
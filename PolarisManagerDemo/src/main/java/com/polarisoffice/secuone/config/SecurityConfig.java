@@ -1,17 +1,24 @@
 package com.polarisoffice.secuone.config;
 
+import com.polarisoffice.secuone.security.AdaptiveBCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
 public class SecurityConfig {
 
+  /** bcrypt 비용은 기동 시 보정 (security.password.bcrypt.cost > 0 이면 고정) */
   @Bean
-  public BCryptPasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(
+      @Value("${security.password.bcrypt.cost:0}") int cost,
+      @Value("${security.password.bcrypt.min-cost:10}") int minCost,
+      @Value("${security.password.bcrypt.max-cost:14}") int maxCost,
+      @Value("${security.password.bcrypt.target-ms:250}") long targetMs) {
+    return new AdaptiveBCryptPasswordEncoder(cost, minCost, maxCost, targetMs);
   }
 
   /** 단일 체인: 정적/로그인/뷰 라우트 permitAll + CSP 헤더 */
@@ -1,10 +1,12 @@
 // src/main/java/com/polarisoffice/secuone/domain/CustomerBindingEntity.java
 package com.polarisoffice.secuone.domain;
 
+import com.polarisoffice.secuone.service.TenantCacheInvalidator;
 import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
+@EntityListeners(TenantCacheInvalidator.class) // 생성/변경/비활성화 시 tenantResolve 캐시 무효화
 @Table(name = "customer_bindings",
        uniqueConstraints = @UniqueConstraint(columnNames = {"type","key"}))
 public class CustomerBindingEntity {
@@ -1,6 +1,8 @@
 // src/main/java/com/polarisoffice/secuone/domain/CustomerEntity.java
 package com.polarisoffice.secuone.domain;
 
+import com.polarisoffice.secuone.service.TenantCacheInvalidator;
+import com.polarisoffice.secuone.support.CustomerCodes;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -8,6 +10,7 @@ import lombok.Setter;
 import java.math.BigDecimal;
 
 @Entity
+@EntityListeners(TenantCacheInvalidator.class) // 이름 변경/삭제 시 tenantResolve 캐시 무효화
 @Table(name = "customers")
 @Getter @Setter
 public class CustomerEntity extends BaseTimeEntity {
@@ -34,12 +37,26 @@ public class CustomerEntity extends BaseTimeEntity {
   @Column(name = "note", length = 1000)
   private String note;
 
+  // 수집 유입 제한 (IngestAdmission). null 이면 ingest.admission.* 기본값, 0 이면 제한 없음
+  @Column(name = "ingest_rate_per_sec")
+  private Integer ingestRatePerSec;   // 고객사 전체 초당 이벤트
+
+  @Column(name = "ingest_burst")
+  private Integer ingestBurst;        // 고객사 전체 순간 허용량
+
+  @Column(name = "device_rate_per_min")
+  private Integer deviceRatePerMin;   // 디바이스별 분당 이벤트
+
+  @Column(name = "device_burst")
+  private Integer deviceBurst;        // 디바이스별 순간 허용량
+
   public String getCode() {
 	return code;
   }
 
+  /** 저장 시 정규형(소문자)으로 고정: 조회 쿼리는 upper()/lower() 없이 equality 비교 */
   public void setCode(String code) {
-	this.code = code;
+	this.code = CustomerCodes.normalize(code);
   }
 
   public String getName() {
@@ -89,6 +106,38 @@ public class CustomerEntity extends BaseTimeEntity {
   public void setNote(String note) {
 	this.note = note;
   }
+
+  public Integer getIngestRatePerSec() {
+	return ingestRatePerSec;
+  }
+
+  public void setIngestRatePerSec(Integer ingestRatePerSec) {
+	this.ingestRatePerSec = ingestRatePerSec;
+  }
+
+  public Integer getIngestBurst() {
+	return ingestBurst;
+  }
+
+  public void setIngestBurst(Integer ingestBurst) {
+	this.ingestBurst = ingestBurst;
+  }
+
+  public Integer getDeviceRatePerMin() {
+	return deviceRatePerMin;
+  }
+
+  public void setDeviceRatePerMin(Integer deviceRatePerMin) {
+	this.deviceRatePerMin = deviceRatePerMin;
+  }
+
+  public Integer getDeviceBurst() {
+	return deviceBurst;
+  }
+
+  public void setDeviceBurst(Integer deviceBurst) {
+	this.deviceBurst = deviceBurst;
+  }
   
   
 }
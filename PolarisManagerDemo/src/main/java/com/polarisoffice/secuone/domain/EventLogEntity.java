@@ -6,8 +6,10 @@ import java.time.Instant;
 @Entity
 @Table(
 	  name = "event_logs",
+	  uniqueConstraints = @UniqueConstraint(name = "uk_eventlogs_cust_client_id", columnNames = {"customer_code", "client_event_id"}),
 	  indexes = {
-	    @Index(name = "ix_eventlogs_customer_date", columnList = "customer_code, created_at")
+	    @Index(name = "ix_eventlogs_customer_date", columnList = "customer_code, created_at"),
+	    @Index(name = "ix_eventlogs_customer_type_date", columnList = "customer_code, object_type, created_at")
 	  }
 	)
 public class EventLogEntity {
@@ -41,6 +43,9 @@ public class EventLogEntity {
     @Column(name = "memo", columnDefinition = "TEXT")
     private String memo;
 
+    @Column(name = "client_event_id", length = 64)
+    private String clientEventId; // SDK 가 보낸 이벤트 id (재전송 중복 차단, 없으면 null)
+
     @Column(name = "created_at", nullable = false)
     private Instant createdAt = Instant.now();
 
@@ -112,6 +117,14 @@ public class EventLogEntity {
         this.ua = ua;
     }
 
+    public String getClientEventId() {
+        return clientEventId;
+    }
+
+    public void setClientEventId(String clientEventId) {
+        this.clientEventId = clientEventId;
+    }
+
     public String getMemo() {
         return memo;
     }
@@ -0,0 +1,51 @@
+// src/main/java/com/polarisoffice/secuone/domain/IngestOutboxEntity.java
+package com.polarisoffice.secuone.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * 수집 트랜잭션의 후속 작업 아웃박스 (OutboxRelay 가 비동기로 처리 후 삭제)
+ * - event_logs 적재와 같은 트랜잭션에서 기록 → 커밋된 이벤트의 후속 작업만 실행됨
+ * - next_attempt_at: 대기 중이면 다음 시도 시각, 점유 중이면 점유 만료 시각
+ */
+@Entity
+@Table(name = "ingest_outbox",
+    indexes = @Index(name = "ix_outbox_next", columnList = "next_attempt_at"))
+public class IngestOutboxEntity {
+
+  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "kind", nullable = false, length = 32)
+  private String kind;          // DIRECT_AD_IMPRESSION | DIRECT_AD_CLICK
+
+  @Column(name = "aggregate_id", length = 128)
+  private String aggregateId;   // 대상 id (직광고 id 등)
+
+  @Lob
+  @Column(name = "payload_json", columnDefinition = "TEXT")
+  private String payloadJson;
+
+  @Column(name = "attempts", nullable = false)
+  private int attempts;
+
+  @Column(name = "next_attempt_at", nullable = false)
+  private Instant nextAttemptAt;
+
+  @Column(name = "last_error", length = 512)
+  private String lastError;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  // getters...
+  public Long getId(){ return id; }
+  public String getKind(){ return kind; }
+  public String getAggregateId(){ return aggregateId; }
+  public String getPayloadJson(){ return payloadJson; }
+  public int getAttempts(){ return attempts; }
+  public Instant getNextAttemptAt(){ return nextAttemptAt; }
+  public String getLastError(){ return lastError; }
+  public Instant getCreatedAt(){ return createdAt; }
+}
@@ -0,0 +1,33 @@
+// src/main/java/com/polarisoffice/secuone/domain/InvalidPushTokenEntity.java
+package com.polarisoffice.secuone.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * FCM 이 무효로 응답한 디바이스 토큰 (UNREGISTERED / INVALID_ARGUMENT)
+ * - 키: 토큰 SHA-256 (원문 토큰은 보관하지 않음)
+ * - PushDispatcher 가 발송 전 이 표로 걸러 재발송하지 않음
+ */
+@Entity
+@Table(name = "push_invalid_tokens")
+public class InvalidPushTokenEntity {
+
+  @Id
+  @Column(name = "token_hash", length = 64, nullable = false)
+  private String tokenHash;
+
+  @Column(name = "reason", length = 32, nullable = false)
+  private String reason;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  // getters/setters...
+  public String getTokenHash(){ return tokenHash; }
+  public void setTokenHash(String tokenHash){ this.tokenHash = tokenHash; }
+  public String getReason(){ return reason; }
+  public void setReason(String reason){ this.reason = reason; }
+  public Instant getCreatedAt(){ return createdAt; }
+  public void setCreatedAt(Instant createdAt){ this.createdAt = createdAt; }
+}
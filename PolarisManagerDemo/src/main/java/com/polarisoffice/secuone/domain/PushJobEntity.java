@@ -0,0 +1,84 @@
+// src/main/java/com/polarisoffice/secuone/domain/PushJobEntity.java
+package com.polarisoffice.secuone.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * 비동기 토픽 푸시 작업 (PushJobQueue 적재 → PushJobWorker 처리)
+ * - idempotency_key 유니크: 같은 공지(id, 테스트 여부)로 중복 적재되지 않음
+ * - next_attempt_at: PENDING 이면 다음 시도 시각, RUNNING 이면 점유 만료 시각 (워커 비정상 종료 시 재점유)
+ */
+@Entity
+@Table(name = "push_jobs",
+    uniqueConstraints = @UniqueConstraint(name = "uk_push_jobs_idem", columnNames = "idempotency_key"),
+    indexes = @Index(name = "ix_push_jobs_status_next", columnList = "status, next_attempt_at"))
+public class PushJobEntity {
+
+  public enum Status { PENDING, RUNNING, DONE, FAILED }
+
+  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "idempotency_key", nullable = false, length = 128)
+  private String idempotencyKey;
+
+  @Column(name = "topic", nullable = false, length = 255)
+  private String topic;
+
+  @Column(name = "channel_id", length = 64)
+  private String channelId;
+
+  @Column(name = "title", length = 255)
+  private String title;
+
+  @Lob
+  @Column(name = "body", columnDefinition = "TEXT")
+  private String body;
+
+  @Lob
+  @Column(name = "data_json", columnDefinition = "TEXT")
+  private String dataJson;      // FCM data 페이로드 (Map<String,String>)
+
+  @Column(name = "dry_run", nullable = false)
+  private Boolean dryRun = false;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 16)
+  private Status status = Status.PENDING;
+
+  @Column(name = "attempts", nullable = false)
+  private int attempts;
+
+  @Column(name = "next_attempt_at", nullable = false)
+  private Instant nextAttemptAt;
+
+  @Column(name = "message_id", length = 255)
+  private String messageId;
+
+  @Column(name = "last_error", length = 512)
+  private String lastError;
+
+  @Column(name = "created_at", nullable = false)
+  private Instant createdAt;
+
+  @Column(name = "updated_at", nullable = false)
+  private Instant updatedAt;
+
+  // getters...
+  public Long getId(){ return id; }
+  public String getIdempotencyKey(){ return idempotencyKey; }
+  public String getTopic(){ return topic; }
+  public String getChannelId(){ return channelId; }
+  public String getTitle(){ return title; }
+  public String getBody(){ return body; }
+  public String getDataJson(){ return dataJson; }
+  public Boolean getDryRun(){ return dryRun; }
+  public Status getStatus(){ return status; }
+  public int getAttempts(){ return attempts; }
+  public Instant getNextAttemptAt(){ return nextAttemptAt; }
+  public String getMessageId(){ return messageId; }
+  public String getLastError(){ return lastError; }
+  public Instant getCreatedAt(){ return createdAt; }
+  public Instant getUpdatedAt(){ return updatedAt; }
+}
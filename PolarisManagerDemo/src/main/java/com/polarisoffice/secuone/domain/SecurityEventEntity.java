@@ -5,9 +5,13 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "security_events", indexes = {
+@Table(name = "security_events",
+    uniqueConstraints = @UniqueConstraint(name = "uk_events_cust_client_id", columnNames = {"customerCode", "clientEventId"}),
+    indexes = {
     @Index(name="ix_events_customer_code", columnList = "customerCode"),
-    @Index(name="ix_events_created_at", columnList = "createdAt")
+    @Index(name="ix_events_created_at", columnList = "createdAt"),
+    @Index(name="ix_events_cust_type_date", columnList = "customerCode, eventType, createdAt"),
+    @Index(name="ix_events_cust_date_id", columnList = "customerCode, createdAt, id")
 })
 public class SecurityEventEntity {
   @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -32,6 +36,15 @@ public class SecurityEventEntity {
   @Column(columnDefinition = "TEXT")
   private String payloadJson;   // 상세 데이터
 
+  @Column(length=255)
+  private String malwarePackage; // MALWARES_APP: 적재 시 payload 에서 추출
+
+  @Column(length=128)
+  private String malwareType;    // MALWARES_APP: 적재 시 payload 에서 추출
+
+  @Column(length=64)
+  private String clientEventId;  // SDK 가 보낸 이벤트 id (재전송 중복 차단, 없으면 null)
+
   @Column(nullable=false)
   private Instant createdAt = Instant.now();
 
@@ -47,8 +60,14 @@ public class SecurityEventEntity {
   public void setSourcePackage(String sourcePackage){ this.sourcePackage = sourcePackage; }
   public String getSourceDomain(){ return sourceDomain; }
   public void setSourceDomain(String sourceDomain){ this.sourceDomain = sourceDomain; }
+  public String getClientEventId(){ return clientEventId; }
+  public void setClientEventId(String clientEventId){ this.clientEventId = clientEventId; }
   public String getPayloadJson(){ return payloadJson; }
   public void setPayloadJson(String payloadJson){ this.payloadJson = payloadJson; }
+  public String getMalwarePackage(){ return malwarePackage; }
+  public void setMalwarePackage(String malwarePackage){ this.malwarePackage = malwarePackage; }
+  public String getMalwareType(){ return malwareType; }
+  public void setMalwareType(String malwareType){ this.malwareType = malwareType; }
   public Instant getCreatedAt(){ return createdAt; }
   public void setCreatedAt(Instant createdAt){ this.createdAt = createdAt; }
 }
@@ -0,0 +1,67 @@
+// src/main/java/com/polarisoffice/secuone/domain/SecurityEventRollupEntity.java
+package com.polarisoffice.secuone.domain;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * security_events 사전 집계(rollup)
+ * - 키: (고객사, 15분 UTC 버킷 시작시각, 이벤트 타입)
+ * - 15분 단위라 모든 IANA 타임존 오프셋(+05:45 등)에서 요청 tz 기준 일자로 정확히 재집계 가능
+ * - 적재 시점(SecurityEventWriter flush)에 cnt 를 증분 갱신
+ */
+@Entity
+@Table(name = "security_event_rollups")
+@IdClass(SecurityEventRollupEntity.Key.class)
+public class SecurityEventRollupEntity {
+
+  @Id
+  @Column(name = "customer_code", length = 64, nullable = false)
+  private String customerCode;
+
+  @Id
+  @Column(name = "bucket_start", nullable = false)
+  private Instant bucketStart;
+
+  @Id
+  @Column(name = "event_type", length = 64, nullable = false)
+  private String eventType;
+
+  @Column(name = "cnt", nullable = false)
+  private long cnt;
+
+  // getters/setters...
+  public String getCustomerCode(){ return customerCode; }
+  public void setCustomerCode(String customerCode){ this.customerCode = customerCode; }
+  public Instant getBucketStart(){ return bucketStart; }
+  public void setBucketStart(Instant bucketStart){ this.bucketStart = bucketStart; }
+  public String getEventType(){ return eventType; }
+  public void setEventType(String eventType){ this.eventType = eventType; }
+  public long getCnt(){ return cnt; }
+  public void setCnt(long cnt){ this.cnt = cnt; }
+
+  /** 복합키 */
+  public static class Key implements Serializable {
+    private String customerCode;
+    private Instant bucketStart;
+    private String eventType;
+
+    public Key() {}
+    public Key(String customerCode, Instant bucketStart, String eventType) {
+      this.customerCode = customerCode;
+      this.bucketStart = bucketStart;
+      this.eventType = eventType;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key k)) return false;
+      return Objects.equals(customerCode, k.customerCode)
+          && Objects.equals(bucketStart, k.bucketStart)
+          && Objects.equals(eventType, k.eventType);
+    }
+    @Override public int hashCode() { return Objects.hash(customerCode, bucketStart, eventType); }
+  }
+}
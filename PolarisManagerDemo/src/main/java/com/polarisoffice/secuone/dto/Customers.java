@@ -90,6 +90,12 @@ public final class Customers {
         /** null이면 미변경, true/false가 들어오면 변경 */
         public Boolean isPrimary;
 
+        /** 수집 유입 제한. null이면 미변경, 0이면 제한 없음, 음수면 기본값으로 되돌림 */
+        public Integer ingestRatePerSec;
+        public Integer ingestBurst;
+        public Integer deviceRatePerMin;
+        public Integer deviceBurst;
+
         public String getName() { return name; }
         public void setName(String name) { this.name = name; }
 
@@ -31,6 +31,7 @@ public class DirectAd {
     // 집계
     private long viewCount;                // 노출수
     private long clickCount;               // 클릭수
+    private int counterShards;             // >0 이면 counters/{0..N-1} 샤드에 분산 집계
 
     // 임의 메타
     private Map<String, Object> meta;
@@ -180,6 +181,14 @@ public class DirectAd {
         this.clickCount = clickCount;
     }
 
+    public int getCounterShards() {
+        return counterShards;
+    }
+
+    public void setCounterShards(int counterShards) {
+        this.counterShards = counterShards;
+    }
+
     public Map<String, Object> getMeta() {
         return meta;
     }
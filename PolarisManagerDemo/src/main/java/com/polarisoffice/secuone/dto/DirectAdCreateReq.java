@@ -22,6 +22,7 @@ public class DirectAdCreateReq {
     private Instant startAt;
     private Instant endAt;
     private Map<String, Object> meta;
+    private Integer counterShards;         // null 이면 directads.counter.default-shards
     public AdType getAdType() {
         return adType;
     }
@@ -102,6 +103,10 @@ public class DirectAdCreateReq {
     }
    
     
+    public Integer getCounterShards() {
+        return counterShards;
+    }
+    public void setCounterShards(Integer counterShards) {
+        this.counterShards = counterShards;
+    }
 }
-
-
@@ -25,6 +25,7 @@ public class DirectAdRes {
     public Instant updatedAt;
     public long viewCount;
     public long clickCount;
+    public int counterShards;
     public Map<String, Object> meta;
     public String getId() {
         return id;
@@ -128,6 +129,12 @@ public class DirectAdRes {
     public void setClickCount(long clickCount) {
         this.clickCount = clickCount;
     }
+    public int getCounterShards() {
+        return counterShards;
+    }
+    public void setCounterShards(int counterShards) {
+        this.counterShards = counterShards;
+    }
     public Map<String, Object> getMeta() {
         return meta;
     }
@@ -5,6 +5,7 @@ import com.polarisoffice.secuone.domain.CustomerBindingEntity;
 import com.polarisoffice.secuone.domain.CustomerBindingEntity.BindingType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,4 +25,30 @@ public interface CustomerBindingRepository extends JpaRepository<CustomerBinding
       order by b.priority desc
       """)
   List<CustomerBindingEntity> findWebMatches(BindingType type, String host);
+
+  /** 메모리 매처(CustomerBindingMatcher) 적재용 경량 프로젝션 */
+  interface BindingRow {
+    Long getId();
+    BindingType getType();
+    String getBindingKey();
+    Integer getPriority();
+    String getCustomerCode();
+    String getCustomerName();
+  }
+
+  @Query("""
+      select b.id as id, b.type as type, b.key as bindingKey, b.priority as priority,
+             c.code as customerCode, c.name as customerName
+        from CustomerBindingEntity b join b.customer c
+       where b.isActive = true
+      """)
+  List<BindingRow> findActiveRows();
+
+  @Query("""
+      select b.id as id, b.type as type, b.key as bindingKey, b.priority as priority,
+             c.code as customerCode, c.name as customerName
+        from CustomerBindingEntity b join b.customer c
+       where b.id = :id and b.isActive = true
+      """)
+  Optional<BindingRow> findActiveRow(@Param("id") Long id);
 }
@@ -36,6 +36,33 @@ public interface CustomerRepository extends JpaRepository<CustomerEntity, String
 	  // (옵션) 존재 여부
 	  boolean existsByDomainIgnoreCase(String domain);
 
+	  // 3) 요청별 고객사 식별용 (코드, 도메인) 전체 목록 — CustomerCodeResolver 메모리 맵 적재
+	  interface CodeDomain {
+	    String getCode();
+	    String getDomain();
+	  }
+
+	  @Query("select c.code as code, c.domain as domain from CustomerEntity c")
+	  List<CodeDomain> findCodeDomains();
+
+	  // 4) 수집 유입 제한 설정 (값이 하나라도 있는 고객사만) — IngestAdmission 적재
+	  interface IngestLimits {
+	    String getCode();
+	    Integer getIngestRatePerSec();
+	    Integer getIngestBurst();
+	    Integer getDeviceRatePerMin();
+	    Integer getDeviceBurst();
+	  }
+
+	  @Query("""
+	      select c.code as code, c.ingestRatePerSec as ingestRatePerSec, c.ingestBurst as ingestBurst,
+	             c.deviceRatePerMin as deviceRatePerMin, c.deviceBurst as deviceBurst
+	      from CustomerEntity c
+	      where c.ingestRatePerSec is not null or c.ingestBurst is not null
+	         or c.deviceRatePerMin is not null or c.deviceBurst is not null
+	      """)
+	  List<IngestLimits> findIngestLimits();
+
 	  // ====== 검색 ======
 	  @Query("""
 	      SELECT c
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Repository;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static com.google.cloud.firestore.FieldValue.increment;
 import static com.google.cloud.firestore.FieldValue.serverTimestamp;
@@ -28,6 +29,10 @@ public class DirectAdRepository {
 	    }
     private CollectionReference col() { return db.collection(collectionName); }
 
+    /** 샤드 카운터 서브컬렉션: counters/{0..N-1} { views, clicks } */
+    private static final String COUNTERS = "counters";
+    public static final int MAX_SHARDS = 100;
+
     /* Create */
     public String create(DirectAd ad) throws ExecutionException, InterruptedException {
         DocumentReference doc = col().document(); // auto-ID
@@ -47,7 +52,7 @@ public class DirectAdRepository {
     /* Get one */
     public DirectAdRes get(String id) throws ExecutionException, InterruptedException {
         DocumentSnapshot s = col().document(id).get().get();
-        return s.exists() ? toRes(s) : null;
+        return s.exists() ? withShardTotals(List.of(toRes(s))).get(0) : null;
     }
 
     /* List with optional filters (no orderBy → no composite index need) */
@@ -64,7 +69,7 @@ public class DirectAdRepository {
 
         List<DirectAdRes> out = new ArrayList<>();
         for (QueryDocumentSnapshot d : q.get().get().getDocuments()) out.add(toRes(d));
-        return out;
+        return withShardTotals(out);
     }
 
     /* List all (safety, no orderBy) */
@@ -72,7 +77,7 @@ public class DirectAdRepository {
         int lim = Math.max(1, Math.min(limit, 200));
         List<DirectAdRes> out = new ArrayList<>();
         for (QueryDocumentSnapshot d : col().limit(lim).get().get().getDocuments()) out.add(toRes(d));
-        return out;
+        return withShardTotals(out);
     }
 
     public boolean delete(String id) throws ExecutionException, InterruptedException {
@@ -85,20 +90,22 @@ public class DirectAdRepository {
     public Map<String, Long> metrics(String id) throws ExecutionException, InterruptedException {
         DocumentSnapshot s = col().document(id).get().get();
         if (!s.exists()) return null;
-        Long views = s.getLong("viewCount");
-        Long clicks = s.getLong("clickCount");
+        DirectAdRes r = withShardTotals(List.of(toRes(s))).get(0);
         Map<String, Long> m = new HashMap<>();
-        m.put("views", views == null ? 0L : views);
-        m.put("clicks", clicks == null ? 0L : clicks);
+        m.put("views", r.viewCount);
+        m.put("clicks", r.clickCount);
         return m;
     }
 
     public boolean incView(String id, TrackEventReq req, boolean logDetail)
             throws ExecutionException, InterruptedException {
         DocumentReference doc = col().document(id);
-        if (!doc.get().get().exists()) return false;
+        DocumentSnapshot s = doc.get().get();
+        if (!s.exists()) return false;
 
-        doc.update(Map.of("viewCount", increment(1), "updatedAt", serverTimestamp())).get();
+        int shards = shardsOf(s);
+        if (shards > 0) randomShard(doc, shards).set(Map.of("views", increment(1)), SetOptions.merge()).get();
+        else doc.update(Map.of("viewCount", increment(1), "updatedAt", serverTimestamp())).get();
         if (logDetail) {
             doc.collection("impressions").add(detailMap(req)).get();
             doc.collection("metrics_daily").document(todayKey())
@@ -110,9 +117,12 @@ public class DirectAdRepository {
     public boolean incClick(String id, TrackEventReq req, boolean logDetail)
             throws ExecutionException, InterruptedException {
         DocumentReference doc = col().document(id);
-        if (!doc.get().get().exists()) return false;
+        DocumentSnapshot s = doc.get().get();
+        if (!s.exists()) return false;
 
-        doc.update(Map.of("clickCount", increment(1), "updatedAt", serverTimestamp())).get();
+        int shards = shardsOf(s);
+        if (shards > 0) randomShard(doc, shards).set(Map.of("clicks", increment(1)), SetOptions.merge()).get();
+        else doc.update(Map.of("clickCount", increment(1), "updatedAt", serverTimestamp())).get();
         if (logDetail) {
             doc.collection("clicks").add(detailMap(req)).get();
             doc.collection("metrics_daily").document(todayKey())
@@ -121,10 +131,150 @@ public class DirectAdRepository {
         return true;
     }
 
+    /* ---------- 버퍼링 카운터(DirectAdCounterService) flush 용 ---------- */
+
+    /** Firestore WriteBatch 1회 커밋 최대 쓰기 수 */
+    public static final int MAX_BATCH_OPS = 500;
+
+    /** (광고, UTC 일자) 단위 누적 증분. daily* 는 logDetail=true 로 들어온 건만 */
+    public record CounterDelta(String adId, String day, long views, long clicks,
+                               long dailyViews, long dailyClicks) {}
+
+    /** 노출/클릭 상세 1건 (impressions / clicks 서브컬렉션) */
+    public record Detail(String adId, boolean click, Map<String, Object> data) {}
+
+    public boolean exists(String id) throws ExecutionException, InterruptedException {
+        return col().document(id).get().get().exists();
+    }
+
+    /** 광고의 카운터 샤드 수 (0 = 문서 필드 직접 증가). 광고가 없으면 null */
+    public Integer counterShards(String id) throws ExecutionException, InterruptedException {
+        DocumentSnapshot s = col().document(id).get().get();
+        return s.exists() ? shardsOf(s) : null;
+    }
+
+    /**
+     * 한 광고의 증분을 WriteBatch 에 담는다 (합계 1회 + 일자 문서 N회). 반환: 추가된 쓰기 수
+     * - shards > 0: 임의 샤드 문서에 merge (광고 문서는 건드리지 않음)
+     * - shards = 0: 광고 문서 update 이므로 삭제된 광고가 섞이면 배치 전체가 NOT_FOUND 로 실패함
+     */
+    public int addCounters(WriteBatch batch, String adId, int shards, List<CounterDelta> days) {
+        DocumentReference doc = col().document(adId);
+        long views = 0, clicks = 0;
+        int ops = 0;
+        for (CounterDelta d : days) {
+            views += d.views();
+            clicks += d.clicks();
+            if (d.dailyViews() == 0 && d.dailyClicks() == 0) continue;
+            Map<String, Object> m = new HashMap<>();
+            if (d.dailyViews() != 0)  m.put("views", increment(d.dailyViews()));
+            if (d.dailyClicks() != 0) m.put("clicks", increment(d.dailyClicks()));
+            m.put("lastUpdated", serverTimestamp());
+            batch.set(doc.collection("metrics_daily").document(d.day()), m, SetOptions.merge());
+            ops++;
+        }
+        Map<String, Object> total = new HashMap<>();
+        if (views != 0)  total.put(shards > 0 ? "views" : "viewCount", increment(views));
+        if (clicks != 0) total.put(shards > 0 ? "clicks" : "clickCount", increment(clicks));
+        if (!total.isEmpty()) {
+            if (shards > 0) {
+                batch.set(randomShard(doc, shards), total, SetOptions.merge());
+            } else {
+                total.put("updatedAt", serverTimestamp());
+                batch.update(doc, total);
+            }
+            ops++;
+        }
+        return ops;
+    }
+
+    /** 상세 로그 일괄 기록 (MAX_BATCH_OPS 단위로 나눠 커밋) */
+    public void writeDetails(List<Detail> details) throws ExecutionException, InterruptedException {
+        for (int i = 0; i < details.size(); i += MAX_BATCH_OPS) {
+            WriteBatch batch = db.batch();
+            for (Detail d : details.subList(i, Math.min(i + MAX_BATCH_OPS, details.size()))) {
+                batch.set(col().document(d.adId()).collection(d.click() ? "clicks" : "impressions").document(), d.data());
+            }
+            batch.commit().get();
+        }
+    }
+
+    public WriteBatch batch() { return db.batch(); }
+
+    /** 컬렉션 전체 실시간 구독 (DirectAdIndex). 최초 1회 전체 스냅샷 후 변경분만 전달됨 */
+    public ListenerRegistration listen(com.google.cloud.firestore.EventListener<QuerySnapshot> listener) {
+        return col().addSnapshotListener(listener);
+    }
+
+    /* ---------- 샤드 카운터 ---------- */
+
+    /**
+     * 샤드 모드 전환/확장 (마이그레이션, 트랜잭션)
+     * - 문서의 기존 viewCount/clickCount 를 shard 0 으로 옮기고 문서 필드는 0 으로 초기화
+     * - 조회는 항상 (문서 필드 + 샤드 합계) 이므로 전환 중 어느 경로로 증가해도 누락 없음
+     * - 샤드 수는 늘리기만 가능 (줄이면 범위 밖 샤드가 합계에서 빠짐). 반환: 적용 후 샤드 수, 광고 없으면 null
+     */
+    public Integer reshard(String id, int shards) throws ExecutionException, InterruptedException {
+        int want = Math.max(1, Math.min(shards, MAX_SHARDS));
+        DocumentReference doc = col().document(id);
+        return db.runTransaction(tx -> {
+            DocumentSnapshot s = tx.get(doc).get();
+            if (!s.exists()) return null;
+            int n = Math.max(want, shardsOf(s));
+            long views = optLong(s.get("viewCount"));
+            long clicks = optLong(s.get("clickCount"));
+            if (views != 0 || clicks != 0) {
+                tx.set(doc.collection(COUNTERS).document("0"),
+                       Map.of("views", increment(views), "clicks", increment(clicks)), SetOptions.merge());
+            }
+            tx.update(doc, Map.of("viewCount", 0L, "clickCount", 0L, "counterShards", n,
+                                  "updatedAt", serverTimestamp()));
+            return n;
+        }).get();
+    }
+
+    /** 샤드 수가 shards 미만인 광고 id 전체 (일괄 마이그레이션 대상) */
+    public List<String> idsBelowShards(int shards) throws ExecutionException, InterruptedException {
+        List<String> out = new ArrayList<>();
+        for (QueryDocumentSnapshot d : col().select("counterShards").get().get().getDocuments()) {
+            if (shardsOf(d) < shards) out.add(d.getId());
+        }
+        return out;
+    }
+
+    /** 샤드 모드 광고의 viewCount/clickCount 에 샤드 합계를 더함 (getAll 1회 왕복) */
+    private List<DirectAdRes> withShardTotals(List<DirectAdRes> ads) throws ExecutionException, InterruptedException {
+        Map<String, DirectAdRes> byId = new HashMap<>();
+        List<DocumentReference> refs = new ArrayList<>();
+        for (DirectAdRes r : ads) {
+            if (r.counterShards <= 0) continue;
+            byId.put(r.id, r);
+            CollectionReference counters = col().document(r.id).collection(COUNTERS);
+            for (int i = 0; i < r.counterShards; i++) refs.add(counters.document(String.valueOf(i)));
+        }
+        if (refs.isEmpty()) return ads;
+        for (DocumentSnapshot s : db.getAll(refs.toArray(new DocumentReference[0])).get()) {
+            if (!s.exists()) continue;
+            DirectAdRes r = byId.get(s.getReference().getParent().getParent().getId());
+            r.viewCount  += optLong(s.get("views"));
+            r.clickCount += optLong(s.get("clicks"));
+        }
+        return ads;
+    }
+
+    private static DocumentReference randomShard(DocumentReference doc, int shards) {
+        return doc.collection(COUNTERS).document(String.valueOf(ThreadLocalRandom.current().nextInt(shards)));
+    }
+
+    private static int shardsOf(DocumentSnapshot s) {
+        long n = optLong(s.get("counterShards"));
+        return (int) Math.max(0, Math.min(n, MAX_SHARDS));
+    }
+
     /* ---------- mapping helpers (lenient) ---------- */
 
     @SuppressWarnings("unchecked")
-    private static DirectAdRes toRes(DocumentSnapshot d) {
+    public static DirectAdRes toRes(DocumentSnapshot d) {
         DirectAdRes r = new DirectAdRes();
         r.id             = d.getId();
         r.adType         = parseAdType(d.get("adType"));
@@ -147,6 +297,7 @@ public class DirectAdRepository {
         r.updatedAt      = anyTsToInstant(d.get("updatedAt"));
         r.viewCount      = optLong(d.get("viewCount"));
         r.clickCount     = optLong(d.get("clickCount"));
+        r.counterShards  = shardsOf(d);
         Object meta      = d.get("meta");
         if (meta instanceof Map<?,?> m) r.meta = (Map<String, Object>) m;
         return r;
@@ -177,8 +328,17 @@ public class DirectAdRepository {
     }
 
     private static Map<String, Object> detailMap(TrackEventReq r) {
+        return detailMap(r, serverTimestamp());
+    }
+
+    /** 지연 기록 시에는 발생 시각(at)을 직접 지정 */
+    public static Map<String, Object> detailMap(TrackEventReq r, Instant at) {
+        return detailMap(r, Timestamp.ofTimeSecondsAndNanos(at.getEpochSecond(), at.getNano()));
+    }
+
+    private static Map<String, Object> detailMap(TrackEventReq r, Object at) {
         Map<String, Object> m = new HashMap<>();
-        m.put("at", serverTimestamp());
+        m.put("at", at);
         m.put("placement", r.placement);
         m.put("appVersion", r.appVersion);
         m.put("deviceModel", r.deviceModel);
@@ -194,7 +354,12 @@ public class DirectAdRepository {
     }
 
     private static String todayKey() {
-        return java.time.LocalDate.now(java.time.ZoneOffset.UTC).toString();
+        return dayKey(Instant.now());
+    }
+
+    /** metrics_daily 문서 키 (UTC 일자) */
+    public static String dayKey(Instant at) {
+        return java.time.LocalDate.ofInstant(at, java.time.ZoneOffset.UTC).toString();
     }
 
     // ---- tolerant enum parsing (handles legacy values like "EVENT_FAB") ----
@@ -1,6 +1,7 @@
 package com.polarisoffice.secuone.repository;
 
 import com.polarisoffice.secuone.domain.EventLogEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
@@ -8,18 +9,27 @@ import java.time.Instant;
 import java.util.Optional;
 import java.util.List;
 
+/**
+ * event_logs 조회
+ * - code 파라미터는 CustomerCodes.normalize 된 값(소문자)이어야 함.
+ *   컬럼에 함수를 씌우지 않아야 customer_code 선두 인덱스를 탄다
+ */
 public interface EventLogRepository
     extends JpaRepository<EventLogEntity, Long>, JpaSpecificationExecutor<EventLogEntity> {
 
   // 기존 의미를 현재 스키마로 치환
   boolean existsByActionAndActorAndObjectId(String action, String actor, String objectId);
 
+  /** 중복 재전송 응답용 (uk_eventlogs_cust_client_id: 고객사별 이벤트 id) */
+  @Query("select e.id from EventLogEntity e where e.customer.code = :code and e.clientEventId = :clientEventId")
+  Optional<Long> findIdByClientEventId(@Param("code") String code, @Param("clientEventId") String clientEventId);
+
   Optional<EventLogEntity> findTopByActionAndActorAndObjectIdOrderByCreatedAtAsc(
       String action, String actor, String objectId);
 
   @Query("""
 	    select e from EventLogEntity e
-	     where upper(e.customer.code) = upper(:code)
+	     where e.customer.code = :code
 	       and e.createdAt between :from and :to
 	     order by e.createdAt desc
 	  """)
@@ -31,7 +41,7 @@ public interface EventLogRepository
 
 	  @Query("""
 	    select e from EventLogEntity e
-	     where upper(e.customer.code) = upper(:code)
+	     where e.customer.code = :code
 	       and e.createdAt between :from and :to
 	       and e.objectType = :type
 	     order by e.createdAt desc
@@ -43,10 +53,40 @@ public interface EventLogRepository
 	      @Param("type") String type
 	  );
 
+	  /** 최근 N건 경량 프로젝션 (customer 연관/ip/ua 미로딩) */
+	  interface RecentRow {
+	    Long getId();
+	    Instant getCreatedAt();
+	    String getObjectType();
+	    String getObjectId();
+	    String getMemo();
+	  }
+
+	  /**
+	   * 최근 N건: Pageable 로 LIMIT 적용 (count 없음)
+	   * ix_eventlogs_customer_type_date (customer_code, object_type, created_at) 역순 스캔 후 N건에서 중단
+	   */
+	  @Query("""
+	    select e.id as id, e.createdAt as createdAt, e.objectType as objectType,
+	           e.objectId as objectId, e.memo as memo
+	      from EventLogEntity e
+	     where e.customer.code = :code
+	       and (:type is null or e.objectType = :type)
+	       and e.createdAt between :from and :to
+	     order by e.createdAt desc
+	  """)
+	  List<RecentRow> findRecent(
+	      @Param("code") String code,
+	      @Param("type") String type,
+	      @Param("from") Instant from,
+	      @Param("to")   Instant to,
+	      Pageable pageable
+	  );
+
 	  @Query("""
 	    select e.objectType, count(e)
 	      from EventLogEntity e
-	     where upper(e.customer.code) = upper(:code)
+	     where e.customer.code = :code
 	       and e.createdAt between :from and :to
 	     group by e.objectType
 	  """)
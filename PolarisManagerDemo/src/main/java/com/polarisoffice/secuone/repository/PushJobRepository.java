@@ -0,0 +1,28 @@
+// src/main/java/com/polarisoffice/secuone/repository/PushJobRepository.java
+package com.polarisoffice.secuone.repository;
+
+import com.polarisoffice.secuone.domain.PushJobEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+/** 푸시 작업 상태 조회용 (적재/점유/완료 처리는 PushJobQueue 의 JDBC 경로) */
+public interface PushJobRepository extends JpaRepository<PushJobEntity, Long> {
+
+  interface StatusCount {
+    PushJobEntity.Status getStatus();
+    long getCnt();
+  }
+
+  Optional<PushJobEntity> findByIdempotencyKey(String idempotencyKey);
+
+  List<PushJobEntity> findByStatusOrderByIdDesc(PushJobEntity.Status status, Pageable page);
+
+  List<PushJobEntity> findAllByOrderByIdDesc(Pageable page);
+
+  @Query("select j.status as status, count(j) as cnt from PushJobEntity j group by j.status")
+  List<StatusCount> countByStatus();
+}
@@ -8,7 +8,6 @@ import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
-import java.time.LocalDate;
 import java.util.List;
 
 public interface SecurityEventRepository
@@ -16,42 +15,75 @@ extends JpaRepository<SecurityEventEntity, Long>,
         JpaSpecificationExecutor<SecurityEventEntity> {
     
 
-    /** 일별(eventType별) 카운트 프로젝션 */
-    interface DailyCountRow {
-        LocalDate getDay();     // alias: day
-        String    getEventType(); // alias: eventType
-        long      getCnt();     // alias: cnt
+    /** KPI 프로젝션 (전체/타입별 건수) */
+    interface KpiRow {
+        Long getTotal();
+        Long getMalware();
+        Long getRooting();
+        Long getRemote();
     }
 
     /**
-     * 고객사 코드 + 기간 필터로 일자/타입별 집계
-     * - CAST(created_at AS DATE) 로 날짜만 추출 (MySQL/Postgres/H2 공통 동작)
+     * 고객사 + 기간 KPI 를 조건부 집계 한 번으로 계산 (count 5회 → 1회)
      */
+    @Query("""
+        select count(e)                                                                 as total,
+               coalesce(sum(case when e.eventType = 'MALWARES_APP'       then 1 else 0 end), 0) as malware,
+               coalesce(sum(case when e.eventType = 'ROOTING_DETECTED'   then 1 else 0 end), 0) as rooting,
+               coalesce(sum(case when e.eventType = 'REMOTE_CONTROL_APP' then 1 else 0 end), 0) as remote
+          from SecurityEventEntity e
+         where e.customerCode = :code
+           and e.createdAt between :start and :end
+        """)
+    KpiRow kpi(
+            @Param("code") String customerCode,
+            @Param("start") Instant start,
+            @Param("end") Instant end
+    );
+
+    /** 이름별 카운트 프로젝션 (Top N) */
+    interface NameCountRow {
+        String getName();   // alias: name
+        long   getCnt();    // alias: cnt
+    }
+
+    /** 악성앱 유형 Top N (미추출은 '-' 로 묶음) — ix_events_cust_type_date 범위 스캔 */
     @Query(value = """
-        select
-          cast(e.created_at as date)        as day,
-          e.event_type                      as eventType,
-          count(*)                          as cnt
+        select coalesce(nullif(e.malware_type, ''), '-') as name,
+               count(*)                                  as cnt
         from security_events e
         where e.customer_code = :code
+          and e.event_type = :type
           and e.created_at between :start and :end
-        group by cast(e.created_at as date), e.event_type
-        order by day asc
+        group by coalesce(nullif(e.malware_type, ''), '-')
+        order by cnt desc
+        limit :lim
         """, nativeQuery = true)
-    List<DailyCountRow> countDailyByType(
+    List<NameCountRow> topMalwareTypes(
             @Param("code") String customerCode,
+            @Param("type") String eventType,
             @Param("start") Instant start,
-            @Param("end") Instant end
+            @Param("end") Instant end,
+            @Param("lim") int limit
     );
 
-    /**
-     * 악성앱 Top(패키지/유형) 계산용: 기간 내 MALWARE 이벤트 전체 로딩
-     * 컨트롤러에서 payload 파싱하여 Top N 계산.
-     */
-    List<SecurityEventEntity> findByCustomerCodeAndEventTypeAndCreatedAtBetween(
-            String customerCode,
-            String eventType,
-            Instant start,
-            Instant end
+    /** 악성앱 패키지 Top N (미추출은 '-' 로 묶음) */
+    @Query(value = """
+        select coalesce(nullif(e.malware_package, ''), '-') as name,
+               count(*)                                     as cnt
+        from security_events e
+        where e.customer_code = :code
+          and e.event_type = :type
+          and e.created_at between :start and :end
+        group by coalesce(nullif(e.malware_package, ''), '-')
+        order by cnt desc
+        limit :lim
+        """, nativeQuery = true)
+    List<NameCountRow> topMalwarePackages(
+            @Param("code") String customerCode,
+            @Param("type") String eventType,
+            @Param("start") Instant start,
+            @Param("end") Instant end,
+            @Param("lim") int limit
     );
 }
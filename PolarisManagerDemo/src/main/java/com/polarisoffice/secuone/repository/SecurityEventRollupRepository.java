@@ -0,0 +1,45 @@
+// src/main/java/com/polarisoffice/secuone/repository/SecurityEventRollupRepository.java
+package com.polarisoffice.secuone.repository;
+
+import com.polarisoffice.secuone.domain.SecurityEventRollupEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface SecurityEventRollupRepository
+extends JpaRepository<SecurityEventRollupEntity, SecurityEventRollupEntity.Key> {
+
+    /** 버킷 x 타입 카운트 프로젝션 */
+    interface BucketCountRow {
+        Instant getBucketStart();
+        String  getEventType();
+        long    getCnt();
+    }
+
+    /** 고객사 + [start, end) 범위의 버킷 행만 조회 (PK (customer_code, bucket_start, event_type) prefix 범위 스캔) */
+    @Query("""
+        select r.bucketStart as bucketStart, r.eventType as eventType, r.cnt as cnt
+          from SecurityEventRollupEntity r
+         where r.customerCode = :code
+           and r.bucketStart >= :start
+           and r.bucketStart <  :end
+        """)
+    List<BucketCountRow> findBuckets(
+            @Param("code") String customerCode,
+            @Param("start") Instant start,
+            @Param("end") Instant end
+    );
+
+    /** 재집계(backfill) 전 범위 삭제 */
+    @Modifying
+    @Query("""
+        delete from SecurityEventRollupEntity r
+         where r.bucketStart >= :start
+           and r.bucketStart <  :end
+        """)
+    int deleteRange(@Param("start") Instant start, @Param("end") Instant end);
+}
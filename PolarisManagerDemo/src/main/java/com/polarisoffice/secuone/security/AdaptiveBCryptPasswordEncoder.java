@@ -0,0 +1,77 @@
+package com.polarisoffice.secuone.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * 목표 비용(cost)으로 수렴하는 bcrypt 인코더
+ * - 해시별 비용은 해시 문자열 자체($2a$<cost>$...)에서 읽음 (별도 컬럼 없음)
+ * - 목표 비용: 고정값(fixedCost > 0) 또는 기동 시 1회 측정해 targetMs 에 가장 가까운 값 [minCost, maxCost]
+ * - upgradeEncoding(): 목표와 비용이 다르면 true → 로그인 성공 시 재해시 (상향/하향 모두, minCost 미만으로는 안 내려감)
+ * - matches() 는 비용과 무관하게 검증 (BCrypt 해시에 salt/cost 포함)
+ */
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+  private static final Logger log = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+
+  private final int targetCost;
+  private final BCryptPasswordEncoder encoder;
+
+  public AdaptiveBCryptPasswordEncoder(int fixedCost, int minCost, int maxCost, long targetMs) {
+    int min = clamp(minCost, 4, 31);
+    int max = clamp(Math.max(min, maxCost), min, 31);
+    this.targetCost = fixedCost > 0 ? clamp(fixedCost, 4, 31) : calibrate(min, max, targetMs);
+    this.encoder = new BCryptPasswordEncoder(targetCost);
+  }
+
+  public int targetCost() { return targetCost; }
+
+  /** "$2a$10$..." → 10, bcrypt 형식이 아니면 -1 */
+  public static int costOf(String hash) {
+    if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$') return -1;
+    char a = hash.charAt(4), b = hash.charAt(5);
+    if (!Character.isDigit(a) || !Character.isDigit(b) || hash.charAt(6) != '$') return -1;
+    return (a - '0') * 10 + (b - '0');
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return encoder.encode(rawPassword);
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return encoder.matches(rawPassword, encodedPassword);
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    int cost = costOf(encodedPassword);
+    return cost > 0 && cost != targetCost;
+  }
+
+  /** minCost 로 한 번 해시해 소요시간 측정 → 비용 1 증가당 2배로 보고 targetMs 이하 최대 비용 선택 */
+  private static int calibrate(int min, int max, long targetMs) {
+    new BCryptPasswordEncoder(4).encode("warmup");
+    BCryptPasswordEncoder probe = new BCryptPasswordEncoder(min);
+    long t0 = System.nanoTime();
+    probe.encode("calibration");
+    double ms = Math.max(0.1, (System.nanoTime() - t0) / 1_000_000.0);
+
+    int cost = min;
+    double est = ms;
+    while (cost < max && est * 2 <= targetMs) {
+      est *= 2;
+      cost++;
+    }
+    log.info("[PasswordEncoder] calibrated bcrypt cost={} (cost {} took {} ms, target {} ms)",
+        cost, min, String.format("%.1f", ms), targetMs);
+    return cost;
+  }
+
+  private static int clamp(int v, int lo, int hi) {
+    return Math.max(lo, Math.min(hi, v));
+  }
+}
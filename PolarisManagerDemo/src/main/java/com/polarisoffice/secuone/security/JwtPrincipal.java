@@ -1,16 +1,27 @@
 package com.polarisoffice.secuone.security;
 
+/**
+ * JwtAuthFilter 가 SecurityContext 에 넣는 타입 principal
+ * - customerCode 는 토큰 클레임(customerCode/tenantCode) 값, 없으면 null
+ */
 public class JwtPrincipal {
 	  private final Long id;
 	  private final String username;
 	  private final String role;
+	  private final String customerCode;
 
 	  public JwtPrincipal(Long id, String username, String role) {
+	    this(id, username, role, null);
+	  }
+
+	  public JwtPrincipal(Long id, String username, String role, String customerCode) {
 	    this.id = id;
 	    this.username = username;
 	    this.role = role;
+	    this.customerCode = customerCode;
 	  }
 	  public Long getId() { return id; }
 	  public String getUsername() { return username; }
 	  public String getRole() { return role; }
-	}
\ No newline at end of file
+	  public String getCustomerCode() { return customerCode; }
+	}
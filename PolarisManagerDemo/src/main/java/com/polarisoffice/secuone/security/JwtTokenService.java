@@ -1,6 +1,7 @@
 package com.polarisoffice.secuone.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
@@ -12,10 +13,13 @@ public class JwtTokenService {
 
     private final SecretKey key;
     private final long validityMs;
+    /** 불변/스레드 안전 — 요청마다 새로 만들지 않음 */
+    private final JwtParser parser;
 
     public JwtTokenService(String secret, long validityMs) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.validityMs = validityMs;
+        this.parser = Jwts.parser().verifyWith(key).build();
     }
 
     public String create(String subject) {
@@ -32,9 +36,7 @@ public class JwtTokenService {
 
     /** 0.12: parser().verifyWith(key).build().parseSignedClaims(token).getPayload() */
     public Claims parse(String token) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
@@ -0,0 +1,133 @@
+package com.polarisoffice.secuone.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 서명 검증이 끝난 토큰 → principal 캐시 (JwtAuthFilter 전용)
+ * - 키: 토큰 SHA-256 다이제스트 (원문 토큰은 보관하지 않음)
+ * - 항목 수명: 토큰 exp 까지 (exp 없으면 maxTtl). 조회 시에도 exp 를 다시 확인해 만료 토큰 거부
+ * - revoke(): 캐시 제거 + exp 까지 거부 목록 유지 (서명이 유효해도 재검증으로 통과하지 못하게)
+ */
+public class VerifiedTokenCache {
+
+  /** cached: 이번 조회가 캐시 적중이었는지 (서명 검증 생략 여부) */
+  public record Verified(JwtPrincipal principal, Instant expiresAt, boolean cached) {}
+
+  private record Revoked(Instant expiresAt) {}
+
+  private final JwtTokenService tokenService;
+  private final Duration maxTtl;
+  private final Cache<String, Verified> verified;
+  private final Cache<String, Revoked> revoked;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public VerifiedTokenCache(JwtTokenService tokenService, long maxSize, Duration maxTtl) {
+    this.tokenService = tokenService;
+    this.maxTtl = maxTtl;
+    this.verified = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(untilExpiry(Verified::expiresAt))
+        .build();
+    this.revoked = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(untilExpiry(Revoked::expiresAt))
+        .build();
+  }
+
+  /**
+   * 캐시 적중이면 바로 반환, 아니면 서명 검증 후 mapper 로 principal 생성해 보관.
+   * 검증 실패/만료/철회 토큰은 예외 (JwtException 등)
+   */
+  public Verified verify(String token, Function<Claims, JwtPrincipal> mapper) {
+    String key = digest(token);
+    if (revoked.getIfPresent(key) != null) throw new RevokedTokenException();
+
+    Instant now = Instant.now();
+    Verified v = verified.getIfPresent(key);
+    if (v != null && v.expiresAt().isAfter(now)) {
+      hits.increment();
+      return new Verified(v.principal(), v.expiresAt(), true);
+    }
+    misses.increment();
+
+    Claims claims = tokenService.decode(token);
+    Date exp = claims.getExpiration();
+    Instant cap = now.plus(maxTtl);
+    Instant until = (exp == null || exp.toInstant().isAfter(cap)) ? cap : exp.toInstant();
+    v = new Verified(mapper.apply(claims), until, false);
+    verified.put(key, v);
+    return v;
+  }
+
+  /** 로그아웃/강제 만료 훅: 토큰 단위 철회 */
+  public void revoke(String token) {
+    String key = digest(token);
+    Verified v = verified.getIfPresent(key);
+    Instant until;
+    if (v != null) {
+      until = v.expiresAt();
+    } else {
+      try {
+        Date exp = tokenService.decode(token).getExpiration();
+        until = exp != null ? exp.toInstant() : Instant.now().plus(maxTtl);
+      } catch (RuntimeException e) {
+        return; // 이미 무효한 토큰
+      }
+    }
+    revoked.put(key, new Revoked(until));
+    verified.invalidate(key);
+  }
+
+  /** 권한/고객사 변경 시: 해당 사용자의 캐시 항목 제거 (다음 요청에서 재검증) */
+  public void evictSubject(String subject) {
+    verified.asMap().values().removeIf(v -> subject.equals(v.principal().getUsername()));
+  }
+
+  public void evictAll() {
+    verified.invalidateAll();
+  }
+
+  public long hits()   { return hits.sum(); }
+  public long misses() { return misses.sum(); }
+  public long size()   { return verified.estimatedSize(); }
+
+  private static <V> Expiry<String, V> untilExpiry(Function<V, Instant> expiresAt) {
+    return new Expiry<>() {
+      @Override public long expireAfterCreate(String k, V v, long now) {
+        return Math.max(0, Duration.between(Instant.now(), expiresAt.apply(v)).toNanos());
+      }
+      @Override public long expireAfterUpdate(String k, V v, long now, long cur) {
+        return expireAfterCreate(k, v, now);
+      }
+      @Override public long expireAfterRead(String k, V v, long now, long cur) { return cur; }
+    };
+  }
+
+  private static String digest(String token) {
+    try {
+      byte[] h = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(h);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public static class RevokedTokenException extends RuntimeException {
+    public RevokedTokenException() { super("revoked token"); }
+  }
+}
@@ -0,0 +1,225 @@
+package com.polarisoffice.secuone.service;
+
+import com.polarisoffice.secuone.domain.CustomerBindingEntity.BindingType;
+import com.polarisoffice.secuone.repository.CustomerBindingRepository;
+import com.polarisoffice.secuone.repository.CustomerBindingRepository.BindingRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 활성 바인딩 메모리 매처 (findWebMatches 의 like 풀스캔 대체)
+ * - APP / WEB 정확 일치: 해시맵
+ * - WEB "%.example.com": 역순 라벨 트라이 (com → example), 노드에 가장 높은 priority 매치 보관
+ * - 그 밖의 like 패턴(중간 %, _): 정규식으로 변환해 priority 내림차순 목록에서 확인 (예외 경로)
+ * - priority 가 같으면 정확 일치 > 더 구체적인(깊은) 와일드카드
+ * - 불변 스냅샷을 volatile 로 교체. 변경은 바인딩 단위로 행 맵에 반영 후 재구성 (DB 전체 재조회 없음)
+ * - 리스너를 거치지 않은 DB 직접 수정 대비 주기적 전체 재적재
+ */
+@Service
+public class CustomerBindingMatcher implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(CustomerBindingMatcher.class);
+
+  public record Match(String customerCode, String customerName, String key, int priority) {}
+
+  private record Row(long id, BindingType type, String key, int priority, String customerCode, String customerName) {
+    Match match() { return new Match(customerCode, customerName, key, priority); }
+  }
+
+  private static final class Node {
+    final Map<String, Node> children = new HashMap<>(4);
+    Match wildcard;
+  }
+
+  private record LikePattern(Pattern regex, Match match) {}
+
+  private record Snapshot(Map<String, Match> apps, Map<String, Match> hosts, Node suffixes, List<LikePattern> others) {
+    static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), new Node(), List.of());
+  }
+
+  private final CustomerBindingRepository bindings;
+  private final long fullReloadSec;
+  private final Map<Long, Row> rows = new ConcurrentHashMap<>();
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+  private volatile boolean ready;
+  private volatile boolean running;
+  private ScheduledExecutorService scheduler;
+
+  public CustomerBindingMatcher(CustomerBindingRepository bindings,
+                                @Value("${tenant.matcher.full-reload-sec:600}") long fullReloadSec) {
+    this.bindings = bindings;
+    this.fullReloadSec = Math.max(10, fullReloadSec);
+  }
+
+  /* ===================== 조회 ===================== */
+
+  public boolean isReady() { return ready; }
+
+  public Match matchApp(String pkg) {
+    return snapshot.apps().get(lower(pkg.trim()));
+  }
+
+  public Match matchWeb(String domainHost) {
+    Snapshot s = snapshot;
+    String host = lower(domainHost.trim());
+
+    Match best = s.hosts().get(host);
+    boolean bestExact = best != null;
+
+    // 오른쪽 라벨부터 트라이를 따라 내려가며 "%.<지금까지 라벨>" 매치 확인
+    Node n = s.suffixes();
+    int end = host.length();
+    while (end > 0) {
+      int dot = host.lastIndexOf('.', end - 1);
+      n = n.children.get(host.substring(dot + 1, end));
+      if (n == null) break;
+      // '%.' 뒤 접미사이므로 앞에 '.' 이 남아 있어야 매치
+      if (n.wildcard != null && dot >= 0 && better(n.wildcard, best, bestExact)) {
+        best = n.wildcard;
+        bestExact = false;
+      }
+      if (dot < 0) break;
+      end = dot;
+    }
+
+    for (LikePattern p : s.others()) {
+      if (best != null && p.match().priority() <= best.priority()) break;
+      if (p.regex().matcher(host).matches()) { best = p.match(); break; }
+    }
+    return best;
+  }
+
+  private static boolean better(Match cand, Match best, boolean bestExact) {
+    if (best == null) return true;
+    if (cand.priority() != best.priority()) return cand.priority() > best.priority();
+    return !bestExact;
+  }
+
+  /* ===================== 갱신 ===================== */
+
+  /** 전체 재적재 (기동 시 / 주기적 / 고객사 변경 시) */
+  public synchronized void reloadAll() {
+    Map<Long, Row> fresh = new HashMap<>();
+    for (BindingRow r : bindings.findActiveRows()) {
+      Row row = toRow(r);
+      if (row != null) fresh.put(row.id(), row);
+    }
+    rows.keySet().retainAll(fresh.keySet());
+    rows.putAll(fresh);
+    rebuild();
+    if (!ready) log.info("[BindingMatcher] ready: {} bindings", rows.size());
+    ready = true;
+  }
+
+  /** 바인딩 1건 변경 반영 (비활성/삭제면 제거) */
+  public synchronized void refresh(Long id) {
+    if (id == null) return;
+    Row row = bindings.findActiveRow(id).map(CustomerBindingMatcher::toRow).orElse(null);
+    if (row == null) rows.remove(id);
+    else rows.put(id, row);
+    rebuild();
+  }
+
+  private static Row toRow(BindingRow r) {
+    if (r.getType() == null || r.getBindingKey() == null || r.getCustomerCode() == null) return null;
+    return new Row(r.getId(), r.getType(), lower(r.getBindingKey().trim()),
+        r.getPriority() == null ? 0 : r.getPriority(), r.getCustomerCode(), r.getCustomerName());
+  }
+
+  private void rebuild() {
+    Map<String, Match> apps = new HashMap<>();
+    Map<String, Match> hosts = new HashMap<>();
+    Node root = new Node();
+    List<LikePattern> others = new ArrayList<>();
+
+    for (Row r : rows.values()) {
+      Match m = r.match();
+      if (r.type() == BindingType.APP) {
+        apps.merge(r.key(), m, CustomerBindingMatcher::higher);
+      } else if (!isLike(r.key())) {
+        hosts.merge(r.key(), m, CustomerBindingMatcher::higher);
+      } else if (r.key().startsWith("%.") && !isLike(r.key().substring(2))) {
+        Node n = root;
+        String[] labels = r.key().substring(2).split("\\.");
+        for (int i = labels.length - 1; i >= 0; i--) n = n.children.computeIfAbsent(labels[i], k -> new Node());
+        n.wildcard = n.wildcard == null ? m : higher(n.wildcard, m);
+      } else {
+        others.add(new LikePattern(likeToRegex(r.key()), m));
+      }
+    }
+    others.sort(Comparator.comparingInt((LikePattern p) -> p.match().priority()).reversed());
+    snapshot = new Snapshot(apps, hosts, root, List.copyOf(others));
+  }
+
+  private static Match higher(Match a, Match b) {
+    return b.priority() > a.priority() ? b : a;
+  }
+
+  private static boolean isLike(String key) {
+    return key.indexOf('%') >= 0 || key.indexOf('_') >= 0;
+  }
+
+  /** SQL like → 정규식 (% → .*, _ → .) */
+  private static Pattern likeToRegex(String like) {
+    StringBuilder sb = new StringBuilder();
+    StringBuilder lit = new StringBuilder();
+    for (char ch : like.toCharArray()) {
+      if (ch == '%' || ch == '_') {
+        if (lit.length() > 0) { sb.append(Pattern.quote(lit.toString())); lit.setLength(0); }
+        sb.append(ch == '%' ? ".*" : ".");
+      } else {
+        lit.append(ch);
+      }
+    }
+    if (lit.length() > 0) sb.append(Pattern.quote(lit.toString()));
+    return Pattern.compile(sb.toString());
+  }
+
+  private static String lower(String s) {
+    return s.toLowerCase(Locale.ROOT);
+  }
+
+  /* ===================== Lifecycle ===================== */
+
+  private void safeReload() {
+    try {
+      reloadAll();
+    } catch (RuntimeException e) {
+      // 적재 실패 시 직전 스냅샷 유지 (최초 적재 전이면 DB 조회 폴백)
+      log.warn("[BindingMatcher] reload failed: {}", e.getMessage());
+    }
+  }
+
+  @Override
+  public void start() {
+    if (running) return;
+    running = true;
+    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "binding-matcher");
+      t.setDaemon(true);
+      return t;
+    });
+    safeReload();
+    scheduler.scheduleWithFixedDelay(this::safeReload, fullReloadSec, fullReloadSec, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (scheduler != null) scheduler.shutdownNow();
+  }
+
+  @Override
+  public boolean isRunning() { return running; }
+}
@@ -0,0 +1,509 @@
+package com.polarisoffice.secuone.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.firestore.WriteBatch;
+import com.polarisoffice.secuone.dto.TrackEventReq;
+import com.polarisoffice.secuone.repository.DirectAdRepository;
+import com.polarisoffice.secuone.repository.DirectAdRepository.CounterDelta;
+import com.polarisoffice.secuone.repository.DirectAdRepository.Detail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 직광고 노출/클릭 카운터 버퍼 (요청 스레드에서 Firestore 왕복 제거)
+ * - 요청 스레드는 (광고, UTC 일자) 별 LongAdder 증분 + 상세 로그 큐 적재만 수행
+ * - 단일 flusher 스레드가 flushInterval 마다 WriteBatch 로 광고 문서/metrics_daily 를 한 번에 갱신
+ *   → 광고 문서당 쓰기 빈도가 flushInterval 에 1회로 제한 (Firestore 문서당 1 write/s 한도 대응)
+ * - 상세 로그(impressions/clicks)는 bounded 큐에서 모아 500건 단위 배치로 기록. 가득 차면 상세만 버림
+ * - 존재 확인/샤드 수는 광고별 TTL 캐시 (존재/부재 모두). 샤드 모드 광고는 임의 샤드 문서에 기록
+ * - 종료 시 웹서버가 먼저 멈춘 뒤 남은 증분/상세 로그를 모두 flush 하고 내려감
+ *   카운터는 shutdown-flush-timeout-ms 동안 백오프 재시도, 그래도 남으면 spill-dir 에 기록 후 다음 기동 시 재적재
+ * - 종료가 시작된 뒤의 record() 는 버퍼를 거치지 않고 동기 경로로 기록 (진행 중인 record 가 끝난 뒤 마지막 flush)
+ */
+@Service
+public class DirectAdCounterService implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(DirectAdCounterService.class);
+
+  private record DayKey(String adId, String day) {}
+
+  /** 존재 확인 캐시 값: 샤드 수 + 만료 시각(nanoTime) */
+  private record Known(int shards, long until) {}
+
+  /** 누적 증분. flush 는 sum() 만큼 add(-sum) 하므로 그 사이 들어온 증분은 다음 회차로 넘어감 */
+  private static final class Delta {
+    final LongAdder views = new LongAdder();
+    final LongAdder clicks = new LongAdder();
+    final LongAdder dailyViews = new LongAdder();
+    final LongAdder dailyClicks = new LongAdder();
+  }
+
+  private final DirectAdRepository repo;
+  private final ConcurrentHashMap<DayKey, Delta> deltas = new ConcurrentHashMap<>();
+  private final BlockingQueue<Detail> details;
+  private final ConcurrentHashMap<String, Known> known = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Long> missingUntil = new ConcurrentHashMap<>();
+  private final long flushIntervalMs;
+  private final long existsTtlNanos;
+  private final ObjectMapper om;
+  private final long shutdownFlushMs;
+  private final Path spillDir;
+  /** 버퍼 경로로 진행 중인 record() 수 (마지막 flush 전에 0 이 될 때까지 대기) */
+  private final LongAdder inflight = new LongAdder();
+
+  private final AtomicLong flushedEvents  = new AtomicLong();
+  private final AtomicLong droppedDetails = new AtomicLong();
+  private final AtomicLong droppedCounts  = new AtomicLong();
+  private final AtomicLong spilledCounts  = new AtomicLong();
+  private final AtomicLong spillSeq       = new AtomicLong();
+
+  private volatile boolean running;
+  private Thread worker;
+
+  public DirectAdCounterService(
+      DirectAdRepository repo,
+      ObjectMapper om,
+      @Value("${directads.counter.flush-interval-ms:1000}") long flushIntervalMs,
+      @Value("${directads.counter.detail-queue-capacity:100000}") int detailQueueCapacity,
+      @Value("${directads.counter.exists-ttl-sec:300}") long existsTtlSec,
+      @Value("${directads.counter.shutdown-flush-timeout-ms:20000}") long shutdownFlushMs,
+      @Value("${directads.counter.spill-dir:./data/direct-ad-counter-spill}") String spillDir
+  ) {
+    this.repo = repo;
+    this.om = om;
+    this.shutdownFlushMs = Math.max(0, shutdownFlushMs);
+    this.spillDir = Paths.get(spillDir);
+    this.flushIntervalMs = Math.max(100, flushIntervalMs);
+    this.details = new ArrayBlockingQueue<>(Math.max(1, detailQueueCapacity));
+    this.existsTtlNanos = TimeUnit.SECONDS.toNanos(Math.max(1, existsTtlSec));
+  }
+
+  /* ===================== 적재 API ===================== */
+
+  /** 노출/클릭 1건 누적. 광고가 없으면 false */
+  public boolean record(String id, TrackEventReq req, boolean click, boolean logDetail) throws Exception {
+    // inflight 를 먼저 올린 뒤 running 확인 → 종료 쪽은 running=false 후 inflight 가 0 이 되면 마지막 flush
+    inflight.increment();
+    try {
+      // 종료 중에는 기존 동기 경로로 직접 기록
+      if (!running) return click ? repo.incClick(id, req, logDetail) : repo.incView(id, req, logDetail);
+      return buffer(id, req, click, logDetail);
+    } finally {
+      inflight.decrement();
+    }
+  }
+
+  private boolean buffer(String id, TrackEventReq req, boolean click, boolean logDetail) throws Exception {
+    if (shardsOf(id) < 0) return false;
+
+    Instant now = Instant.now();
+    DayKey key = new DayKey(id, DirectAdRepository.dayKey(now));
+    Delta d = deltas.get(key);
+    if (d == null) d = deltas.computeIfAbsent(key, k -> new Delta());
+
+    (click ? d.clicks : d.views).increment();
+    if (logDetail) {
+      (click ? d.dailyClicks : d.dailyViews).increment();
+      if (!details.offer(new Detail(id, click, DirectAdRepository.detailMap(req, now)))) {
+        droppedDetails.incrementAndGet();
+      }
+    }
+    return true;
+  }
+
+  /** 아직 flush 되지 않은 증분 {views, clicks} (metrics 조회 보정용) */
+  public long[] pending(String id) {
+    long views = 0, clicks = 0;
+    for (Map.Entry<DayKey, Delta> en : deltas.entrySet()) {
+      if (!en.getKey().adId().equals(id)) continue;
+      views += en.getValue().views.sum();
+      clicks += en.getValue().clicks.sum();
+    }
+    return new long[] { views, clicks };
+  }
+
+  /** 광고 삭제/샤드 변경 시 캐시 무효화 (삭제된 광고의 남은 증분은 flush 시 NOT_FOUND 로 정리됨) */
+  public void evict(String id) {
+    known.remove(id);
+    missingUntil.remove(id);
+  }
+
+  /** 아웃박스 릴레이가 넘기는 노출/클릭 1건. at = 발생 시각 (일자 키/상세 로그 시각) */
+  public record Tracked(String adId, TrackEventReq req, boolean click, Instant at) {}
+
+  /**
+   * 버퍼를 거치지 않고 바로 기록 (OutboxRelay 용). 카운터 커밋이 확인된 뒤에 반환하므로
+   * 호출자는 반환 후 원본(아웃박스 행)을 지워도 됨
+   * - (광고, 일자) 별로 합쳐 WriteBatch 로 기록 (배치당 광고 문서 쓰기 1회), 상세 로그는 항상 기록
+   * - 없는/삭제된 광고의 건은 버림 (기록 완료로 취급)
+   * - 상세 로그는 기존과 같이 best-effort (카운터 커밋 후 기록, 실패 시 유실 처리)
+   * @return 일시 오류로 카운터를 기록하지 못한 광고 id (해당 건은 호출자가 재시도)
+   */
+  public Set<String> applyNow(List<Tracked> events) throws Exception {
+    Map<String, Map<String, long[]>> byAd = new LinkedHashMap<>(); // 광고 → 일자 → {views, clicks}
+    Map<String, List<Detail>> detailsByAd = new HashMap<>();
+    for (Tracked t : events) {
+      if (shardsOf(t.adId()) < 0) {
+        droppedCounts.incrementAndGet();
+        continue;
+      }
+      long[] d = byAd.computeIfAbsent(t.adId(), k -> new TreeMap<>())
+          .computeIfAbsent(DirectAdRepository.dayKey(t.at()), k -> new long[2]);
+      d[t.click() ? 1 : 0]++;
+      detailsByAd.computeIfAbsent(t.adId(), k -> new ArrayList<>())
+          .add(new Detail(t.adId(), t.click(), DirectAdRepository.detailMap(t.req(), t.at())));
+    }
+    if (byAd.isEmpty()) return Set.of();
+
+    List<List<CounterDelta>> groups = new ArrayList<>(byAd.size());
+    byAd.forEach((id, days) -> {
+      List<CounterDelta> g = new ArrayList<>(days.size());
+      days.forEach((day, d) -> g.add(new CounterDelta(id, day, d[0], d[1], d[0], d[1])));
+      groups.add(g);
+    });
+    Set<String> failed = new HashSet<>();
+    for (List<CounterDelta> g : commitAll(groups)) failed.add(g.get(0).adId());
+
+    List<Detail> written = new ArrayList<>();
+    detailsByAd.forEach((id, ds) -> { if (!failed.contains(id)) written.addAll(ds); });
+    try {
+      repo.writeDetails(written);
+    } catch (Exception ex) {
+      if (ex instanceof InterruptedException) Thread.currentThread().interrupt();
+      droppedDetails.addAndGet(written.size());
+      log.warn("[DirectAdCounter] detail write failed: size={}, cause={}", written.size(), ex.getMessage());
+    }
+    return failed;
+  }
+
+  public int detailQueueDepth()  { return details.size(); }
+  public long flushedCount()     { return flushedEvents.get(); }
+  public long droppedDetailCount() { return droppedDetails.get(); }
+  public long droppedCountCount()  { return droppedCounts.get(); }
+  public long spilledCountCount()  { return spilledCounts.get(); }
+
+  /** 광고 샤드 수 (0 = 문서 필드 모드), 광고가 없으면 -1 */
+  private int shardsOf(String id) throws Exception {
+    long now = System.nanoTime();
+    Known k = known.get(id);
+    if (k != null && k.until() - now > 0) return k.shards();
+    Long miss = missingUntil.get(id);
+    if (miss != null && miss - now > 0) return -1;
+
+    Integer shards = repo.counterShards(id);
+    if (shards != null) { known.put(id, new Known(shards, now + existsTtlNanos)); missingUntil.remove(id); }
+    else                { missingUntil.put(id, now + existsTtlNanos); known.remove(id); }
+    return shards == null ? -1 : shards;
+  }
+
+  /** flush 시점 샤드 수 (조회 실패 시 문서 필드 모드로 기록 — 조회는 필드+샤드 합계라 누락 없음) */
+  private int shardsForFlush(String id) {
+    try {
+      return Math.max(0, shardsOf(id));
+    } catch (Exception e) {
+      if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+      return 0;
+    }
+  }
+
+  /* ===================== flusher 루프 ===================== */
+
+  private void runLoop() {
+    replaySpill();
+    while (running) {
+      try {
+        Thread.sleep(flushIntervalMs);
+      } catch (InterruptedException ie) {
+        running = false;
+      }
+      flushCounters();
+      flushDetails(false);
+    }
+    // 종료: 버퍼 경로로 진행 중인 record() 가 끝나길 잠시 기다린 뒤 남은 증분/상세 로그 모두 기록
+    awaitInflight();
+    finalFlush();
+    flushDetails(true);
+  }
+
+  private void awaitInflight() {
+    long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (inflight.sum() > 0 && System.nanoTime() - until < 0) {
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /** 종료 시 카운터 flush: 다 기록될 때까지 백오프 재시도, 기한을 넘기면 남은 증분을 spill */
+  private void finalFlush() {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownFlushMs);
+    long backoff = 200;
+    for (;;) {
+      flushCounters();
+      if (!hasPending()) return;
+      long leftMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (leftMs <= 0) break;
+      log.warn("[DirectAdCounter] final flush incomplete, retry in {}ms", Math.min(backoff, leftMs));
+      try {
+        Thread.sleep(Math.min(backoff, leftMs));
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      backoff = Math.min(5000, backoff * 2);
+    }
+    List<CounterDelta> rest = new ArrayList<>();
+    snapshot().values().forEach(rest::addAll);
+    spill(rest);
+  }
+
+  private boolean hasPending() {
+    for (Delta d : deltas.values()) {
+      if (d.views.sum() != 0 || d.clicks.sum() != 0 || d.dailyViews.sum() != 0 || d.dailyClicks.sum() != 0) return true;
+    }
+    return false;
+  }
+
+  private void flushCounters() {
+    Map<String, List<CounterDelta>> byAd = snapshot();
+    pruneOldDays();
+    if (byAd.isEmpty()) return;
+
+    // 커밋. 일시 오류로 실패한 광고는 증분을 되돌려 다음 회차에 재시도
+    for (List<CounterDelta> g : commitAll(byAd.values())) {
+      for (CounterDelta cd : g) restore(cd);
+    }
+  }
+
+  /** 스냅샷: 읽은 만큼만 차감 → 동시 증분 유실 없음 */
+  private Map<String, List<CounterDelta>> snapshot() {
+    Map<String, List<CounterDelta>> byAd = new LinkedHashMap<>();
+    for (Map.Entry<DayKey, Delta> en : deltas.entrySet()) {
+      Delta d = en.getValue();
+      long v = d.views.sum(), c = d.clicks.sum(), dv = d.dailyViews.sum(), dc = d.dailyClicks.sum();
+      if (v == 0 && c == 0 && dv == 0 && dc == 0) continue;
+      d.views.add(-v); d.clicks.add(-c); d.dailyViews.add(-dv); d.dailyClicks.add(-dc);
+      DayKey k = en.getKey();
+      byAd.computeIfAbsent(k.adId(), x -> new ArrayList<>()).add(new CounterDelta(k.adId(), k.day(), v, c, dv, dc));
+    }
+    return byAd;
+  }
+
+  /* ===================== spill (종료 시 Firestore 미복구) ===================== */
+
+  /** 임시 파일에 쓰고 fsync 후 이름 변경 (부분 기록된 파일을 재적재하지 않도록) */
+  private void spill(List<CounterDelta> rows) {
+    if (rows.isEmpty()) return;
+    long events = 0;
+    for (CounterDelta cd : rows) events += cd.views() + cd.clicks();
+    try {
+      Files.createDirectories(spillDir);
+      Path tmp = Files.createTempFile(spillDir, "counters-", ".tmp");
+      try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE);
+           BufferedWriter w = new BufferedWriter(Channels.newWriter(ch, StandardCharsets.UTF_8))) {
+        for (CounterDelta cd : rows) {
+          w.write(om.writeValueAsString(cd));
+          w.newLine();
+        }
+        w.flush();
+        ch.force(true);
+      }
+      Path dst = spillDir.resolve(String.format("counters-%d-%d.ndjson", System.currentTimeMillis(), spillSeq.incrementAndGet()));
+      Files.move(tmp, dst, StandardCopyOption.ATOMIC_MOVE);
+      spilledCounts.addAndGet(events);
+      log.warn("[DirectAdCounter] spilled {} counter rows ({} events) to {}", rows.size(), events, dst);
+    } catch (IOException ex) {
+      droppedCounts.addAndGet(events);
+      log.error("[DirectAdCounter] spill failed, {} events lost: {}", events, ex.toString());
+    }
+  }
+
+  /** 기동 시 이전 spill 파일을 먼저 기록. 실패분은 버퍼로 되돌려 이후 flush 에서 재시도, 파일은 그 뒤 삭제 */
+  private void replaySpill() {
+    if (!Files.isDirectory(spillDir)) return;
+    List<Path> files;
+    try (var st = Files.list(spillDir)) {
+      files = st.filter(f -> f.getFileName().toString().endsWith(".ndjson")).sorted().toList();
+    } catch (IOException ex) {
+      log.error("[DirectAdCounter] cannot list spill dir {}: {}", spillDir, ex.toString());
+      return;
+    }
+    for (Path f : files) {
+      try {
+        Map<String, List<CounterDelta>> byAd = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(f, StandardCharsets.UTF_8)) {
+          if (line.isBlank()) continue;
+          CounterDelta cd = om.readValue(line, CounterDelta.class);
+          byAd.computeIfAbsent(cd.adId(), x -> new ArrayList<>()).add(cd);
+        }
+        for (List<CounterDelta> g : commitAll(byAd.values())) {
+          for (CounterDelta cd : g) restore(cd);
+        }
+        Files.delete(f);
+        log.info("[DirectAdCounter] replayed spilled counters from {}: ads={}", f.getFileName(), byAd.size());
+      } catch (IOException | UncheckedIOException ex) {
+        log.error("[DirectAdCounter] spill replay failed for {}: {}", f, ex.toString());
+      }
+    }
+  }
+
+  /** 광고 단위로 쪼개지지 않게 MAX_BATCH_OPS 이하로 묶어 커밋. 반환: 일시 오류로 기록하지 못한 광고 그룹 */
+  private List<List<CounterDelta>> commitAll(Collection<List<CounterDelta>> groups) {
+    List<List<CounterDelta>> failed = new ArrayList<>();
+    List<List<CounterDelta>> chunk = new ArrayList<>();
+    int ops = 0;
+    for (List<CounterDelta> group : groups) {
+      int need = group.size() + 1;
+      if (ops + need > DirectAdRepository.MAX_BATCH_OPS && !chunk.isEmpty()) {
+        commit(chunk, failed);
+        chunk = new ArrayList<>();
+        ops = 0;
+      }
+      chunk.add(group);
+      ops += need;
+    }
+    if (!chunk.isEmpty()) commit(chunk, failed);
+    return failed;
+  }
+
+  private void commit(List<List<CounterDelta>> groups, List<List<CounterDelta>> failed) {
+    try {
+      WriteBatch batch = repo.batch();
+      for (List<CounterDelta> g : groups) {
+        String id = g.get(0).adId();
+        repo.addCounters(batch, id, shardsForFlush(id), g);
+      }
+      batch.commit().get();
+      groups.forEach(g -> flushedEvents.addAndGet(total(g)));
+    } catch (Exception ex) {
+      if (ex instanceof InterruptedException) Thread.currentThread().interrupt();
+      // 삭제된 광고 하나 때문에 배치 전체가 실패하지 않도록 광고별로 재시도
+      log.warn("[DirectAdCounter] batch commit failed, retrying per ad: ads={}, cause={}",
+          groups.size(), ex.getMessage());
+      for (List<CounterDelta> g : groups) {
+        if (!commitOne(g)) failed.add(g);
+      }
+    }
+  }
+
+  /** 광고 1건 커밋. 반환: 기록됐거나 삭제된 광고라 버렸으면 true, 일시 오류면 false */
+  private boolean commitOne(List<CounterDelta> g) {
+    String id = g.get(0).adId();
+    try {
+      WriteBatch batch = repo.batch();
+      repo.addCounters(batch, id, shardsForFlush(id), g);
+      batch.commit().get();
+      flushedEvents.addAndGet(total(g));
+      return true;
+    } catch (Exception ex) {
+      if (ex instanceof InterruptedException) Thread.currentThread().interrupt();
+      boolean gone;
+      try { gone = !repo.exists(id); } catch (Exception e) { gone = false; }
+      if (gone) {
+        evict(id);
+        droppedCounts.addAndGet(total(g));
+        log.info("[DirectAdCounter] drop counts for deleted ad: id={}, events={}", id, total(g));
+        return true;
+      }
+      log.warn("[DirectAdCounter] commit failed: id={}, cause={}", id, ex.getMessage());
+      return false;
+    }
+  }
+
+  private void restore(CounterDelta cd) {
+    Delta d = deltas.computeIfAbsent(new DayKey(cd.adId(), cd.day()), k -> new Delta());
+    d.views.add(cd.views());
+    d.clicks.add(cd.clicks());
+    d.dailyViews.add(cd.dailyViews());
+    d.dailyClicks.add(cd.dailyClicks());
+  }
+
+  /** 어제 이전 일자의 빈 버킷 제거 (오늘/어제 키는 자정 경계 증분이 남아 있을 수 있어 유지) */
+  private void pruneOldDays() {
+    String yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1).toString();
+    deltas.entrySet().removeIf(en -> en.getKey().day().compareTo(yesterday) < 0
+        && en.getValue().views.sum() == 0 && en.getValue().clicks.sum() == 0
+        && en.getValue().dailyViews.sum() == 0 && en.getValue().dailyClicks.sum() == 0);
+  }
+
+  private void flushDetails(boolean all) {
+    List<Detail> batch = new ArrayList<>(DirectAdRepository.MAX_BATCH_OPS * 4);
+    do {
+      batch.clear();
+      details.drainTo(batch, DirectAdRepository.MAX_BATCH_OPS * 4);
+      if (batch.isEmpty()) return;
+      try {
+        repo.writeDetails(batch);
+      } catch (Exception ex) {
+        if (ex instanceof InterruptedException) Thread.currentThread().interrupt();
+        // 상세 로그는 best-effort: 실패분은 유실 처리 (카운트는 별도 경로로 보존)
+        droppedDetails.addAndGet(batch.size());
+        log.warn("[DirectAdCounter] detail write failed: size={}, cause={}", batch.size(), ex.getMessage());
+        return;
+      }
+    } while (all || details.size() >= DirectAdRepository.MAX_BATCH_OPS);
+  }
+
+  private static long total(List<CounterDelta> g) {
+    long n = 0;
+    for (CounterDelta cd : g) n += cd.views() + cd.clicks();
+    return n;
+  }
+
+  /* ===================== Lifecycle ===================== */
+
+  @Override
+  public void start() {
+    if (running) return;
+    running = true;
+    worker = new Thread(this::runLoop, "direct-ad-counter");
+    worker.setDaemon(false);
+    worker.start();
+    log.info("[DirectAdCounter] started: flushIntervalMs={}, detailCapacity={}",
+        flushIntervalMs, details.remainingCapacity() + details.size());
+  }
+
+  @Override
+  public void stop() {
+    if (!running) return;
+    running = false;
+    Thread t = worker;
+    if (t != null) {
+      try {
+        t.join(TimeUnit.SECONDS.toMillis(30));
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    log.info("[DirectAdCounter] stopped: flushed={}, droppedCounts={}, spilledCounts={}, droppedDetails={}, pendingDetails={}",
+        flushedEvents.get(), droppedCounts.get(), spilledCounts.get(), droppedDetails.get(), details.size());
+  }
+
+  @Override
+  public boolean isRunning() { return running; }
+
+  /** 웹서버(WebServerStartStopLifecycle, DEFAULT_PHASE - 2048)보다 나중에 멈추도록 더 낮은 phase 사용 */
+  @Override
+  public int getPhase() { return SmartLifecycle.DEFAULT_PHASE - 4096; }
+}
@@ -0,0 +1,257 @@
+package com.polarisoffice.secuone.service;
+
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.FirestoreException;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.polarisoffice.secuone.dto.DirectAd.AdStatus;
+import com.polarisoffice.secuone.dto.DirectAd.AdType;
+import com.polarisoffice.secuone.dto.DirectAdRes;
+import com.polarisoffice.secuone.repository.DirectAdRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 직광고 서빙용 메모리 인덱스
+ * - PolarDirectAds 컬렉션 snapshot listener 로 변경분만 반영 (요청 경로에서 Firestore 조회 없음)
+ * - (status, adType, locale) 버킷으로 미리 나눠둔 불변 스냅샷을 volatile 로 교체
+ *   locales 가 비어 있는 광고는 "*" 버킷 (모든 locale 대상)
+ * - 기간(startAt/endAt)·앱 버전 조건은 시각/요청마다 달라 조회 시 필터
+ * - 리스너 오류 시 일정 시간 뒤 재구독. 최초 스냅샷 전에는 ready=false
+ * - 인덱스의 viewCount/clickCount 는 문서 필드 값(샤드 합계 미포함) — 집계 조회는 metrics 사용
+ *   샤드 미사용 광고는 노출/클릭마다 문서가 바뀌므로, 카운터 필드(viewCount/clickCount/updatedAt)만 바뀐 변경은
+ *   재구성하지 않음 (다음 재구성 때 반영). 리스너 읽기 자체를 없애려면 샤드 카운터 사용 (directads.counter.default-shards)
+ */
+@Service
+public class DirectAdIndex implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(DirectAdIndex.class);
+
+  private static final String ANY_LOCALE = "*";
+
+  /** 서빙 조건/응답과 무관하게 노출·클릭마다 바뀌는 문서 필드 */
+  private static final Set<String> COUNTER_FIELDS = Set.of("viewCount", "clickCount", "updatedAt");
+
+  private record BucketKey(AdStatus status, AdType adType, String locale) {}
+
+  /** 불변 스냅샷: 버킷별로 publishedAt 최신순 정렬 */
+  private record Snapshot(Map<BucketKey, List<DirectAdRes>> buckets, int size, Instant builtAt) {
+    static final Snapshot EMPTY = new Snapshot(Map.of(), 0, null);
+  }
+
+  private static final Comparator<DirectAdRes> NEWEST_FIRST = Comparator.comparing(
+      (DirectAdRes r) -> r.publishedAt != null ? r.publishedAt : r.createdAt,
+      Comparator.nullsLast(Comparator.reverseOrder()));
+
+  private final DirectAdRepository repo;
+  private final long resubscribeDelayMs;
+  private final Map<String, DirectAdRes> docs = new ConcurrentHashMap<>();
+  /** 문서별 카운터 필드를 뺀 원본 데이터 (카운터만 바뀐 변경 판별용) */
+  private final Map<String, Map<String, Object>> content = new ConcurrentHashMap<>();
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+  private volatile boolean ready;
+  private volatile boolean running;
+  private ListenerRegistration registration;
+  private ScheduledExecutorService retry;
+
+  public DirectAdIndex(DirectAdRepository repo,
+                       @Value("${directads.index.resubscribe-delay-ms:5000}") long resubscribeDelayMs) {
+    this.repo = repo;
+    this.resubscribeDelayMs = Math.max(100, resubscribeDelayMs);
+  }
+
+  /* ===================== 조회 ===================== */
+
+  public boolean isReady() { return ready; }
+  public int size() { return snapshot.size(); }
+  public Instant builtAt() { return snapshot.builtAt(); }
+
+  /**
+   * 지금 노출 가능한 ACTIVE 광고
+   * @param adType     null 이면 전체 타입
+   * @param locale     null 이면 locale 무관 (지정 시 해당 locale + 전체 대상 광고)
+   * @param appVersion null 이면 버전 조건 무시
+   */
+  public List<DirectAdRes> eligible(AdType adType, String locale, String appVersion, Instant now, int limit) {
+    Snapshot s = snapshot;
+    int lim = Math.max(1, limit);
+    String loc = normLocale(locale);
+
+    List<List<DirectAdRes>> sources = new ArrayList<>();
+    for (AdType t : adType != null ? List.of(adType) : List.of(AdType.values())) {
+      if (loc == null) {
+        // locale 미지정: 해당 타입의 모든 locale 버킷 (같은 광고가 여러 locale 버킷에 있으므로 아래에서 중복 제거)
+        s.buckets().forEach((k, v) -> { if (k.status() == AdStatus.ACTIVE && k.adType() == t) sources.add(v); });
+      } else {
+        addIfPresent(sources, s.buckets().get(new BucketKey(AdStatus.ACTIVE, t, loc)));
+        addIfPresent(sources, s.buckets().get(new BucketKey(AdStatus.ACTIVE, t, ANY_LOCALE)));
+      }
+    }
+
+    List<DirectAdRes> out = new ArrayList<>();
+    Set<String> seen = new HashSet<>();
+    for (List<DirectAdRes> bucket : sources) {
+      for (DirectAdRes r : bucket) {
+        if (!inWindow(r, now) || !versionOk(r, appVersion) || !seen.add(r.id)) continue;
+        out.add(r);
+      }
+    }
+    if (sources.size() > 1) out.sort(NEWEST_FIRST);
+    return out.size() > lim ? out.subList(0, lim) : out;
+  }
+
+  /** 인덱스 미준비 시 라이브 조회 결과에 같은 조건 적용 (status/adType 은 호출부 쿼리에서 필터) */
+  public static boolean matches(DirectAdRes r, String locale, String appVersion, Instant now) {
+    String loc = normLocale(locale);
+    boolean localeOk = loc == null || r.locales == null || r.locales.isEmpty()
+        || r.locales.stream().anyMatch(l -> loc.equals(normLocale(l)));
+    return r.status == AdStatus.ACTIVE && localeOk && inWindow(r, now) && versionOk(r, appVersion);
+  }
+
+  private static void addIfPresent(List<List<DirectAdRes>> sources, List<DirectAdRes> bucket) {
+    if (bucket != null) sources.add(bucket);
+  }
+
+  private static boolean inWindow(DirectAdRes r, Instant now) {
+    return (r.startAt == null || !now.isBefore(r.startAt)) && (r.endAt == null || now.isBefore(r.endAt));
+  }
+
+  private static boolean versionOk(DirectAdRes r, String appVersion) {
+    if (appVersion == null || appVersion.isBlank()) return true;
+    if (r.minAppVersion != null && !r.minAppVersion.isBlank() && compareVersion(appVersion, r.minAppVersion) < 0) return false;
+    if (r.maxAppVersion != null && !r.maxAppVersion.isBlank() && compareVersion(appVersion, r.maxAppVersion) > 0) return false;
+    return true;
+  }
+
+  /** "3.10.1" vs "3.9" 식 점 구분 비교 (숫자 구간은 수치, 그 외 문자열 비교, 누락 구간은 0) */
+  static int compareVersion(String a, String b) {
+    String[] x = a.trim().split("\\.");
+    String[] y = b.trim().split("\\.");
+    for (int i = 0; i < Math.max(x.length, y.length); i++) {
+      String p = i < x.length ? x[i] : "0";
+      String q = i < y.length ? y[i] : "0";
+      int c;
+      try {
+        c = Long.compare(Long.parseLong(p), Long.parseLong(q));
+      } catch (NumberFormatException e) {
+        c = p.compareTo(q);
+      }
+      if (c != 0) return c;
+    }
+    return 0;
+  }
+
+  private static String normLocale(String locale) {
+    if (locale == null || locale.isBlank()) return null;
+    return locale.trim().replace('_', '-').toLowerCase(Locale.ROOT);
+  }
+
+  /* ===================== 인덱스 갱신 ===================== */
+
+  private void onSnapshot(QuerySnapshot qs, FirestoreException err) {
+    if (err != null) {
+      log.warn("[DirectAdIndex] listener error, resubscribe in {}ms: {}", resubscribeDelayMs, err.getMessage());
+      scheduleResubscribe();
+      return;
+    }
+    if (qs == null) return;
+
+    boolean changed = false;
+    for (DocumentChange ch : qs.getDocumentChanges()) {
+      QueryDocumentSnapshot d = ch.getDocument();
+      String id = d.getId();
+      if (ch.getType() == DocumentChange.Type.REMOVED) {
+        docs.remove(id);
+        content.remove(id);
+        changed = true;
+        continue;
+      }
+      docs.put(id, DirectAdRepository.toRes(d));
+      Map<String, Object> c = withoutCounters(d.getData());
+      if (!c.equals(content.put(id, c))) changed = true;
+    }
+    if (changed || !ready) rebuild();
+    if (!ready) {
+      ready = true;
+      log.info("[DirectAdIndex] ready: {} ads", docs.size());
+    }
+  }
+
+  private static Map<String, Object> withoutCounters(Map<String, Object> data) {
+    Map<String, Object> m = new HashMap<>(data);
+    m.keySet().removeAll(COUNTER_FIELDS);
+    return m;
+  }
+
+  private void rebuild() {
+    Map<BucketKey, List<DirectAdRes>> buckets = new HashMap<>();
+    for (DirectAdRes r : docs.values()) {
+      if (r.status == null || r.adType == null) continue;
+      if (r.locales == null || r.locales.isEmpty()) {
+        buckets.computeIfAbsent(new BucketKey(r.status, r.adType, ANY_LOCALE), k -> new ArrayList<>()).add(r);
+        continue;
+      }
+      for (String l : new HashSet<>(r.locales)) {
+        String loc = normLocale(l);
+        if (loc == null) continue;
+        buckets.computeIfAbsent(new BucketKey(r.status, r.adType, loc), k -> new ArrayList<>()).add(r);
+      }
+    }
+    Map<BucketKey, List<DirectAdRes>> frozen = new HashMap<>(buckets.size() * 2);
+    buckets.forEach((k, v) -> { v.sort(NEWEST_FIRST); frozen.put(k, List.copyOf(v)); });
+    snapshot = new Snapshot(Map.copyOf(frozen), docs.size(), Instant.now());
+  }
+
+  private synchronized void subscribe() {
+    if (!running) return;
+    if (registration != null) registration.remove();
+    // 재구독 시 최초 스냅샷이 전체로 다시 오므로 로컬 상태를 비우고 받는다 (그동안은 직전 스냅샷으로 서빙)
+    docs.clear();
+    content.clear();
+    registration = repo.listen(this::onSnapshot);
+  }
+
+  private void scheduleResubscribe() {
+    ScheduledExecutorService r = retry;
+    if (running && r != null && !r.isShutdown()) {
+      r.schedule(this::subscribe, resubscribeDelayMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /* ===================== Lifecycle ===================== */
+
+  @Override
+  public void start() {
+    if (running) return;
+    running = true;
+    retry = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "direct-ad-index");
+      t.setDaemon(true);
+      return t;
+    });
+    subscribe();
+  }
+
+  @Override
+  public synchronized void stop() {
+    running = false;
+    if (registration != null) registration.remove();
+    registration = null;
+    if (retry != null) retry.shutdownNow();
+  }
+
+  @Override
+  public boolean isRunning() { return running; }
+}
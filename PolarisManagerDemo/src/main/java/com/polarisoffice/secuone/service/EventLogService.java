@@ -5,6 +5,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.polarisoffice.secuone.domain.CustomerEntity;
 import com.polarisoffice.secuone.domain.EventLogEntity;
 import com.polarisoffice.secuone.repository.EventLogRepository;
+import com.polarisoffice.secuone.support.CustomerCodes;
+import com.polarisoffice.secuone.support.KeysetCursor;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.servlet.http.HttpServletRequest;
@@ -76,8 +78,8 @@ public class EventLogService {
       String customerCode, String objectType, Instant from, Instant to
   ) {
     return (root, q, cb) -> {
-      var cust = root.join("customer"); // ManyToOne(CustomerEntity)
-      var p = cb.equal(cb.upper(cust.get("code")), customerCode.toUpperCase());
+      // FK 컬럼(customer_code) 직접 비교: join/upper() 없이 인덱스 선두 컬럼 사용
+      var p = cb.equal(root.get("customer").get("code"), CustomerCodes.normalize(customerCode));
       if (objectType != null) p = cb.and(p, cb.equal(root.get("objectType"), objectType));
       if (from != null)       p = cb.and(p, cb.greaterThanOrEqualTo(root.get("createdAt"), from));
       if (to != null)         p = cb.and(p, cb.lessThanOrEqualTo(root.get("createdAt"), to));
@@ -87,20 +89,38 @@ public class EventLogService {
 
   /* ---------- 조회 메서드 (대시보드/상세용) ---------- */
 
-  public Page<EventLogEntity> findPageByCustomer(
-      String customerCode, String objectType, Instant from, Instant to, int page, int size
+  /** keyset 페이지 결과: nextCursor 가 null 이면 마지막 페이지 */
+  public record KeysetPage<T>(List<T> items, String nextCursor) {
+    public boolean hasNext() { return nextCursor != null; }
+  }
+
+  /**
+   * 고객사 이벤트 로그 목록 (createdAt DESC, id DESC). OFFSET 없이 이전 페이지 마지막 행 다음부터 seek
+   * - cursor: 이전 결과의 nextCursor, 첫 페이지는 null. 형식이 틀리면 IllegalArgumentException
+   * - ix_eventlogs_customer_date (customer_code, created_at) + InnoDB PK 접미사(id) = (customer_code, created_at, id) 범위 탐색
+   * - count 쿼리 없음 (size + 1 건 조회로 다음 페이지 유무 판단)
+   */
+  public KeysetPage<EventLogEntity> findPageByCustomer(
+      String customerCode, String objectType, Instant from, Instant to, String cursor, int size
   ) {
-    var pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
-    return repo.findAll(specByCustomerAndRange(customerCode, objectType, from, to), pageable);
+    int lim = Math.max(size, 1);
+    KeysetCursor after = KeysetCursor.decode(cursor);
+    Specification<EventLogEntity> spec = specByCustomerAndRange(customerCode, objectType, from, to);
+    if (after != null) spec = spec.and(after.before());
+
+    List<EventLogEntity> rows = repo.findBy(spec, q -> q.sortBy(KeysetCursor.SORT).limit(lim + 1).all());
+    if (rows.size() <= lim) return new KeysetPage<>(rows, null);
+
+    List<EventLogEntity> page = rows.subList(0, lim);
+    EventLogEntity last = page.get(lim - 1);
+    return new KeysetPage<>(page, KeysetCursor.of(last.getCreatedAt(), last.getId()));
   }
 
-  public List<EventLogEntity> findRecentByCustomer(
+  /** 최근 N건 (DB 에서 LIMIT, 경량 프로젝션) */
+  public List<EventLogRepository.RecentRow> findRecentByCustomer(
       String customerCode, String objectType, Instant from, Instant to, int limit
   ) {
-    return repo.findAll(
-            specByCustomerAndRange(customerCode, objectType, from, to),
-            Sort.by(Sort.Direction.DESC, "createdAt"))
-        .stream().limit(limit).toList();
+    return repo.findRecent(CustomerCodes.normalize(customerCode), objectType, from, to, PageRequest.ofSize(Math.max(limit, 1)));
   }
 
   /** objectType 별 집계: MALWARES_APP / ROOTING_DETECTED / REMOTE_CONTROL_APP */
@@ -109,7 +129,7 @@ public class EventLogService {
     var cq = cb.createQuery(Object[].class);
     var root = cq.from(EventLogEntity.class);
 
-    var p = cb.equal(cb.upper(root.get("customer").get("code")), customerCode.toUpperCase());
+    var p = cb.equal(root.get("customer").get("code"), CustomerCodes.normalize(customerCode));
     if (from != null) p = cb.and(p, cb.greaterThanOrEqualTo(root.get("createdAt"), from));
     if (to != null)   p = cb.and(p, cb.lessThanOrEqualTo(root.get("createdAt"), to));
 
@@ -135,11 +155,15 @@ public class EventLogService {
 
   /** memo(JSON)을 Map으로 파싱 (뷰에 세부정보 뿌릴 때 사용) */
   public Map<String, Object> parseMemo(EventLogEntity e) {
-    if (e.getMemo() == null || e.getMemo().isBlank()) return Map.of();
+    return parseMemo(e.getMemo());
+  }
+
+  public Map<String, Object> parseMemo(String memo) {
+    if (memo == null || memo.isBlank()) return Map.of();
     try {
-      return om.readValue(e.getMemo(), new TypeReference<Map<String, Object>>() {});
+      return om.readValue(memo, new TypeReference<Map<String, Object>>() {});
     } catch (Exception ex) {
-      return Map.of("raw", e.getMemo());
+      return Map.of("raw", memo);
     }
   }
 
@@ -148,8 +172,8 @@ public class EventLogService {
       String customerCode,
       Instant from, Instant to,
       long total, long malware, long rooting, long remote,
-      List<EventLogEntity> recentMalware,
-      List<EventLogEntity> recentRooting
+      List<EventLogRepository.RecentRow> recentMalware,
+      List<EventLogRepository.RecentRow> recentRooting
   ) {}
 
   public DashboardSummary buildSummary(String customerCode, Instant from, Instant to) {
@@ -162,7 +186,7 @@ public class EventLogService {
     var recentMalware = findRecentByCustomer(customerCode, "MALWARES_APP", from, to, 100);
     var recentRooting = findRecentByCustomer(customerCode, "ROOTING_DETECTED", from, to, 100);
 
-    return new DashboardSummary(customerCode.toUpperCase(), from, to,
+    return new DashboardSummary(CustomerCodes.normalize(customerCode), from, to,
         total, malware, rooting, remote, recentMalware, recentRooting);
   }
 }
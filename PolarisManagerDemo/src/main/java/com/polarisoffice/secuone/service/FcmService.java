@@ -1,17 +1,34 @@
 package com.polarisoffice.secuone.service;
 
-import org.springframework.stereotype.Service;
-
 import com.google.firebase.messaging.*;
 import com.polarisoffice.secuone.dto.PushRequest;
+import com.polarisoffice.secuone.util.FcmTemplates;
 import org.springframework.stereotype.Service;
-import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * /api/push 발송 (메시지 구성은 FcmTemplates 공용 템플릿 사용)
+ * - APNs 는 기존 /api/push 페이로드 유지: content-available, 배지 없음 (FcmTemplates.Apns.CONTENT_AVAILABLE)
+ */
 @Service
 public class FcmService {
 
+    private final PushDispatcher dispatcher;
+    private final InvalidTokenStore invalidTokens;
+
+    public FcmService(PushDispatcher dispatcher, InvalidTokenStore invalidTokens) {
+        this.dispatcher = dispatcher;
+        this.invalidTokens = invalidTokens;
+    }
+
+    /**
+     * 앱이 토큰을 새로 받거나(onNewToken) 재설치 후 같은 토큰을 다시 등록할 때 호출.
+     * 이전에 무효로 기록된 토큰이면 기록을 지워 다시 발송 대상에 포함
+     */
+    public void registerToken(String token) {
+        if (token == null || token.isBlank()) throw new IllegalArgumentException("token is empty");
+        invalidTokens.forget(token.trim());
+    }
 
 	public String sendToToken(PushRequest req) throws FirebaseMessagingException {
 	    Message message = baseMessageBuilder(req)
@@ -21,22 +38,18 @@ public class FcmService {
 	    return FirebaseMessaging.getInstance().send(message); // messageId 반환
 	}
 
-    public BatchResponse sendMulticast(PushRequest req) throws FirebaseMessagingException {
+    /**
+     * 다중 토큰 발송 (PushDispatcher 경유: 500개 청크 분할, 동시 발송 제한, 재시도, 무효 토큰 가지치기)
+     */
+    public PushDispatcher.Result sendMulticast(PushRequest req) {
         List<String> tokens = Optional.ofNullable(req.getTokens()).orElse(Collections.emptyList());
         if (tokens.isEmpty()) throw new IllegalArgumentException("tokens is empty");
 
-        MulticastMessage message = MulticastMessage.builder()
-                .setNotification(Notification.builder()
-                        .setTitle(req.getTitle())
-                        .setBody(req.getBody())
-                        .build())
-                .putAllData(Optional.ofNullable(req.getData()).orElse(Collections.emptyMap()))
-                .setAndroidConfig(androidConfig(req))
-                .setApnsConfig(apnsConfig(req))
-                .addAllTokens(tokens)
-                .build();
-
-        return FirebaseMessaging.getInstance().sendMulticast(message);
+        // 청크마다 달라지는 것은 토큰 목록뿐 → 템플릿/알림/데이터는 한 번만 준비
+        FcmTemplates.Template t = template(req);
+        Notification n = FcmTemplates.notification(req.getTitle(), req.getBody());
+        Map<String, String> data = req.getData();
+        return dispatcher.send(tokens, chunk -> FcmTemplates.multicast(t, n, data, chunk));
     }
 
     public String sendToTopic(PushRequest req) throws FirebaseMessagingException {
@@ -52,60 +65,16 @@ public class FcmService {
 
     // 공통 빌더
     private Message.Builder baseMessageBuilder(PushRequest req) {
-        return Message.builder()
-                .setNotification(Notification.builder()
-                        .setTitle(req.getTitle())
-                        .setBody(req.getBody())
-                        .build())
-                .putAllData(Optional.ofNullable(req.getData()).orElse(Collections.emptyMap()))
-                .setAndroidConfig(androidConfig(req))
-                .setApnsConfig(apnsConfig(req));
+        return FcmTemplates.message(template(req),
+                FcmTemplates.notification(req.getTitle(), req.getBody()), req.getData());
     }
 
-    private AndroidConfig androidConfig(PushRequest req) {
-        AndroidConfig.Priority priority = req.isHighPriority()
-                ? AndroidConfig.Priority.HIGH
-                : AndroidConfig.Priority.NORMAL;
-
-        return AndroidConfig.builder()
-                .setPriority(priority)
-                .setTtl(Duration.ofHours(1).toMillis()) // 1시간 TTL 예시
-                .setNotification(AndroidNotification.builder()
-                        .setSound("default")  // 필요시 커스텀 사운드
-                        .build())
-                .build();
-    }
-
-    private ApnsConfig apnsConfig(PushRequest req) {
-        Aps aps = Aps.builder()
-                .setContentAvailable(true)
-                .setSound("default")
-                .build();
-
-        return ApnsConfig.builder()
-                .putHeader("apns-priority", req.isHighPriority() ? "10" : "5")
-                .setAps(aps)
-                .build();
+    private static FcmTemplates.Template template(PushRequest req) {
+        return FcmTemplates.of(channelOf(req), req.isHighPriority(), FcmTemplates.Apns.CONTENT_AVAILABLE);
     }
 
-    // 실패 토큰 정리 보조 메서드 (멀티캐스트 전용)
-    public List<String> extractInvalidTokens(BatchResponse batchResponse, List<String> tokens) {
-        List<String> invalid = new ArrayList<>();
-        for (int i = 0; i < batchResponse.getResponses().size(); i++) {
-            SendResponse r = batchResponse.getResponses().get(i);
-            if (!r.isSuccessful()) {
-                Exception e = r.getException();
-                if (e instanceof FirebaseMessagingException) {
-                    FirebaseMessagingException fme = (FirebaseMessagingException) e;
-                    String code = fme.getMessagingErrorCode() != null
-                            ? fme.getMessagingErrorCode().name()
-                            : "";
-                    if ("UNREGISTERED".equals(code) || "INVALID_ARGUMENT".equals(code)) {
-                        invalid.add(tokens.get(i));
-                    }
-                }
-            }
-        }
-        return invalid;
+    // data.androidChannelId 가 있으면 해당 알림 채널로
+    private static String channelOf(PushRequest req) {
+        return req.getData() == null ? null : req.getData().get("androidChannelId");
     }
 }
@@ -0,0 +1,546 @@
+package com.polarisoffice.secuone.service;
+
+import com.polarisoffice.secuone.support.ImageResizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * /img-proxy 업스트림 이미지 디스크 캐시
+ * - URL SHA-256 를 키로 <dir>/<key>.bin (본문) + <key>.meta (Content-Type/ETag/Last-Modified/만료) 저장
+ * - 본문은 힙에 모으지 않고 임시 파일로 스트리밍 후 원자적 이동, 응답도 FileChannel 로 스트리밍
+ * - 신선(만료 전)하면 디스크에서 바로, 만료되면 If-None-Match / If-Modified-Since 로 재검증 (304 면 만료만 연장)
+ *   재검증이 업스트림 5xx / 네트워크 오류로 실패하면 만료된 사본이라도 응답 (stale-if-error)
+ *   404/410 은 삭제된 이미지이므로 사본을 버리고 상태 그대로 전달, 그 밖의 4xx 도 사본 없이 전달
+ * - 같은 URL 동시 요청은 업스트림 1회로 합침
+ * - 총 바이트 기준 LRU 축출, 기동 시 meta 파일로 인덱스 복원
+ * - HTTP/2 실패 호스트는 일정 시간 HTTP/1.1 로 바로 요청 (매번 h2 실패 후 재다운로드하지 않도록)
+ * - 업스트림 본문은 maxUpstreamBytes 까지만 읽음 (Content-Length 로 선차단, 스트리밍 중 초과 시 중단)
+ * - w/h/q 변환본은 원본과 같은 디렉터리에 별도 키로 저장, 원본 ETag 가 바뀌면 다시 생성
+ *   동시 변환은 resize.max-concurrent 개까지, 슬롯을 잠시 기다려도 못 얻으면 원본으로 응답
+ */
+@Service
+public class ImageProxyCache {
+
+  private static final Logger log = LoggerFactory.getLogger(ImageProxyCache.class);
+
+  private static final String UA = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) "
+      + "AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+  private static final Duration H2_BACKOFF = Duration.ofMinutes(10);
+
+  /** 캐시 항목 (불변, 갱신 시 교체). etag 는 본문 SHA-256 기반으로 클라이언트에 내보내는 값 */
+  public record Entry(String key, String url, String contentType, String upstreamEtag, String upstreamLastModified,
+                      long expiresAt, long size, String etag) {
+    Entry withExpiresAt(long t) {
+      return new Entry(key, url, contentType, upstreamEtag, upstreamLastModified, t, size, etag);
+    }
+    public long maxAgeSec(long now) { return Math.max(0, (expiresAt - now) / 1000); }
+  }
+
+  /** 응답용: 열린 채널 (축출/교체돼도 열린 파일은 유지됨) */
+  public record Hit(Entry entry, FileChannel channel) {}
+
+  /** 업스트림이 2xx/304 가 아닌 상태로 응답 */
+  public static class UpstreamException extends RuntimeException {
+    private final int status;
+    public UpstreamException(int status, String message) { super(message); this.status = status; }
+    public int status() { return status; }
+  }
+
+  private final Path dir;
+  private final long maxBytes;
+  private final long defaultTtlMs;
+  private final long maxTtlMs;
+  private final long maxUpstreamBytes;
+  private final long maxPixels;
+  private final Semaphore resizeSlots;
+  private final long resizeWaitMs;
+
+  private final HttpClient clientH2;
+  private final HttpClient clientH1;
+  private final Map<String, Long> h2FailedUntil = new ConcurrentHashMap<>();
+
+  private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(256, 0.75f, true);
+  private long totalBytes;
+  private final Map<String, CompletableFuture<Entry>> inflight = new ConcurrentHashMap<>();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder revalidated = new LongAdder();
+  private final LongAdder fetched = new LongAdder();
+  private final LongAdder staleServed = new LongAdder();
+  private final LongAdder resized = new LongAdder();
+  private final LongAdder oversized = new LongAdder();
+  private final LongAdder resizeBusy = new LongAdder();
+
+  public ImageProxyCache(@Value("${img-proxy.cache.dir:${java.io.tmpdir}/secuone-img-cache}") String dir,
+                         @Value("${img-proxy.cache.max-bytes:536870912}") long maxBytes,
+                         @Value("${img-proxy.cache.default-ttl-sec:3600}") long defaultTtlSec,
+                         @Value("${img-proxy.cache.max-ttl-sec:604800}") long maxTtlSec,
+                         @Value("${img-proxy.max-upstream-bytes:20971520}") long maxUpstreamBytes,
+                         @Value("${img-proxy.resize.max-pixels:40000000}") long maxPixels,
+                         @Value("${img-proxy.resize.max-concurrent:0}") int maxConcurrentResizes,
+                         @Value("${img-proxy.resize.wait-ms:200}") long resizeWaitMs) throws IOException {
+    this.dir = Paths.get(dir);
+    this.maxBytes = Math.max(1 << 20, maxBytes);
+    this.defaultTtlMs = Math.max(1, defaultTtlSec) * 1000L;
+    this.maxTtlMs = Math.max(defaultTtlSec, maxTtlSec) * 1000L;
+    this.maxUpstreamBytes = Math.max(1024, maxUpstreamBytes);
+    this.maxPixels = Math.max(1, maxPixels);
+    int slots = maxConcurrentResizes > 0 ? maxConcurrentResizes : Runtime.getRuntime().availableProcessors();
+    this.resizeSlots = new Semaphore(Math.max(1, slots));
+    this.resizeWaitMs = Math.max(0, resizeWaitMs);
+
+    ProxySelector proxy = buildProxySelectorFromEnv();
+    this.clientH2 = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .followRedirects(HttpClient.Redirect.ALWAYS)
+        .connectTimeout(Duration.ofSeconds(8))
+        .proxy(proxy)
+        .build();
+    this.clientH1 = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .followRedirects(HttpClient.Redirect.ALWAYS)
+        .connectTimeout(Duration.ofSeconds(8))
+        .proxy(proxy)
+        .build();
+
+    Files.createDirectories(this.dir);
+    loadIndex();
+  }
+
+  /* ===================== 조회 ===================== */
+
+  /** 캐시(필요 시 재검증/다운로드) 후 읽기 채널을 연다. 업스트림 오류는 UpstreamException, 네트워크 오류는 IOException */
+  public Hit open(URI uri) throws IOException {
+    String key = keyOf(uri.toString());
+    long now = System.currentTimeMillis();
+
+    Entry e = lookup(key);
+    if (e != null && e.expiresAt() > now) {
+      FileChannel ch = openChannel(e);
+      if (ch != null) {
+        hits.increment();
+        return new Hit(e, ch);
+      }
+    }
+
+    Entry fresh;
+    try {
+      fresh = coalesced(key, () -> refresh(uri, key, e));
+    } catch (IOException | RuntimeException ex) {
+      if (ex instanceof UpstreamException ue && ue.status() < 500) {
+        if (e != null && (ue.status() == 404 || ue.status() == 410)) drop(e);
+        throw ex;
+      }
+      FileChannel ch = (e == null) ? null : openChannel(e);
+      if (ch == null) throw ex;
+      staleServed.increment();
+      log.warn("[img-proxy] serving stale {}: {}", uri.getHost(), ex.toString());
+      return new Hit(e, ch);
+    }
+    FileChannel ch = openChannel(fresh);
+    if (ch == null) throw new IOException("cache file vanished: " + key);
+    return new Hit(fresh, ch);
+  }
+
+  /**
+   * 변환본 열기. 원본을 먼저 확보(재검증 포함)한 뒤, 같은 원본 ETag 로 만든 변환본이 있으면 재사용.
+   * 원본이 ImageIO 로 읽을 수 없는 형식이면 원본을 그대로 반환
+   */
+  public Hit openVariant(URI uri, ImageResizer.Spec spec) throws IOException {
+    Hit orig = open(uri);
+    Entry src = orig.entry();
+    String key = keyOf(uri + "#w=" + spec.width() + "&h=" + spec.height() + "&q=" + spec.quality());
+
+    Entry v = lookup(key);
+    if (v != null && src.etag().equals(v.upstreamEtag())) {
+      FileChannel ch = openChannel(v);
+      if (ch != null) {
+        orig.channel().close();
+        hits.increment();
+        return new Hit(v.withExpiresAt(src.expiresAt()), ch);
+      }
+    }
+
+    Entry made;
+    try {
+      made = coalesced(key, () -> render(src, key, spec));
+    } catch (IOException | RuntimeException ex) {
+      // 픽셀 상한 초과 등: 원본(이미 바이트 상한 적용됨)으로 응답
+      log.debug("[img-proxy] variant skipped {}: {}", uri.getHost(), ex.toString());
+      return orig;
+    }
+    if (made == null) return orig;
+    FileChannel ch = openChannel(made);
+    if (ch == null) return orig;
+    orig.channel().close();
+    return new Hit(made.withExpiresAt(src.expiresAt()), ch);
+  }
+
+  /** 변환본 생성. upstreamEtag 칸에 원본 ETag 를 기록해 원본 변경 여부를 판단 */
+  private Entry render(Entry src, String key, ImageResizer.Spec spec) throws IOException {
+    try {
+      if (!resizeSlots.tryAcquire(resizeWaitMs, TimeUnit.MILLISECONDS)) {
+        resizeBusy.increment();
+        return null; // 변환 포화: 원본으로 응답 (다음 요청에서 다시 시도)
+      }
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted");
+    }
+    Path tmp = Files.createTempFile(dir, key, ".tmp");
+    try {
+      ImageResizer.Result r;
+      try {
+        r = ImageResizer.resize(bodyPath(src.key()), tmp, spec, maxPixels);
+      } catch (RuntimeException e) {
+        log.debug("[img-proxy] resize failed {}: {}", src.url(), e.toString());
+        r = null;
+      }
+      if (r == null) return null;
+
+      long size = Files.size(tmp);
+      MessageDigest md = sha256();
+      try (InputStream in = new DigestInputStream(Files.newInputStream(tmp), md)) {
+        in.transferTo(OutputStream.nullOutputStream());
+      }
+      Entry e = new Entry(key, src.url(), r.contentType(), src.etag(), null, src.expiresAt(), size,
+          "\"" + HexFormat.of().formatHex(md.digest(), 0, 16) + "\"");
+      Files.move(tmp, bodyPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      writeMeta(e);
+      put(e);
+      resized.increment();
+      return e;
+    } finally {
+      resizeSlots.release();
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> m = new LinkedHashMap<>();
+    synchronized (index) {
+      m.put("entries", index.size());
+      m.put("bytes", totalBytes);
+    }
+    m.put("maxBytes", maxBytes);
+    m.put("hits", hits.sum());
+    m.put("revalidated", revalidated.sum());
+    m.put("fetched", fetched.sum());
+    m.put("staleServed", staleServed.sum());
+    m.put("resized", resized.sum());
+    m.put("oversized", oversized.sum());
+    m.put("resizeBusy", resizeBusy.sum());
+    m.put("inflight", inflight.size());
+    return m;
+  }
+
+  /* ===================== 요청 합치기 ===================== */
+
+  private interface Loader { Entry load() throws IOException; }
+
+  private Entry coalesced(String key, Loader loader) throws IOException {
+    CompletableFuture<Entry> mine = new CompletableFuture<>();
+    CompletableFuture<Entry> existing = inflight.putIfAbsent(key, mine);
+    if (existing != null) {
+      try {
+        return existing.join();
+      } catch (CompletionException ce) {
+        Throwable c = ce.getCause();
+        if (c instanceof IOException io) throw io;
+        if (c instanceof RuntimeException re) throw re;
+        throw ce;
+      }
+    }
+    try {
+      Entry e = loader.load();
+      mine.complete(e);
+      return e;
+    } catch (IOException | RuntimeException ex) {
+      mine.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      inflight.remove(key, mine);
+    }
+  }
+
+  /* ===================== 업스트림 ===================== */
+
+  private Entry refresh(URI uri, String key, Entry stale) throws IOException {
+    HttpRequest.Builder rb = HttpRequest.newBuilder(uri)
+        .timeout(Duration.ofSeconds(12))
+        .header("Accept", "image/avif,image/webp,image/apng,image/*,*/*;q=0.8")
+        .header("User-Agent", UA);
+    String referer = guessReferer(uri.getHost());
+    if (referer != null) rb.header("Referer", referer);
+    if (stale != null && stale.upstreamEtag() != null) rb.header("If-None-Match", stale.upstreamEtag());
+    if (stale != null && stale.upstreamLastModified() != null) rb.header("If-Modified-Since", stale.upstreamLastModified());
+
+    HttpResponse<InputStream> r = send(uri.getHost(), rb.build());
+    int st = r.statusCode();
+    long now = System.currentTimeMillis();
+
+    if (st == 304 && stale != null) {
+      r.body().close();
+      Entry e = stale.withExpiresAt(now + ttlMs(r));
+      writeMeta(e);
+      put(e);
+      revalidated.increment();
+      return e;
+    }
+    if (st < 200 || st >= 300) {
+      r.body().close();
+      throw new UpstreamException(st, "upstream " + st);
+    }
+    if (r.headers().firstValueAsLong("content-length").orElse(-1) > maxUpstreamBytes) {
+      r.body().close();
+      oversized.increment();
+      throw new UpstreamException(502, "upstream too large");
+    }
+
+    Path tmp = Files.createTempFile(dir, key, ".tmp");
+    try {
+      MessageDigest md = sha256();
+      long size;
+      try (InputStream in = r.body();
+           OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)), md)) {
+        size = copyCapped(in, out);
+      }
+      String ct = r.headers().firstValue("content-type").orElse(null);
+      Entry e = new Entry(key, uri.toString(), ct,
+          r.headers().firstValue("etag").orElse(null),
+          r.headers().firstValue("last-modified").orElse(null),
+          now + ttlMs(r), size, "\"" + HexFormat.of().formatHex(md.digest(), 0, 16) + "\"");
+      Files.move(tmp, bodyPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      writeMeta(e);
+      put(e);
+      fetched.increment();
+      return e;
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private HttpResponse<InputStream> send(String host, HttpRequest req) throws IOException {
+    Long until = h2FailedUntil.get(host);
+    boolean h2 = until == null || until < System.currentTimeMillis();
+    try {
+      return (h2 ? clientH2 : clientH1).send(req, HttpResponse.BodyHandlers.ofInputStream());
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted");
+    } catch (IOException e) {
+      if (!h2) throw e;
+      log.warn("[img-proxy] h2 request failed for {}: {} (falling back to HTTP/1.1)", host, e.toString());
+      h2FailedUntil.put(host, System.currentTimeMillis() + H2_BACKOFF.toMillis());
+      try {
+        return clientH1.send(req, HttpResponse.BodyHandlers.ofInputStream());
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("interrupted");
+      }
+    }
+  }
+
+  /** maxUpstreamBytes 초과 시 중단 (Content-Length 없이 오는 큰 본문 대비) */
+  private long copyCapped(InputStream in, OutputStream out) throws IOException {
+    byte[] buf = new byte[64 * 1024];
+    long total = 0;
+    int n;
+    while ((n = in.read(buf)) > 0) {
+      total += n;
+      if (total > maxUpstreamBytes) {
+        oversized.increment();
+        throw new UpstreamException(502, "upstream too large");
+      }
+      out.write(buf, 0, n);
+    }
+    return total;
+  }
+
+  /** Cache-Control max-age (없으면 기본값), 최대 maxTtl */
+  private long ttlMs(HttpResponse<?> r) {
+    String cc = r.headers().firstValue("cache-control").orElse("");
+    for (String part : cc.split(",")) {
+      String p = part.trim().toLowerCase(Locale.ROOT);
+      if (p.startsWith("max-age=")) {
+        try {
+          long sec = Long.parseLong(p.substring(8));
+          return Math.min(maxTtlMs, Math.max(60_000L, sec * 1000L));
+        } catch (NumberFormatException ignore) { }
+      }
+    }
+    return defaultTtlMs;
+  }
+
+  /* ===================== 인덱스 / LRU ===================== */
+
+  private Entry lookup(String key) {
+    synchronized (index) {
+      return index.get(key);
+    }
+  }
+
+  private void put(Entry e) {
+    List<Entry> evicted = new ArrayList<>();
+    synchronized (index) {
+      Entry prev = index.put(e.key(), e);
+      totalBytes += e.size() - (prev == null ? 0 : prev.size());
+      Iterator<Entry> it = index.values().iterator();
+      while (totalBytes > maxBytes && it.hasNext()) {
+        Entry old = it.next();
+        if (old.key().equals(e.key())) continue;
+        it.remove();
+        totalBytes -= old.size();
+        evicted.add(old);
+      }
+    }
+    for (Entry old : evicted) deleteFiles(old.key());
+  }
+
+  /** 업스트림에서 사라진 항목 제거 */
+  private void drop(Entry e) {
+    boolean removed;
+    synchronized (index) {
+      removed = index.remove(e.key(), e);
+      if (removed) totalBytes -= e.size();
+    }
+    if (removed) deleteFiles(e.key());
+  }
+
+  private FileChannel openChannel(Entry e) {
+    try {
+      return FileChannel.open(bodyPath(e.key()), StandardOpenOption.READ);
+    } catch (IOException ex) {
+      synchronized (index) {
+        if (index.remove(e.key(), e)) totalBytes -= e.size();
+      }
+      return null;
+    }
+  }
+
+  private void loadIndex() throws IOException {
+    List<Path> metas = new ArrayList<>();
+    try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+      for (Path p : ds) {
+        String name = p.getFileName().toString();
+        if (name.endsWith(".tmp")) Files.deleteIfExists(p);
+        else if (name.endsWith(".meta")) metas.add(p);
+      }
+    }
+    // 오래 안 쓴 것부터 넣어 LRU 순서 근사
+    metas.sort(Comparator.comparingLong(p -> p.toFile().lastModified()));
+    for (Path p : metas) {
+      Entry e = readMeta(p);
+      if (e != null && Files.isRegularFile(bodyPath(e.key()))) put(e);
+      else deleteFiles(p.getFileName().toString().replace(".meta", ""));
+    }
+    log.info("[img-proxy] cache {}: {} entries, {} bytes", dir, index.size(), totalBytes);
+  }
+
+  private void writeMeta(Entry e) throws IOException {
+    Properties p = new Properties();
+    p.setProperty("url", e.url());
+    if (e.contentType() != null) p.setProperty("contentType", e.contentType());
+    if (e.upstreamEtag() != null) p.setProperty("upstreamEtag", e.upstreamEtag());
+    if (e.upstreamLastModified() != null) p.setProperty("upstreamLastModified", e.upstreamLastModified());
+    p.setProperty("expiresAt", Long.toString(e.expiresAt()));
+    p.setProperty("size", Long.toString(e.size()));
+    p.setProperty("etag", e.etag());
+
+    Path tmp = Files.createTempFile(dir, e.key(), ".tmp");
+    try {
+      try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+        p.store(w, null);
+      }
+      Files.move(tmp, dir.resolve(e.key() + ".meta"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private Entry readMeta(Path p) {
+    try (Reader r = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
+      Properties m = new Properties();
+      m.load(r);
+      String key = p.getFileName().toString().replace(".meta", "");
+      return new Entry(key, m.getProperty("url"), m.getProperty("contentType"),
+          m.getProperty("upstreamEtag"), m.getProperty("upstreamLastModified"),
+          Long.parseLong(m.getProperty("expiresAt")), Long.parseLong(m.getProperty("size")),
+          m.getProperty("etag"));
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private void deleteFiles(String key) {
+    try {
+      Files.deleteIfExists(bodyPath(key));
+      Files.deleteIfExists(dir.resolve(key + ".meta"));
+    } catch (IOException e) {
+      log.debug("[img-proxy] delete failed {}: {}", key, e.getMessage());
+    }
+  }
+
+  private Path bodyPath(String key) {
+    return dir.resolve(key + ".bin");
+  }
+
+  // ───────── helpers ─────────
+  static String keyOf(String s) {
+    return HexFormat.of().formatHex(sha256().digest(s.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String guessReferer(String host) {
+    if (host.endsWith(".pstatic.net") || host.endsWith(".naver.com") || host.endsWith(".naver.net"))
+      return "https://blog.naver.com/";
+    return null;
+  }
+
+  private static ProxySelector buildProxySelectorFromEnv() {
+    try {
+      String https = System.getenv("HTTPS_PROXY");
+      String http  = System.getenv("HTTP_PROXY");
+      URI u = https != null ? URI.create(https) : (http != null ? URI.create(http) : null);
+      if (u == null || u.getHost() == null || u.getPort() == -1) {
+        // 자바 시스템 속성에 설정되어 있을 수 있음(예: -Dhttps.proxyHost= -Dhttps.proxyPort=)
+        return ProxySelector.getDefault();
+      }
+      return ProxySelector.of(new InetSocketAddress(u.getHost(), u.getPort()));
+    } catch (Exception e) {
+      return ProxySelector.getDefault();
+    }
+  }
+}
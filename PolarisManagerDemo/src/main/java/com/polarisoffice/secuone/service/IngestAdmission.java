@@ -0,0 +1,312 @@
+package com.polarisoffice.secuone.service;
+
+import com.polarisoffice.secuone.repository.CustomerRepository;
+import com.polarisoffice.secuone.repository.CustomerRepository.IngestLimits;
+import com.polarisoffice.secuone.support.CustomerCodes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 수집 유입 제한 (고객사 / 디바이스별 토큰 버킷, 메모리)
+ * - 버킷 = AtomicLong 하나 (GCRA: 다음 토큰 도착 예정 시각). 락 없이 CAS 1회로 판정
+ * - 디바이스 버킷은 고객사별 스트라이프 맵에 보관. 완전히 다시 찬 뒤 idle-evict-sec 지난 버킷은 주기적으로 제거
+ * - 디바이스 먼저, 고객사 다음 순으로 확인 → 한 디바이스의 폭주가 고객사 전체 한도를 소진하지 않음
+ * - 한도: customers.ingest_rate_per_sec / ingest_burst / device_rate_per_min / device_burst (null → 기본값, 0 → 제한 없음)
+ *   limits-reload-sec 주기 + 고객사 변경 시(TenantCacheInvalidator) 재적재
+ * - 고객 미식별 요청은 고객사 버킷을 공유하지 않도록 별도 정책(anonymous-*, 기본: 고객사 한도 없음 / 디바이스 한도만)
+ * - 고객사별 디바이스 버킷 수가 max-devices-per-tenant 를 넘으면 새 디바이스는 고객사 한도만 적용 (메모리 상한)
+ *   고객사 한도가 없는 경우(미식별 등)에는 넘친 디바이스들이 디바이스 한도 버킷 하나를 함께 사용
+ * - 컨트롤러에서 DB/Firestore 작업 전에 호출
+ */
+@Service
+public class IngestAdmission implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(IngestAdmission.class);
+
+  public enum Verdict { OK, TENANT_LIMITED, DEVICE_LIMITED }
+
+  /** 고객 미식별 요청의 고객사 키 (디바이스 버킷은 디바이스별, 고객사 한도는 anonymous-* 정책) */
+  public static final String ANONYMOUS = "";
+
+  private static final long SEC = 1_000_000_000L;
+
+  /** interval: 토큰 1개 생성 간격(ns), tolerance: interval x burst. interval 0 이면 제한 없음 */
+  private record Rate(long interval, long tolerance) {
+    static final Rate UNLIMITED = new Rate(0, 0);
+
+    /** events 또는 burst 가 0 이하면 제한 없음 */
+    static Rate of(int events, long perNanos, int burst) {
+      if (events <= 0 || burst <= 0) return UNLIMITED;
+      long interval = Math.max(1, perNanos / events);
+      return new Rate(interval, interval * burst);
+    }
+  }
+
+  private record Policy(Rate tenant, Rate device) {}
+
+  private static final class Tenant {
+    final AtomicLong tat; // nanoTime 은 음수일 수 있어 0 이 아닌 현재 시각에서 시작
+    final ConcurrentHashMap<String, AtomicLong>[] devices;
+    final AtomicInteger deviceCount = new AtomicInteger();
+    final AtomicLong overflow; // 상한 초과 디바이스 공용 버킷
+    final LongAdder tenantRejected = new LongAdder();
+    final LongAdder deviceRejected = new LongAdder();
+    volatile Policy policy;
+
+    @SuppressWarnings("unchecked")
+    Tenant(Policy policy, int stripes, long now) {
+      this.policy = policy;
+      this.tat = new AtomicLong(now);
+      this.overflow = new AtomicLong(now);
+      this.devices = new ConcurrentHashMap[stripes];
+      for (int i = 0; i < stripes; i++) devices[i] = new ConcurrentHashMap<>();
+    }
+
+    ConcurrentHashMap<String, AtomicLong> stripe(String deviceId) {
+      int h = deviceId.hashCode();
+      return devices[(h ^ (h >>> 16)) & (devices.length - 1)];
+    }
+  }
+
+  private final CustomerRepository customers;
+  private final boolean enabled;
+  private final int tenantRate, tenantBurst, deviceRate, deviceBurst;
+  private final Policy defaults;
+  private final Policy anonymous;
+  private final int stripes;
+  private final long idleNanos;
+  private final long reloadSec;
+  private final int maxDevicesPerTenant;
+
+  private final ConcurrentHashMap<String, Tenant> tenants = new ConcurrentHashMap<>();
+  private volatile Map<String, Policy> policies = Map.of();
+
+  private final LongAdder admitted = new LongAdder();
+  private final LongAdder tenantRejected = new LongAdder();
+  private final LongAdder deviceRejected = new LongAdder();
+  private final LongAdder evicted = new LongAdder();
+
+  private volatile boolean running;
+  private ScheduledExecutorService scheduler;
+
+  public IngestAdmission(CustomerRepository customers,
+                         @Value("${ingest.admission.enabled:true}") boolean enabled,
+                         @Value("${ingest.admission.tenant-rate-per-sec:500}") int tenantRate,
+                         @Value("${ingest.admission.tenant-burst:1000}") int tenantBurst,
+                         @Value("${ingest.admission.device-rate-per-min:120}") int deviceRate,
+                         @Value("${ingest.admission.device-burst:30}") int deviceBurst,
+                         @Value("${ingest.admission.anonymous-rate-per-sec:0}") int anonymousRate,
+                         @Value("${ingest.admission.anonymous-burst:0}") int anonymousBurst,
+                         @Value("${ingest.admission.stripes:16}") int stripes,
+                         @Value("${ingest.admission.idle-evict-sec:300}") long idleEvictSec,
+                         @Value("${ingest.admission.max-devices-per-tenant:100000}") int maxDevicesPerTenant,
+                         @Value("${ingest.admission.limits-reload-sec:60}") long reloadSec) {
+    this.customers = customers;
+    this.enabled = enabled;
+    this.tenantRate = tenantRate;
+    this.tenantBurst = tenantBurst;
+    this.deviceRate = deviceRate;
+    this.deviceBurst = deviceBurst;
+    this.defaults = policy(tenantRate, tenantBurst, deviceRate, deviceBurst);
+    this.anonymous = policy(anonymousRate, anonymousBurst, deviceRate, deviceBurst);
+    this.stripes = Integer.highestOneBit(Math.max(1, Math.min(256, stripes)));
+    this.idleNanos = Math.max(1, idleEvictSec) * SEC;
+    this.maxDevicesPerTenant = Math.max(1, maxDevicesPerTenant);
+    this.reloadSec = Math.max(5, reloadSec);
+  }
+
+  /* ===================== 판정 ===================== */
+
+  /**
+   * 이벤트 1건 유입 허용 여부
+   * @param customerCode 정규화된 고객사 코드 (미식별이면 null → anonymous 정책)
+   * @param deviceId     디바이스 id (없으면 고객사 한도만 적용)
+   */
+  public Verdict admit(String customerCode, String deviceId) {
+    return admit(customerCode, deviceId, System.nanoTime());
+  }
+
+  Verdict admit(String customerCode, String deviceId, long now) {
+    if (!enabled) return Verdict.OK;
+    Tenant t = tenant(customerCode == null ? ANONYMOUS : customerCode, now);
+    Policy p = t.policy;
+
+    if (deviceId != null && !deviceId.isEmpty() && p.device().interval() > 0) {
+      AtomicLong b = device(t, deviceId, now);
+      if (b != null && !tryAcquire(b, now, p.device())) {
+        t.deviceRejected.increment();
+        deviceRejected.increment();
+        return Verdict.DEVICE_LIMITED;
+      }
+    }
+    if (p.tenant().interval() > 0 && !tryAcquire(t.tat, now, p.tenant())) {
+      t.tenantRejected.increment();
+      tenantRejected.increment();
+      return Verdict.TENANT_LIMITED;
+    }
+    admitted.increment();
+    return Verdict.OK;
+  }
+
+  /** GCRA: 다음 도착 예정 시각을 interval 만큼 미룬 값이 now + tolerance 를 넘으면 거절 */
+  private static boolean tryAcquire(AtomicLong tat, long now, Rate r) {
+    for (;;) {
+      long cur = tat.get();
+      long next = (cur - now > 0 ? cur : now) + r.interval();
+      if (next - now > r.tolerance()) return false;
+      if (tat.compareAndSet(cur, next)) return true;
+    }
+  }
+
+  private Tenant tenant(String code, long now) {
+    Tenant t = tenants.get(code);
+    if (t != null) return t;
+    return tenants.computeIfAbsent(code, c -> new Tenant(policyOf(c), stripes, now));
+  }
+
+  /**
+   * 고객사 상한 초과로 만들 수 없으면 고객사 한도가 있을 때 null (고객사 한도만 적용),
+   * 없으면 공용 overflow 버킷
+   */
+  private AtomicLong device(Tenant t, String deviceId, long now) {
+    ConcurrentHashMap<String, AtomicLong> m = t.stripe(deviceId);
+    AtomicLong b = m.get(deviceId);
+    if (b != null) return b;
+    if (t.deviceCount.get() >= maxDevicesPerTenant) {
+      return t.policy.tenant().interval() > 0 ? null : t.overflow;
+    }
+    AtomicLong fresh = new AtomicLong(now);
+    b = m.putIfAbsent(deviceId, fresh);
+    if (b != null) return b;
+    t.deviceCount.incrementAndGet();
+    return fresh;
+  }
+
+  private Policy policyOf(String code) {
+    if (ANONYMOUS.equals(code)) return anonymous;
+    Policy p = policies.get(code);
+    return p != null ? p : defaults;
+  }
+
+  /* ===================== 한도 / 정리 ===================== */
+
+  /** customers 의 한도 설정 재적재 (고객사 변경 시 / 주기적) */
+  public void reloadLimits() {
+    Map<String, Policy> fresh = new HashMap<>();
+    for (IngestLimits r : customers.findIngestLimits()) {
+      String code = CustomerCodes.normalize(r.getCode());
+      if (code == null) continue;
+      fresh.put(code, policy(
+          or(r.getIngestRatePerSec(), tenantRate), or(r.getIngestBurst(), tenantBurst),
+          or(r.getDeviceRatePerMin(), deviceRate), or(r.getDeviceBurst(), deviceBurst)));
+    }
+    policies = Map.copyOf(fresh);
+    tenants.forEach((code, t) -> t.policy = policyOf(code));
+  }
+
+  private static Policy policy(int tenantRate, int tenantBurst, int deviceRate, int deviceBurst) {
+    return new Policy(Rate.of(tenantRate, SEC, tenantBurst), Rate.of(deviceRate, 60 * SEC, deviceBurst));
+  }
+
+  private static int or(Integer v, int def) { return v != null ? v : def; }
+
+  /** 완전히 다시 찬 뒤 idle 시간이 지난 디바이스 버킷 제거 */
+  void evictIdle() {
+    evictIdle(System.nanoTime());
+  }
+
+  void evictIdle(long now) {
+    for (Tenant t : tenants.values()) {
+      for (ConcurrentHashMap<String, AtomicLong> m : t.devices) {
+        m.entrySet().removeIf(e -> {
+          if (now - e.getValue().get() <= idleNanos) return false;
+          t.deviceCount.decrementAndGet();
+          evicted.increment();
+          return true;
+        });
+      }
+    }
+  }
+
+  /* ===================== 통계 ===================== */
+
+  public long rejectedCount() { return tenantRejected.sum() + deviceRejected.sum(); }
+
+  public Map<String, Object> stats() {
+    Map<String, Object> out = new LinkedHashMap<>();
+    out.put("enabled", enabled);
+    out.put("admitted", admitted.sum());
+    out.put("tenantRejected", tenantRejected.sum());
+    out.put("deviceRejected", deviceRejected.sum());
+    out.put("tenants", tenants.size());
+    out.put("devices", tenants.values().stream().mapToInt(t -> t.deviceCount.get()).sum());
+    out.put("evicted", evicted.sum());
+
+    Map<String, Object> byTenant = new TreeMap<>();
+    tenants.forEach((code, t) -> {
+      long tr = t.tenantRejected.sum(), dr = t.deviceRejected.sum();
+      if (tr + dr > 0) byTenant.put(code.isEmpty() ? "(anonymous)" : code, Map.of("tenantRejected", tr, "deviceRejected", dr));
+    });
+    out.put("rejectedByTenant", byTenant);
+    return out;
+  }
+
+  /* ===================== Lifecycle ===================== */
+
+  private void safeReload() {
+    try {
+      reloadLimits();
+    } catch (RuntimeException e) {
+      // 실패 시 직전 한도 유지
+      log.warn("[IngestAdmission] limits reload failed: {}", e.getMessage());
+    }
+  }
+
+  private void safeEvict() {
+    try {
+      evictIdle();
+    } catch (RuntimeException e) {
+      log.warn("[IngestAdmission] evict failed: {}", e.getMessage());
+    }
+  }
+
+  @Override
+  public void start() {
+    if (running) return;
+    running = true;
+    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "ingest-admission");
+      t.setDaemon(true);
+      return t;
+    });
+    safeReload();
+    scheduler.scheduleWithFixedDelay(this::safeReload, reloadSec, reloadSec, TimeUnit.SECONDS);
+    long sweepSec = Math.max(5, Math.min(60, idleNanos / SEC / 2));
+    scheduler.scheduleWithFixedDelay(this::safeEvict, sweepSec, sweepSec, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (scheduler != null) scheduler.shutdownNow();
+  }
+
+  @Override
+  public boolean isRunning() { return running; }
+
+  /** 웹서버(WebServerStartStopLifecycle, DEFAULT_PHASE - 2048)보다 먼저 시작하고 나중에 멈추도록 더 낮은 phase 사용 */
+  @Override
+  public int getPhase() { return SmartLifecycle.DEFAULT_PHASE - 4096; }
+}
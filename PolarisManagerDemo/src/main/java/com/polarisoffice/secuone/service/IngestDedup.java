@@ -0,0 +1,66 @@
+package com.polarisoffice.secuone.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 클라이언트 이벤트 id 중복 확인 (메모리 1차 필터)
+ * - 시간 버킷 2세대 해시셋: 현재/직전 세대에서 확인, window/2 마다 세대 교체 → 각 키는 최소 window/2 ~ 최대 window 동안 기억
+ * - 세대당 최대 maxEntries 건, 넘치면 앞당겨 교체 (메모리 상한 = 2 x maxEntries)
+ * - 오탐이 없는 정확 집합 (Bloom 필터의 오탐은 정상 이벤트 유실로 이어지므로 사용하지 않음)
+ * - 키는 호출부에서 고객사 코드를 포함해 구성 (이벤트 id 는 고객사 범위에서만 유일)
+ * - 창을 벗어난 재전송은 DB 유니크 키((customer_code, client_event_id))가 최종 차단
+ */
+@Service
+public class IngestDedup {
+
+  private final long halfWindowMs;
+  private final int maxEntries;
+
+  private volatile Set<String> current = ConcurrentHashMap.newKeySet();
+  private volatile Set<String> previous = ConcurrentHashMap.newKeySet();
+  private volatile long rotatedAt = System.currentTimeMillis();
+
+  private final LongAdder duplicates = new LongAdder();
+
+  public IngestDedup(@Value("${events.dedup.window-sec:600}") long windowSec,
+                     @Value("${events.dedup.max-entries:500000}") int maxEntries) {
+    this.halfWindowMs = Math.max(1, windowSec) * 500L;
+    this.maxEntries = Math.max(1000, maxEntries);
+  }
+
+  /** 처음 보는 키면 기록하고 true, 창 안에서 이미 본 키면 false */
+  public boolean firstSeen(String key) {
+    long now = System.currentTimeMillis();
+    Set<String> cur = current;
+    if (now - rotatedAt >= halfWindowMs || cur.size() >= maxEntries) cur = rotate(cur, now);
+    if (previous.contains(key) || !cur.add(key)) {
+      duplicates.increment();
+      return false;
+    }
+    return true;
+  }
+
+  /** 적재 실패(큐 가득 참 등)로 재전송을 받아야 하는 키 제거 */
+  public void forget(String key) {
+    current.remove(key);
+    previous.remove(key);
+  }
+
+  private synchronized Set<String> rotate(Set<String> seen, long now) {
+    if (current != seen) return current; // 다른 스레드가 이미 교체
+    previous = seen;
+    current = ConcurrentHashMap.newKeySet();
+    rotatedAt = now;
+    return current;
+  }
+
+  public Map<String, Object> stats() {
+    return Map.of("current", current.size(), "previous", previous.size(), "duplicates", duplicates.sum());
+  }
+}
@@ -0,0 +1,67 @@
+package com.polarisoffice.secuone.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * 무효 푸시 토큰 가지치기 저장소 (push_invalid_tokens)
+ * - 발송 청크(최대 500개) 단위로 해시 in 조회 1회 → 이미 무효로 확인된 토큰 제외
+ * - 기록은 insert ignore 배치 (같은 토큰 중복 기록 무시)
+ * - 캠페인 대상 전체를 메모리에 올리지 않도록 청크 조회 방식 사용
+ */
+@Service
+public class InvalidTokenStore {
+
+  private final JdbcTemplate jdbc;
+
+  public InvalidTokenStore(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+  }
+
+  /** tokens 중 무효로 기록되지 않은 것만 순서 유지해 반환 */
+  public List<String> filterValid(List<String> tokens) {
+    if (tokens.isEmpty()) return tokens;
+    Map<String, String> byHash = new LinkedHashMap<>(tokens.size() * 2);
+    for (String t : tokens) byHash.put(hash(t), t);
+
+    String in = String.join(",", Collections.nCopies(byHash.size(), "?"));
+    List<String> known = jdbc.queryForList(
+        "select token_hash from push_invalid_tokens where token_hash in (" + in + ")",
+        String.class, byHash.keySet().toArray());
+    if (known.isEmpty()) return tokens;
+
+    byHash.keySet().removeAll(known);
+    return new ArrayList<>(byHash.values());
+  }
+
+  /** token → reason(FCM 오류 코드) 기록 */
+  public void record(Map<String, String> invalid) {
+    if (invalid.isEmpty()) return;
+    Timestamp now = Timestamp.from(Instant.now());
+    List<Object[]> args = new ArrayList<>(invalid.size());
+    invalid.forEach((token, reason) -> args.add(new Object[]{ hash(token), reason, now }));
+    jdbc.batchUpdate("insert ignore into push_invalid_tokens (token_hash, reason, created_at) values (?, ?, ?)", args);
+  }
+
+  /** 앱 재설치 등으로 같은 토큰이 다시 등록되면 호출 */
+  public void forget(String token) {
+    if (token == null || token.isBlank()) return;
+    jdbc.update("delete from push_invalid_tokens where token_hash = ?", hash(token));
+  }
+
+  static String hash(String token) {
+    try {
+      byte[] h = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(h);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
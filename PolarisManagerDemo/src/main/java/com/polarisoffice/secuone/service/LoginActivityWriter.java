@@ -0,0 +1,160 @@
+package com.polarisoffice.secuone.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로그인 성공 후처리(lastLoginAt / 비밀번호 재해시) 쓰기 지연
+ * - 요청 스레드는 (계정 종류, id) 키로 맵에 병합만 하고 반환 (같은 계정 연속 로그인은 최신 1건으로 합쳐짐)
+ * - 주기적으로 JDBC 배치 update. lastLoginAt 은 더 최신일 때만, 재해시는 기존 해시가 그대로일 때만 반영
+ *   (그 사이 비밀번호가 변경되었으면 덮어쓰지 않음)
+ * - 미기동/종료 후에는 호출 스레드에서 즉시 반영
+ */
+@Service
+public class LoginActivityWriter implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(LoginActivityWriter.class);
+
+  public enum Kind {
+    ADMIN("admin_users"), CUSTOMER("customer_users");
+
+    final String lastLoginSql;
+    final String rehashSql;
+
+    Kind(String table) {
+      this.lastLoginSql = "update " + table + " set last_login_at = ? "
+          + "where id = ? and (last_login_at is null or last_login_at < ?)";
+      this.rehashSql = "update " + table + " set password_hash = ? where id = ? and password_hash = ?";
+    }
+  }
+
+  private record Key(Kind kind, long id) {}
+
+  /** oldHash/newHash: 재해시 필요 시에만 값 존재 */
+  private record Pending(Instant at, String oldHash, String newHash) {
+    Pending merge(Pending later) {
+      Instant latest = later.at().isAfter(at) ? later.at() : at;
+      return later.newHash() != null
+          ? new Pending(latest, later.oldHash(), later.newHash())
+          : new Pending(latest, oldHash, newHash);
+    }
+  }
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final long flushIntervalMs;
+  private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+
+  private volatile boolean running;
+  private ScheduledExecutorService scheduler;
+
+  public LoginActivityWriter(JdbcTemplate jdbc,
+                             TransactionTemplate tx,
+                             @Value("${security.login.flush-interval-ms:2000}") long flushIntervalMs) {
+    this.jdbc = jdbc;
+    this.tx = tx;
+    this.flushIntervalMs = Math.max(100, flushIntervalMs);
+  }
+
+  /* ===================== 적재 API ===================== */
+
+  /** 로그인 성공 기록. rehash 가 있으면 oldHash 와 일치할 때만 교체 */
+  public void record(Kind kind, Long id, String oldHash, String rehash) {
+    if (id == null) return;
+    Pending p = new Pending(Instant.now(), rehash == null ? null : oldHash, rehash);
+    if (!running) {
+      write(Map.of(new Key(kind, id), p));
+      return;
+    }
+    pending.merge(new Key(kind, id), p, Pending::merge);
+  }
+
+  public int pendingCount() { return pending.size(); }
+
+  /* ===================== flush ===================== */
+
+  private void flush() {
+    if (pending.isEmpty()) return;
+    Map<Key, Pending> drained = new HashMap<>();
+    for (Key k : pending.keySet()) {
+      Pending p = pending.remove(k);
+      if (p != null) drained.put(k, p);
+    }
+    try {
+      write(drained);
+      log.debug("[LoginActivityWriter] flushed {} logins", drained.size());
+    } catch (RuntimeException e) {
+      // 다음 주기에 재시도 (그 사이 들어온 값과 병합)
+      log.warn("[LoginActivityWriter] flush failed: size={}, cause={}", drained.size(), e.getMessage());
+      drained.forEach((k, p) -> pending.merge(k, p, (cur, old) -> old.merge(cur)));
+    }
+  }
+
+  private void write(Map<Key, Pending> rows) {
+    tx.executeWithoutResult(s -> {
+      for (Kind kind : Kind.values()) {
+        List<Object[]> logins = new ArrayList<>();
+        List<Object[]> rehashes = new ArrayList<>();
+        rows.forEach((k, p) -> {
+          if (k.kind() != kind) return;
+          Timestamp at = Timestamp.from(p.at());
+          logins.add(new Object[]{at, k.id(), at});
+          if (p.newHash() != null) rehashes.add(new Object[]{p.newHash(), k.id(), p.oldHash()});
+        });
+        if (!logins.isEmpty())   jdbc.batchUpdate(kind.lastLoginSql, logins);
+        if (!rehashes.isEmpty()) jdbc.batchUpdate(kind.rehashSql, rehashes);
+      }
+    });
+  }
+
+  /* ===================== Lifecycle ===================== */
+
+  @Override
+  public void start() {
+    if (running) return;
+    running = true;
+    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "login-activity-writer");
+      t.setDaemon(true);
+      return t;
+    });
+    scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    if (!running) return;
+    running = false;
+    scheduler.shutdown();
+    try {
+      scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+    log.info("[LoginActivityWriter] stopped: remaining={}", pending.size());
+  }
+
+  @Override
+  public boolean isRunning() { return running; }
+
+  /** 웹서버(WebServerStartStopLifecycle, DEFAULT_PHASE - 2048)보다 먼저 시작하고 나중에 멈추도록 더 낮은 phase 사용 */
+  @Override
+  public int getPhase() { return SmartLifecycle.DEFAULT_PHASE - 4096; }
+}
@@ -1,10 +1,9 @@
 package com.polarisoffice.secuone.service;
 
-import com.google.firebase.messaging.FirebaseMessagingException;
 import com.polarisoffice.secuone.domain.NoticeCategory;
 import com.polarisoffice.secuone.dto.NoticeCreateReq;
 import com.polarisoffice.secuone.dto.NoticeRes;
-import com.polarisoffice.secuone.util.FcmGateway;
+import com.polarisoffice.secuone.util.FcmTemplates;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -12,33 +11,38 @@ import org.springframework.stereotype.Service;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * 공지 → 토픽 푸시 작업 적재
+ * - FCM 을 직접 호출하지 않고 PushJobQueue 에 적재만 하고 반환 (발송/재시도는 워커에서)
+ * - 멱등 키: notice:{id}[:test] → 같은 공지로 중복 적재되어도 작업은 1건
+ */
 @Service
 public class NoticePushService {
 
     private static final Logger log = LoggerFactory.getLogger(NoticePushService.class);
 
-    private final FcmGateway fcm; // 실제 FCM 발송 게이트웨이
+    private final PushJobQueue jobs; // 영속 푸시 작업 큐
 
     // 채널 ID 상수 (요청대로)
-    public static final String EVENT_CHANNEL_ID     = "EVENT_CHANNEL_ID";
-    public static final String EMERGENCY_CHANNEL_ID = "EMERGENCY_CHANNEL_ID";
-    public static final String NOTICE_CHANNEL_ID    = "NOTICE_CHANNEL_ID"; // 가이드/업데이트
+    public static final String EVENT_CHANNEL_ID     = FcmTemplates.EVENT_CHANNEL_ID;
+    public static final String EMERGENCY_CHANNEL_ID = FcmTemplates.EMERGENCY_CHANNEL_ID;
+    public static final String NOTICE_CHANNEL_ID    = FcmTemplates.NOTICE_CHANNEL_ID; // 가이드/업데이트
 
-    public NoticePushService(FcmGateway fcm) {
-        this.fcm = fcm;
+    public NoticePushService(PushJobQueue jobs) {
+        this.jobs = jobs;
     }
 
-    /** 생성 요청 DTO로 알림 */
-    public void notifyNotice(NoticeCreateReq req, String id, boolean test) {
-        send(req.title(), req.content(), req.category(), id, test);
+    /** 생성 요청 DTO로 알림. 반환: 푸시 작업 id */
+    public long notifyNotice(NoticeCreateReq req, String id, boolean test) {
+        return send(req.title(), req.content(), req.category(), id, test);
     }
 
     /** 조회/응답 DTO로 알림 (id를 따로 받는 기존 시그니처 유지) */
-    public void notifyNotice(NoticeRes res, String id, boolean test) {
-        send(res.title(), res.content(), res.category(), id, test);
+    public long notifyNotice(NoticeRes res, String id, boolean test) {
+        return send(res.title(), res.content(), res.category(), id, test);
     }
 
-    private void send(String title, String content, NoticeCategory category, String id, boolean test) {
+    private long send(String title, String content, NoticeCategory category, String id, boolean test) {
         final String channel = resolveChannel(category);
         final String topic   = test ? channel + "_TEST" : channel;
 
@@ -53,14 +57,12 @@ public class NoticePushService {
         String t = title  == null ? "" : title;
         String b = content== null ? "" : content;
 
-        try {
-            // 게이트웨이의 토픽 전송 API 사용 (dryRun=test)
-            fcm.sendToTopic(topic, t, b, channel, data, test);
-            log.info("[NoticePushService] pushed topic={}, title={}, id={}, test={}", topic, t, id, test);
-        } catch (FirebaseMessagingException e) {
-            // 알림 실패가 저장 자체를 막지 않도록 예외는 로깅만
-            log.warn("[NoticePushService] FCM push failed: topic={}, id={}, cause={}", topic, id, e.getMessage(), e);
-        }
+        // 토픽 전송 작업 적재 (dryRun=test). 발송 실패는 작업 상태(FAILED/재시도)로 남음
+        String key = "notice:" + id + (test ? ":test" : "");
+        PushJobQueue.Enqueued job = jobs.enqueueTopic(key, topic, channel, t, b, data, test);
+        log.info("[NoticePushService] queued job={}, created={}, topic={}, id={}, test={}",
+                job.id(), job.created(), topic, id, test);
+        return job.id();
     }
 
     /** 카테고리 → 채널 라우팅 */
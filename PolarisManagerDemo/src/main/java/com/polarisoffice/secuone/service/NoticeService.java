@@ -24,12 +24,14 @@ public class NoticeService {
     return repo.create(req);
   }
 
-  /** 저장 + 카테고리 기반 푸시 */
-  public String createAndPush(NoticeCreateReq req, boolean test) throws Exception {
+  public record Created(String id, Long pushJobId) {}
+
+  /** 저장 + 카테고리 기반 푸시 작업 적재 (발송은 백그라운드) */
+  public Created createAndPush(NoticeCreateReq req, boolean test) throws Exception {
 	    String id = repo.create(req);
 	    // 본문 80자 트림은 NoticePushService 내부에서 처리
-	    push.notifyNotice(req, id, test);
-	    return id;
+	    long jobId = push.notifyNotice(req, id, test);
+	    return new Created(id, jobId);
   }
 
   public boolean update(String id, NoticeUpdateReq req) throws Exception { return repo.update(id, req); }
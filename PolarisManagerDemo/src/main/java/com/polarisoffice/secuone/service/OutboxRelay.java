@@ -0,0 +1,257 @@
+package com.polarisoffice.secuone.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polarisoffice.secuone.dto.TrackEventReq;
+import com.polarisoffice.secuone.service.DirectAdCounterService.Tracked;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 수집 후속 작업 아웃박스(ingest_outbox) 릴레이
+ * - append: 호출자 트랜잭션 안에서 insert (이벤트 적재와 원자적)
+ * - 점유: select ... for update skip locked + next_attempt_at=점유 만료 시각 → 커밋 후 트랜잭션 밖에서 처리
+ *   (Firestore 호출 동안 행 잠금을 잡지 않음. 처리 중 죽으면 만료 후 다른 인스턴스가 재점유)
+ * - 직광고 카운트는 버퍼(DirectAdCounterService.record)를 거치지 않고 applyNow 로 동기 기록
+ *   → Firestore 커밋이 확인된 건만 일괄 delete (프로세스가 죽어도 아웃박스 행이 남아 재처리됨)
+ * - 실패 행은 retry-backoff-sec 일정(지터 ±20%)대로 재예약. 일정 소진/해석 불가 시 로그 후 삭제
+ * - 처리는 최소 1회(at-least-once): 점유 만료 경합 시 카운트가 중복될 수 있음
+ */
+@Service
+public class OutboxRelay implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+  public static final String DIRECT_AD_IMPRESSION = "DIRECT_AD_IMPRESSION";
+  public static final String DIRECT_AD_CLICK = "DIRECT_AD_CLICK";
+
+  private record Item(long id, String kind, String aggregateId, String payloadJson, int attempts, Instant createdAt) {}
+
+  private static final String CLAIM_SQL = """
+      select id from ingest_outbox
+       where next_attempt_at <= ?
+       order by next_attempt_at
+       limit ?
+       for update skip locked
+      """;
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final DirectAdCounterService counters;
+  private final ObjectMapper om;
+  private final int batch;
+  private final long pollMs;
+  private final long leaseSec;
+  private final long[] backoffSec;
+
+  private final AtomicBoolean wakePending = new AtomicBoolean();
+  private final AtomicLong processed = new AtomicLong();
+  private final AtomicLong retried = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+
+  private volatile boolean running;
+  private ScheduledExecutorService poller;
+
+  public OutboxRelay(JdbcTemplate jdbc,
+                     TransactionTemplate tx,
+                     DirectAdCounterService counters,
+                     ObjectMapper om,
+                     @Value("${ingest.outbox.batch:200}") int batch,
+                     @Value("${ingest.outbox.poll-ms:500}") long pollMs,
+                     @Value("${ingest.outbox.lease-sec:60}") long leaseSec,
+                     @Value("${ingest.outbox.retry-backoff-sec:5,30,120,600}") long[] backoffSec) {
+    this.jdbc = jdbc;
+    this.tx = tx;
+    this.counters = counters;
+    this.om = om;
+    this.batch = Math.max(1, batch);
+    this.pollMs = Math.max(50, pollMs);
+    this.leaseSec = Math.max(10, leaseSec);
+    this.backoffSec = backoffSec == null ? new long[0] : backoffSec.clone();
+  }
+
+  /* ===================== 적재 ===================== */
+
+  /** 아웃박스 1건 기록. 호출자 트랜잭션에 참여하므로 커밋 전까지 릴레이에 보이지 않음 */
+  public void append(String kind, String aggregateId, String payloadJson, Instant now) {
+    Timestamp ts = Timestamp.from(now);
+    jdbc.update("insert into ingest_outbox (kind, aggregate_id, payload_json, attempts, next_attempt_at, created_at) "
+        + "values (?, ?, ?, 0, ?, ?)", kind, aggregateId, payloadJson, ts, ts);
+  }
+
+  public long pending() {
+    Long n = jdbc.queryForObject("select count(*) from ingest_outbox", Long.class);
+    return n == null ? 0 : n;
+  }
+
+  public long processedCount() { return processed.get(); }
+  public long retriedCount()   { return retried.get(); }
+  public long droppedCount()   { return dropped.get(); }
+
+  /* ===================== 점유 / 처리 ===================== */
+
+  private List<Item> claim() {
+    return tx.execute(s -> {
+      Instant now = Instant.now();
+      List<Long> ids = jdbc.queryForList(CLAIM_SQL, Long.class, Timestamp.from(now), batch);
+      if (ids.isEmpty()) return List.<Item>of();
+
+      String in = String.join(",", Collections.nCopies(ids.size(), "?"));
+      List<Object> args = new ArrayList<>(ids.size() + 1);
+      args.add(Timestamp.from(now.plusSeconds(leaseSec)));
+      args.addAll(ids);
+      jdbc.update("update ingest_outbox set attempts = attempts + 1, next_attempt_at = ? where id in (" + in + ")",
+          args.toArray());
+      return jdbc.query("select id, kind, aggregate_id, payload_json, attempts, created_at from ingest_outbox where id in (" + in + ")",
+          (rs, i) -> new Item(rs.getLong("id"), rs.getString("kind"), rs.getString("aggregate_id"),
+              rs.getString("payload_json"), rs.getInt("attempts"), rs.getTimestamp("created_at").toInstant()),
+          ids.toArray());
+    });
+  }
+
+  /** 해석 실패/알 수 없는 kind 는 IllegalArgumentException (재시도 없이 삭제) */
+  private Tracked parse(Item it) {
+    boolean click = switch (it.kind()) {
+      case DIRECT_AD_IMPRESSION -> false;
+      case DIRECT_AD_CLICK      -> true;
+      default -> throw new IllegalArgumentException("unknown outbox kind: " + it.kind());
+    };
+    if (it.aggregateId() == null || it.aggregateId().isBlank()) throw new IllegalArgumentException("missing aggregate_id");
+    try {
+      TrackEventReq req = it.payloadJson() == null ? new TrackEventReq() : om.readValue(it.payloadJson(), TrackEventReq.class);
+      return new Tracked(it.aggregateId(), req, click, it.createdAt());
+    } catch (Exception e) {
+      throw new IllegalArgumentException("bad payload: " + e.getMessage(), e);
+    }
+  }
+
+  /** 한 번 점유해 처리. 반환: 점유한 건수 (가득 찼으면 바로 다음 배치) */
+  private int drainOnce() {
+    List<Item> items = claim();
+    if (items.isEmpty()) return 0;
+
+    List<Object> done = new ArrayList<>(items.size());
+    List<Item> parsed = new ArrayList<>(items.size());
+    List<Tracked> events = new ArrayList<>(items.size());
+    for (Item it : items) {
+      try {
+        events.add(parse(it));
+        parsed.add(it);
+      } catch (IllegalArgumentException e) {
+        fail(it, e, true, done);
+      }
+    }
+    if (!events.isEmpty()) {
+      try {
+        Set<String> failedAds = counters.applyNow(events);
+        for (Item it : parsed) {
+          if (failedAds.contains(it.aggregateId())) fail(it, new IllegalStateException("counter commit failed"), false, done);
+          else done.add(it.id());
+        }
+      } catch (Exception e) {
+        if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+        for (Item it : parsed) fail(it, e, false, done);
+      }
+    }
+    if (!done.isEmpty()) {
+      String in = String.join(",", Collections.nCopies(done.size(), "?"));
+      jdbc.update("delete from ingest_outbox where id in (" + in + ")", done.toArray());
+    }
+    return items.size();
+  }
+
+  private void fail(Item it, Exception e, boolean permanent, List<Object> done) {
+    String err = e.getClass().getSimpleName() + ": " + e.getMessage();
+    if (err.length() > 512) err = err.substring(0, 512);
+    if (permanent || it.attempts() > backoffSec.length) {
+      log.error("[OutboxRelay] drop id={} kind={} target={} (attempt {}): {}",
+          it.id(), it.kind(), it.aggregateId(), it.attempts(), err);
+      dropped.incrementAndGet();
+      done.add(it.id());
+      return;
+    }
+    long base = backoffSec[it.attempts() - 1] * 1000L;
+    long delay = (long) (base * (0.8 + ThreadLocalRandom.current().nextDouble() * 0.4));
+    log.warn("[OutboxRelay] id={} kind={} attempt {} failed, retry in {}ms: {}",
+        it.id(), it.kind(), it.attempts(), delay, err);
+    retried.incrementAndGet();
+    try {
+      jdbc.update("update ingest_outbox set next_attempt_at = ?, last_error = ? where id = ?",
+          Timestamp.from(Instant.now().plusMillis(delay)), err, it.id());
+    } catch (RuntimeException ex) {
+      // 기록 실패 시 점유 만료 후 재처리됨
+      log.warn("[OutboxRelay] id={} reschedule failed: {}", it.id(), ex.getMessage());
+    }
+  }
+
+  private void poll() {
+    if (!running) return;
+    try {
+      int n;
+      do {
+        n = drainOnce();
+        processed.addAndGet(n);
+      } while (running && n >= batch);
+    } catch (RuntimeException e) {
+      log.warn("[OutboxRelay] drain failed: {}", e.getMessage());
+    }
+  }
+
+  /** 새 항목 커밋 직후 다음 주기를 기다리지 않고 처리 */
+  public void wake() {
+    if (!running || !wakePending.compareAndSet(false, true)) return;
+    try {
+      poller.execute(() -> {
+        wakePending.set(false);
+        poll();
+      });
+    } catch (RejectedExecutionException e) {
+      wakePending.set(false);
+    }
+  }
+
+  /* ===================== Lifecycle ===================== */
+
+  @Override
+  public void start() {
+    if (running) return;
+    running = true;
+    poller = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "ingest-outbox");
+      t.setDaemon(true);
+      return t;
+    });
+    poller.scheduleWithFixedDelay(this::poll, pollMs, pollMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    if (!running) return;
+    running = false;
+    poller.shutdown();
+    try {
+      poller.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+    log.info("[OutboxRelay] stopped: processed={}, retried={}, dropped={}", processed.get(), retried.get(), dropped.get());
+  }
+
+  @Override
+  public boolean isRunning() { return running; }
+
+  /** 웹서버(WebServerStartStopLifecycle, DEFAULT_PHASE - 2048)보다 먼저 시작하고 나중에 멈추도록 더 낮은 phase 사용 */
+  @Override
+  public int getPhase() { return SmartLifecycle.DEFAULT_PHASE - 4096; }
+}
@@ -0,0 +1,76 @@
+package com.polarisoffice.secuone.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 로그인 비밀번호 검증 전용 bounded 실행기
+ * - bcrypt 검증을 Tomcat 스레드가 아닌 고정 크기 풀에서 수행 (컨트롤러는 CompletableFuture 반환)
+ * - 대기열이 가득 차면 즉시 BUSY → 호출부에서 503 (로그인 폭주가 API 스레드/CPU 를 잠식하지 않도록)
+ * - 검증 성공 + 목표 비용과 다른 해시면 같은 작업에서 재해시 값까지 만들어 반환
+ */
+@Service
+public class PasswordVerifier implements DisposableBean {
+
+  private static final Logger log = LoggerFactory.getLogger(PasswordVerifier.class);
+
+  public enum Status { MATCH, MISMATCH, BUSY }
+
+  /** rehash: 목표 비용으로 다시 만든 해시 (필요 없으면 null) */
+  public record Outcome(Status status, String rehash) {
+    static final Outcome MISMATCH = new Outcome(Status.MISMATCH, null);
+    static final Outcome BUSY = new Outcome(Status.BUSY, null);
+    public boolean matched() { return status == Status.MATCH; }
+  }
+
+  private final PasswordEncoder encoder;
+  private final ThreadPoolExecutor pool;
+  private final LongAdder rejected = new LongAdder();
+
+  public PasswordVerifier(PasswordEncoder encoder,
+                          @Value("${security.password.verify-threads:0}") int threads,
+                          @Value("${security.password.verify-queue:64}") int queueCapacity) {
+    this.encoder = encoder;
+    int n = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    AtomicInteger seq = new AtomicInteger();
+    this.pool = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+        r -> {
+          Thread t = new Thread(r, "password-verify-" + seq.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  public CompletableFuture<Outcome> verify(String raw, String hash) {
+    if (raw == null || hash == null) return CompletableFuture.completedFuture(Outcome.MISMATCH);
+    try {
+      return CompletableFuture.supplyAsync(() -> {
+        if (!encoder.matches(raw, hash)) return Outcome.MISMATCH;
+        String rehash = encoder.upgradeEncoding(hash) ? encoder.encode(raw) : null;
+        return new Outcome(Status.MATCH, rehash);
+      }, pool);
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      log.warn("[PasswordVerifier] busy: active={}, queued={}", pool.getActiveCount(), pool.getQueue().size());
+      return CompletableFuture.completedFuture(Outcome.BUSY);
+    }
+  }
+
+  public int queueDepth()      { return pool.getQueue().size(); }
+  public long rejectedCount()  { return rejected.sum(); }
+
+  @Override
+  public void destroy() {
+    pool.shutdown();
+  }
+}
@@ -7,6 +7,7 @@ import com.polarisoffice.secuone.dto.DirectAdRes;
 import com.polarisoffice.secuone.dto.DirectAdUpdateReq;
 import com.polarisoffice.secuone.dto.TrackEventReq;
 import com.polarisoffice.secuone.repository.DirectAdRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -18,9 +19,16 @@ import static com.google.cloud.firestore.FieldValue.serverTimestamp;
 public class PolarisDirectAdsService {
 
     private final DirectAdRepository repo;
+    private final DirectAdCounterService counters;
+    private final DirectAdIndex index;
+    private final int defaultShards;
 
-    public PolarisDirectAdsService(DirectAdRepository repo) {
+    public PolarisDirectAdsService(DirectAdRepository repo, DirectAdCounterService counters, DirectAdIndex index,
+                                   @Value("${directads.counter.default-shards:4}") int defaultShards) {
         this.repo = repo;
+        this.counters = counters;
+        this.index = index;
+        this.defaultShards = defaultShards;
     }
 
     /* Create */
@@ -44,6 +52,8 @@ public class PolarisDirectAdsService {
         ad.setUpdatedAt(now);
         ad.setViewCount(0);
         ad.setClickCount(0);
+        int shards = req.getCounterShards() != null ? req.getCounterShards() : defaultShards;
+        ad.setCounterShards(Math.max(0, Math.min(shards, DirectAdRepository.MAX_SHARDS)));
         ad.setMeta(req.getMeta());
 
         return repo.create(ad);
@@ -83,18 +93,64 @@ public class PolarisDirectAdsService {
         return out;
     }
 
-    public boolean delete(String id) throws Exception { return repo.delete(id); }
+    /**
+     * 앱 서빙용: 지금 노출 가능한 ACTIVE 광고 (메모리 인덱스, Firestore 조회 없음)
+     * 인덱스가 아직 준비되지 않았으면(기동 직후) 라이브 조회 후 같은 조건으로 필터
+     */
+    public List<DirectAdRes> serve(DirectAd.AdType adType, String locale, String appVersion, int limit) throws Exception {
+        int lim = Math.max(1, Math.min(limit, 200));
+        Instant now = Instant.now();
+        if (index.isReady()) return index.eligible(adType, locale, appVersion, now, lim);
+
+        List<DirectAdRes> out = new ArrayList<>();
+        for (DirectAdRes r : repo.list(200, "ACTIVE", adType == null ? null : adType.name())) {
+            if (DirectAdIndex.matches(r, locale, appVersion, now)) out.add(r);
+            if (out.size() >= lim) break;
+        }
+        return out;
+    }
 
-    public Map<String, Long> metrics(String id) throws Exception { return repo.metrics(id); }
+    public boolean delete(String id) throws Exception {
+        boolean ok = repo.delete(id);
+        counters.evict(id);
+        return ok;
+    }
+
+    /** 저장된 카운트 + 아직 flush 되지 않은 버퍼 증분 */
+    public Map<String, Long> metrics(String id) throws Exception {
+        Map<String, Long> m = repo.metrics(id);
+        if (m == null) return null;
+        long[] p = counters.pending(id);
+        m.merge("views", p[0], Long::sum);
+        m.merge("clicks", p[1], Long::sum);
+        return m;
+    }
+
+    /* 샤드 카운터 전환/확장 (기존 합계는 shard 0 으로 이관). 광고가 없으면 null */
+    public Integer reshard(String id, int shards) throws Exception {
+        Integer n = repo.reshard(id, shards);
+        counters.evict(id);
+        return n;
+    }
+
+    /** 샤드 수가 shards 미만인 모든 광고를 전환. 반환: 전환된 광고 수 */
+    public int reshardAll(int shards) throws Exception {
+        int n = 0;
+        for (String id : repo.idsBelowShards(shards)) {
+            if (reshard(id, shards) != null) n++;
+        }
+        return n;
+    }
 
+    /* 노출/클릭: DirectAdCounterService 버퍼에 누적 후 주기적으로 일괄 기록 */
     public boolean trackImpression(String id, TrackEventReq req, boolean logDetail) throws Exception {
 	    if (req == null) req = new TrackEventReq();
-	    return repo.incView(id, req, logDetail);
+	    return counters.record(id, req, false, logDetail);
     }
     
     public boolean trackClick(String id, TrackEventReq req, boolean logDetail) throws Exception {
 	   if (req == null) req = new TrackEventReq();
-	   return repo.incClick(id, req, logDetail);
+	   return counters.record(id, req, true, logDetail);
     }
     /* helper */
     private static Timestamp toTs(Instant i) {
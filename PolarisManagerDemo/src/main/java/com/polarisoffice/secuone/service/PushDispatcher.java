@@ -0,0 +1,234 @@
+package com.polarisoffice.secuone.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.firebase.ErrorCode;
+import com.google.firebase.messaging.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 대량 FCM 멀티캐스트 발송 엔진
+ * - 토큰 중복/공백 제거 후 500개(FCM 멀티캐스트 상한) 청크로 분할
+ * - 청크별로 무효 토큰 저장소 조회 → 이미 무효로 확인된 토큰은 발송 제외 (저장소 오류 시 로그만 남기고 전부 발송)
+ * - sendEachForMulticastAsync 로 비동기 발송, 동시 진행 청크 수는 세마포어로 제한 (호출 스레드가 대기)
+ * - UNAVAILABLE / INTERNAL 은 해당 토큰만 모아 지터 포함 지수 백오프로 재시도
+ * - UNREGISTERED 는 InvalidTokenStore 에 기록 → 이후 발송에서 제외
+ * - INVALID_ARGUMENT 는 메시지 자체 문제일 수도 있으므로, 같은 청크의 나머지가 모두 성공했을 때만 토큰 문제로 보고 기록
+ *   (기록만 하고 이번 발송 결과는 실패로 집계)
+ */
+@Service
+public class PushDispatcher implements DisposableBean {
+
+  private static final Logger log = LoggerFactory.getLogger(PushDispatcher.class);
+
+  /** FCM 멀티캐스트 1회 최대 토큰 수 */
+  public static final int CHUNK_SIZE = 500;
+
+  /**
+   * requested: 중복 제거 후 대상 수 / skipped: 무효 기록으로 제외된 수
+   * retried: 재시도로 다시 보낸 토큰 수(누적) / invalidTokens: 이번 발송에서 새로 무효 판정된 토큰
+   */
+  public record Result(int requested, int skipped, int success, int failure, int retried, List<String> invalidTokens) {}
+
+  /** 발송 1건의 집계 (청크 콜백들이 동시에 갱신) */
+  private static final class Tally {
+    final AtomicInteger skipped = new AtomicInteger();
+    final AtomicInteger success = new AtomicInteger();
+    final AtomicInteger failure = new AtomicInteger();
+    final AtomicInteger retried = new AtomicInteger();
+    final Map<String, String> invalid = new ConcurrentHashMap<>();
+  }
+
+  private final InvalidTokenStore invalidTokens;
+  private final Function<MulticastMessage, ApiFuture<BatchResponse>> sender;
+  private final Semaphore inflight;
+  private final int maxRetries;
+  private final long backoffMs;
+  private final long maxBackoffMs;
+  private final ScheduledExecutorService scheduler;
+
+  @Autowired
+  public PushDispatcher(InvalidTokenStore invalidTokens,
+                        @Value("${push.fcm.max-inflight:8}") int maxInflight,
+                        @Value("${push.fcm.max-retries:3}") int maxRetries,
+                        @Value("${push.fcm.backoff-ms:500}") long backoffMs,
+                        @Value("${push.fcm.max-backoff-ms:10000}") long maxBackoffMs) {
+    this(invalidTokens, msg -> FirebaseMessaging.getInstance().sendEachForMulticastAsync(msg),
+        maxInflight, maxRetries, backoffMs, maxBackoffMs);
+  }
+
+  /** sender: 멀티캐스트 1건 비동기 발송 (테스트에서 FCM 대신 주입) */
+  PushDispatcher(InvalidTokenStore invalidTokens,
+                 Function<MulticastMessage, ApiFuture<BatchResponse>> sender,
+                 int maxInflight, int maxRetries, long backoffMs, long maxBackoffMs) {
+    this.invalidTokens = invalidTokens;
+    this.sender = sender;
+    this.inflight = new Semaphore(Math.max(1, maxInflight));
+    this.maxRetries = Math.max(0, maxRetries);
+    this.backoffMs = Math.max(10, backoffMs);
+    this.maxBackoffMs = Math.max(this.backoffMs, maxBackoffMs);
+    AtomicInteger seq = new AtomicInteger();
+    this.scheduler = Executors.newScheduledThreadPool(2, r -> {
+      Thread t = new Thread(r, "push-dispatch-" + seq.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /**
+   * tokens 전체에 발송하고 모든 청크(재시도 포함)가 끝날 때까지 대기.
+   * messageFor: 청크 토큰 목록으로 MulticastMessage 생성 (MulticastMessage 는 복제가 안 되므로 청크마다 빌드)
+   */
+  public Result send(Collection<String> tokens, Function<List<String>, MulticastMessage> messageFor) {
+    List<String> uniq = new ArrayList<>(new LinkedHashSet<>(tokens));
+    uniq.removeIf(t -> t == null || t.isBlank());
+    if (uniq.isEmpty()) throw new IllegalArgumentException("tokens is empty");
+
+    Tally tally = new Tally();
+    List<CompletableFuture<Void>> chunks = new ArrayList<>((uniq.size() + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    for (int from = 0; from < uniq.size(); from += CHUNK_SIZE) {
+      List<String> chunk = uniq.subList(from, Math.min(uniq.size(), from + CHUNK_SIZE));
+      inflight.acquireUninterruptibly();
+      CompletableFuture<Void> f = sendChunk(List.copyOf(filterValid(chunk, tally)), messageFor, 0, tally);
+      f.whenComplete((v, e) -> inflight.release());
+      chunks.add(f);
+    }
+    CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+
+    try {
+      invalidTokens.record(tally.invalid);
+    } catch (RuntimeException e) {
+      log.warn("[PushDispatcher] invalid token record failed ({}): {}", tally.invalid.size(), e.getMessage());
+    }
+    return new Result(uniq.size(), tally.skipped.get(), tally.success.get(), tally.failure.get(),
+        tally.retried.get(), List.copyOf(tally.invalid.keySet()));
+  }
+
+  /** 무효 기록 조회 실패(DB 오류 등)는 발송을 막지 않음: 청크 전체를 유효로 간주 */
+  private List<String> filterValid(List<String> chunk, Tally tally) {
+    try {
+      List<String> valid = invalidTokens.filterValid(chunk);
+      tally.skipped.addAndGet(chunk.size() - valid.size());
+      return valid;
+    } catch (RuntimeException e) {
+      log.warn("[PushDispatcher] invalid token lookup failed ({} tokens), sending all: {}", chunk.size(), e.getMessage());
+      return chunk;
+    }
+  }
+
+  /** 청크 1개 발송. 재시도까지 모두 끝나면 완료되는 future 반환 (예외로 완료되지 않음) */
+  private CompletableFuture<Void> sendChunk(List<String> tokens, Function<List<String>, MulticastMessage> messageFor,
+                                            int attempt, Tally tally) {
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    if (tokens.isEmpty()) {
+      done.complete(null);
+      return done;
+    }
+    try {
+      MulticastMessage msg = messageFor.apply(tokens);
+      ApiFutures.addCallback(sender.apply(msg), new ApiFutureCallback<>() {
+        @Override
+        public void onSuccess(BatchResponse br) {
+          List<String> retry = new ArrayList<>();
+          List<String> badArgument = new ArrayList<>();
+          int ok = 0;
+          List<SendResponse> rs = br.getResponses();
+          for (int i = 0; i < rs.size(); i++) {
+            SendResponse r = rs.get(i);
+            if (r.isSuccessful()) {
+              tally.success.incrementAndGet();
+              ok++;
+              continue;
+            }
+            MessagingErrorCode code = messagingCode(r.getException());
+            if (attempt < maxRetries && retryable(r.getException())) {
+              retry.add(tokens.get(i));
+            } else {
+              tally.failure.incrementAndGet();
+              if (code == MessagingErrorCode.UNREGISTERED) {
+                tally.invalid.put(tokens.get(i), code.name());
+              } else if (code == MessagingErrorCode.INVALID_ARGUMENT) {
+                badArgument.add(tokens.get(i));
+              }
+            }
+          }
+          // 같은 메시지가 다른 토큰에는 전달됐을 때만 토큰 형식 오류로 판단
+          if (!badArgument.isEmpty() && ok > 0 && ok + badArgument.size() == rs.size()) {
+            for (String t : badArgument) tally.invalid.put(t, MessagingErrorCode.INVALID_ARGUMENT.name());
+          }
+          followUp(retry, messageFor, attempt, tally, done);
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          // 호출 자체 실패 (인증/네트워크 등) → 청크 전체 재시도 또는 실패 처리
+          if (attempt < maxRetries && retryable(t)) {
+            followUp(tokens, messageFor, attempt, tally, done);
+            return;
+          }
+          log.warn("[PushDispatcher] chunk failed ({} tokens, attempt {}): {}", tokens.size(), attempt, t.toString());
+          tally.failure.addAndGet(tokens.size());
+          done.complete(null);
+        }
+      }, scheduler);
+    } catch (RuntimeException e) {
+      log.warn("[PushDispatcher] chunk send error ({} tokens): {}", tokens.size(), e.toString());
+      tally.failure.addAndGet(tokens.size());
+      done.complete(null);
+    }
+    return done;
+  }
+
+  private void followUp(List<String> retry, Function<List<String>, MulticastMessage> messageFor,
+                        int attempt, Tally tally, CompletableFuture<Void> done) {
+    if (retry.isEmpty()) {
+      done.complete(null);
+      return;
+    }
+    tally.retried.addAndGet(retry.size());
+    List<String> next = List.copyOf(retry);
+    try {
+      scheduler.schedule(
+          () -> sendChunk(next, messageFor, attempt + 1, tally).whenComplete((v, e) -> done.complete(null)),
+          backoff(attempt), TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      // 종료 중: 재시도 포기
+      tally.failure.addAndGet(next.size());
+      done.complete(null);
+    }
+  }
+
+  /** full jitter: [0, min(max, base * 2^attempt)] 구간 무작위 (최소 base/2) */
+  private long backoff(int attempt) {
+    long cap = Math.min(maxBackoffMs, backoffMs << Math.min(attempt, 20));
+    return Math.max(backoffMs / 2, ThreadLocalRandom.current().nextLong(cap + 1));
+  }
+
+  private static MessagingErrorCode messagingCode(Throwable t) {
+    return (t instanceof FirebaseMessagingException fme) ? fme.getMessagingErrorCode() : null;
+  }
+
+  private static boolean retryable(Throwable t) {
+    if (!(t instanceof FirebaseMessagingException fme)) return false;
+    MessagingErrorCode mc = fme.getMessagingErrorCode();
+    if (mc != null) return mc == MessagingErrorCode.UNAVAILABLE || mc == MessagingErrorCode.INTERNAL;
+    ErrorCode ec = fme.getErrorCode();
+    return ec == ErrorCode.UNAVAILABLE || ec == ErrorCode.INTERNAL;
+  }
+
+  @Override
+  public void destroy() {
+    scheduler.shutdownNow();
+  }
+}
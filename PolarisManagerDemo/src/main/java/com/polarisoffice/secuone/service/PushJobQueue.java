@@ -0,0 +1,299 @@
+package com.polarisoffice.secuone.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.polarisoffice.secuone.util.FcmGateway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 영속 토픽 푸시 작업 큐 (push_jobs) + 워커 풀
+ * - enqueue: insert ignore + 멱등 키 조회 → 같은 키는 기존 작업 id 반환. 적재 후 즉시 반환 (FCM 호출 없음)
+ * - 점유: select ... for update skip locked 로 여러 인스턴스가 서로 다른 행을 가져감
+ *   점유 시 status=RUNNING, next_attempt_at=점유 만료 시각 → 처리 중 죽은 작업은 만료 후 다시 점유
+ *   결과 기록은 점유 시 attempts 와 일치할 때만 → 재점유된 작업에 이전 워커가 덮어쓰지 않음
+ * - 실패: 재시도 가능 오류면 retry-backoff-sec 일정(지터 ±20%)대로 PENDING 재예약, 소진/영구 오류면 FAILED
+ * - 워커 수만큼만 점유하므로 처리량은 웹 스레드와 무관하게 push.jobs.threads 로 결정
+ */
+@Service
+public class PushJobQueue implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(PushJobQueue.class);
+
+  public record Enqueued(long id, boolean created) {}
+
+  private record Job(long id, String topic, String channelId, String title, String body,
+                     String dataJson, boolean dryRun, int attempts) {}
+
+  private static final String CLAIM_SQL = """
+      select id from push_jobs
+       where status in ('PENDING', 'RUNNING') and next_attempt_at <= ?
+       order by next_attempt_at
+       limit ?
+       for update skip locked
+      """;
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final FcmGateway fcm;
+  private final ObjectMapper om;
+  private final int threads;
+  private final int batch;
+  private final long pollMs;
+  private final long leaseSec;
+  private final long[] backoffSec;
+
+  private final AtomicInteger busy = new AtomicInteger();
+  private final AtomicBoolean wakePending = new AtomicBoolean();
+
+  private volatile boolean running;
+  private ScheduledExecutorService poller;
+  private ExecutorService workers;
+
+  public PushJobQueue(JdbcTemplate jdbc,
+                      TransactionTemplate tx,
+                      FcmGateway fcm,
+                      ObjectMapper om,
+                      @Value("${push.jobs.threads:4}") int threads,
+                      @Value("${push.jobs.batch:20}") int batch,
+                      @Value("${push.jobs.poll-ms:1000}") long pollMs,
+                      @Value("${push.jobs.lease-sec:120}") long leaseSec,
+                      @Value("${push.jobs.retry-backoff-sec:10,30,120,600,1800}") long[] backoffSec) {
+    this.jdbc = jdbc;
+    this.tx = tx;
+    this.fcm = fcm;
+    this.om = om;
+    this.threads = Math.max(1, threads);
+    this.batch = Math.max(1, batch);
+    this.pollMs = Math.max(100, pollMs);
+    this.leaseSec = Math.max(10, leaseSec);
+    this.backoffSec = backoffSec == null ? new long[0] : backoffSec.clone();
+  }
+
+  /** 최대 시도 횟수 = 최초 1회 + 재시도 일정 수 */
+  public int maxAttempts() { return backoffSec.length + 1; }
+
+  /* ===================== 적재 API ===================== */
+
+  /** 토픽 푸시 작업 적재. 같은 idempotencyKey 가 이미 있으면 기존 작업 id (created=false) */
+  public Enqueued enqueueTopic(String idempotencyKey, String topic, String channelId,
+                               String title, String body, Map<String, String> data, boolean dryRun) {
+    if (idempotencyKey == null || idempotencyKey.isBlank()) throw new IllegalArgumentException("idempotencyKey is empty");
+    if (topic == null || topic.isBlank()) throw new IllegalArgumentException("topic is empty");
+
+    String dataJson;
+    try {
+      dataJson = (data == null || data.isEmpty()) ? null : om.writeValueAsString(data);
+    } catch (Exception e) {
+      throw new IllegalArgumentException("data serialize failed", e);
+    }
+    Timestamp now = Timestamp.from(Instant.now());
+    int inserted = jdbc.update("""
+        insert ignore into push_jobs
+          (idempotency_key, topic, channel_id, title, body, data_json, dry_run,
+           status, attempts, next_attempt_at, created_at, updated_at)
+        values (?, ?, ?, ?, ?, ?, ?, 'PENDING', 0, ?, ?, ?)
+        """, idempotencyKey, topic, channelId, title, body, dataJson, dryRun, now, now, now);
+    Long id = jdbc.queryForObject("select id from push_jobs where idempotency_key = ?", Long.class, idempotencyKey);
+    if (inserted > 0) wake();
+    return new Enqueued(id, inserted > 0);
+  }
+
+  /** FAILED 작업을 시도 횟수 초기화 후 다시 대기열로 */
+  public boolean retry(long id) {
+    Timestamp now = Timestamp.from(Instant.now());
+    int n = jdbc.update("update push_jobs set status = 'PENDING', attempts = 0, next_attempt_at = ?, updated_at = ? "
+        + "where id = ? and status = 'FAILED'", now, now, id);
+    if (n > 0) wake();
+    return n > 0;
+  }
+
+  public int busyWorkers() { return busy.get(); }
+
+  /* ===================== 점유 / 처리 ===================== */
+
+  private List<Job> claim(int limit) {
+    return tx.execute(s -> {
+      Instant now = Instant.now();
+      List<Long> ids = jdbc.queryForList(CLAIM_SQL, Long.class, Timestamp.from(now), limit);
+      if (ids.isEmpty()) return List.<Job>of();
+
+      String in = String.join(",", Collections.nCopies(ids.size(), "?"));
+      List<Object> args = new ArrayList<>(ids.size() + 2);
+      args.add(Timestamp.from(now.plusSeconds(leaseSec)));
+      args.add(Timestamp.from(now));
+      args.addAll(ids);
+      jdbc.update("update push_jobs set status = 'RUNNING', attempts = attempts + 1, next_attempt_at = ?, updated_at = ? "
+          + "where id in (" + in + ")", args.toArray());
+      return jdbc.query("select id, topic, channel_id, title, body, data_json, dry_run, attempts "
+              + "from push_jobs where id in (" + in + ")",
+          (rs, i) -> new Job(rs.getLong("id"), rs.getString("topic"), rs.getString("channel_id"),
+              rs.getString("title"), rs.getString("body"), rs.getString("data_json"),
+              rs.getBoolean("dry_run"), rs.getInt("attempts")),
+          ids.toArray());
+    });
+  }
+
+  private void process(Job job) {
+    if (job.attempts() > maxAttempts()) {
+      // 점유 만료로 재점유되며 한도를 넘긴 작업 (처리 중 워커가 반복해서 죽은 경우)
+      finish(job, "FAILED", null, "attempts exhausted", null);
+      return;
+    }
+    try {
+      Map<String, String> data = (job.dataJson() == null) ? null
+          : om.readValue(job.dataJson(), new TypeReference<Map<String, String>>() {});
+      String messageId = fcm.sendToTopic(job.topic(), nz(job.title()), nz(job.body()), job.channelId(), data, job.dryRun());
+      finish(job, "DONE", messageId, null, null);
+      log.info("[PushJobQueue] pushed job={}, topic={}, attempt={}", job.id(), job.topic(), job.attempts());
+    } catch (FirebaseMessagingException e) {
+      fail(job, e, retryable(e));
+    } catch (Exception e) {
+      fail(job, e, !(e instanceof IllegalArgumentException));
+    }
+  }
+
+  private void fail(Job job, Exception e, boolean retryable) {
+    String err = e.getClass().getSimpleName() + ": " + e.getMessage();
+    if (err.length() > 512) err = err.substring(0, 512);
+    if (!retryable || job.attempts() >= maxAttempts()) {
+      log.warn("[PushJobQueue] job={} failed permanently (attempt {}): {}", job.id(), job.attempts(), err);
+      finish(job, "FAILED", null, err, null);
+      return;
+    }
+    long base = backoffSec[job.attempts() - 1] * 1000L;
+    long delay = (long) (base * (0.8 + ThreadLocalRandom.current().nextDouble() * 0.4));
+    log.warn("[PushJobQueue] job={} attempt {} failed, retry in {}ms: {}", job.id(), job.attempts(), delay, err);
+    finish(job, "PENDING", null, err, Instant.now().plusMillis(delay));
+  }
+
+  /**
+   * 현재 점유자만 갱신: RUNNING 이면서 attempts 가 점유 시 값과 같은 행.
+   * 점유 만료 후 다른 워커가 재점유했으면(attempts 증가) 늦게 끝난 이전 워커의 결과는 버림
+   */
+  private void finish(Job job, String status, String messageId, String error, Instant nextAttemptAt) {
+    Timestamp now = Timestamp.from(Instant.now());
+    try {
+      int n = jdbc.update("update push_jobs set status = ?, message_id = coalesce(?, message_id), last_error = ?, "
+              + "next_attempt_at = coalesce(?, next_attempt_at), updated_at = ? "
+              + "where id = ? and status = 'RUNNING' and attempts = ?",
+          status, messageId, error, nextAttemptAt == null ? null : Timestamp.from(nextAttemptAt), now,
+          job.id(), job.attempts());
+      if (n == 0) {
+        log.warn("[PushJobQueue] job={} attempt {} lost its lease, {} discarded", job.id(), job.attempts(), status);
+      }
+    } catch (RuntimeException e) {
+      // 기록 실패 시 점유 만료 후 재처리됨
+      log.warn("[PushJobQueue] job={} status update failed: {}", job.id(), e.getMessage());
+    }
+  }
+
+  private static boolean retryable(FirebaseMessagingException e) {
+    MessagingErrorCode c = e.getMessagingErrorCode();
+    return c != MessagingErrorCode.INVALID_ARGUMENT
+        && c != MessagingErrorCode.SENDER_ID_MISMATCH
+        && c != MessagingErrorCode.THIRD_PARTY_AUTH_ERROR;
+  }
+
+  private static String nz(String s) { return s == null ? "" : s; }
+
+  /* ===================== 폴링 ===================== */
+
+  /** 새 작업 적재 / 워커 반납 시 다음 주기를 기다리지 않고 점유 시도 */
+  private void wake() {
+    if (!running || !wakePending.compareAndSet(false, true)) return;
+    try {
+      poller.execute(() -> {
+        wakePending.set(false);
+        poll();
+      });
+    } catch (RejectedExecutionException e) {
+      wakePending.set(false);
+    }
+  }
+
+  private void poll() {
+    if (!running) return;
+    int limit = Math.min(batch, threads - busy.get());
+    if (limit <= 0) return;
+
+    List<Job> jobs;
+    try {
+      jobs = claim(limit);
+    } catch (RuntimeException e) {
+      log.warn("[PushJobQueue] claim failed: {}", e.getMessage());
+      return;
+    }
+    for (Job job : jobs) {
+      busy.incrementAndGet();
+      try {
+        workers.execute(() -> {
+          try {
+            process(job);
+          } finally {
+            busy.decrementAndGet();
+            wake();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        // 종료 중: 점유 만료 후 재처리
+        busy.decrementAndGet();
+      }
+    }
+  }
+
+  /* ===================== Lifecycle ===================== */
+
+  @Override
+  public void start() {
+    if (running) return;
+    running = true;
+    AtomicInteger seq = new AtomicInteger();
+    workers = Executors.newFixedThreadPool(threads, r -> {
+      Thread t = new Thread(r, "push-job-" + seq.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+    poller = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "push-job-poller");
+      t.setDaemon(true);
+      return t;
+    });
+    poller.scheduleWithFixedDelay(this::poll, pollMs, pollMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    if (!running) return;
+    running = false;
+    poller.shutdown();
+    workers.shutdown();
+    try {
+      workers.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+    log.info("[PushJobQueue] stopped: busy={}", busy.get());
+  }
+
+  @Override
+  public boolean isRunning() { return running; }
+
+  /** 웹서버(WebServerStartStopLifecycle, DEFAULT_PHASE - 2048)보다 먼저 시작하고 나중에 멈추도록 더 낮은 phase 사용 */
+  @Override
+  public int getPhase() { return SmartLifecycle.DEFAULT_PHASE - 4096; }
+}
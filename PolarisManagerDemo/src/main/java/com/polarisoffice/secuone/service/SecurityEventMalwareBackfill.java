@@ -0,0 +1,90 @@
+package com.polarisoffice.secuone.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polarisoffice.secuone.support.MalwarePayloads;
+import com.polarisoffice.secuone.support.MalwarePayloads.MalwareInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * malware_package / malware_type 컬럼 도입 이전 행 backfill
+ * - id 오름차순 keyset 스캔으로 청크 단위 처리 (afterId 부터 최대 limit 건)
+ * - 반환된 lastId 로 이어서 재호출 가능
+ */
+@Service
+public class SecurityEventMalwareBackfill {
+
+  private static final Logger log = LoggerFactory.getLogger(SecurityEventMalwareBackfill.class);
+
+  private static final int CHUNK = 1000;
+
+  private static final String SCAN_SQL = """
+      select id, payload_json
+        from security_events
+       where id > ?
+         and event_type = 'MALWARES_APP'
+         and malware_package is null
+         and malware_type is null
+       order by id asc
+       limit ?
+      """;
+
+  private static final String UPDATE_SQL =
+      "update security_events set malware_package = ?, malware_type = ? where id = ?";
+
+  public record Result(long scanned, long updated, long lastId, boolean done) {}
+
+  private record Row(long id, String pkg, String type) {}
+
+  private final JdbcTemplate jdbc;
+  private final ObjectMapper om;
+
+  public SecurityEventMalwareBackfill(JdbcTemplate jdbc, ObjectMapper om) {
+    this.jdbc = jdbc;
+    this.om = om;
+  }
+
+  public Result run(long afterId, int limit) {
+    long lastId = Math.max(0, afterId);
+    long scanned = 0, updated = 0;
+    int max = Math.max(1, limit);
+    boolean done = false;
+
+    while (scanned < max) {
+      int n = (int) Math.min(CHUNK, max - scanned);
+      List<Long> ids = new ArrayList<>();
+      List<Row> rows = new ArrayList<>();
+
+      jdbc.query(SCAN_SQL, rs -> {
+        long id = rs.getLong(1);
+        ids.add(id);
+        MalwareInfo mi = MalwarePayloads.fromPayloadJson(rs.getString(2), om);
+        if (mi.pkg() != null || mi.type() != null) {
+          rows.add(new Row(id, MalwarePayloads.clip(mi.pkg(), 255), MalwarePayloads.clip(mi.type(), 128)));
+        }
+      }, lastId, n);
+
+      if (ids.isEmpty()) { done = true; break; }
+      lastId = ids.get(ids.size() - 1);
+      scanned += ids.size();
+
+      if (!rows.isEmpty()) {
+        jdbc.batchUpdate(UPDATE_SQL, rows, rows.size(), (ps, r) -> {
+          ps.setString(1, r.pkg());
+          ps.setString(2, r.type());
+          ps.setLong(3, r.id());
+        });
+        updated += rows.size();
+      }
+      if (ids.size() < n) { done = true; break; }
+    }
+
+    log.info("[MalwareBackfill] scanned={}, updated={}, lastId={}, done={}", scanned, updated, lastId, done);
+    return new Result(scanned, updated, lastId, done);
+  }
+}
@@ -0,0 +1,149 @@
+package com.polarisoffice.secuone.service;
+
+import com.polarisoffice.secuone.domain.SecurityEventEntity;
+import com.polarisoffice.secuone.repository.SecurityEventRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.*;
+import java.util.*;
+
+/**
+ * security_event_rollups 유지/조회
+ * - apply(): writer flush 트랜잭션 안에서 배치 단위로 (고객사, 버킷, 타입) 증분 upsert
+ * - dailyCounts(): 요청 tz 기준 일자로 버킷을 접어서 반환 (원본 테이블 미접근)
+ * - rebuild(): 배포 이전 원본 데이터 backfill / 보정용 재집계
+ */
+@Service
+public class SecurityEventRollupService {
+
+  private static final Logger log = LoggerFactory.getLogger(SecurityEventRollupService.class);
+
+  /** 버킷 크기: 15분 (모든 타임존 오프셋의 공약수) */
+  public static final Duration BUCKET = Duration.ofMinutes(15);
+  private static final long BUCKET_SEC = BUCKET.getSeconds();
+
+  private static final String UPSERT_SQL = """
+      insert into security_event_rollups (customer_code, bucket_start, event_type, cnt)
+      values (?, ?, ?, ?)
+      on duplicate key update cnt = cnt + values(cnt)
+      """;
+
+  /**
+   * 재집계 원본 스캔. 잠금 읽기(current read)로 범위(ix_events_created_at next-key)를 잠가
+   * 트랜잭션이 끝날 때까지 같은 범위로의 insert 를 막는다
+   */
+  private static final String SCAN_SQL = """
+      select customer_code, event_type, created_at
+        from security_events
+       where created_at >= ? and created_at < ?
+         for update
+      """;
+
+  private final SecurityEventRollupRepository repo;
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+
+  public SecurityEventRollupService(SecurityEventRollupRepository repo,
+                                    JdbcTemplate jdbc,
+                                    TransactionTemplate tx) {
+    this.repo = repo;
+    this.jdbc = jdbc;
+    this.tx = tx;
+  }
+
+  /* ===================== 증분 갱신 ===================== */
+
+  private record BucketKey(String customerCode, Instant bucketStart, String eventType) {}
+
+  public static Instant bucketOf(Instant at) {
+    long sec = at.getEpochSecond();
+    return Instant.ofEpochSecond(sec - Math.floorMod(sec, BUCKET_SEC));
+  }
+
+  /** 호출부 트랜잭션에 참여하여 배치 이벤트를 버킷 카운트에 반영 */
+  public void apply(Collection<SecurityEventEntity> events) {
+    Map<BucketKey, Long> deltas = new HashMap<>();
+    for (SecurityEventEntity e : events) {
+      if (e.getCustomerCode() == null || e.getEventType() == null) continue;
+      Instant at = e.getCreatedAt() != null ? e.getCreatedAt() : Instant.now();
+      deltas.merge(new BucketKey(e.getCustomerCode(), bucketOf(at), e.getEventType()), 1L, Long::sum);
+    }
+    upsert(deltas);
+  }
+
+  private void upsert(Map<BucketKey, Long> deltas) {
+    if (deltas.isEmpty()) return;
+    List<Map.Entry<BucketKey, Long>> rows = new ArrayList<>(deltas.entrySet());
+    jdbc.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, en) -> {
+      BucketKey k = en.getKey();
+      ps.setString(1, k.customerCode());
+      ps.setTimestamp(2, Timestamp.from(k.bucketStart()));
+      ps.setString(3, k.eventType());
+      ps.setLong(4, en.getValue());
+    });
+  }
+
+  /* ===================== 조회 ===================== */
+
+  /** [fromDate, toDate] (tz 기준) 일자 x 타입 카운트. 이벤트 없는 날짜는 키 없음 */
+  public Map<LocalDate, Map<String, Long>> dailyCounts(String customerCode,
+                                                       LocalDate fromDate, LocalDate toDate,
+                                                       ZoneId zone) {
+    Instant start = fromDate.atStartOfDay(zone).toInstant();
+    Instant end   = toDate.plusDays(1).atStartOfDay(zone).toInstant();
+
+    Map<LocalDate, Map<String, Long>> out = new HashMap<>();
+    for (var r : repo.findBuckets(customerCode, start, end)) {
+      LocalDate day = LocalDate.ofInstant(r.getBucketStart(), zone);
+      out.computeIfAbsent(day, d -> new HashMap<>()).merge(r.getEventType(), r.getCnt(), Long::sum);
+    }
+    return out;
+  }
+
+  /* ===================== 재집계(backfill) ===================== */
+
+  /**
+   * [from, to) 범위를 원본에서 다시 집계해 덮어쓴다. 하루 단위 트랜잭션으로 나눠 처리.
+   * 적재 중인 현재 버킷과 겹치지 않도록 to 는 현재 버킷 시작 이전으로 잘라낸다.
+   * 재시도/spill 재적재로 과거 버킷에 늦게 들어오는 적재분과의 경합:
+   * - 스캔이 범위를 잠그므로 그 전에 커밋된 적재분은 스캔에 포함되고(증분은 삭제 후 재계산),
+   *   이후 적재분은 이 트랜잭션 커밋까지 insert 에서 대기한 뒤 재계산된 카운트에 증분 upsert 된다
+   * - writer 는 원본 insert 후 rollup upsert 순서라 잠금 순서가 같아 교착되지 않음
+   */
+  public long rebuild(Instant from, Instant to) {
+    Instant limit = bucketOf(Instant.now());
+    Instant end = (to == null || to.isAfter(limit)) ? limit : bucketOf(to);
+    Instant cur = bucketOf(from);
+
+    long scanned = 0;
+    while (cur.isBefore(end)) {
+      Instant chunkStart = cur;
+      Instant chunkEnd = cur.plus(Duration.ofDays(1));
+      if (chunkEnd.isAfter(end)) chunkEnd = end;
+      Instant ce = chunkEnd;
+
+      Long n = tx.execute(s -> {
+        Map<BucketKey, Long> agg = new HashMap<>();
+        long[] cnt = {0};
+        jdbc.query(SCAN_SQL, rs -> {
+          Timestamp ts = rs.getTimestamp(3);
+          if (rs.getString(1) == null || ts == null) return;
+          agg.merge(new BucketKey(rs.getString(1), bucketOf(ts.toInstant()), rs.getString(2)), 1L, Long::sum);
+          cnt[0]++;
+        }, Timestamp.from(chunkStart), Timestamp.from(ce));
+        repo.deleteRange(chunkStart, ce);
+        upsert(agg);
+        return cnt[0];
+      });
+      scanned += (n == null ? 0 : n);
+      cur = chunkEnd;
+    }
+    log.info("[SecurityEventRollup] rebuilt {} ~ {} ({} events)", from, end, scanned);
+    return scanned;
+  }
+}
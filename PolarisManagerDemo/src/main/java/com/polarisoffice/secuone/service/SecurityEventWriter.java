@@ -0,0 +1,422 @@
+package com.polarisoffice.secuone.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polarisoffice.secuone.domain.SecurityEventEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * security_events 쓰기 지연(write-behind) 파이프라인
+ * - 요청 스레드는 bounded 큐에 넣기만 하고 즉시 반환 (가득 차면 false → 호출부에서 429)
+ * - 단일 writer 스레드가 batchSize 또는 flushInterval 중 먼저 도달한 조건으로 JDBC 배치 insert
+ *   (같은 트랜잭션에서 security_event_rollups 도 증분 갱신)
+ * - IDENTITY 전략이라 Hibernate 배치가 불가하므로 JdbcTemplate 으로 직접 적재
+ *   (MySQL 은 rewriteBatchedStatements=true 로 multi-row insert 로 재작성됨)
+ * - client_event_id 가 있는 행은 배치마다 1회 조회로 이미 적재된 (고객사, id) 를 걸러냄
+ *   (유니크 키 uk_events_cust_client_id 가 최종 보루. 경합으로 걸리면 건별 재시도에서 중복으로 버림)
+ * - 종료 시 웹서버가 먼저 멈춘 뒤 큐에 남은 이벤트를 모두 flush 하고 내려감
+ * - 이미 200 으로 접수한 이벤트는 버리지 않음:
+ *   DB 장애(연결 끊김 등)면 같은 배치를 retry-backoff-ms ~ max-backoff-ms 지수 백오프로 복구될 때까지 재시도
+ *   (그동안 큐가 차면 offer 가 false → 429 로 클라이언트 재전송 유도)
+ *   데이터 자체 오류(DataIntegrityViolation: 길이 초과 등)인 행만 건별 재시도 후 failed 로 버림
+ * - 종료 시점까지 DB 가 복구되지 않으면 남은 배치/큐를 spill-dir 에 NDJSON 으로 기록하고, 다음 기동 시 먼저 재적재
+ */
+@Service
+public class SecurityEventWriter implements SmartLifecycle {
+
+  private static final Logger log = LoggerFactory.getLogger(SecurityEventWriter.class);
+
+  private static final String INSERT_SQL = """
+      insert into security_events
+        (customer_code, device_id, event_type, source_package, source_domain, payload_json,
+         malware_package, malware_type, client_event_id, created_at)
+      values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+      """;
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final SecurityEventRollupService rollups;
+  private final ObjectMapper om;
+  private final BlockingQueue<SecurityEventEntity> queue;
+  private final int batchSize;
+  private final long flushIntervalMs;
+  private final long retryBackoffMs;
+  private final long maxBackoffMs;
+  private final Path spillDir;
+
+  private final AtomicLong written  = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong failed   = new AtomicLong();
+  private final AtomicLong duplicates = new AtomicLong();
+  private final AtomicLong retries  = new AtomicLong();
+  private final AtomicLong spilled  = new AtomicLong();
+  private final AtomicLong spillSeq = new AtomicLong();
+
+  /** 종료 중 DB 복구 실패 → 이후 배치는 DB 시도 없이 바로 spill */
+  private boolean spilling;
+
+  private volatile boolean running;
+  private Thread worker;
+
+  public SecurityEventWriter(
+      JdbcTemplate jdbc,
+      TransactionTemplate tx,
+      SecurityEventRollupService rollups,
+      ObjectMapper om,
+      @Value("${events.ingest.queue-capacity:50000}") int queueCapacity,
+      @Value("${events.ingest.batch-size:500}") int batchSize,
+      @Value("${events.ingest.flush-interval-ms:200}") long flushIntervalMs,
+      @Value("${events.ingest.retry-backoff-ms:500}") long retryBackoffMs,
+      @Value("${events.ingest.max-backoff-ms:30000}") long maxBackoffMs,
+      @Value("${events.ingest.spill-dir:./data/event-spill}") String spillDir
+  ) {
+    this.jdbc = jdbc;
+    this.tx = tx;
+    this.rollups = rollups;
+    this.om = om;
+    this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    this.batchSize = Math.max(1, batchSize);
+    this.flushIntervalMs = Math.max(10, flushIntervalMs);
+    this.retryBackoffMs = Math.max(10, retryBackoffMs);
+    this.maxBackoffMs = Math.max(this.retryBackoffMs, maxBackoffMs);
+    this.spillDir = Paths.get(spillDir);
+  }
+
+  /* ===================== 적재 API ===================== */
+
+  /** 큐에 넣기. 가득 찼거나 종료 중이면 false (호출부에서 429 응답) */
+  public boolean offer(SecurityEventEntity e) {
+    if (!running || !queue.offer(e)) {
+      rejected.incrementAndGet();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * 여러 건을 순서대로 큐에 넣기. 반환: 앞에서부터 들어간 건수 (가득 차면 그 뒤는 넣지 않음)
+   * writer 가 batchSize 단위로 모아 한 번의 배치 insert 로 적재
+   */
+  public int offerAll(List<SecurityEventEntity> rows) {
+    int n = 0;
+    for (SecurityEventEntity e : rows) {
+      if (!running || !queue.offer(e)) {
+        rejected.addAndGet(rows.size() - n);
+        break;
+      }
+      n++;
+    }
+    return n;
+  }
+
+  /** 큐를 거치지 않고 호출 스레드에서 즉시 저장 (적재 유실을 허용할 수 없는 경로의 폴백) */
+  public void writeNow(SecurityEventEntity e) {
+    written.addAndGet(tx.execute(s -> insert(List.of(e))));
+  }
+
+  public int queueDepth()     { return queue.size(); }
+  public long writtenCount()  { return written.get(); }
+  public long rejectedCount() { return rejected.get(); }
+  public long failedCount()   { return failed.get(); }
+  public long duplicateCount() { return duplicates.get(); }
+  public long retryCount()    { return retries.get(); }
+  public long spilledCount()  { return spilled.get(); }
+
+  /* ===================== writer 루프 ===================== */
+
+  private void runLoop() {
+    replaySpill();
+    List<SecurityEventEntity> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        SecurityEventEntity first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) continue;
+        batch.add(first);
+
+        // 크기 또는 시간 조건 중 먼저 도달할 때까지 모은다
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+          queue.drainTo(batch, batchSize - batch.size());
+          if (batch.size() >= batchSize || !running) break;
+          long waitNs = deadline - System.nanoTime();
+          if (waitNs <= 0) break;
+          SecurityEventEntity next = queue.poll(waitNs, TimeUnit.NANOSECONDS);
+          if (next == null) break;
+          batch.add(next);
+        }
+      } catch (InterruptedException ie) {
+        // 외부 인터럽트: 신규 적재를 막고 남은 큐만 비운 뒤 종료
+        running = false;
+      }
+
+      if (!batch.isEmpty()) {
+        flush(batch);
+        batch.clear();
+      }
+    }
+  }
+
+  /** 배치가 모두 적재(또는 불량 행 제외)될 때까지 재시도. 종료 중 실패하면 spill */
+  private void flush(List<SecurityEventEntity> batch) {
+    List<SecurityEventEntity> rest = new ArrayList<>(batch);
+    long backoff = retryBackoffMs;
+    while (!rest.isEmpty()) {
+      if (spilling) {
+        queue.drainTo(rest); // 종료 중이라 새로 들어오는 이벤트 없음 → 남은 큐까지 한 파일로
+        spill(rest);
+        return;
+      }
+      try {
+        insertOrSplit(rest);
+        log.debug("[SecurityEventWriter] flushed {} events (queue={})", batch.size(), queue.size());
+        return;
+      } catch (RuntimeException ex) {
+        if (!running) {
+          log.error("[SecurityEventWriter] flush failed during shutdown, spilling {} events: {}", rest.size(), ex.getMessage());
+          spilling = true;
+          continue;
+        }
+        retries.incrementAndGet();
+        log.warn("[SecurityEventWriter] flush failed, retry in {}ms: size={}, queue={}, cause={}",
+            backoff, rest.size(), queue.size(), ex.getMessage());
+        pause(backoff);
+        backoff = Math.min(maxBackoffMs, backoff * 2);
+      }
+    }
+  }
+
+  /** 종료 요청 시 바로 깨어나도록 짧게 나눠 대기 */
+  private void pause(long ms) {
+    long until = System.currentTimeMillis() + ms;
+    try {
+      while (running && System.currentTimeMillis() < until) {
+        Thread.sleep(Math.min(100, Math.max(1, until - System.currentTimeMillis())));
+      }
+    } catch (InterruptedException ie) {
+      running = false;
+    }
+  }
+
+  /**
+   * 배치 insert. 데이터 오류면 건별로 나눠 적재하고 불량 행만 버린다.
+   * 그 밖의 오류(DB 장애)는 그대로 던짐 → 호출부 재시도. 적재된 행은 rest 에서 제거
+   */
+  private void insertOrSplit(List<SecurityEventEntity> rest) {
+    try {
+      written.addAndGet(tx.execute(s -> insert(rest)));
+      rest.clear();
+      return;
+    } catch (DataIntegrityViolationException ex) {
+      log.warn("[SecurityEventWriter] batch insert failed, retrying per row: size={}, cause={}",
+          rest.size(), ex.getMessage());
+    }
+    for (Iterator<SecurityEventEntity> it = rest.iterator(); it.hasNext(); ) {
+      SecurityEventEntity e = it.next();
+      try {
+        written.addAndGet(tx.execute(s -> insert(List.of(e))));
+      } catch (DuplicateKeyException dup) {
+        duplicates.incrementAndGet();
+        log.debug("[SecurityEventWriter] duplicate event skipped: customer={}, clientEventId={}",
+            e.getCustomerCode(), e.getClientEventId());
+      } catch (DataIntegrityViolationException rowEx) {
+        failed.incrementAndGet();
+        log.error("[SecurityEventWriter] drop invalid event: customer={}, type={}, cause={}",
+            e.getCustomerCode(), e.getEventType(), rowEx.getMessage());
+      }
+      it.remove();
+    }
+  }
+
+  /* ===================== spill (종료 시 DB 미복구) ===================== */
+
+  /** spill 파일 한 줄 (SecurityEventEntity 의 적재 컬럼) */
+  record Spilled(String customerCode, String deviceId, String eventType, String sourcePackage,
+                 String sourceDomain, String payloadJson, String malwarePackage, String malwareType,
+                 String clientEventId, Instant createdAt) {
+
+    static Spilled of(SecurityEventEntity e) {
+      return new Spilled(e.getCustomerCode(), e.getDeviceId(), e.getEventType(), e.getSourcePackage(),
+          e.getSourceDomain(), e.getPayloadJson(), e.getMalwarePackage(), e.getMalwareType(),
+          e.getClientEventId(), e.getCreatedAt());
+    }
+
+    SecurityEventEntity toEntity() {
+      var e = new SecurityEventEntity();
+      e.setCustomerCode(customerCode);
+      e.setDeviceId(deviceId);
+      e.setEventType(eventType);
+      e.setSourcePackage(sourcePackage);
+      e.setSourceDomain(sourceDomain);
+      e.setPayloadJson(payloadJson);
+      e.setMalwarePackage(malwarePackage);
+      e.setMalwareType(malwareType);
+      e.setClientEventId(clientEventId);
+      e.setCreatedAt(createdAt);
+      return e;
+    }
+  }
+
+  /** 임시 파일에 쓰고 fsync 후 이름 변경 (부분 기록된 파일을 재적재하지 않도록) */
+  private void spill(List<SecurityEventEntity> rows) {
+    try {
+      Files.createDirectories(spillDir);
+      Path tmp = Files.createTempFile(spillDir, "spill-", ".tmp");
+      try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE);
+           BufferedWriter w = new BufferedWriter(Channels.newWriter(ch, StandardCharsets.UTF_8))) {
+        for (SecurityEventEntity e : rows) {
+          w.write(om.writeValueAsString(Spilled.of(e)));
+          w.newLine();
+        }
+        w.flush();
+        ch.force(true);
+      }
+      Path dst = spillDir.resolve(String.format("spill-%d-%d.ndjson", System.currentTimeMillis(), spillSeq.incrementAndGet()));
+      Files.move(tmp, dst, StandardCopyOption.ATOMIC_MOVE);
+      spilled.addAndGet(rows.size());
+      log.warn("[SecurityEventWriter] spilled {} events to {}", rows.size(), dst);
+    } catch (IOException ex) {
+      failed.addAndGet(rows.size());
+      log.error("[SecurityEventWriter] spill failed, {} events lost: {}", rows.size(), ex.toString());
+    }
+  }
+
+  /** 기동 시 이전 spill 파일을 먼저 적재. 파일은 모두 적재된 뒤 삭제 */
+  private void replaySpill() {
+    if (!Files.isDirectory(spillDir)) return;
+    List<Path> files;
+    try (var st = Files.list(spillDir)) {
+      files = st.filter(f -> f.getFileName().toString().endsWith(".ndjson")).sorted().toList();
+    } catch (IOException ex) {
+      log.error("[SecurityEventWriter] cannot list spill dir {}: {}", spillDir, ex.toString());
+      return;
+    }
+    for (Path f : files) {
+      if (!running) return;
+      try {
+        List<SecurityEventEntity> rows = new ArrayList<>();
+        for (String line : Files.readAllLines(f, StandardCharsets.UTF_8)) {
+          if (!line.isBlank()) rows.add(om.readValue(line, Spilled.class).toEntity());
+        }
+        for (int i = 0; i < rows.size(); i += batchSize) {
+          flush(rows.subList(i, Math.min(rows.size(), i + batchSize)));
+        }
+        Files.delete(f);
+        log.info("[SecurityEventWriter] replayed {} spilled events from {}", rows.size(), f.getFileName());
+      } catch (IOException | UncheckedIOException ex) {
+        log.error("[SecurityEventWriter] spill replay failed for {}: {}", f, ex.toString());
+      }
+    }
+  }
+
+  /** 반환: 실제 insert 한 행 수 (중복 제외) */
+  private int insert(List<SecurityEventEntity> batch) {
+    List<SecurityEventEntity> rows = withoutDuplicates(batch);
+    if (rows.isEmpty()) return 0;
+    jdbc.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, e) -> {
+      ps.setString(1, e.getCustomerCode());
+      ps.setString(2, e.getDeviceId());
+      ps.setString(3, e.getEventType());
+      ps.setString(4, e.getSourcePackage());
+      ps.setString(5, e.getSourceDomain());
+      ps.setString(6, e.getPayloadJson());
+      ps.setString(7, e.getMalwarePackage());
+      ps.setString(8, e.getMalwareType());
+      ps.setString(9, e.getClientEventId());
+      if (e.getCreatedAt() == null) e.setCreatedAt(Instant.now());
+      ps.setTimestamp(10, Timestamp.from(e.getCreatedAt()));
+    });
+    rollups.apply(rows);
+    return rows.size();
+  }
+
+  /** 배치 내 / 기존 적재분과 (customer_code, client_event_id) 가 겹치는 행 제외. id 없는 행은 그대로 */
+  private List<SecurityEventEntity> withoutDuplicates(List<SecurityEventEntity> batch) {
+    Set<String> keys = new HashSet<>();
+    List<Object> args = new ArrayList<>();
+    for (SecurityEventEntity e : batch) {
+      if (e.getClientEventId() != null && keys.add(e.getCustomerCode() + '\n' + e.getClientEventId())) {
+        args.add(e.getCustomerCode());
+        args.add(e.getClientEventId());
+      }
+    }
+    if (keys.isEmpty()) return batch;
+
+    String tuples = String.join(",", Collections.nCopies(keys.size(), "(?, ?)"));
+    Set<String> existing = new HashSet<>(jdbc.query(
+        "select customer_code, client_event_id from security_events where (customer_code, client_event_id) in (" + tuples + ")",
+        (rs, i) -> rs.getString(1) + '\n' + rs.getString(2), args.toArray()));
+
+    Set<String> taken = new HashSet<>(existing);
+    List<SecurityEventEntity> out = new ArrayList<>(batch.size());
+    for (SecurityEventEntity e : batch) {
+      if (e.getClientEventId() == null || taken.add(e.getCustomerCode() + '\n' + e.getClientEventId())) out.add(e);
+    }
+    int skipped = batch.size() - out.size();
+    if (skipped > 0) duplicates.addAndGet(skipped);
+    return out;
+  }
+
+  /* ===================== Lifecycle ===================== */
+
+  @Override
+  public void start() {
+    if (running) return;
+    running = true;
+    worker = new Thread(this::runLoop, "security-event-writer");
+    worker.setDaemon(false);
+    worker.start();
+    log.info("[SecurityEventWriter] started: capacity={}, batchSize={}, flushIntervalMs={}",
+        queue.remainingCapacity() + queue.size(), batchSize, flushIntervalMs);
+  }
+
+  @Override
+  public void stop() {
+    if (!running) return;
+    running = false;
+    Thread t = worker;
+    if (t != null) {
+      // interrupt 하지 않음: flush 중 커넥션 획득이 끊기지 않도록 poll 타임아웃으로 자연 종료
+      try {
+        t.join(TimeUnit.SECONDS.toMillis(30));
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    log.info("[SecurityEventWriter] stopped: written={}, rejected={}, failed={}, spilled={}, remaining={}",
+        written.get(), rejected.get(), failed.get(), spilled.get(), queue.size());
+  }
+
+  @Override
+  public boolean isRunning() { return running; }
+
+  /** 웹서버(WebServerStartStopLifecycle, DEFAULT_PHASE - 2048)보다 먼저 시작하고 나중에 멈추도록 더 낮은 phase 사용 */
+  @Override
+  public int getPhase() { return SmartLifecycle.DEFAULT_PHASE - 4096; }
+}
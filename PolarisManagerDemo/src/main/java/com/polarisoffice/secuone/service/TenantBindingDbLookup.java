@@ -0,0 +1,62 @@
+package com.polarisoffice.secuone.service;
+
+import com.polarisoffice.secuone.config.CacheConfig;
+import com.polarisoffice.secuone.domain.CustomerBindingEntity;
+import com.polarisoffice.secuone.repository.CustomerBindingRepository;
+import com.polarisoffice.secuone.service.TenantResolverService.Resolved;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * 바인딩 DB 조회 (CustomerBindingMatcher 가 준비되지 않았을 때의 폴백)
+ * - 결과는 tenantResolve 캐시 (CacheConfig), 바인딩 변경 시 TenantCacheInvalidator 가 무효화
+ * - 캐시 키는 조회와 같은 정규형(trim + 소문자)의 pkg|host → 대소문자만 다른 요청은 같은 엔트리, 서로 다른 호스트는 분리
+ */
+@Service
+public class TenantBindingDbLookup {
+
+  private final CustomerBindingRepository bindings;
+
+  public TenantBindingDbLookup(CustomerBindingRepository bindings) {
+    this.bindings = bindings;
+  }
+
+  @Transactional(readOnly = true)
+  @Cacheable(cacheNames = CacheConfig.TENANT_RESOLVE, key = "T(com.polarisoffice.secuone.service.TenantBindingDbLookup).cacheKey(#pkg, #domainHost)")
+  public Optional<Resolved> resolve(String pkg, String domainHost) {
+    // 1) 앱 패키지로 우선 시도
+    if (pkg != null && !pkg.isBlank()) {
+      var opt = bindings.findFirstByTypeAndKeyIgnoreCaseAndIsActiveTrueOrderByPriorityDesc(
+          CustomerBindingEntity.BindingType.APP, pkg.trim().toLowerCase());
+      if (opt.isPresent()) {
+        var b = opt.get();
+        var c = b.getCustomer();
+        return Optional.of(new Resolved(c.getCode(), c.getName(), "package", pkg));
+      }
+    }
+    // 2) 웹 도메인(호스트)로 시도: 정확히 ==, 또는 like(%.example.com)
+    if (domainHost != null && !domainHost.isBlank()) {
+      String host = domainHost.trim().toLowerCase();
+      var list = bindings.findWebMatches(CustomerBindingEntity.BindingType.WEB, host);
+      if (!list.isEmpty()) {
+        var b = list.get(0); // priority desc 정렬
+        var c = b.getCustomer();
+        return Optional.of(new Resolved(c.getCode(), c.getName(), "domain", b.getKey()));
+      }
+    }
+    return Optional.empty();
+  }
+
+  /** tenantResolve 캐시 키 (SpEL 에서 호출) */
+  public static String cacheKey(String pkg, String domainHost) {
+    return norm(pkg) + "|" + norm(domainHost);
+  }
+
+  private static String norm(String v) {
+    return v == null ? "" : v.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,96 @@
+package com.polarisoffice.secuone.service;
+
+import com.polarisoffice.secuone.config.CacheConfig;
+import com.polarisoffice.secuone.domain.CustomerBindingEntity;
+import com.polarisoffice.secuone.support.CustomerCodeResolver;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 바인딩/고객사 변경 시 tenantResolve 캐시 무효화 + CustomerBindingMatcher 갱신 (JPA 엔티티 리스너)
+ * - 바인딩 변경은 해당 1건만 매처에 반영, 고객사 변경(이름 등)은 매처 전체 재적재
+ * - 고객사 변경은 CustomerCodeResolver 의 도메인→코드 맵도 무효화 + IngestAdmission 유입 한도 재적재
+ * - WEB 와일드카드(%.example.com) 변경은 임의의 호스트 키에 영향을 주므로 키 단위가 아닌 전체 비움
+ * - 트랜잭션 안이면 커밋 이후에 비워서, 커밋 전 옛 값이 다시 캐시되는 경쟁을 막음
+ * - Hibernate 가 Spring 빈 컨테이너로 리스너를 생성하므로 생성자 주입 사용 가능
+ *   (EntityManagerFactory 초기화 시점에 만들어지므로 CacheManager/매처는 지연 조회)
+ */
+@Component
+public class TenantCacheInvalidator {
+
+  private static final Logger log = LoggerFactory.getLogger(TenantCacheInvalidator.class);
+
+  private final ObjectProvider<CacheManager> caches;
+  private final ObjectProvider<CustomerBindingMatcher> matcher;
+  private final ObjectProvider<CustomerCodeResolver> codeResolver;
+  private final ObjectProvider<IngestAdmission> admission;
+
+  public TenantCacheInvalidator(ObjectProvider<CacheManager> caches,
+                                ObjectProvider<CustomerBindingMatcher> matcher,
+                                ObjectProvider<CustomerCodeResolver> codeResolver,
+                                ObjectProvider<IngestAdmission> admission) {
+    this.caches = caches;
+    this.matcher = matcher;
+    this.codeResolver = codeResolver;
+    this.admission = admission;
+  }
+
+  @PostPersist @PostUpdate @PostRemove
+  void onChange(Object entity) {
+    Runnable apply = (entity instanceof CustomerBindingEntity b)
+        ? () -> { refreshMatcher(b.getId()); invalidateAll(); }
+        : () -> {
+          refreshMatcher(null);
+          invalidateAll();
+          codeResolver.ifAvailable(CustomerCodeResolver::invalidate);
+          reloadAdmission();
+        };
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override public void afterCommit() { apply.run(); }
+      });
+    } else {
+      apply.run();
+    }
+  }
+
+  private void refreshMatcher(Long bindingId) {
+    CustomerBindingMatcher m = matcher.getIfAvailable();
+    if (m == null || !m.isReady()) return;
+    try {
+      if (bindingId != null) m.refresh(bindingId);
+      else m.reloadAll();
+    } catch (RuntimeException e) {
+      // 주기적 전체 재적재에서 복구됨
+      log.warn("[TenantCache] matcher refresh failed: id={}, cause={}", bindingId, e.getMessage());
+    }
+  }
+
+  private void reloadAdmission() {
+    IngestAdmission a = admission.getIfAvailable();
+    if (a == null || !a.isRunning()) return;
+    try {
+      a.reloadLimits();
+    } catch (RuntimeException e) {
+      // 주기적 재적재에서 복구됨
+      log.warn("[TenantCache] admission limits reload failed: {}", e.getMessage());
+    }
+  }
+
+  /** DB 직접 수정 등 리스너를 거치지 않은 변경 후 수동 호출용 */
+  public void invalidateAll() {
+    CacheManager m = caches.getIfAvailable();
+    Cache c = (m == null) ? null : m.getCache(CacheConfig.TENANT_RESOLVE);
+    if (c != null) c.clear();
+    log.debug("[TenantCache] invalidated");
+  }
+}
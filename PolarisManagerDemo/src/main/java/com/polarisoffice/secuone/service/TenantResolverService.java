@@ -1,48 +1,41 @@
 // src/main/java/com/polarisoffice/secuone/service/TenantResolverService.java
 package com.polarisoffice.secuone.service;
 
-import com.polarisoffice.secuone.domain.CustomerBindingEntity;
-import com.polarisoffice.secuone.repository.CustomerBindingRepository;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
+/**
+ * SDK 리포트의 패키지/도메인 → 고객사 식별
+ * - 평소: CustomerBindingMatcher 메모리 조회 (DB/캐시/트랜잭션 없음)
+ * - 매처 적재 전/실패 시: TenantBindingDbLookup (tenantResolve 캐시 경유 DB 조회)
+ */
 @Service
 public class TenantResolverService {
 
   public record Resolved(String customerCode, String customerName,
                          String matchedBy, String matchedKey) {}
 
-  private final CustomerBindingRepository bindings;
+  private final CustomerBindingMatcher matcher;
+  private final TenantBindingDbLookup db;
 
-  public TenantResolverService(CustomerBindingRepository bindings) {
-    this.bindings = bindings;
+  public TenantResolverService(CustomerBindingMatcher matcher, TenantBindingDbLookup db) {
+    this.matcher = matcher;
+    this.db = db;
   }
 
-  @Transactional(readOnly = true)
-  @Cacheable(cacheNames = "tenantResolve", key = "T(java.util.Objects).toString(#pkg)+'|'+T(java.util.Objects).toString(#domain)")
   public Optional<Resolved> resolve(String pkg, String domainHost) {
+    if (!matcher.isReady()) return db.resolve(pkg, domainHost);
+
     // 1) 앱 패키지로 우선 시도
     if (pkg != null && !pkg.isBlank()) {
-      var opt = bindings.findFirstByTypeAndKeyIgnoreCaseAndIsActiveTrueOrderByPriorityDesc(
-          CustomerBindingEntity.BindingType.APP, pkg.trim().toLowerCase());
-      if (opt.isPresent()) {
-        var b = opt.get();
-        var c = b.getCustomer();
-        return Optional.of(new Resolved(c.getCode(), c.getName(), "package", pkg));
-      }
+      var m = matcher.matchApp(pkg);
+      if (m != null) return Optional.of(new Resolved(m.customerCode(), m.customerName(), "package", pkg));
     }
-    // 2) 웹 도메인(호스트)로 시도: 정확히 ==, 또는 like(%.example.com)
+    // 2) 웹 도메인(호스트): 정확 일치 + 와일드카드(%.example.com), priority 우선
     if (domainHost != null && !domainHost.isBlank()) {
-      String host = domainHost.trim().toLowerCase();
-      var list = bindings.findWebMatches(CustomerBindingEntity.BindingType.WEB, host);
-      if (!list.isEmpty()) {
-        var b = list.get(0); // priority desc 정렬
-        var c = b.getCustomer();
-        return Optional.of(new Resolved(c.getCode(), c.getName(), "domain", b.getKey()));
-      }
+      var m = matcher.matchWeb(domainHost);
+      if (m != null) return Optional.of(new Resolved(m.customerCode(), m.customerName(), "domain", m.key()));
     }
     return Optional.empty();
   }
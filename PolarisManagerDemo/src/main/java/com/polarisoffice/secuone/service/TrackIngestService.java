@@ -0,0 +1,180 @@
+package com.polarisoffice.secuone.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polarisoffice.secuone.domain.SecurityEventEntity;
+import com.polarisoffice.secuone.dto.TrackEventReq;
+import com.polarisoffice.secuone.support.CustomerCodeResolver;
+import com.polarisoffice.secuone.support.CustomerCodes;
+import com.polarisoffice.secuone.support.MalwarePayloads;
+import com.polarisoffice.secuone.support.MalwarePayloads.MalwareInfo;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 트래킹 이벤트 수집 단위 작업 (/api/track/events)
+ * - 고객사 식별은 CustomerCodeResolver 메모리 디렉터리로 (요청당 customers PK 조회 없음)
+ * - event_logs + 보안 이벤트 미러(security_events, rollup) + 후속 작업 아웃박스를 한 트랜잭션(커밋 1회)으로 적재
+ * - 직광고 카운트(Firestore) 같은 후속 작업은 ingest_outbox 에 기록만 하고 OutboxRelay 가 비동기 처리
+ *   → 요청 스레드에서 Firestore 호출 없음. 롤백된 이벤트의 카운트는 실행되지 않음
+ * - (고객사, client event id) 중복(uk_eventlogs_cust_client_id)이면 전체 롤백 후 duplicate 결과
+ */
+@Service
+public class TrackIngestService {
+
+  public static final String T_MALWARE = "MALWARES_APP";
+  public static final String T_DIRECT_AD = "DIRECT_AD";
+
+  /** 수집 입력 (컨트롤러 요청 바디를 정규화한 값) */
+  public record Event(String customerCode, String action, String objectType, String objectId,
+                      Map<String, String> extra, String eventId, String ip, String ua) {}
+
+  /** logId: 적재된 event_logs id (duplicate 면 null) */
+  public record Result(Long logId, boolean duplicate) {}
+
+  private static final String INSERT_LOG_SQL = """
+      insert into event_logs
+        (customer_code, action, object_type, object_id, actor, ip, ua, memo, client_event_id, created_at)
+      values (?, ?, ?, ?, null, ?, ?, ?, ?, ?)
+      """;
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate tx;
+  private final CustomerCodeResolver customerCodes;
+  private final SecurityEventWriter secWriter;
+  private final OutboxRelay outbox;
+  private final ObjectMapper om;
+
+  public TrackIngestService(JdbcTemplate jdbc,
+                            TransactionTemplate tx,
+                            CustomerCodeResolver customerCodes,
+                            SecurityEventWriter secWriter,
+                            OutboxRelay outbox,
+                            ObjectMapper om) {
+    this.jdbc = jdbc;
+    this.tx = tx;
+    this.customerCodes = customerCodes;
+    this.secWriter = secWriter;
+    this.outbox = outbox;
+    this.om = om;
+  }
+
+  /** 직광고 이벤트에서 지원하는 action 인지 (적재 전 검증용) */
+  public static boolean isDirectAdAction(String action) {
+    String a = upper(action);
+    return "AD_IMPRESSION".equals(a) || "AD_CLICK".equals(a);
+  }
+
+  public Result ingest(Event ev) {
+    // 미등록 코드는 FK 위반 대신 null 로 적재 (기존 동작 유지)
+    String code = CustomerCodes.normalize(ev.customerCode());
+    if (code != null && !customerCodes.isKnownCode(code)) code = null;
+    final String customerCode = code;
+
+    String type = upper(ev.objectType());
+    Instant now = Instant.now();
+    String outboxKind = T_DIRECT_AD.equals(type)
+        ? ("AD_CLICK".equals(upper(ev.action())) ? OutboxRelay.DIRECT_AD_CLICK : OutboxRelay.DIRECT_AD_IMPRESSION)
+        : null;
+    String outboxPayload = outboxKind == null ? null : toJson(toDirectAdReq(ev.extra()));
+    SecurityEventEntity mirror = (T_MALWARE.equals(type) && customerCode != null)
+        ? toSecurityEvent(customerCode, ev, now) : null;
+
+    Long id;
+    try {
+      id = tx.execute(s -> {
+        Long logId = insertLog(customerCode, ev, now);
+        // 보안 이벤트 미러: security_events.customer_code 가 NOT NULL 이라 고객 식별된 경우만 (외부 트랜잭션 참여)
+        if (mirror != null) secWriter.writeNow(mirror);
+        if (outboxKind != null) outbox.append(outboxKind, ev.objectId(), outboxPayload, now);
+        return logId;
+      });
+    } catch (DuplicateKeyException ex) {
+      // 메모리 창 밖의 재전송: uk_eventlogs_cust_client_id 로 걸림
+      if (ev.eventId() == null) throw ex;
+      return new Result(null, true);
+    }
+    if (outboxKind != null) outbox.wake();
+    return new Result(id, false);
+  }
+
+  private Long insertLog(String customerCode, Event ev, Instant now) {
+    KeyHolder kh = new GeneratedKeyHolder();
+    jdbc.update(con -> {
+      PreparedStatement ps = con.prepareStatement(INSERT_LOG_SQL, Statement.RETURN_GENERATED_KEYS);
+      ps.setString(1, customerCode);
+      ps.setString(2, ev.action());
+      ps.setString(3, ev.objectType());
+      ps.setString(4, ev.objectId());
+      ps.setString(5, ev.ip());
+      ps.setString(6, ev.ua());
+      ps.setString(7, toJson(ev.extra()));  // extra 전체 저장
+      ps.setString(8, ev.eventId());
+      ps.setTimestamp(9, Timestamp.from(now));
+      return ps;
+    }, kh);
+    Number key = kh.getKey();
+    return key == null ? null : key.longValue();
+  }
+
+  private SecurityEventEntity toSecurityEvent(String customerCode, Event ev, Instant now) {
+    Map<String, String> extra = ev.extra();
+    String raw = extra == null ? null : extra.get("payload");
+    MalwareInfo mi = MalwarePayloads.fromPayloadJson(raw, om);
+
+    var se = new SecurityEventEntity();
+    se.setCustomerCode(customerCode);
+    se.setDeviceId(ev.objectId());
+    se.setEventType(T_MALWARE);
+    se.setSourcePackage(extra == null ? null : extra.get("sourcePackage"));
+    se.setSourceDomain(null);
+    se.setClientEventId(ev.eventId());
+
+    se.setMalwarePackage(MalwarePayloads.clip(mi.pkg(), 255));
+    se.setMalwareType(MalwarePayloads.clip(mi.type(), 128));
+
+    Map<String, Object> memo = new LinkedHashMap<>();
+    if (mi.pkg()  != null) memo.put("malwarePackage", mi.pkg());
+    if (mi.type() != null) memo.put("malwareType", mi.type());
+    if (raw != null)     memo.put("raw", raw);
+    se.setPayloadJson(toJson(memo));
+    se.setCreatedAt(now);
+    return se;
+  }
+
+  /** extra → 광고 서비스 DTO (customerCode 사용 안 함) */
+  private static TrackEventReq toDirectAdReq(Map<String, String> extra) {
+    TrackEventReq r = new TrackEventReq();
+    if (extra != null) {
+      r.placement   = extra.getOrDefault("placement", null);
+      r.appVersion  = extra.getOrDefault("appVersion", null);
+      r.deviceModel = extra.getOrDefault("deviceModel", null);
+      r.osVersion   = extra.getOrDefault("osVersion", null);
+      r.locale      = extra.getOrDefault("locale", null);
+      r.sessionId   = extra.getOrDefault("sessionId", null);
+      r.clientId    = extra.getOrDefault("clientId", null);
+      try {
+        if (extra.get("latitude")  != null) r.latitude  = Double.parseDouble(extra.get("latitude"));
+        if (extra.get("longitude") != null) r.longitude = Double.parseDouble(extra.get("longitude"));
+      } catch (NumberFormatException ignore) {}
+    }
+    return r;
+  }
+
+  private static String upper(String s) { return s == null ? "" : s.trim().toUpperCase(); }
+
+  private String toJson(Object obj) {
+    try { return obj == null ? null : om.writeValueAsString(obj); }
+    catch (Exception e) { return null; }
+  }
+}
@@ -0,0 +1,14 @@
+package com.polarisoffice.secuone.support;
+
+import java.lang.annotation.*;
+
+/**
+ * 컨트롤러 파라미터에 요청 고객사 코드 주입 (CustomerCodeResolver)
+ * - 식별 실패 시 null (API 는 403 처리), 뷰는 defaultMg=true 로 "mg" 기본값
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentCustomerCode {
+  boolean defaultMg() default false;
+}
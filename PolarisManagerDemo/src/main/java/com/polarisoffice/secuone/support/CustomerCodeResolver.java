@@ -0,0 +1,211 @@
+package com.polarisoffice.secuone.support;
+
+import com.polarisoffice.secuone.repository.CustomerRepository;
+import com.polarisoffice.secuone.repository.CustomerRepository.CodeDomain;
+import com.polarisoffice.secuone.security.JwtPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.*;
+
+/**
+ * 요청 고객사 코드 단일 결정기 (요청당 1회, 결과는 요청 속성에 보관)
+ * - 우선순위: 쿼리(customerCode/cc) > 헤더 X-Customer-Code > JwtPrincipal.customerCode
+ *   > 호스트(X-Customer-Domain / X-Forwarded-Host / serverName) → customers.domain 메모리 맵
+ *   > 1레벨 서브도메인이 등록된 고객사 코드인 경우
+ * - 리플렉션/정규식 없음. 도메인 맵은 TTL 로 재적재 + 고객사 변경 시 TenantCacheInvalidator 가 무효화
+ * - 결과는 CustomerCodes.normalize 로 정규화, 실패 시 null
+ */
+@Component
+public class CustomerCodeResolver implements HandlerMethodArgumentResolver {
+
+  private static final Logger log = LoggerFactory.getLogger(CustomerCodeResolver.class);
+
+  public static final String ATTR = CustomerCodeResolver.class.getName() + ".code";
+  public static final String DEFAULT_CODE = "mg";
+
+  /** 요청 속성에 "식별 실패"를 기록하기 위한 표식 */
+  private static final String NONE = "";
+  private static final Set<String> SHARED_SUBDOMAINS = Set.of("www", "app", "manager", "console", "admin");
+
+  private record Directory(Map<String, String> byDomain, Set<String> codes, long expiresAt) {}
+
+  private final CustomerRepository customers;
+  private final long ttlMs;
+  private volatile Directory directory;
+
+  public CustomerCodeResolver(CustomerRepository customers,
+                              @Value("${tenant.domain-map.ttl-sec:300}") long ttlSec) {
+    this.customers = customers;
+    this.ttlMs = Math.max(1, ttlSec) * 1000L;
+  }
+
+  /* ===================== 조회 ===================== */
+
+  /** 식별 실패 시 null */
+  public String resolve(HttpServletRequest req) {
+    Object cached = req.getAttribute(ATTR);
+    if (cached instanceof String s) return s.isEmpty() ? null : s;
+
+    String code = doResolve(req);
+    req.setAttribute(ATTR, code == null ? NONE : code);
+    return code;
+  }
+
+  /** 뷰용: 식별 실패 시 "mg" */
+  public String resolveOrDefault(HttpServletRequest req) {
+    String code = resolve(req);
+    return code != null ? code : DEFAULT_CODE;
+  }
+
+  private String doResolve(HttpServletRequest req) {
+    String code = CustomerCodes.normalize(req.getParameter("customerCode"));
+    if (code == null) code = CustomerCodes.normalize(req.getParameter("cc"));
+    if (code == null) code = CustomerCodes.normalize(req.getHeader("X-Customer-Code"));
+    if (code == null) code = fromPrincipal();
+    if (code == null) code = fromHost(req);
+    if (code == null) log.debug("[cust] cannot resolve customerCode: uri={}", req.getRequestURI());
+    return code;
+  }
+
+  private static String fromPrincipal() {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (auth == null || auth instanceof AnonymousAuthenticationToken) return null;
+    Object p = auth.getPrincipal();
+    if (p instanceof JwtPrincipal jp) return CustomerCodes.normalize(jp.getCustomerCode());
+    // 구 JwtAuthFilter 가 넣던 Map principal 호환
+    if (p instanceof Map<?, ?> m) {
+      String code = CustomerCodes.normalize(asString(m.get("customerCode")));
+      return code != null ? code : CustomerCodes.normalize(asString(m.get("tenantCode")));
+    }
+    return null;
+  }
+
+  private String fromHost(HttpServletRequest req) {
+    String host = headerFirst(req.getHeader("X-Customer-Domain"));
+    if (host == null) host = headerFirst(req.getHeader("X-Forwarded-Host"));
+    if (host == null) host = req.getServerName();
+    host = normalizeHost(host);
+    if (host == null) return null;
+
+    Directory d = directory();
+    String code = d.byDomain().get(host);
+    if (code != null) return code;
+
+    // acme.console.example.com → acme (등록된 코드만 인정)
+    int dot = host.indexOf('.');
+    String first = dot > 0 ? host.substring(0, dot) : host;
+    return (!SHARED_SUBDOMAINS.contains(first) && d.codes().contains(first)) ? first : null;
+  }
+
+  /* ===================== 도메인 맵 ===================== */
+
+  private Directory directory() {
+    Directory d = directory;
+    if (d != null && d.expiresAt() > System.currentTimeMillis()) return d;
+    synchronized (this) {
+      d = directory;
+      if (d != null && d.expiresAt() > System.currentTimeMillis()) return d;
+      try {
+        d = load();
+      } catch (RuntimeException e) {
+        // DB 장애 시 직전 맵을 잠시 더 사용 (없으면 빈 맵)
+        log.warn("[cust] domain map reload failed: {}", e.getMessage());
+        Directory prev = (d != null) ? d : new Directory(Map.of(), Set.of(), 0);
+        d = new Directory(prev.byDomain(), prev.codes(), System.currentTimeMillis() + Math.min(ttlMs, 10_000));
+      }
+      directory = d;
+      return d;
+    }
+  }
+
+  private Directory load() {
+    Map<String, String> byDomain = new HashMap<>();
+    Set<String> codes = new HashSet<>();
+    for (CodeDomain r : customers.findCodeDomains()) {
+      String code = CustomerCodes.normalize(r.getCode());
+      if (code == null) continue;
+      codes.add(code);
+      String domain = normalizeHost(stripScheme(r.getDomain()));
+      if (domain != null) byDomain.putIfAbsent(domain, code);
+    }
+    return new Directory(Map.copyOf(byDomain), Set.copyOf(codes), System.currentTimeMillis() + ttlMs);
+  }
+
+  /** 등록된 고객사 코드인지 (정규화 후 메모리 디렉터리 확인, DB 조회 없음) */
+  public boolean isKnownCode(String code) {
+    String c = CustomerCodes.normalize(code);
+    return c != null && directory().codes().contains(c);
+  }
+
+  /** 고객사 추가/수정/삭제 후 호출 (다음 조회에서 재적재) */
+  public void invalidate() {
+    directory = null;
+  }
+
+  /* ===================== @CurrentCustomerCode ===================== */
+
+  @Override
+  public boolean supportsParameter(MethodParameter parameter) {
+    return parameter.hasParameterAnnotation(CurrentCustomerCode.class)
+        && String.class.equals(parameter.getParameterType());
+  }
+
+  @Override
+  public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+    HttpServletRequest req = webRequest.getNativeRequest(HttpServletRequest.class);
+    if (req == null) return null;
+    CurrentCustomerCode ann = parameter.getParameterAnnotation(CurrentCustomerCode.class);
+    return (ann != null && ann.defaultMg()) ? resolveOrDefault(req) : resolve(req);
+  }
+
+  // ───────── helpers ─────────
+  private static String asString(Object o) {
+    return o == null ? null : String.valueOf(o);
+  }
+
+  /** 콤마로 연결된 헤더 값(프록시 체인)에서 첫 값만 사용 */
+  private static String headerFirst(String v) {
+    if (v == null || v.isBlank()) return null;
+    int idx = v.indexOf(',');
+    return (idx > -1 ? v.substring(0, idx) : v).trim();
+  }
+
+  private static String stripScheme(String v) {
+    if (v == null) return null;
+    int idx = v.indexOf("://");
+    String h = idx >= 0 ? v.substring(idx + 3) : v;
+    int slash = h.indexOf('/');
+    return slash >= 0 ? h.substring(0, slash) : h;
+  }
+
+  /** 호스트 정규화: 소문자, 포트 제거, 선행 www. 제거 */
+  private static String normalizeHost(String host) {
+    if (host == null) return null;
+    String h = host.trim().toLowerCase(Locale.ROOT);
+    int colon = h.lastIndexOf(':');
+    if (colon > 0 && colon == h.indexOf(':') && isDigits(h, colon + 1)) h = h.substring(0, colon);
+    if (h.startsWith("www.")) h = h.substring(4);
+    return h.isEmpty() ? null : h;
+  }
+
+  private static boolean isDigits(String s, int from) {
+    if (from >= s.length()) return false;
+    for (int i = from; i < s.length(); i++) {
+      if (!Character.isDigit(s.charAt(i))) return false;
+    }
+    return true;
+  }
+}
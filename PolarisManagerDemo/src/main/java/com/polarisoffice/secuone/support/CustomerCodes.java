@@ -0,0 +1,20 @@
+// src/main/java/com/polarisoffice/secuone/support/CustomerCodes.java
+package com.polarisoffice.secuone.support;
+
+import java.util.Locale;
+
+/**
+ * 고객사 코드 정규형: trim + 소문자
+ * - 저장(CustomerEntity.setCode)과 조회 입력 양쪽에서 같은 규칙을 적용해
+ *   쿼리에서 upper()/lower() 없이 customer_code 인덱스를 그대로 사용
+ */
+public final class CustomerCodes {
+    private CustomerCodes() {}
+
+    /** null/공백이면 null */
+    public static String normalize(String code) {
+        if (code == null) return null;
+        String s = code.trim();
+        return s.isEmpty() ? null : s.toLowerCase(Locale.ROOT);
+    }
+}
@@ -9,20 +9,18 @@ import org.springframework.ui.Model;
 @ControllerAdvice(annotations = Controller.class)
 public class GlobalModelAdvice {
 
-  private final DomainCustomerResolver resolver;
+  private final CustomerCodeResolver resolver;
 
-  public GlobalModelAdvice(DomainCustomerResolver resolver) {
+  public GlobalModelAdvice(CustomerCodeResolver resolver) {
     this.resolver = resolver;
   }
 
   /**
    * 모든 뷰 모델에 customerCode 노출
-   * - 우선순위: 쿼리파라미터(customerCode) > 도메인 유추 > "mg"
+   * - 우선순위는 CustomerCodeResolver 참고, 식별 실패 시 "mg"
    */
   @ModelAttribute
   public void exposeCustomerCode(HttpServletRequest req, Model model) {
-    String explicit = req.getParameter("customerCode");
-    String code = resolver.resolveCustomerCode(req, explicit);
-    model.addAttribute("customerCode", code);
+    model.addAttribute("customerCode", resolver.resolveOrDefault(req));
   }
 }
@@ -0,0 +1,150 @@
+// src/main/java/com/polarisoffice/secuone/support/ImageResizer.java
+package com.polarisoffice.secuone.support;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * 이미지 프록시 썸네일 변환 (ImageIO 만 사용하는 순수 JVM 파이프라인)
+ * - 원본 크기를 헤더만 읽어 확인 → 픽셀 상한 초과 시 거부 (압축 폭탄 방지)
+ * - 목표보다 2배 이상 크면 디코딩 단계에서 서브샘플링해 메모리/CPU 절감
+ * - 비율 유지, 확대 없음. 축소는 절반씩 단계적으로 (한 번에 크게 줄일 때의 계단 현상 방지)
+ * - 출력: 알파 있으면 PNG, 없으면 JPEG(q 품질)
+ * - ImageIO 가 읽지 못하는 형식(webp/avif 등)은 null → 호출부에서 원본 그대로 응답
+ */
+public final class ImageResizer {
+  private ImageResizer() {}
+
+  public record Spec(int width, int height, int quality) {}
+
+  public record Result(String contentType) {}
+
+  /** 허용 변 길이 (요청값 이상 중 가장 작은 값으로 올림). 변환본 캐시 키 종류를 제한 */
+  static final int[] SIDES = {64, 128, 256, 320, 480, 640, 800, 1024, 1280, 1600, 2000};
+  /** 허용 JPEG 품질 (가장 가까운 값) */
+  static final int[] QUALITIES = {50, 60, 70, 80, 90};
+
+  /**
+   * 요청 파라미터 정규화. w/h 가 모두 없으면 null (품질만 바꾸는 재인코딩은 하지 않음)
+   * - w/h 는 SIDES, q 는 QUALITIES 로 스냅 → 임의 값으로 변환본/CPU 를 무한히 만들 수 없음
+   */
+  public static Spec spec(Integer w, Integer h, Integer q, int maxSide) {
+    int ww = snapSide(w, maxSide);
+    int hh = snapSide(h, maxSide);
+    if (ww == 0 && hh == 0) return null;
+    return new Spec(ww, hh, snapQuality(q));
+  }
+
+  private static int snapSide(Integer v, int maxSide) {
+    if (v == null || v <= 0) return 0;
+    int cap = Math.min(v, maxSide);
+    int last = 0;
+    for (int s : SIDES) {
+      if (s > maxSide) break;
+      last = s;
+      if (s >= cap) return s;
+    }
+    return last == 0 ? maxSide : last;
+  }
+
+  private static int snapQuality(Integer q) {
+    if (q == null) return 80;
+    int best = QUALITIES[0];
+    for (int c : QUALITIES) if (Math.abs(c - q) < Math.abs(best - q)) best = c;
+    return best;
+  }
+
+  /** src 를 읽어 spec 대로 변환해 dst 에 쓴다. 읽을 수 없는 형식이면 null */
+  public static Result resize(Path src, Path dst, Spec spec, long maxPixels) throws IOException {
+    BufferedImage img;
+    try (ImageInputStream in = ImageIO.createImageInputStream(src.toFile())) {
+      if (in == null) return null;
+      Iterator<ImageReader> it = ImageIO.getImageReaders(in);
+      if (!it.hasNext()) return null;
+      ImageReader reader = it.next();
+      try {
+        reader.setInput(in, true, true);
+        int sw = reader.getWidth(0), sh = reader.getHeight(0);
+        if ((long) sw * sh > maxPixels) throw new IOException("image too large: " + sw + "x" + sh);
+
+        Dimension target = fit(sw, sh, spec);
+        ImageReadParam param = reader.getDefaultReadParam();
+        int sub = Math.max(1, Math.min(sw / Math.max(1, target.width * 2), sh / Math.max(1, target.height * 2)));
+        if (sub > 1) param.setSourceSubsampling(sub, sub, 0, 0);
+        img = reader.read(0, param);
+      } finally {
+        reader.dispose();
+      }
+    }
+
+    Dimension target = fit(img.getWidth(), img.getHeight(), spec);
+    boolean alpha = img.getColorModel().hasAlpha();
+    BufferedImage out = scale(img, target.width, target.height, alpha);
+
+    if (alpha) {
+      if (!ImageIO.write(out, "png", dst.toFile())) return null;
+      return new Result("image/png");
+    }
+    writeJpeg(out, dst, spec.quality());
+    return new Result("image/jpeg");
+  }
+
+  /** 박스(w x h) 안에 비율 유지로 맞춤. 0 인 변은 제한 없음. 확대하지 않음 */
+  private static Dimension fit(int sw, int sh, Spec spec) {
+    double r = 1.0;
+    if (spec.width() > 0)  r = Math.min(r, (double) spec.width() / sw);
+    if (spec.height() > 0) r = Math.min(r, (double) spec.height() / sh);
+    return new Dimension(Math.max(1, (int) Math.round(sw * r)), Math.max(1, (int) Math.round(sh * r)));
+  }
+
+  private static BufferedImage scale(BufferedImage src, int tw, int th, boolean alpha) {
+    int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+    BufferedImage cur = src;
+    int w = src.getWidth(), h = src.getHeight();
+    do {
+      w = Math.max(tw, w / 2);
+      h = Math.max(th, h / 2);
+      if (w < tw * 2 && h < th * 2) { w = tw; h = th; }
+      BufferedImage next = new BufferedImage(w, h, type);
+      Graphics2D g = next.createGraphics();
+      try {
+        if (!alpha) {
+          g.setColor(Color.WHITE); // 투명 없는 원본의 팔레트/CMYK 변환 대비
+          g.fillRect(0, 0, w, h);
+        }
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(cur, 0, 0, w, h, null);
+      } finally {
+        g.dispose();
+      }
+      cur = next;
+    } while (w != tw || h != th);
+    return cur;
+  }
+
+  private static void writeJpeg(BufferedImage img, Path dst, int quality) throws IOException {
+    ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+    try (ImageOutputStream out = ImageIO.createImageOutputStream(dst.toFile())) {
+      writer.setOutput(out);
+      ImageWriteParam p = writer.getDefaultWriteParam();
+      p.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+      p.setCompressionQuality(quality / 100f);
+      p.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+      writer.write(null, new IIOImage(img, null, null), p);
+    } finally {
+      writer.dispose();
+    }
+  }
+}
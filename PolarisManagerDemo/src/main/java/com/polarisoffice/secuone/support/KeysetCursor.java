@@ -0,0 +1,56 @@
+// src/main/java/com/polarisoffice/secuone/support/KeysetCursor.java
+package com.polarisoffice.secuone.support;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * (createdAt, id) 기반 keyset(seek) 페이지네이션 커서
+ * - 클라이언트에는 base64url 불투명 문자열로만 노출
+ * - 정렬은 항상 createdAt DESC, id DESC 고정
+ */
+public record KeysetCursor(Instant createdAt, long id) {
+
+    public static final Sort SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + "." + createdAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 비었으면 null (첫 페이지).
+     * 형식이 틀리면 IllegalArgumentException → 호출부에서 400 (첫 페이지로 되돌리면 클라이언트가 같은 페이지를 반복 수신)
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int colon = raw.indexOf(':');
+            int dot = raw.indexOf('.');
+            if (colon < 0 || dot < 0 || dot > colon) throw new IllegalArgumentException("invalid cursor");
+            long sec  = Long.parseLong(raw.substring(0, dot));
+            int nanos = Integer.parseInt(raw.substring(dot + 1, colon));
+            long id   = Long.parseLong(raw.substring(colon + 1));
+            return new KeysetCursor(Instant.ofEpochSecond(sec, nanos), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid cursor", e);
+        }
+    }
+
+    public static String of(Instant createdAt, Long id) {
+        return (createdAt == null || id == null) ? null : new KeysetCursor(createdAt, id).encode();
+    }
+
+    /** (createdAt, id) < (cursor.createdAt, cursor.id) — 인덱스 (…, created_at, id) 범위 탐색 */
+    public <E> Specification<E> before() {
+        return (root, q, cb) -> cb.or(
+            cb.lessThan(root.get("createdAt"), createdAt),
+            cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id))
+        );
+    }
+}
@@ -0,0 +1,120 @@
+// src/main/java/com/polarisoffice/secuone/support/MalwarePayloads.java
+package com.polarisoffice.secuone.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 악성앱 이벤트 payload 에서 패키지/유형 추출 (적재 시 1회 + backfill 공용)
+ * - SDK data 맵 / 저장된 payloadJson / 원문 문자열(".../com.xxx-1/base.apk,Android.TestVirus") 지원
+ * - 정규식은 클래스 로딩 시 한 번만 컴파일
+ */
+public final class MalwarePayloads {
+    private MalwarePayloads() {}
+
+    public record MalwareInfo(String pkg, String type, String raw) {
+        static final MalwareInfo EMPTY = new MalwareInfo(null, null, null);
+    }
+
+    private static final Pattern APK_PATH = Pattern.compile(
+        "/([a-zA-Z0-9_]+(?:\\.[a-zA-Z0-9_]+)+)[^/]*?/base\\.apk(?:\\s*,\\s*([^\\r\\n,]+))?",
+        Pattern.CASE_INSENSITIVE);
+    private static final Pattern COM_TOKEN = Pattern.compile("\\b(com[\\w.]+)\\b");
+
+    /** SDK 가 보낸 data 맵 (malwarePackage/pkg/packageName, malwareType/type, payload) */
+    public static MalwareInfo fromData(Map<String, ?> data) {
+        if (data == null) return MalwareInfo.EMPTY;
+
+        String pkg = firstNonBlank(data.get("malwarePackage"), data.get("pkg"), data.get("packageName"));
+        String type = firstNonBlank(data.get("malwareType"), data.get("type"));
+        String raw = toStrOrNull(data.get("payload"));
+
+        if ((pkg == null || type == null) && raw != null) {
+            MalwareInfo fromRaw = fromRawText(raw);
+            if (pkg == null)  pkg  = fromRaw.pkg();
+            if (type == null) type = fromRaw.type();
+        }
+        return new MalwareInfo(pkg, type, raw);
+    }
+
+    /** 저장된 payloadJson (JSON 이 아니면 원문 문자열로 취급) */
+    public static MalwareInfo fromPayloadJson(String payload, ObjectMapper om) {
+        if (payload == null || payload.isBlank()) return MalwareInfo.EMPTY;
+
+        try {
+            JsonNode n = om.readTree(payload);
+            if (n != null && n.isObject()) {
+                JsonNode data = n.path("data");
+                String pkg = firstNonBlank(text(n, "malwarePackage"), text(n, "pkg"),
+                    text(n, "packageName"), text(n, "package"), text(data, "malwarePackage"));
+                String type = firstNonBlank(text(n, "malwareType"), text(n, "type"), text(data, "malwareType"));
+                String raw = text(n, "raw");
+                if (pkg != null || type != null) return new MalwareInfo(pkg, type, raw);
+                if (raw != null) {
+                    MalwareInfo fromRaw = fromRawText(raw);
+                    return new MalwareInfo(fromRaw.pkg(), fromRaw.type(), raw);
+                }
+            }
+        } catch (Exception ignore) { /* not JSON */ }
+
+        return fromRawText(payload);
+    }
+
+    /** ".../com.xxx.yyy-XXXX/base.apk,Android.TestVirus" 형태 원문 */
+    public static MalwareInfo fromRawText(String text) {
+        if (text == null) return MalwareInfo.EMPTY;
+
+        Matcher m = APK_PATH.matcher(text);
+        if (m.find()) {
+            return new MalwareInfo(trimOrNull(m.group(1)), trimOrNull(m.group(2)), text);
+        }
+
+        String type = null;
+        int idx = text.lastIndexOf(',');
+        if (idx >= 0 && idx + 1 < text.length()) {
+            String t = text.substring(idx + 1).trim();
+            int nl = t.indexOf('\n');
+            if (nl >= 0) t = t.substring(0, nl).trim();
+            if (!t.isEmpty()) type = t;
+        }
+
+        Matcher m2 = COM_TOKEN.matcher(text);
+        String pkg = m2.find() ? m2.group(1) : null;
+        return new MalwareInfo(pkg, type, text);
+    }
+
+    /** 컬럼 길이 초과 방지 */
+    public static String clip(String s, int max) {
+        if (s == null) return null;
+        return s.length() <= max ? s : s.substring(0, max);
+    }
+
+    // ───────── helpers ─────────
+    private static String text(JsonNode n, String field) {
+        if (n == null || !n.hasNonNull(field)) return null;
+        return trimOrNull(n.get(field).asText(null));
+    }
+
+    private static String firstNonBlank(Object... vals) {
+        for (Object v : vals) {
+            String s = toStrOrNull(v);
+            if (s != null) return s;
+        }
+        return null;
+    }
+
+    private static String toStrOrNull(Object v) {
+        if (v == null) return null;
+        return trimOrNull(String.valueOf(v));
+    }
+
+    private static String trimOrNull(String s) {
+        if (s == null) return null;
+        s = s.trim();
+        return s.isEmpty() ? null : s;
+    }
+}
@@ -0,0 +1,27 @@
+// src/main/java/com/polarisoffice/secuone/support/PayloadErrorAdvice.java
+package com.polarisoffice.secuone.support;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+/**
+ * 요청 본문 읽기 오류 중 압축 해제 상한 초과만 413 으로 변환
+ * (그 외에는 다시 던져 기본 처리(400)에 맡김)
+ */
+@RestControllerAdvice
+public class PayloadErrorAdvice {
+
+  @ExceptionHandler(HttpMessageNotReadableException.class)
+  public ResponseEntity<?> notReadable(HttpMessageNotReadableException ex) throws HttpMessageNotReadableException {
+    for (Throwable t = ex; t != null; t = t.getCause()) {
+      if (t instanceof RequestDecompressionFilter.TooLargeException) {
+        return ResponseEntity.status(413).body(Map.of("message", "요청 본문이 너무 큽니다."));
+      }
+    }
+    throw ex;
+  }
+}
@@ -0,0 +1,169 @@
+// src/main/java/com/polarisoffice/secuone/support/RequestDecompressionFilter.java
+package com.polarisoffice.secuone.support;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 요청 본문 압축 해제 (Content-Encoding: gzip)
+ * - 본문을 미리 읽지 않고 스트림을 감싸기만 함 (컨트롤러/Jackson 이 읽는 만큼만 해제)
+ * - 해제 후 누적 바이트가 상한을 넘으면 TooLargeException (압축 폭탄 방지) → PayloadErrorAdvice 에서 413
+ * - 하위 단계에는 Content-Encoding / Content-Length 없는 일반 요청으로 보임
+ * - 수집 엔드포인트(http.request.decompress-paths)의 POST 에만 적용. 그 밖의 경로는 손대지 않음
+ * - 적용 경로에서 gzip 이외 인코딩은 415
+ */
+@Component
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+  /** 해제 본문 상한 초과 */
+  public static class TooLargeException extends IOException {
+    public TooLargeException(long limit) {
+      super("decompressed request body exceeds " + limit + " bytes");
+    }
+  }
+
+  private static final AntPathMatcher PATHS = new AntPathMatcher();
+
+  private final long maxBytes;
+  private final List<String> patterns;
+
+  public RequestDecompressionFilter(@Value("${http.request.max-decompressed-bytes:10485760}") long maxBytes,
+                                    @Value("${http.request.decompress-paths:/api/events/report,/api/events/report/bulk,/api/track/events,/api/directads/*/track/*}")
+                                    List<String> patterns) {
+    this.maxBytes = Math.max(1024, maxBytes);
+    this.patterns = patterns.stream().map(String::trim).filter(p -> !p.isEmpty()).toList();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String enc = request.getHeader("Content-Encoding");
+    if (enc == null || enc.isBlank() || "identity".equalsIgnoreCase(enc.trim())) return true;
+    if (!"POST".equals(request.getMethod())) return true;
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    for (String p : patterns) if (PATHS.match(p, path)) return false;
+    return true;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String enc = request.getHeader("Content-Encoding").trim().toLowerCase(Locale.ROOT);
+    if (!enc.equals("gzip") && !enc.equals("x-gzip")) {
+      response.setStatus(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+      response.setHeader("Accept-Encoding", "gzip");
+      return;
+    }
+    chain.doFilter(new Decompressed(request, maxBytes), response);
+  }
+
+  private static final class Decompressed extends HttpServletRequestWrapper {
+    private static final List<String> HIDDEN = List.of("content-encoding", "content-length");
+
+    private final long maxBytes;
+    private ServletInputStream in;
+    private BufferedReader reader;
+
+    Decompressed(HttpServletRequest request, long maxBytes) {
+      super(request);
+      this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+      if (reader != null) throw new IllegalStateException("getReader() already called");
+      if (in == null) in = new Limited(new GZIPInputStream(super.getInputStream(), 8192), maxBytes);
+      return in;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+      if (reader == null) {
+        String cs = getCharacterEncoding();
+        Charset charset = cs == null ? StandardCharsets.UTF_8 : Charset.forName(cs);
+        reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+      }
+      return reader;
+    }
+
+    @Override public int getContentLength() { return -1; }
+    @Override public long getContentLengthLong() { return -1; }
+
+    @Override
+    public String getHeader(String name) {
+      return hidden(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+      return hidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+      List<String> names = Collections.list(super.getHeaderNames());
+      names.removeIf(Decompressed::hidden);
+      return Collections.enumeration(names);
+    }
+
+    private static boolean hidden(String name) {
+      return name != null && HIDDEN.contains(name.toLowerCase(Locale.ROOT));
+    }
+  }
+
+  /** 읽은 바이트 수가 상한을 넘으면 예외 */
+  private static final class Limited extends ServletInputStream {
+    private final InputStream src;
+    private final long limit;
+    private long count;
+    private boolean finished;
+
+    Limited(InputStream src, long limit) {
+      this.src = src;
+      this.limit = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = src.read();
+      if (b < 0) finished = true;
+      else charge(1);
+      return b;
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException {
+      int n = src.read(buf, off, len);
+      if (n < 0) finished = true;
+      else charge(n);
+      return n;
+    }
+
+    private void charge(int n) throws TooLargeException {
+      count += n;
+      if (count > limit) throw new TooLargeException(limit);
+    }
+
+    @Override public boolean isFinished() { return finished; }
+    @Override public boolean isReady() { return true; }
+    @Override public void setReadListener(ReadListener l) { throw new UnsupportedOperationException("async read not supported"); }
+    @Override public void close() throws IOException { src.close(); }
+  }
+}
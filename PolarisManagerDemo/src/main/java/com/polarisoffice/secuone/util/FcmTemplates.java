@@ -0,0 +1,128 @@
+package com.polarisoffice.secuone.util;
+
+import com.google.firebase.messaging.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * FCM 메시지 공통 템플릿 (FcmGateway / FcmService 공용)
+ * - AndroidConfig / ApnsConfig 는 (채널, 우선순위) 별로 한 번만 만들어 재사용 (SDK 객체는 불변)
+ * - 발송 건마다 달라지는 것은 Notification(제목/본문)과 data 페이로드뿐
+ * - 팬아웃(멀티캐스트 청크)에서는 Notification 도 한 번 만들어 모든 청크가 공유
+ * - APNs 페이로드는 두 종류: BADGE(공지 푸시: 배지 1) / CONTENT_AVAILABLE(/api/push: 백그라운드 갱신, 배지 없음)
+ */
+public final class FcmTemplates {
+  private FcmTemplates() {}
+
+  // 알림 채널 ID (앱 NotificationChannel 과 일치)
+  public static final String EVENT_CHANNEL_ID     = "EVENT_CHANNEL_ID";
+  public static final String EMERGENCY_CHANNEL_ID = "EMERGENCY_CHANNEL_ID";
+  public static final String NOTICE_CHANNEL_ID    = "NOTICE_CHANNEL_ID"; // 가이드/업데이트
+
+  /** 기본 TTL: 1시간 */
+  private static final long TTL_MILLIS = Duration.ofHours(1).toMillis();
+
+  /** 미리 만들지 않은 채널 ID 캐시 상한 (요청 데이터로 임의 채널이 들어와도 무한 증가하지 않도록) */
+  private static final int MAX_CACHED_CHANNELS = 64;
+
+  public record Template(AndroidConfig android, ApnsConfig apns) {}
+
+  /** APNs aps 구성 */
+  public enum Apns { BADGE, CONTENT_AVAILABLE }
+
+  /** [Apns.ordinal * 2 + (high ? 1 : 0)] */
+  private static final ApnsConfig[] APNS = {
+      apns(Apns.BADGE, false), apns(Apns.BADGE, true),
+      apns(Apns.CONTENT_AVAILABLE, false), apns(Apns.CONTENT_AVAILABLE, true)
+  };
+
+  /** 채널 없음 */
+  private static final Template[] NO_CHANNEL = build(null);
+
+  /** 채널 ID → APNS 와 같은 순서의 4종 */
+  private static final Map<String, Template[]> BY_CHANNEL = new ConcurrentHashMap<>(Map.of(
+      EVENT_CHANNEL_ID, build(EVENT_CHANNEL_ID),
+      EMERGENCY_CHANNEL_ID, build(EMERGENCY_CHANNEL_ID),
+      NOTICE_CHANNEL_ID, build(NOTICE_CHANNEL_ID)));
+
+  /** 공지/이벤트 푸시 (APNs 배지 1) */
+  public static Template of(String channelId, boolean highPriority) {
+    return of(channelId, highPriority, Apns.BADGE);
+  }
+
+  public static Template of(String channelId, boolean highPriority, Apns apns) {
+    Template[] t;
+    if (channelId == null || channelId.isBlank()) {
+      t = NO_CHANNEL;
+    } else {
+      t = BY_CHANNEL.get(channelId);
+      if (t == null) {
+        t = build(channelId);
+        if (BY_CHANNEL.size() < MAX_CACHED_CHANNELS) BY_CHANNEL.putIfAbsent(channelId, t);
+      }
+    }
+    return t[apns.ordinal() * 2 + (highPriority ? 1 : 0)];
+  }
+
+  public static Notification notification(String title, String body) {
+    return Notification.builder()
+        .setTitle(nullToEmpty(title))
+        .setBody(nullToEmpty(body))
+        .build();
+  }
+
+  /** 단건(토큰/토픽) 메시지 빌더. 대상(setToken/setTopic)은 호출부에서 지정 */
+  public static Message.Builder message(Template t, Notification n, Map<String, String> data) {
+    Message.Builder mb = Message.builder()
+        .setNotification(n)
+        .setAndroidConfig(t.android())
+        .setApnsConfig(t.apns());
+    if (data != null && !data.isEmpty()) mb.putAllData(data);
+    return mb;
+  }
+
+  /** 멀티캐스트 청크 메시지 (template / notification / data 는 청크 간 공유) */
+  public static MulticastMessage multicast(Template t, Notification n, Map<String, String> data, List<String> tokens) {
+    MulticastMessage.Builder mb = MulticastMessage.builder()
+        .setNotification(n)
+        .setAndroidConfig(t.android())
+        .setApnsConfig(t.apns())
+        .addAllTokens(tokens);
+    if (data != null && !data.isEmpty()) mb.putAllData(data);
+    return mb.build();
+  }
+
+  private static Template[] build(String channelId) {
+    AndroidConfig normal = android(channelId, AndroidConfig.Priority.NORMAL);
+    AndroidConfig high = android(channelId, AndroidConfig.Priority.HIGH);
+    Template[] t = new Template[APNS.length];
+    for (int i = 0; i < t.length; i++) t[i] = new Template((i & 1) == 1 ? high : normal, APNS[i]);
+    return t;
+  }
+
+  private static AndroidConfig android(String channelId, AndroidConfig.Priority priority) {
+    AndroidNotification.Builder n = AndroidNotification.builder()
+        .setSound("default"); // 채널 사운드 설정을 따르지만 기본값 지정
+    if (channelId != null) n.setChannelId(channelId);
+    return AndroidConfig.builder()
+        .setTtl(TTL_MILLIS)
+        .setPriority(priority)
+        .setNotification(n.build())
+        .build();
+  }
+
+  private static ApnsConfig apns(Apns kind, boolean highPriority) {
+    Aps.Builder aps = Aps.builder().setSound("default");
+    if (kind == Apns.BADGE) aps.setBadge(1);
+    else aps.setContentAvailable(true);
+    return ApnsConfig.builder()
+        .putHeader("apns-priority", highPriority ? "10" : "5")
+        .setAps(aps.build())
+        .build();
+  }
+
+  private static String nullToEmpty(String s) { return s == null ? "" : s; }
+}
@@ -12,24 +12,39 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.polarisoffice.secuone.security.JwtPrincipal;
 import com.polarisoffice.secuone.security.JwtTokenService;
+import com.polarisoffice.secuone.security.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 
+/**
+ * Bearer/쿠키/쿼리 토큰 → SecurityContext 인증 설정
+ * - 검증된 토큰은 VerifiedTokenCache 에서 exp 까지 재사용 (요청마다 HMAC 검증/JSON 파싱 생략)
+ * - 요청별 인증 소요시간은 Server-Timing 헤더(auth;dur=ms)와 요청 속성으로 노출
+ */
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-  private final JwtTokenService tokenService;
+  public static final String AUTH_NANOS_ATTR = JwtAuthFilter.class.getName() + ".authNanos";
+
+  private final VerifiedTokenCache tokens;
 
   public JwtAuthFilter(JwtTokenService tokenService) {
-    this.tokenService = tokenService;
+    this(new VerifiedTokenCache(tokenService, 10_000, Duration.ofMinutes(30)));
+  }
+
+  public JwtAuthFilter(VerifiedTokenCache tokens) {
+    this.tokens = tokens;
   }
 
+  /** 로그아웃/강제 만료 등 철회 훅 노출용 */
+  public VerifiedTokenCache tokens() { return tokens; }
+
   @Override
   protected void doFilterInternal(HttpServletRequest request,
                                   HttpServletResponse response,
@@ -42,52 +57,59 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     var ctx = org.springframework.security.core.context.SecurityContextHolder.getContext();
     if (token != null && !token.isBlank() && ctx.getAuthentication() == null) {
-      Claims claims = null;
+      long t0 = System.nanoTime();
+      VerifiedTokenCache.Verified v = null;
       try {
-        // JwtTokenService.decode()는 0.12 방식으로 Claims 반환하도록 구현되어 있음
-        claims = tokenService.decode(token);
+        v = tokens.verify(token, JwtAuthFilter::toPrincipal);
       } catch (RuntimeException ex) {
-        claims = null; // 토큰 파싱 실패 시 무시하고 다음 필터로
+        v = null; // 파싱 실패/만료/철회 토큰은 무시하고 다음 필터로
       }
 
-      if (claims != null) {
-        // subject(사용자 식별자)
-        String subject = nonBlankOr(
-            claims.getSubject(),
-            asString(claims.get("principal"))
-        );
-
-        // role / authorities (문자열, 컬렉션, 배열 등 다양한 형식 대비)
-        String role = extractRole(claims);
-        if (role == null || role.isBlank()) role = "USER";
+      if (v != null) {
+        JwtPrincipal principal = v.principal();
+        String role = principal.getRole();
         String roleWithPrefix = role.startsWith("ROLE_") ? role : "ROLE_" + role;
 
-        // customerCode / tenantCode
-        String customerCode = nonBlankOr(
-            asString(claims.get("customerCode")),
-            asString(claims.get("tenantCode"))
-        );
-        if (customerCode == null) customerCode = "";
-
-        // principal 맵 구성 (null 금지라서 맵에 빈 문자열로 넣음)
-        Map<String, Object> principalMap = new HashMap<>();
-        principalMap.put("subject", subject == null ? "" : subject);
-        principalMap.put("role", role);
-        principalMap.put("customerCode", customerCode);
-
         var authToken = new UsernamePasswordAuthenticationToken(
-            principalMap,
+            principal,
             null,
             List.of(new SimpleGrantedAuthority(roleWithPrefix))
         );
         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
         ctx.setAuthentication(authToken);
       }
+
+      long nanos = System.nanoTime() - t0;
+      request.setAttribute(AUTH_NANOS_ATTR, nanos);
+      response.addHeader("Server-Timing", String.format(Locale.ROOT, "auth;dur=%.3f;desc=\"%s\"",
+          nanos / 1_000_000.0, v != null && v.cached() ? "cache" : "verify"));
     }
 
     filterChain.doFilter(request, response);
   }
 
+  /** 검증된 클레임 → 타입 principal (캐시 미스 때만 호출) */
+  private static JwtPrincipal toPrincipal(Claims claims) {
+    // subject(사용자 식별자)
+    String subject = nonBlankOr(
+        claims.getSubject(),
+        asString(claims.get("principal"))
+    );
+
+    // role / authorities (문자열, 컬렉션, 배열 등 다양한 형식 대비)
+    String role = extractRole(claims);
+    if (role == null || role.isBlank()) role = "USER";
+
+    // customerCode / tenantCode
+    String customerCode = nonBlankOr(
+        asString(claims.get("customerCode")),
+        asString(claims.get("tenantCode"))
+    );
+
+    // 타입 principal (CustomerCodeResolver 가 리플렉션 없이 바로 읽음)
+    return new JwtPrincipal(null, subject == null ? "" : subject, role, customerCode);
+  }
+
   private static String extractRole(Claims claims) {
     Object r = claims.get("role");
     if (r == null) r = claims.get("authorities");
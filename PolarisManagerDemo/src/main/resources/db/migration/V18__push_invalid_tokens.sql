@@ -0,0 +1,8 @@
+-- 무효 푸시 토큰 기록 (InvalidPushTokenEntity / InvalidTokenStore)
+-- 배포 전 필수 적용 (ddl-auto=validate). 토큰 원문 대신 SHA-256 hex 만 보관
+create table push_invalid_tokens (
+    token_hash varchar(64) not null,
+    created_at datetime(6) not null,
+    reason varchar(32) not null,
+    primary key (token_hash)
+) engine=InnoDB;
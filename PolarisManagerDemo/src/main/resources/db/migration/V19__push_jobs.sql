@@ -0,0 +1,24 @@
+-- 영속 토픽 푸시 작업 큐 (PushJobEntity / PushJobQueue)
+-- 배포 전 필수 적용 (ddl-auto=validate). 점유 쿼리가 for update skip locked 를 쓰므로 MySQL 8.0+ 필요
+create table push_jobs (
+    id bigint not null auto_increment,
+    attempts integer not null,
+    body TEXT,
+    channel_id varchar(64),
+    created_at datetime(6) not null,
+    data_json TEXT,
+    dry_run bit not null,
+    idempotency_key varchar(128) not null,
+    last_error varchar(512),
+    message_id varchar(255),
+    next_attempt_at datetime(6) not null,
+    status enum ('DONE','FAILED','PENDING','RUNNING') not null,
+    title varchar(255),
+    topic varchar(255) not null,
+    updated_at datetime(6) not null,
+    primary key (id),
+    constraint uk_push_jobs_idem unique (idempotency_key)
+) engine=InnoDB;
+
+create index ix_push_jobs_status_next
+    on push_jobs (status, next_attempt_at);
@@ -0,0 +1,9 @@
+-- 클라이언트 이벤트 id (재전송 중복 차단)
+-- 배포 전 필수 적용 (ddl-auto=validate). 이벤트 id 는 SDK 가 고객사별로 발급하므로 유니크 키도 고객사 범위
+alter table security_events
+    add column client_event_id varchar(64),
+    add constraint uk_events_cust_client_id unique (customer_code, client_event_id);
+
+alter table event_logs
+    add column client_event_id varchar(64),
+    add constraint uk_eventlogs_cust_client_id unique (customer_code, client_event_id);
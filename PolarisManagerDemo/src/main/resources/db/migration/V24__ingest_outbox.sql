@@ -0,0 +1,16 @@
+-- 수집 후속 작업 아웃박스 (IngestOutboxEntity / OutboxRelay)
+-- 배포 전 필수 적용 (ddl-auto=validate). 점유 쿼리가 for update skip locked 를 쓰므로 MySQL 8.0+ 필요
+create table ingest_outbox (
+    id bigint not null auto_increment,
+    aggregate_id varchar(128),
+    attempts integer not null,
+    created_at datetime(6) not null,
+    kind varchar(32) not null,
+    last_error varchar(512),
+    next_attempt_at datetime(6) not null,
+    payload_json TEXT,
+    primary key (id)
+) engine=InnoDB;
+
+create index ix_outbox_next
+    on ingest_outbox (next_attempt_at);
@@ -0,0 +1,7 @@
+-- 고객사별 수집 유입 한도 (CustomerEntity / IngestAdmission). null 이면 ingest.admission.* 기본값, 0 이면 제한 없음
+-- 배포 전 필수 적용 (ddl-auto=validate)
+alter table customers
+    add column ingest_rate_per_sec integer,
+    add column ingest_burst integer,
+    add column device_rate_per_min integer,
+    add column device_burst integer;
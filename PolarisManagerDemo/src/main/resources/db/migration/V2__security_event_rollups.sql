@@ -0,0 +1,24 @@
+-- security_events 15분 버킷 사전 집계 (SecurityEventRollupEntity)
+-- 배포 전 필수 적용 (ddl-auto=validate). 기존 원본 데이터를 같은 스크립트에서 backfill 하므로
+-- 적용 직후부터 /api/events/report/daily 가 과거 구간도 채워서 응답한다.
+
+-- PK 선두가 customer_code 라 고객사 + bucket_start 범위 조회가 PK prefix 범위 스캔이 된다.
+create table security_event_rollups (
+    customer_code varchar(64) not null,
+    bucket_start datetime(6) not null,
+    event_type varchar(64) not null,
+    cnt bigint not null,
+    primary key (customer_code, bucket_start, event_type)
+) engine=InnoDB;
+
+-- 15분 버킷 시작 = 시각을 15분 단위로 내림. 모든 타임존 오프셋이 15분의 배수라
+-- 세션 타임존 변환 없이 datetime 값 그대로 잘라도 UTC 기준 버킷과 같은 경계가 된다.
+insert into security_event_rollups (bucket_start, customer_code, event_type, cnt)
+select timestampadd(minute, floor(minute(e.created_at) / 15) * 15, date_format(e.created_at, '%Y-%m-%d %H:00:00')) as bucket_start,
+       e.customer_code,
+       e.event_type,
+       count(*)
+  from security_events e
+ where e.customer_code is not null
+   and e.event_type is not null
+ group by 1, 2, 3;
@@ -0,0 +1,19 @@
+-- 악성앱 패키지/유형 추출 컬럼 + 대시보드 Top-N 인덱스 (SecurityEventEntity)
+-- 배포 전 필수 적용 (ddl-auto=validate)
+
+alter table security_events
+    add column malware_package varchar(255),
+    add column malware_type varchar(128);
+
+create index ix_events_cust_type_date
+    on security_events (customer_code, event_type, created_at);
+
+-- 표준 형식({"malwarePackage": ..., "malwareType": ...}) 으로 저장된 기존 행은 여기서 바로 채움.
+-- 그 밖의 형식(raw 텍스트 등)은 배포 후 POST /api/admin/events/malware/backfill 로 MalwarePayloads 규칙에 따라 채운다
+-- (채워지기 전까지 /api/events/security 는 payload_json 을 파싱해 응답).
+update security_events
+   set malware_package = left(json_unquote(json_extract(payload_json, '$.malwarePackage')), 255),
+       malware_type    = left(json_unquote(json_extract(payload_json, '$.malwareType')), 128)
+ where event_type = 'MALWARES_APP'
+   and json_valid(payload_json)
+   and json_extract(payload_json, '$.malwarePackage') is not null;
@@ -0,0 +1,3 @@
+-- keyset(seek) 페이지네이션 인덱스: (customer_code, created_at, id) 범위 탐색
+create index ix_events_cust_date_id
+    on security_events (customer_code, created_at, id);
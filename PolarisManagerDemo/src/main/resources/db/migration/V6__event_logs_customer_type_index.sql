@@ -0,0 +1,3 @@
+-- 고객사 + 유형별 최근 N건 (EventLogRepository.findRecent) 역방향 범위 스캔용
+create index ix_eventlogs_customer_type_date
+    on event_logs (customer_code, object_type, created_at);
@@ -0,0 +1,32 @@
+-- 고객사 코드 정규형(trim + 소문자, CustomerCodes.normalize) backfill
+-- 조회 쿼리가 upper() 없이 equality 비교하므로, 기존 대소문자 혼용 행도 정규형으로 맞춰야 계속 매칭된다.
+--
+-- 사전 확인: 정규형이 겹치는 고객사가 있으면 PK 충돌로 실패한다. 먼저 아래 결과가 비었는지 확인하고,
+-- 있으면 운영 판단으로 한쪽을 병합/삭제한 뒤 적용.
+--   select lower(trim(code)) c, count(*) from customers group by c having count(*) > 1;
+
+set foreign_key_checks = 0;
+
+update customers              set code          = lower(trim(code))          where binary code          <> binary lower(trim(code));
+update customer_bindings      set customer_code = lower(trim(customer_code)) where binary customer_code <> binary lower(trim(customer_code));
+update customer_contacts      set customer_code = lower(trim(customer_code)) where binary customer_code <> binary lower(trim(customer_code));
+update customer_users         set customer_code = lower(trim(customer_code)) where binary customer_code <> binary lower(trim(customer_code));
+update event_logs             set customer_code = lower(trim(customer_code)) where binary customer_code <> binary lower(trim(customer_code));
+update settlements            set customer_code = lower(trim(customer_code)) where binary customer_code <> binary lower(trim(customer_code));
+update security_events        set customer_code = lower(trim(customer_code)) where binary customer_code <> binary lower(trim(customer_code));
+
+set foreign_key_checks = 1;
+
+-- rollup 은 (customer_code, bucket, event_type) PK 라 대소문자만 다른 행끼리 합쳐야 하므로
+-- 정규화된 원본에서 다시 만든다 (V2 backfill 과 같은 식)
+delete from security_event_rollups;
+
+insert into security_event_rollups (bucket_start, customer_code, event_type, cnt)
+select timestampadd(minute, floor(minute(e.created_at) / 15) * 15, date_format(e.created_at, '%Y-%m-%d %H:00:00')) as bucket_start,
+       e.customer_code,
+       e.event_type,
+       count(*)
+  from security_events e
+ where e.customer_code is not null
+   and e.event_type is not null
+ group by 1, 2, 3;
@@ -48,14 +48,14 @@
     return x.thumbnail || x.thumb || x.image || x.img || '';
   }
 
-  // 외부 이미지를 프록시로 감싸기 (서버에 /img-proxy 구현 필요)
-  function proxify(url) {
+  // 외부 이미지를 프록시로 감싸기 (w 지정 시 서버에서 축소한 썸네일)
+  function proxify(url, w) {
     try {
       if (!url) return url;
       const u = new URL(url, location.origin);
       // 같은 오리진이면 그대로 사용
       if (u.origin === location.origin) return url;
-      return `/img-proxy?u=${encodeURIComponent(u.toString())}`;
+      return `/img-proxy?u=${encodeURIComponent(u.toString())}` + (w ? `&w=${w}` : '');
     } catch {
       return url;
     }
@@ -96,7 +96,7 @@
       card.dataset.id  = x.id || '';
 
       const rawImg = pickThumb(x);
-      const imgUrl = rawImg ? proxify(rawImg) : PLACEHOLDER;
+      const imgUrl = rawImg ? proxify(rawImg, 400) : PLACEHOLDER; // 카드 썸네일 ~200px x 2배 밀도
 
       const cat = esc(x.category || '');
       const date = esc(x.date || x.createTime || '');
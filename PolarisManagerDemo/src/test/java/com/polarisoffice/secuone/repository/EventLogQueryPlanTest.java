@@ -0,0 +1,142 @@
+package com.polarisoffice.secuone.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polarisoffice.secuone.domain.CustomerEntity;
+import com.polarisoffice.secuone.domain.EventLogEntity;
+import com.polarisoffice.secuone.service.EventLogService;
+import com.polarisoffice.secuone.support.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * event_logs 고객사 조회 쿼리 실행계획 회귀 테스트 (H2 EXPLAIN)
+ * - customer_code 에 upper()/lower() 가 다시 씌워지면 인덱스 대신 tableScan 으로 바뀌어 실패
+ * - keyset 목록(findPageByCustomer)은 페이지를 넘겨도 누락/중복 없이 (createdAt, id) 역순
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.polarisoffice.secuone.repository.EventLogQueryPlanTest$Capture"
+})
+@Import({EventLogService.class, ObjectMapper.class})
+class EventLogQueryPlanTest {
+
+  /** Hibernate 가 실행하는 SQL 수집 */
+  public static class Capture implements StatementInspector {
+    static final List<String> SQL = new CopyOnWriteArrayList<>();
+    @Override public String inspect(String sql) { SQL.add(sql); return sql; }
+  }
+
+  @Autowired EventLogRepository repo;
+  @Autowired EventLogService service;
+  @Autowired DataSource dataSource;
+  @Autowired EntityManager em;
+
+  private final Instant from = Instant.parse("2025-01-01T00:00:00Z");
+  private final Instant to   = Instant.parse("2025-02-01T00:00:00Z");
+
+  @BeforeEach
+  void reset() { Capture.SQL.clear(); }
+
+  @Test
+  void repositoryQueriesUseCustomerIndex() throws Exception {
+    repo.findAllByCustomerAndRange("acme", from, to);
+    repo.findByType("acme", from, to, "MALWARES_APP");
+    repo.findRecent("acme", "MALWARES_APP", from, to, PageRequest.ofSize(10));
+    repo.countByType("acme", from, to);
+    assertIndexedPlans(4);
+  }
+
+  @Test
+  void serviceQueriesUseCustomerIndex() throws Exception {
+    service.findPageByCustomer("ACME", null, from, to, null, 20);
+    service.findPageByCustomer("ACME", null, from, to, KeysetCursor.of(from.plusSeconds(60), 10L), 20);
+    service.findRecentByCustomer("ACME", "MALWARES_APP", from, to, 20);
+    service.countByObjectType("ACME", from, to);
+    assertIndexedPlans(4);
+  }
+
+  @Test
+  void keysetPagesWalkAllRowsInOrder() {
+    CustomerEntity acme = new CustomerEntity();
+    acme.setCode("acme");
+    acme.setName("Acme");
+    em.persist(acme);
+    // 같은 createdAt 이 페이지 경계에 걸치도록 2건씩 같은 시각
+    List<Long> expected = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      EventLogEntity e = new EventLogEntity();
+      e.setCustomer(acme);
+      e.setAction("TRACK");
+      e.setCreatedAt(from.plusSeconds(60L * (i / 2)));
+      em.persist(e);
+      expected.add(0, e.getId()); // 삽입 역순 = (createdAt DESC, id DESC)
+    }
+    em.flush();
+    em.clear();
+
+    List<Long> seen = new ArrayList<>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      var page = service.findPageByCustomer("ACME", null, from, to, cursor, 3);
+      page.items().forEach(e -> seen.add(e.getId()));
+      cursor = page.nextCursor();
+      pages++;
+    } while (cursor != null);
+
+    assertThat(seen).containsExactlyElementsOf(expected);
+    assertThat(pages).isEqualTo(3);
+  }
+
+  private void assertIndexedPlans(int atLeast) throws SQLException {
+    List<String> selects = new ArrayList<>();
+    for (String sql : Capture.SQL) {
+      String s = sql.toLowerCase();
+      if (s.startsWith("select") && s.contains("event_logs")) selects.add(sql);
+    }
+    assertThat(selects).hasSizeGreaterThanOrEqualTo(atLeast);
+
+    for (String sql : selects) {
+      String plan = explain(sql).toUpperCase();
+      assertThat(plan).as(sql).doesNotContain("UPPER(").doesNotContain("LOWER(");
+      assertThat(plan).as(plan).contains("IX_EVENTLOGS_CUSTOMER_");
+      assertThat(plan).as(plan).doesNotContain("EVENT_LOGS.TABLESCAN");
+    }
+  }
+
+  /** 파라미터는 타입별 더미 값으로 바인딩 (인덱스 선택은 값과 무관) */
+  private String explain(String sql) throws SQLException {
+    try (Connection c = dataSource.getConnection();
+         PreparedStatement ps = c.prepareStatement("explain " + sql)) {
+      ParameterMetaData md = ps.getParameterMetaData();
+      for (int i = 1; i <= md.getParameterCount(); i++) {
+        switch (md.getParameterType(i)) {
+          case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> ps.setTimestamp(i, Timestamp.from(from));
+          case Types.BIGINT, Types.INTEGER -> ps.setLong(i, 10);
+          default -> ps.setString(i, "acme");
+        }
+      }
+      try (ResultSet rs = ps.executeQuery()) {
+        StringBuilder sb = new StringBuilder();
+        while (rs.next()) sb.append(rs.getString(1)).append('\n');
+        return sb.toString();
+      }
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.polarisoffice.secuone.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * VerifiedTokenCache 테스트
+ * - 두 번째 조회부터 서명 검증 없이 적중 (조회 단위 cached 플래그)
+ * - 철회/위조 토큰 거부, 사용자 단위 무효화
+ */
+class VerifiedTokenCacheTest {
+
+  private static final String SECRET = "0123456789abcdef0123456789abcdef-test-secret";
+
+  private final JwtTokenService jwt = new JwtTokenService(SECRET, 60_000);
+  private final AtomicInteger mapped = new AtomicInteger();
+  private final Function<Claims, JwtPrincipal> mapper = c -> {
+    mapped.incrementAndGet();
+    return new JwtPrincipal(null, c.getSubject(), "ADMIN");
+  };
+
+  @Test
+  void secondLookupIsCacheHit() {
+    var cache = new VerifiedTokenCache(jwt, 100, Duration.ofMinutes(30));
+    String token = jwt.create("alice");
+
+    var first = cache.verify(token, mapper);
+    var second = cache.verify(token, mapper);
+
+    assertThat(first.cached()).isFalse();
+    assertThat(second.cached()).isTrue();
+    assertThat(second.principal().getUsername()).isEqualTo("alice");
+    assertThat(mapped).hasValue(1);
+    assertThat(cache.hits()).isEqualTo(1);
+    assertThat(cache.misses()).isEqualTo(1);
+  }
+
+  @Test
+  void hitFlagIsPerLookupNotGlobal() {
+    var cache = new VerifiedTokenCache(jwt, 100, Duration.ofMinutes(30));
+    String a = jwt.create("alice");
+    String b = jwt.create("bob");
+    cache.verify(a, mapper);
+
+    // 다른 요청의 적중이 끼어들어도 b 의 첫 조회는 검증으로 표시
+    cache.verify(a, mapper);
+    assertThat(cache.verify(b, mapper).cached()).isFalse();
+  }
+
+  @Test
+  void revokedTokenIsRejectedEvenWithValidSignature() {
+    var cache = new VerifiedTokenCache(jwt, 100, Duration.ofMinutes(30));
+    String token = jwt.create("alice");
+    cache.verify(token, mapper);
+
+    cache.revoke(token);
+
+    assertThatThrownBy(() -> cache.verify(token, mapper))
+        .isInstanceOf(VerifiedTokenCache.RevokedTokenException.class);
+  }
+
+  @Test
+  void forgedTokenIsNotCached() {
+    var cache = new VerifiedTokenCache(jwt, 100, Duration.ofMinutes(30));
+    var other = new JwtTokenService("another-secret-another-secret-another-secret", 60_000);
+    String forged = other.create("mallory");
+
+    assertThatThrownBy(() -> cache.verify(forged, mapper)).isInstanceOf(RuntimeException.class);
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void evictSubjectForcesReverification() {
+    var cache = new VerifiedTokenCache(jwt, 100, Duration.ofMinutes(30));
+    String token = jwt.create("alice");
+    cache.verify(token, mapper);
+
+    cache.evictSubject("alice");
+
+    assertThat(cache.verify(token, mapper).cached()).isFalse();
+    assertThat(mapped).hasValue(2);
+  }
+}
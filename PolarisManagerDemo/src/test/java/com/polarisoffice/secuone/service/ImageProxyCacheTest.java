@@ -0,0 +1,127 @@
+package com.polarisoffice.secuone.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ImageProxyCache 디스크 캐시 테스트 (로컬 HttpServer 를 업스트림으로 사용)
+ * - 신선한 항목은 업스트림 없이 디스크에서 응답, 만료 후 304 면 본문 재사용
+ * - 5xx 일 때만 만료 사본 응답, 404 는 사본 폐기 후 상태 전달
+ */
+class ImageProxyCacheTest {
+
+  private static final byte[] BODY = "fake-png-bytes".getBytes(StandardCharsets.UTF_8);
+
+  @TempDir Path dir;
+
+  private HttpServer server;
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicInteger conditional = new AtomicInteger();
+  private volatile int status = 200;
+
+  private ImageProxyCache cache;
+  private URI uri;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/img.png", ex -> {
+      requests.incrementAndGet();
+      String inm = ex.getRequestHeaders().getFirst("If-None-Match");
+      ex.getResponseHeaders().add("ETag", "\"v1\"");
+      ex.getResponseHeaders().add("Content-Type", "image/png");
+      if (status == 200 && "\"v1\"".equals(inm)) {
+        conditional.incrementAndGet();
+        ex.sendResponseHeaders(304, -1);
+      } else if (status == 200) {
+        ex.sendResponseHeaders(200, BODY.length);
+        try (OutputStream os = ex.getResponseBody()) { os.write(BODY); }
+      } else {
+        ex.sendResponseHeaders(status, -1);
+      }
+      ex.close();
+    });
+    server.start();
+    uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/img.png");
+    // 기본 TTL 1초 (Cache-Control 없음), 상한은 생성자 최솟값
+    cache = new ImageProxyCache(dir.toString(), 1, 1, 1, 1024 * 1024, 1_000_000, 1, 200);
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  void freshEntryIsServedFromDisk() throws Exception {
+    assertThat(read(cache.open(uri))).isEqualTo(BODY);
+    assertThat(read(cache.open(uri))).isEqualTo(BODY);
+
+    assertThat(requests).hasValue(1);
+    assertThat(cache.stats()).containsEntry("hits", 1L).containsEntry("fetched", 1L);
+  }
+
+  @Test
+  void expiredEntryIsRevalidatedWithEtag() throws Exception {
+    read(cache.open(uri));
+    Thread.sleep(1100);
+
+    var hit = cache.open(uri);
+
+    assertThat(read(hit)).isEqualTo(BODY);
+    assertThat(conditional).hasValue(1);
+    assertThat(cache.stats()).containsEntry("revalidated", 1L);
+  }
+
+  @Test
+  void upstream5xxServesStaleCopy() throws Exception {
+    read(cache.open(uri));
+    Thread.sleep(1100);
+    status = 503;
+
+    assertThat(read(cache.open(uri))).isEqualTo(BODY);
+    assertThat(cache.stats()).containsEntry("staleServed", 1L);
+  }
+
+  @Test
+  void upstream404DropsCopyAndPassesStatusThrough() throws Exception {
+    read(cache.open(uri));
+    Thread.sleep(1100);
+    status = 404;
+
+    assertThatThrownBy(() -> cache.open(uri))
+        .isInstanceOfSatisfying(ImageProxyCache.UpstreamException.class, e -> assertThat(e.status()).isEqualTo(404));
+    assertThat(cache.stats()).containsEntry("staleServed", 0L).containsEntry("entries", 0);
+  }
+
+  @Test
+  void nonStandardStatusIsReportedAsIs() {
+    status = 499;
+
+    assertThatThrownBy(() -> cache.open(uri))
+        .isInstanceOfSatisfying(ImageProxyCache.UpstreamException.class, e -> assertThat(e.status()).isEqualTo(499));
+  }
+
+  private static byte[] read(ImageProxyCache.Hit hit) throws IOException {
+    try (var ch = hit.channel()) {
+      ByteBuffer buf = ByteBuffer.allocate((int) ch.size());
+      while (buf.hasRemaining() && ch.read(buf) >= 0) { }
+      return buf.array();
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package com.polarisoffice.secuone.service;
+
+import com.polarisoffice.secuone.service.IngestAdmission.Verdict;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IngestAdmission 테스트 (시각을 직접 넘겨 GCRA 판정을 결정적으로 확인)
+ * - 고객사 버킷: burst 만큼 즉시 허용 후 interval 마다 1건 회복, burst 0 = 제한 없음
+ * - 디바이스 한도가 고객사 한도보다 먼저 적용
+ * - 미식별 요청은 별도 정책 (기본: 디바이스 한도만)
+ * - 디바이스 상한은 고객사별, idle 버킷 제거
+ */
+class IngestAdmissionTest {
+
+  private static final long MS = 1_000_000L;
+
+  private final long t0 = System.nanoTime();
+
+  private static IngestAdmission admission(int tenantRate, int tenantBurst, int deviceRatePerMin, int deviceBurst,
+                                           int anonymousRate, int anonymousBurst, int maxDevicesPerTenant) {
+    return new IngestAdmission(null, true, tenantRate, tenantBurst, deviceRatePerMin, deviceBurst,
+        anonymousRate, anonymousBurst, 4, 1, maxDevicesPerTenant, 60);
+  }
+
+  @Test
+  void tenantBurstThenRefill() {
+    var a = admission(10, 5, 0, 0, 0, 0, 100);
+
+    for (int i = 0; i < 5; i++) assertThat(a.admit("acme", null, t0)).isEqualTo(Verdict.OK);
+    assertThat(a.admit("acme", null, t0)).isEqualTo(Verdict.TENANT_LIMITED);
+
+    // 10/s → 100ms 마다 1건 회복
+    assertThat(a.admit("acme", null, t0 + 100 * MS)).isEqualTo(Verdict.OK);
+    assertThat(a.admit("acme", null, t0 + 100 * MS)).isEqualTo(Verdict.TENANT_LIMITED);
+    // 다른 고객사는 영향 없음
+    assertThat(a.admit("other", null, t0)).isEqualTo(Verdict.OK);
+  }
+
+  @Test
+  void zeroBurstMeansUnlimited() {
+    var a = admission(10, 0, 60, 0, 0, 0, 100);
+
+    for (int i = 0; i < 1000; i++) assertThat(a.admit("acme", "d1", t0)).isEqualTo(Verdict.OK);
+  }
+
+  @Test
+  void deviceLimitAppliesBeforeTenantLimit() {
+    var a = admission(1000, 1000, 60, 2, 0, 0, 100);
+
+    assertThat(a.admit("acme", "d1", t0)).isEqualTo(Verdict.OK);
+    assertThat(a.admit("acme", "d1", t0)).isEqualTo(Verdict.OK);
+    assertThat(a.admit("acme", "d1", t0)).isEqualTo(Verdict.DEVICE_LIMITED);
+    assertThat(a.admit("acme", "d2", t0)).isEqualTo(Verdict.OK);
+    // 60/min → 1초 후 1건 회복
+    assertThat(a.admit("acme", "d1", t0 + 1000 * MS)).isEqualTo(Verdict.OK);
+    assertThat(a.stats()).containsEntry("deviceRejected", 1L).containsEntry("tenantRejected", 0L);
+  }
+
+  @Test
+  void anonymousTrafficHasNoSharedTenantBucketByDefault() {
+    var a = admission(10, 5, 60, 2, 0, 0, 100);
+
+    // 고객사 기본 한도(burst 5)를 넘어도 미식별 요청은 디바이스 한도만 적용
+    for (int i = 0; i < 100; i++) assertThat(a.admit(null, "dev-" + i, t0)).isEqualTo(Verdict.OK);
+    assertThat(a.admit(null, null, t0)).isEqualTo(Verdict.OK);
+    assertThat(a.admit(null, "dev-0", t0)).isEqualTo(Verdict.OK);
+    assertThat(a.admit(null, "dev-0", t0)).isEqualTo(Verdict.DEVICE_LIMITED);
+  }
+
+  @Test
+  void anonymousPolicyIsConfiguredSeparately() {
+    var a = admission(10, 5, 0, 0, 1, 2, 100);
+
+    assertThat(a.admit(null, null, t0)).isEqualTo(Verdict.OK);
+    assertThat(a.admit(null, null, t0)).isEqualTo(Verdict.OK);
+    assertThat(a.admit(null, null, t0)).isEqualTo(Verdict.TENANT_LIMITED);
+    // 고객사 버킷은 별개
+    for (int i = 0; i < 5; i++) assertThat(a.admit("acme", null, t0)).isEqualTo(Verdict.OK);
+  }
+
+  @Test
+  void deviceCapIsPerTenant() {
+    var a = admission(1000, 1000, 60, 1, 0, 0, 2);
+
+    assertThat(a.admit("a", "d1", t0)).isEqualTo(Verdict.OK);
+    assertThat(a.admit("a", "d2", t0)).isEqualTo(Verdict.OK);
+    // 고객사 a 는 상한 도달: 새 디바이스는 고객사 한도만 적용
+    assertThat(a.admit("a", "d3", t0)).isEqualTo(Verdict.OK);
+    assertThat(a.admit("a", "d3", t0)).isEqualTo(Verdict.OK);
+    // 고객사 b 는 자기 상한으로 디바이스 버킷 생성
+    assertThat(a.admit("b", "d1", t0)).isEqualTo(Verdict.OK);
+    assertThat(a.admit("b", "d1", t0)).isEqualTo(Verdict.DEVICE_LIMITED);
+    assertThat(a.stats()).containsEntry("devices", 3);
+  }
+
+  @Test
+  void overflowDevicesShareBucketWhenTenantIsUnlimited() {
+    var a = admission(1000, 1000, 60, 1, 0, 0, 1);
+
+    assertThat(a.admit(null, "d1", t0)).isEqualTo(Verdict.OK);
+    assertThat(a.admit(null, "d2", t0)).isEqualTo(Verdict.OK);
+    assertThat(a.admit(null, "d3", t0)).isEqualTo(Verdict.DEVICE_LIMITED);
+  }
+
+  @Test
+  void idleDevicesAreEvicted() {
+    var a = admission(1000, 1000, 60, 1, 0, 0, 2);
+    a.admit("a", "d1", t0);
+    a.admit("a", "d2", t0);
+
+    // 아직 idle 시간(1초) 전
+    a.evictIdle(t0 + 500 * MS);
+    assertThat(a.stats()).containsEntry("devices", 2).containsEntry("evicted", 0L);
+
+    a.evictIdle(t0 + 3000 * MS);
+    assertThat(a.stats()).containsEntry("devices", 0).containsEntry("evicted", 2L);
+
+    // 자리가 비면 새 디바이스 버킷을 다시 만듦
+    long t1 = t0 + 3000 * MS;
+    assertThat(a.admit("a", "d3", t1)).isEqualTo(Verdict.OK);
+    assertThat(a.admit("a", "d3", t1)).isEqualTo(Verdict.DEVICE_LIMITED);
+  }
+}
@@ -0,0 +1,62 @@
+package com.polarisoffice.secuone.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IngestDedup 테스트
+ * - 창 안 재전송 차단, forget 후 재수락
+ * - 2세대 교체: 최소 window/2 동안 기억, window 가 지나면 잊음
+ * - 세대 상한 도달 시 앞당겨 교체 (메모리 상한)
+ */
+class IngestDedupTest {
+
+  @Test
+  void repeatedKeyIsDuplicateWithinWindow() {
+    var d = new IngestDedup(600, 1000);
+
+    assertThat(d.firstSeen("sec:acme:e1")).isTrue();
+    assertThat(d.firstSeen("sec:acme:e1")).isFalse();
+    assertThat(d.firstSeen("sec:other:e1")).isTrue(); // 다른 고객사의 같은 id
+    assertThat(d.stats()).containsEntry("duplicates", 1L);
+  }
+
+  @Test
+  void forgottenKeyIsAcceptedAgain() {
+    var d = new IngestDedup(600, 1000);
+    d.firstSeen("trk:acme:e1");
+
+    d.forget("trk:acme:e1");
+
+    assertThat(d.firstSeen("trk:acme:e1")).isTrue();
+  }
+
+  @Test
+  void keySurvivesOneRotationAndExpiresAfterTwo() throws Exception {
+    var d = new IngestDedup(1, 1000); // 0.5초마다 세대 교체
+    d.firstSeen("k");
+
+    Thread.sleep(600);
+    assertThat(d.firstSeen("k")).as("직전 세대에서 확인").isFalse();
+
+    Thread.sleep(600);
+    d.firstSeen("other"); // 교체 유발 (k 가 있던 세대가 밀려남)
+    Thread.sleep(600);
+    assertThat(d.firstSeen("k")).isTrue();
+  }
+
+  @Test
+  void fullGenerationRotatesEarly() {
+    var d = new IngestDedup(600, 1000);
+    for (int i = 0; i < 1000; i++) d.firstSeen("k" + i);
+
+    d.firstSeen("next"); // 현재 세대 가득 참 → 교체, k* 는 직전 세대
+    assertThat(d.stats()).containsEntry("current", 1).containsEntry("previous", 1000);
+    assertThat(d.firstSeen("k0")).isFalse();
+
+    for (int i = 0; i < 999; i++) d.firstSeen("m" + i);
+    d.firstSeen("last"); // 다시 교체 → k* 세대 폐기
+    assertThat(d.firstSeen("k0")).isTrue();
+  }
+}
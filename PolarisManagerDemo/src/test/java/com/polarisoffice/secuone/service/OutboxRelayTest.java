@@ -0,0 +1,166 @@
+package com.polarisoffice.secuone.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polarisoffice.secuone.service.DirectAdCounterService.Tracked;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * OutboxRelay 테스트 (H2 MySQL 모드, Firestore 카운터는 스텁)
+ * - 카운터 커밋이 끝난 뒤에만 아웃박스 행 삭제
+ * - 일시 오류 광고만 재예약 / 재시도 소진 시 삭제
+ * - 해석 불가 행은 카운터를 호출하지 않고 삭제
+ * - 점유 만료된 행 재점유
+ */
+class OutboxRelayTest {
+
+  /** failures 에 넣은 결과(실패 광고 id 집합 또는 예외)를 순서대로 돌려주고, 비면 전부 성공 */
+  static class StubCounters extends DirectAdCounterService {
+    final Queue<Object> failures = new ConcurrentLinkedQueue<>();
+    final Queue<Tracked> applied = new ConcurrentLinkedQueue<>();
+    volatile CountDownLatch gate;
+
+    StubCounters() { super(null, null, 1000, 10, 300, 0, "target/counter-spill"); }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<String> applyNow(List<Tracked> events) throws Exception {
+      CountDownLatch g = gate;
+      if (g != null) g.await(5, TimeUnit.SECONDS);
+      Object r = failures.poll();
+      if (r instanceof Exception e) throw e;
+      Set<String> failed = r == null ? Set.of() : (Set<String>) r;
+      for (Tracked t : events) if (!failed.contains(t.adId())) applied.add(t);
+      return failed;
+    }
+  }
+
+  private JdbcTemplate jdbc;
+  private TransactionTemplate tx;
+  private final StubCounters counters = new StubCounters();
+  private OutboxRelay relay;
+
+  @BeforeEach
+  void setUp() {
+    var ds = new DriverManagerDataSource(
+        "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    jdbc = new JdbcTemplate(ds);
+    tx = new TransactionTemplate(new DataSourceTransactionManager(ds));
+    jdbc.execute("""
+        create table ingest_outbox (
+          id bigint auto_increment primary key, kind varchar(32) not null, aggregate_id varchar(128),
+          payload_json text, attempts int not null, next_attempt_at timestamp not null,
+          last_error varchar(512), created_at timestamp not null)
+        """);
+    // 재시도 간격 0초 2회 → 최대 3회 시도
+    relay = new OutboxRelay(jdbc, tx, counters, new ObjectMapper(), 10, 50, 60, new long[]{0, 0});
+  }
+
+  @AfterEach
+  void tearDown() {
+    CountDownLatch g = counters.gate;
+    if (g != null) g.countDown();
+    relay.stop();
+  }
+
+  private void append(String kind, String adId, String payload) {
+    tx.executeWithoutResult(s -> relay.append(kind, adId, payload, Instant.now()));
+  }
+
+  private static void await(BooleanSupplier cond) throws InterruptedException {
+    long until = System.currentTimeMillis() + 5000;
+    while (!cond.getAsBoolean()) {
+      assertThat(System.currentTimeMillis()).as("timed out").isLessThan(until);
+      Thread.sleep(20);
+    }
+  }
+
+  @Test
+  void rowIsDeletedOnlyAfterCounterCommit() throws Exception {
+    counters.gate = new CountDownLatch(1);
+    append(OutboxRelay.DIRECT_AD_IMPRESSION, "ad-1", "{\"placement\":\"home\"}");
+    append(OutboxRelay.DIRECT_AD_CLICK, "ad-1", null);
+    relay.start();
+
+    // 카운터 기록이 끝나지 않았으면 행이 남아 있어야 함
+    Thread.sleep(300);
+    assertThat(relay.pending()).isEqualTo(2);
+
+    counters.gate.countDown();
+    await(() -> relay.pending() == 0);
+    assertThat(counters.applied).extracting(Tracked::click).containsExactlyInAnyOrder(false, true);
+    assertThat(counters.applied).extracting(t -> t.req().placement).contains("home");
+    assertThat(relay.droppedCount()).isZero();
+  }
+
+  @Test
+  void onlyFailedAdIsRescheduled() throws Exception {
+    counters.failures.add(Set.of("ad-2"));
+    append(OutboxRelay.DIRECT_AD_IMPRESSION, "ad-1", null);
+    append(OutboxRelay.DIRECT_AD_IMPRESSION, "ad-2", null);
+    relay.start();
+
+    await(() -> relay.pending() == 0);
+    assertThat(counters.applied).extracting(Tracked::adId).containsExactlyInAnyOrder("ad-1", "ad-2");
+    assertThat(relay.retriedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void exhaustedRetriesAreDropped() throws Exception {
+    for (int i = 0; i < 5; i++) counters.failures.add(new IllegalStateException("unavailable"));
+    append(OutboxRelay.DIRECT_AD_CLICK, "ad-3", null);
+    relay.start();
+
+    await(() -> relay.pending() == 0);
+    assertThat(relay.droppedCount()).isEqualTo(1);
+    assertThat(relay.retriedCount()).isEqualTo(2);
+    assertThat(counters.applied).isEmpty();
+  }
+
+  @Test
+  void unparseableRowIsDroppedWithoutCounterWrite() throws Exception {
+    append("UNKNOWN", "ad-4", null);
+    append(OutboxRelay.DIRECT_AD_CLICK, "ad-4", "{not json");
+    relay.start();
+
+    await(() -> relay.pending() == 0);
+    assertThat(relay.droppedCount()).isEqualTo(2);
+    assertThat(counters.applied).isEmpty();
+  }
+
+  @Test
+  void expiredLeaseIsReclaimed() throws Exception {
+    // 처리 중 죽은 인스턴스가 남긴 행 (점유 만료 시각이 지남)
+    Timestamp past = Timestamp.from(Instant.now().minusSeconds(60).truncatedTo(ChronoUnit.SECONDS));
+    jdbc.update("""
+        insert into ingest_outbox (kind, aggregate_id, attempts, next_attempt_at, created_at)
+        values (?, 'ad-5', 1, ?, ?)
+        """, OutboxRelay.DIRECT_AD_IMPRESSION, past, past);
+    relay.start();
+
+    await(() -> relay.pending() == 0);
+    assertThat(counters.applied).singleElement().satisfies(t -> {
+      assertThat(t.adId()).isEqualTo("ad-5");
+      assertThat(t.at()).isEqualTo(past.toInstant());
+    });
+  }
+}
@@ -0,0 +1,244 @@
+package com.polarisoffice.secuone.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.firebase.messaging.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * PushDispatcher 테스트 (무효 토큰 저장소는 H2 MySQL 모드, FCM 은 주입한 스텁 sender)
+ * - 중복/공백 제거 후 500개 청크 분할
+ * - 동시 진행 청크 수 상한
+ * - UNAVAILABLE / INTERNAL 토큰만 재시도
+ * - UNREGISTERED 기록 → 다음 발송에서 제외, 저장소 조회 실패 시 전부 발송
+ */
+class PushDispatcherTest {
+
+  /** 응답 코드를 정하는 함수로 청크마다 BatchResponse 생성 (null = 성공) */
+  static class StubSender implements Function<MulticastMessage, ApiFuture<BatchResponse>> {
+    final Map<MulticastMessage, List<String>> tokensOf = Collections.synchronizedMap(new IdentityHashMap<>());
+    final List<List<String>> calls = new CopyOnWriteArrayList<>();
+    volatile Function<String, MessagingErrorCode> codeFor = t -> null;
+
+    MulticastMessage message(List<String> tokens) {
+      MulticastMessage m = MulticastMessage.builder().addAllTokens(tokens).putData("k", "v").build();
+      tokensOf.put(m, tokens);
+      return m;
+    }
+
+    @Override
+    public ApiFuture<BatchResponse> apply(MulticastMessage m) {
+      List<String> tokens = tokensOf.remove(m);
+      calls.add(tokens);
+      return ApiFutures.immediateFuture(respond(tokens));
+    }
+
+    BatchResponse respond(List<String> tokens) {
+      List<SendResponse> rs = new ArrayList<>(tokens.size());
+      for (String t : tokens) rs.add(response(codeFor.apply(t)));
+      return new Batch(rs);
+    }
+  }
+
+  record Batch(List<SendResponse> getResponses) implements BatchResponse {
+    @Override public int getSuccessCount() { return (int) getResponses.stream().filter(SendResponse::isSuccessful).count(); }
+    @Override public int getFailureCount() { return getResponses.size() - getSuccessCount(); }
+  }
+
+  private static final SendResponse OK = mockResponse(null);
+  private static final Map<MessagingErrorCode, SendResponse> FAILED = new ConcurrentHashMap<>();
+
+  static SendResponse response(MessagingErrorCode code) {
+    return code == null ? OK : FAILED.computeIfAbsent(code, PushDispatcherTest::mockResponse);
+  }
+
+  /** SendResponse / FirebaseMessagingException 은 final + 패키지 전용 생성자라 mock 사용 */
+  private static SendResponse mockResponse(MessagingErrorCode code) {
+    SendResponse r = mock(SendResponse.class);
+    when(r.isSuccessful()).thenReturn(code == null);
+    if (code != null) {
+      FirebaseMessagingException e = mock(FirebaseMessagingException.class);
+      when(e.getMessagingErrorCode()).thenReturn(code);
+      when(r.getException()).thenReturn(e);
+    }
+    return r;
+  }
+
+  private JdbcTemplate jdbc;
+  private InvalidTokenStore store;
+  private final StubSender sender = new StubSender();
+  private PushDispatcher dispatcher;
+
+  @BeforeEach
+  void setUp() {
+    var ds = new DriverManagerDataSource(
+        "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    jdbc = new JdbcTemplate(ds);
+    jdbc.execute("""
+        create table push_invalid_tokens (
+          token_hash varchar(64) not null primary key, created_at timestamp not null, reason varchar(32) not null)
+        """);
+    store = new InvalidTokenStore(jdbc);
+    // 동시 2청크, 재시도 2회, 백오프 최소값(10ms)
+    dispatcher = new PushDispatcher(store, sender, 2, 2, 10, 20);
+  }
+
+  @AfterEach
+  void tearDown() {
+    dispatcher.destroy();
+  }
+
+  private static void await(BooleanSupplier cond) throws InterruptedException {
+    long until = System.currentTimeMillis() + 5000;
+    while (!cond.getAsBoolean()) {
+      assertThat(System.currentTimeMillis()).as("timed out").isLessThan(until);
+      Thread.sleep(20);
+    }
+  }
+
+  private static List<String> tokens(int n) {
+    List<String> out = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) out.add("tok-" + i);
+    return out;
+  }
+
+  @Test
+  void dedupsAndSplitsIntoChunksOf500() {
+    List<String> in = new ArrayList<>(tokens(1203));
+    in.addAll(tokens(10));
+    in.add(" ");
+    in.add(null);
+
+    PushDispatcher.Result res = dispatcher.send(in, sender::message);
+
+    assertThat(sender.calls).extracting(List::size).containsExactly(500, 500, 203);
+    assertThat(sender.calls.stream().flatMap(List::stream)).containsExactlyElementsOf(tokens(1203));
+    assertThat(res.requested()).isEqualTo(1203);
+    assertThat(res.success()).isEqualTo(1203);
+    assertThat(res.failure()).isZero();
+  }
+
+  @Test
+  void capsChunksInFlight() throws Exception {
+    // 응답은 테스트가 직접 완료할 때까지 보류
+    BlockingQueue<Runnable> pending = new LinkedBlockingQueue<>();
+    AtomicInteger outstanding = new AtomicInteger(), maxOutstanding = new AtomicInteger(), calls = new AtomicInteger();
+    var held = new PushDispatcher(store, m -> {
+      calls.incrementAndGet();
+      maxOutstanding.accumulateAndGet(outstanding.incrementAndGet(), Math::max);
+      List<String> tokens = sender.tokensOf.remove(m);
+      SettableApiFuture<BatchResponse> f = SettableApiFuture.create();
+      pending.add(() -> {
+        outstanding.decrementAndGet();
+        f.set(sender.respond(tokens));
+      });
+      return f;
+    }, 2, 0, 10, 20);
+    try {
+      CompletableFuture<PushDispatcher.Result> res =
+          CompletableFuture.supplyAsync(() -> held.send(tokens(2100), sender::message));
+
+      await(() -> calls.get() == 2);
+      Thread.sleep(100);
+      assertThat(calls.get()).isEqualTo(2);
+
+      while (!res.isDone()) {
+        Runnable complete = pending.poll(100, TimeUnit.MILLISECONDS);
+        if (complete != null) complete.run();
+      }
+      assertThat(calls.get()).isEqualTo(5);
+      assertThat(maxOutstanding.get()).isEqualTo(2);
+      assertThat(res.get().success()).isEqualTo(2100);
+    } finally {
+      held.destroy();
+    }
+  }
+
+  @Test
+  void retriesOnlyUnavailableAndInternalTokens() {
+    Map<String, MessagingErrorCode> first = Map.of(
+        "t1", MessagingErrorCode.UNAVAILABLE,
+        "t2", MessagingErrorCode.INTERNAL,
+        "t3", MessagingErrorCode.QUOTA_EXCEEDED,
+        "t4", MessagingErrorCode.SENDER_ID_MISMATCH);
+    // 첫 호출에서만 실패, 재시도는 성공
+    sender.codeFor = t -> sender.calls.size() == 1 ? first.get(t) : null;
+
+    PushDispatcher.Result res = dispatcher.send(List.of("t0", "t1", "t2", "t3", "t4"), sender::message);
+
+    assertThat(sender.calls).containsExactly(List.of("t0", "t1", "t2", "t3", "t4"), List.of("t1", "t2"));
+    assertThat(res.retried()).isEqualTo(2);
+    assertThat(res.success()).isEqualTo(3);
+    assertThat(res.failure()).isEqualTo(2);
+    assertThat(res.invalidTokens()).isEmpty();
+  }
+
+  @Test
+  void givesUpAfterMaxRetries() {
+    sender.codeFor = t -> MessagingErrorCode.UNAVAILABLE;
+
+    PushDispatcher.Result res = dispatcher.send(List.of("a", "b"), sender::message);
+
+    assertThat(sender.calls).hasSize(3);
+    assertThat(res.retried()).isEqualTo(4);
+    assertThat(res.failure()).isEqualTo(2);
+  }
+
+  @Test
+  void prunesUnregisteredTokensOnNextSend() {
+    sender.codeFor = t -> "c".equals(t) ? MessagingErrorCode.UNREGISTERED : null;
+
+    PushDispatcher.Result first = dispatcher.send(List.of("a", "b", "c"), sender::message);
+    assertThat(first.invalidTokens()).containsExactly("c");
+    assertThat(jdbc.queryForObject("select reason from push_invalid_tokens", String.class)).isEqualTo("UNREGISTERED");
+
+    sender.calls.clear();
+    PushDispatcher.Result second = dispatcher.send(List.of("a", "b", "c"), sender::message);
+    assertThat(sender.calls).containsExactly(List.of("a", "b"));
+    assertThat(second.skipped()).isEqualTo(1);
+    assertThat(second.success()).isEqualTo(2);
+  }
+
+  @Test
+  void storeLookupFailureSendsAllAndStillRecords() {
+    AtomicInteger recorded = new AtomicInteger();
+    var failingStore = new InvalidTokenStore(jdbc) {
+      @Override
+      public List<String> filterValid(List<String> tokens) {
+        throw new IllegalStateException("db down");
+      }
+
+      @Override
+      public void record(Map<String, String> invalid) {
+        recorded.addAndGet(invalid.size());
+      }
+    };
+    var d = new PushDispatcher(failingStore, sender, 2, 0, 10, 20);
+    sender.codeFor = t -> "b".equals(t) ? MessagingErrorCode.UNREGISTERED : null;
+    try {
+      PushDispatcher.Result res = d.send(List.of("a", "b", "c"), sender::message);
+
+      assertThat(sender.calls).containsExactly(List.of("a", "b", "c"));
+      assertThat(res.skipped()).isZero();
+      assertThat(res.success()).isEqualTo(2);
+      assertThat(recorded.get()).isEqualTo(1);
+    } finally {
+      d.destroy();
+    }
+  }
+}
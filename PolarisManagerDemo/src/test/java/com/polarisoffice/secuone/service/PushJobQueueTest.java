@@ -0,0 +1,190 @@
+package com.polarisoffice.secuone.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polarisoffice.secuone.util.FcmGateway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PushJobQueue 테스트 (H2 MySQL 모드, FCM 은 스텁 게이트웨이)
+ * - 멱등 키 중복 적재 방지
+ * - 일시 오류 재시도 / 영구 오류 FAILED / 수동 retry
+ * - 점유 만료된 RUNNING 작업 재점유, 재점유된 작업에 이전 점유자의 결과 기록 안 함
+ */
+class PushJobQueueTest {
+
+  /** failures 에 넣은 예외를 순서대로 던지고, 비면 성공. hold 가 있으면 열릴 때까지 대기 */
+  static class StubGateway extends FcmGateway {
+    final Queue<RuntimeException> failures = new ConcurrentLinkedQueue<>();
+    final AtomicInteger calls = new AtomicInteger();
+    volatile CountDownLatch hold;
+
+    @Override
+    public String sendToTopic(String topic, String title, String body, String androidChannelId,
+                              Map<String, String> data, boolean dryRun) {
+      calls.incrementAndGet();
+      CountDownLatch h = hold;
+      if (h != null) {
+        try {
+          h.await();
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      RuntimeException e = failures.poll();
+      if (e != null) throw e;
+      return "msg-" + topic;
+    }
+  }
+
+  private JdbcTemplate jdbc;
+  private TransactionTemplate tx;
+  private final StubGateway fcm = new StubGateway();
+  private PushJobQueue queue;
+
+  @BeforeEach
+  void setUp() {
+    var ds = new DriverManagerDataSource(
+        "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    jdbc = new JdbcTemplate(ds);
+    tx = new TransactionTemplate(new DataSourceTransactionManager(ds));
+    jdbc.execute("""
+        create table push_jobs (
+          id bigint auto_increment primary key, idempotency_key varchar(128) not null, topic varchar(255) not null,
+          channel_id varchar(64), title varchar(255), body text, data_json text, dry_run boolean not null,
+          status varchar(16) not null, attempts int not null, next_attempt_at timestamp not null,
+          message_id varchar(255), last_error varchar(512), created_at timestamp not null, updated_at timestamp not null,
+          constraint uk_push_jobs_idem unique (idempotency_key))
+        """);
+    // 재시도 간격 0초 2회 → 최대 3회 시도
+    queue = new PushJobQueue(jdbc, tx, fcm, new ObjectMapper(), 2, 10, 100, 10, new long[]{0, 0});
+  }
+
+  @AfterEach
+  void tearDown() {
+    queue.stop();
+  }
+
+  private String status(long id) {
+    return jdbc.queryForObject("select status from push_jobs where id = ?", String.class, id);
+  }
+
+  private int attempts(long id) {
+    return jdbc.queryForObject("select attempts from push_jobs where id = ?", Integer.class, id);
+  }
+
+  private static void await(BooleanSupplier cond) throws InterruptedException {
+    long until = System.currentTimeMillis() + 5000;
+    while (!cond.getAsBoolean()) {
+      assertThat(System.currentTimeMillis()).as("timed out").isLessThan(until);
+      Thread.sleep(20);
+    }
+  }
+
+  @Test
+  void sameIdempotencyKeyIsEnqueuedOnce() {
+    var a = queue.enqueueTopic("notice:1", "all", null, "t", "b", Map.of("k", "v"), false);
+    var b = queue.enqueueTopic("notice:1", "all", null, "t", "b", Map.of("k", "v"), false);
+
+    assertThat(a.created()).isTrue();
+    assertThat(b.created()).isFalse();
+    assertThat(b.id()).isEqualTo(a.id());
+    assertThat(jdbc.queryForObject("select count(*) from push_jobs", Long.class)).isEqualTo(1);
+  }
+
+  @Test
+  void workerDeliversPendingJob() throws Exception {
+    queue.start();
+    long id = queue.enqueueTopic("notice:2", "news", "ch", "t", "b", null, false).id();
+
+    await(() -> "DONE".equals(status(id)));
+    assertThat(jdbc.queryForObject("select message_id from push_jobs where id = ?", String.class, id)).isEqualTo("msg-news");
+    assertThat(fcm.calls).hasValue(1);
+  }
+
+  @Test
+  void transientFailureIsRetried() throws Exception {
+    fcm.failures.add(new IllegalStateException("unavailable"));
+    queue.start();
+    long id = queue.enqueueTopic("notice:3", "news", null, "t", "b", null, false).id();
+
+    await(() -> "DONE".equals(status(id)));
+    assertThat(attempts(id)).isEqualTo(2);
+  }
+
+  @Test
+  void permanentFailureStopsAndCanBeRetriedManually() throws Exception {
+    fcm.failures.add(new IllegalArgumentException("bad topic"));
+    queue.start();
+    long id = queue.enqueueTopic("notice:4", "news", null, "t", "b", null, false).id();
+
+    await(() -> "FAILED".equals(status(id)));
+    assertThat(fcm.calls).hasValue(1);
+    assertThat(jdbc.queryForObject("select last_error from push_jobs where id = ?", String.class, id)).contains("bad topic");
+
+    assertThat(queue.retry(id)).isTrue();
+    await(() -> "DONE".equals(status(id)));
+  }
+
+  @Test
+  void exhaustedRetriesEndFailed() throws Exception {
+    for (int i = 0; i < 5; i++) fcm.failures.add(new IllegalStateException("unavailable"));
+    queue.start();
+    long id = queue.enqueueTopic("notice:5", "news", null, "t", "b", null, false).id();
+
+    await(() -> "FAILED".equals(status(id)));
+    assertThat(attempts(id)).isEqualTo(queue.maxAttempts());
+    assertThat(fcm.calls).hasValue(queue.maxAttempts());
+  }
+
+  @Test
+  void expiredLeaseIsReclaimed() throws Exception {
+    // 처리 중 죽은 워커가 남긴 RUNNING 행 (점유 만료 시각이 지남)
+    Timestamp past = Timestamp.from(Instant.now().minusSeconds(60));
+    jdbc.update("""
+        insert into push_jobs (idempotency_key, topic, dry_run, status, attempts, next_attempt_at, created_at, updated_at)
+        values ('notice:6', 'news', false, 'RUNNING', 1, ?, ?, ?)
+        """, past, past, past);
+    long id = jdbc.queryForObject("select id from push_jobs where idempotency_key = 'notice:6'", Long.class);
+
+    queue.start();
+
+    await(() -> "DONE".equals(status(id)));
+    assertThat(attempts(id)).isEqualTo(2);
+  }
+
+  @Test
+  void staleLeaseHolderCannotFinish() throws Exception {
+    fcm.hold = new CountDownLatch(1);
+    long id = queue.enqueueTopic("notice:7", "news", null, "t", "b", null, false).id();
+    queue.start();
+    await(() -> fcm.calls.get() == 1);
+
+    // 발송 중 점유 만료 → 다른 인스턴스가 재점유한 상태 (attempts 2, 새 점유 만료 시각)
+    Timestamp lease = Timestamp.from(Instant.now().plusSeconds(60));
+    jdbc.update("update push_jobs set attempts = 2, next_attempt_at = ? where id = ?", lease, id);
+    fcm.hold.countDown();
+
+    await(() -> queue.busyWorkers() == 0);
+    assertThat(status(id)).isEqualTo("RUNNING");
+    assertThat(attempts(id)).isEqualTo(2);
+    assertThat(jdbc.queryForObject("select message_id from push_jobs where id = ?", String.class, id)).isNull();
+  }
+}
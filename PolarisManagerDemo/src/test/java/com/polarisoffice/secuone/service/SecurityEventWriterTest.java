@@ -0,0 +1,147 @@
+package com.polarisoffice.secuone.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polarisoffice.secuone.domain.SecurityEventEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SecurityEventWriter 적재 보장 테스트 (H2 MySQL 모드)
+ * - DB 장애 중 접수된 이벤트는 복구 후 적재 (유실 없음)
+ * - 데이터 오류 행만 버림
+ * - 종료 시점까지 미복구분은 spill 후 다음 기동에서 재적재
+ */
+class SecurityEventWriterTest {
+
+  @TempDir Path spillDir;
+
+  private JdbcTemplate jdbc;
+  private TransactionTemplate tx;
+  private SecurityEventWriter writer;
+
+  @BeforeEach
+  void setUp() {
+    var ds = new DriverManagerDataSource(
+        "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    jdbc = new JdbcTemplate(ds);
+    tx = new TransactionTemplate(new DataSourceTransactionManager(ds));
+    jdbc.execute("""
+        create table security_events (
+          id bigint auto_increment primary key, customer_code varchar(64) not null, device_id varchar(16),
+          event_type varchar(64), source_package varchar(255), source_domain varchar(255), payload_json text,
+          malware_package varchar(255), malware_type varchar(128), client_event_id varchar(64),
+          created_at timestamp not null, constraint uk_events_cust_client_id unique (customer_code, client_event_id))
+        """);
+    jdbc.execute("""
+        create table security_event_rollups (
+          customer_code varchar(64) not null, bucket_start timestamp not null, event_type varchar(64) not null,
+          cnt bigint not null, primary key (customer_code, bucket_start, event_type))
+        """);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (writer != null) writer.stop();
+  }
+
+  private SecurityEventWriter newWriter() {
+    var w = new SecurityEventWriter(jdbc, tx, new SecurityEventRollupService(null, jdbc, tx),
+        new ObjectMapper().findAndRegisterModules(), 1000, 50, 10, 20, 100, spillDir.toString());
+    w.start();
+    return w;
+  }
+
+  private static SecurityEventEntity event(String deviceId) {
+    var e = new SecurityEventEntity();
+    e.setCustomerCode("acme");
+    e.setDeviceId(deviceId);
+    e.setEventType("ROOTING_DETECTED");
+    e.setCreatedAt(Instant.now());
+    return e;
+  }
+
+  private long rows() {
+    return jdbc.queryForObject("select count(*) from security_events", Long.class);
+  }
+
+  private static void await(BooleanSupplier cond) throws InterruptedException {
+    long until = System.currentTimeMillis() + 5000;
+    while (!cond.getAsBoolean()) {
+      assertThat(System.currentTimeMillis()).as("timed out").isLessThan(until);
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  void writesQueuedEvents() throws Exception {
+    writer = newWriter();
+    for (int i = 0; i < 120; i++) assertThat(writer.offer(event("d" + i))).isTrue();
+
+    await(() -> writer.writtenCount() == 120);
+    assertThat(rows()).isEqualTo(120);
+    assertThat(jdbc.queryForObject("select sum(cnt) from security_event_rollups", Long.class)).isEqualTo(120);
+  }
+
+  @Test
+  void keepsAcceptedEventsWhileDatabaseIsDown() throws Exception {
+    writer = newWriter();
+    jdbc.execute("alter table security_events rename to security_events_away");
+    for (int i = 0; i < 5; i++) writer.offer(event("d" + i));
+
+    await(() -> writer.retryCount() >= 2);
+    assertThat(writer.writtenCount()).isZero();
+
+    jdbc.execute("alter table security_events_away rename to security_events");
+    await(() -> writer.writtenCount() == 5);
+    assertThat(rows()).isEqualTo(5);
+    assertThat(writer.failedCount()).isZero();
+  }
+
+  @Test
+  void dropsOnlyInvalidRows() throws Exception {
+    writer = newWriter();
+    writer.offer(event("ok-1"));
+    writer.offer(event("device-id-longer-than-column"));
+    writer.offer(event("ok-2"));
+
+    await(() -> writer.writtenCount() + writer.failedCount() == 3);
+    assertThat(writer.writtenCount()).isEqualTo(2);
+    assertThat(writer.failedCount()).isEqualTo(1);
+    assertThat(rows()).isEqualTo(2);
+  }
+
+  @Test
+  void spillsOnShutdownAndReplaysOnStart() throws Exception {
+    writer = newWriter();
+    jdbc.execute("alter table security_events rename to security_events_away");
+    for (int i = 0; i < 3; i++) writer.offer(event("d" + i));
+    await(() -> writer.retryCount() >= 1);
+
+    writer.stop();
+    assertThat(writer.spilledCount()).isEqualTo(3);
+    try (var files = Files.list(spillDir)) {
+      assertThat(files.filter(f -> f.toString().endsWith(".ndjson")).count()).isEqualTo(1);
+    }
+
+    jdbc.execute("alter table security_events_away rename to security_events");
+    writer = newWriter();
+    await(() -> rows() == 3);
+    try (var files = Files.list(spillDir)) {
+      assertThat(files.count()).isZero();
+    }
+  }
+}
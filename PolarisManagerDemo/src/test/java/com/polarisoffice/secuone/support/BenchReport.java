@@ -0,0 +1,35 @@
+package com.polarisoffice.secuone.support;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * @Tag("bench") 측정 결과 기록: target/bench/{name}.properties (표준 출력 대신 파일로 남겨 비교)
+ */
+public final class BenchReport {
+
+  private static final Path DIR = Path.of("target", "bench");
+
+  private BenchReport() {}
+
+  /** 같은 이름이면 기존 값에 덧붙여 기록 (테스트 메서드별로 나눠 호출 가능) */
+  public static synchronized void write(String name, Map<String, String> values) throws IOException {
+    Files.createDirectories(DIR);
+    Path file = DIR.resolve(name + ".properties");
+    Properties p = new Properties();
+    if (Files.exists(file)) {
+      try (var r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) { p.load(r); }
+    }
+    p.putAll(values);
+    Map<Object, Object> sorted = new TreeMap<>(p);
+    try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (var en : sorted.entrySet()) w.write(en.getKey() + "=" + en.getValue() + "\n");
+    }
+  }
+}
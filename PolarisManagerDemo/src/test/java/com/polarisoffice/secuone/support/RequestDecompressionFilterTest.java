@@ -0,0 +1,102 @@
+package com.polarisoffice.secuone.support;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * RequestDecompressionFilter 테스트
+ * - 수집 경로 POST 만 gzip 해제, 그 밖의 경로/메서드는 그대로 통과
+ * - 해제 상한 초과 시 TooLargeException
+ */
+class RequestDecompressionFilterTest {
+
+  private static final List<String> PATHS =
+      List.of("/api/events/report", "/api/events/report/bulk", "/api/track/events", "/api/directads/*/track/*");
+
+  private final RequestDecompressionFilter filter = new RequestDecompressionFilter(4096, PATHS);
+
+  private static byte[] gzip(byte[] b) throws IOException {
+    ByteArrayOutputStream bo = new ByteArrayOutputStream();
+    try (GZIPOutputStream gz = new GZIPOutputStream(bo)) { gz.write(b); }
+    return bo.toByteArray();
+  }
+
+  private static MockHttpServletRequest post(String uri, String encoding, byte[] body) {
+    MockHttpServletRequest req = new MockHttpServletRequest("POST", uri);
+    req.addHeader("Content-Encoding", encoding);
+    req.setContentType("application/json");
+    req.setContent(body);
+    return req;
+  }
+
+  @Test
+  void gzipOnIngestPathIsDecompressed() throws Exception {
+    byte[] json = "{\"eventType\":\"ROOTING_DETECTED\"}".getBytes(StandardCharsets.UTF_8);
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(post("/api/events/report", "gzip", gzip(json)), new MockHttpServletResponse(), chain);
+
+    HttpServletRequest seen = (HttpServletRequest) chain.getRequest();
+    assertThat(seen.getInputStream().readAllBytes()).isEqualTo(json);
+    assertThat(seen.getHeader("Content-Encoding")).isNull();
+    assertThat(seen.getContentLengthLong()).isEqualTo(-1);
+  }
+
+  @Test
+  void otherPathsAreNotTouched() throws Exception {
+    byte[] raw = "opaque".getBytes(StandardCharsets.UTF_8);
+    MockHttpServletRequest req = post("/api/admin/customers", "br", raw);
+    MockHttpServletResponse res = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(req, res, chain);
+
+    assertThat(res.getStatus()).isEqualTo(200);
+    assertThat(chain.getRequest()).isSameAs(req);
+  }
+
+  @Test
+  void getOnIngestPathIsNotTouched() throws Exception {
+    MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/events/report/daily");
+    req.addHeader("Content-Encoding", "gzip");
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(req, new MockHttpServletResponse(), chain);
+
+    assertThat(chain.getRequest()).isSameAs(req);
+  }
+
+  @Test
+  void unsupportedEncodingOnIngestPathIs415() throws Exception {
+    MockHttpServletResponse res = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(post("/api/directads/ad-1/track/click", "br", new byte[]{1, 2, 3}), res, chain);
+
+    assertThat(res.getStatus()).isEqualTo(415);
+    assertThat(res.getHeader("Accept-Encoding")).isEqualTo("gzip");
+    assertThat(chain.getRequest()).isNull();
+  }
+
+  @Test
+  void decompressionBombIsCut() throws Exception {
+    MockFilterChain chain = new MockFilterChain();
+    filter.doFilter(post("/api/events/report/bulk", "gzip", gzip(new byte[64 * 1024])), new MockHttpServletResponse(), chain);
+
+    HttpServletRequest seen = (HttpServletRequest) chain.getRequest();
+    assertThatThrownBy(() -> seen.getInputStream().readAllBytes())
+        .isInstanceOf(RequestDecompressionFilter.TooLargeException.class);
+  }
+}
@@ -0,0 +1,177 @@
+package com.polarisoffice.secuone.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.polarisoffice.secuone.api.SecurityEventController.EventReq;
+import com.polarisoffice.secuone.api.TrackEventController.TrackEventIn;
+import com.polarisoffice.secuone.dto.TrackEventReq;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 수집 페이로드 크기/파싱 측정 (@Tag("bench"): 기본 빌드에서 제외, mvn -Pbench test 로 실행)
+ * - EventReq(/api/events/report) / TrackEventIn(/api/track/events) / TrackEventReq(직광고 track) 각각
+ * - 고정 시드로 값이 서로 다른 이벤트를 만들어 단건 평균과 50건 배치의 JSON / CBOR / gzip 바이트 수, 단건 파싱 시간 측정
+ * - 결과는 target/bench/request-payload.properties (BenchReport)
+ */
+@Tag("bench")
+class RequestPayloadBenchTest {
+
+  private static final int SAMPLES = 500;
+  private static final int BATCH = 50;
+
+  private static final String[] PACKAGES = {
+      "com.example.bank", "kr.co.shop.mall", "com.polaris.office", "net.game.arena", "com.travel.booking"};
+  private static final String[] EVENT_TYPES = {"MALWARES_APP", "ROOTING_DETECTED", "REMOTE_CONTROL_APP"};
+  private static final String[] MALWARE_TYPES = {"TROJAN", "SPYWARE", "ADWARE", "RANSOMWARE", "SMISHING"};
+  private static final String[] PLACEMENTS = {"Home:BottomBanner", "Detail:Top", "Splash", "Result:Interstitial"};
+  private static final String[] MODELS = {"SM-S911N", "SM-A546N", "Pixel 8", "iPhone15,2", "LM-V500N"};
+  private static final String[] LOCALES = {"ko-KR", "en-US", "ja-JP", "vi-VN"};
+
+  private final ObjectMapper json = new ObjectMapper();
+  private final CBORMapper cbor = new CBORMapper();
+  private final Random rnd = new Random(42);
+
+  @Test
+  void eventReq() throws Exception {
+    measure("EventReq", samples(this::eventReq), EventReq.class);
+  }
+
+  @Test
+  void trackEventIn() throws Exception {
+    measure("TrackEventIn", samples(this::trackEventIn), TrackEventIn.class);
+  }
+
+  @Test
+  void trackEventReq() throws Exception {
+    measure("TrackEventReq", samples(this::trackEventReq), TrackEventReq.class);
+  }
+
+  /* ===================== 측정 ===================== */
+
+  private void measure(String name, List<?> samples, Class<?> type) throws IOException {
+    long jsonBytes = 0, cborBytes = 0, gzipJsonBytes = 0;
+    List<byte[]> jsonBodies = new ArrayList<>(), cborBodies = new ArrayList<>();
+    for (Object o : samples) {
+      byte[] j = json.writeValueAsBytes(o), c = cbor.writeValueAsBytes(o);
+      jsonBodies.add(j);
+      cborBodies.add(c);
+      jsonBytes += j.length;
+      cborBytes += c.length;
+      gzipJsonBytes += gzip(j).length;
+    }
+    List<?> batch = samples.subList(0, BATCH);
+    byte[] batchJson = json.writeValueAsBytes(batch), batchCbor = cbor.writeValueAsBytes(batch);
+
+    Map<String, String> out = new LinkedHashMap<>();
+    out.put(name + ".single.json", String.valueOf(jsonBytes / samples.size()));
+    out.put(name + ".single.cbor", String.valueOf(cborBytes / samples.size()));
+    out.put(name + ".single.gzipJson", String.valueOf(gzipJsonBytes / samples.size()));
+    out.put(name + ".batch50.json", String.valueOf(batchJson.length));
+    out.put(name + ".batch50.cbor", String.valueOf(batchCbor.length));
+    out.put(name + ".batch50.gzipJson", String.valueOf(gzip(batchJson).length));
+    out.put(name + ".batch50.gzipCbor", String.valueOf(gzip(batchCbor).length));
+    out.put(name + ".parseMicros.json", String.format("%.2f", parseMicros(json, jsonBodies, type)));
+    out.put(name + ".parseMicros.cbor", String.format("%.2f", parseMicros(cbor, cborBodies, type)));
+    BenchReport.write("request-payload", out);
+
+    assertThat(batchCbor.length).isLessThan(batchJson.length);
+    assertThat(gzip(batchJson).length).isLessThan(batchJson.length);
+  }
+
+  /** 샘플을 돌아가며 파싱 (같은 바이트 반복으로 캐시 효과가 끼지 않도록) */
+  private static double parseMicros(ObjectMapper om, List<byte[]> bodies, Class<?> type) throws IOException {
+    final int warmup = 20_000, n = 50_000;
+    Object sink = null;
+    for (int i = 0; i < warmup; i++) sink = om.readValue(bodies.get(i % bodies.size()), type);
+    long t0 = System.nanoTime();
+    for (int i = 0; i < n; i++) sink = om.readValue(bodies.get(i % bodies.size()), type);
+    long elapsed = System.nanoTime() - t0;
+    assertThat(sink).isNotNull();
+    return elapsed / 1000.0 / n;
+  }
+
+  private static byte[] gzip(byte[] b) throws IOException {
+    ByteArrayOutputStream bo = new ByteArrayOutputStream();
+    try (GZIPOutputStream gz = new GZIPOutputStream(bo)) { gz.write(b); }
+    return bo.toByteArray();
+  }
+
+  /* ===================== 샘플 생성 (고정 시드) ===================== */
+
+  private <T> List<T> samples(Function<Integer, T> gen) {
+    List<T> out = new ArrayList<>(SAMPLES);
+    for (int i = 0; i < SAMPLES; i++) out.add(gen.apply(i));
+    return out;
+  }
+
+  private EventReq eventReq(int i) {
+    String type = pick(EVENT_TYPES);
+    Map<String, Object> data = new LinkedHashMap<>();
+    if ("MALWARES_APP".equals(type)) {
+      data.put("packageName", "com." + word(6) + "." + word(5));
+      data.put("malwareType", pick(MALWARE_TYPES));
+      data.put("appName", word(4) + " " + word(7));
+    } else if ("REMOTE_CONTROL_APP".equals(type)) {
+      data.put("packageName", "com." + word(8) + ".remote");
+    }
+    data.put("detectedAt", "2026-10-" + (10 + rnd.nextInt(18)) + "T" + (10 + rnd.nextInt(13)) + ":" + (10 + rnd.nextInt(50)) + ":00Z");
+    boolean web = rnd.nextInt(5) == 0;
+    return new EventReq(web ? null : pick(PACKAGES), web ? word(6) + ".co.kr" : null, hex(16), type, data, uuid());
+  }
+
+  private TrackEventIn trackEventIn(int i) {
+    TrackEventIn t = new TrackEventIn();
+    boolean ad = rnd.nextBoolean();
+    t.action = ad ? (rnd.nextInt(10) == 0 ? "AD_CLICK" : "AD_IMPRESSION") : "SECURITY_EVENT";
+    t.objectType = ad ? "DIRECT_AD" : pick(EVENT_TYPES);
+    t.objectId = ad ? "ad-" + hex(8) : hex(16);
+    t.extra = new LinkedHashMap<>();
+    t.extra.put("placement", pick(PLACEMENTS));
+    t.extra.put("appVersion", "4." + rnd.nextInt(10) + "." + rnd.nextInt(20));
+    t.extra.put("deviceModel", pick(MODELS));
+    if (rnd.nextBoolean()) t.extra.put("sessionId", hex(12));
+    t.eventId = uuid();
+    return t;
+  }
+
+  private TrackEventReq trackEventReq(int i) {
+    TrackEventReq r = new TrackEventReq();
+    r.placement = pick(PLACEMENTS);
+    r.appVersion = "4." + rnd.nextInt(10) + "." + rnd.nextInt(20);
+    r.deviceModel = pick(MODELS);
+    r.osVersion = rnd.nextBoolean() ? "Android " + (11 + rnd.nextInt(4)) : "iOS 17." + rnd.nextInt(6);
+    r.locale = pick(LOCALES);
+    r.sessionId = hex(12);
+    r.clientId = hex(32);
+    if (rnd.nextInt(3) == 0) {
+      r.latitude = 33 + rnd.nextDouble() * 5;
+      r.longitude = 126 + rnd.nextDouble() * 4;
+    }
+    return r;
+  }
+
+  private String pick(String[] values) { return values[rnd.nextInt(values.length)]; }
+
+  private String word(int len) {
+    StringBuilder sb = new StringBuilder(len);
+    for (int i = 0; i < len; i++) sb.append((char) ('a' + rnd.nextInt(26)));
+    return sb.toString();
+  }
+
+  private String hex(int len) {
+    StringBuilder sb = new StringBuilder(len);
+    for (int i = 0; i < len; i++) sb.append(Character.forDigit(rnd.nextInt(16), 16));
+    return sb.toString();
+  }
+
+  private String uuid() { return new UUID(rnd.nextLong(), rnd.nextLong()).toString(); }
+}
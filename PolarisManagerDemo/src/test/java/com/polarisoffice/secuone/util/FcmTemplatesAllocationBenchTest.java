@@ -0,0 +1,109 @@
+package com.polarisoffice.secuone.util;
+
+import com.google.firebase.messaging.*;
+import com.polarisoffice.secuone.support.BenchReport;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * FCM 메시지 빌드 할당량 측정 (@Tag("bench"): 기본 빌드에서 제외, mvn -Pbench test 로 실행)
+ * - before: 템플릿 도입 전 FcmGateway.baseMessageBuilder 원문 (메시지마다 AndroidConfig / ApnsConfig 생성)
+ * - after: 현재 FcmGateway.baseMessageBuilder (FcmTemplates 재사용)
+ * - JMH 없이 ThreadMXBean 스레드 할당 카운터 사용. 결과는 target/bench/fcm-templates.properties (BenchReport)
+ */
+@Tag("bench")
+class FcmTemplatesAllocationBenchTest {
+
+  private static final Map<String, String> DATA = Map.of("type", "notice", "id", "42");
+
+  @Test
+  void prebuiltTemplateAllocatesLessPerMessage() throws Exception {
+    var mx = ManagementFactory.getThreadMXBean();
+    assumeTrue(mx instanceof com.sun.management.ThreadMXBean tmx && tmx.isThreadAllocatedMemorySupported());
+    var tmx = (com.sun.management.ThreadMXBean) mx;
+
+    Supplier<Message> before = () -> Legacy.baseMessageBuilder(
+        "title", "body", FcmTemplates.EVENT_CHANNEL_ID, DATA, AndroidConfig.Priority.HIGH).setToken("token").build();
+    Supplier<Message> after = () -> FcmGateway.baseMessageBuilder(
+        "title", "body", FcmTemplates.EVENT_CHANNEL_ID, DATA).setToken("token").build();
+
+    long b = bytesPerMessage(tmx, before);
+    long a = bytesPerMessage(tmx, after);
+    Map<String, String> out = new LinkedHashMap<>();
+    out.put("bytesPerMessage.before", String.valueOf(b));
+    out.put("bytesPerMessage.after", String.valueOf(a));
+    BenchReport.write("fcm-templates", out);
+
+    assertThat(a).isLessThan(b);
+  }
+
+  /** 템플릿 도입 전 FcmGateway 의 메시지 빌더 (삭제된 코드 그대로) */
+  static final class Legacy {
+    private static final long DEFAULT_TTL_MILLIS = Duration.ofHours(1).toMillis();
+
+    static Message.Builder baseMessageBuilder(
+            String title,
+            String body,
+            String androidChannelId,
+            Map<String, String> data,
+            AndroidConfig.Priority priority
+    ) {
+        Notification notif = Notification.builder()
+                .setTitle(nullToEmpty(title))
+                .setBody(nullToEmpty(body))
+                .build();
+
+        AndroidNotification.Builder androidNotif = AndroidNotification.builder()
+                .setChannelId(nullToEmpty(androidChannelId))
+                .setSound("default"); // 채널 사운드 설정을 따르지만 기본값 지정
+
+        AndroidConfig android = AndroidConfig.builder()
+                .setTtl(DEFAULT_TTL_MILLIS)
+                .setPriority(priority != null ? priority : AndroidConfig.Priority.HIGH)
+                .setNotification(androidNotif.build())
+                .build();
+
+        // iOS
+        Aps aps = Aps.builder()
+                .setSound("default")
+                .setBadge(1)
+                .build();
+        ApnsConfig apns = ApnsConfig.builder()
+                .setAps(aps)
+                .build();
+
+        Message.Builder mb = Message.builder()
+                .setNotification(notif)
+                .setAndroidConfig(android)
+                .setApnsConfig(apns);
+
+        if (data != null && !data.isEmpty()) {
+            mb.putAllData(data);
+        }
+        return mb;
+    }
+
+    private static String nullToEmpty(String s) { return s == null ? "" : s; }
+  }
+
+  private static long bytesPerMessage(com.sun.management.ThreadMXBean tmx, Supplier<Message> build) {
+    final int warmup = 20_000, n = 50_000;
+    long tid = Thread.currentThread().getId();
+    Object sink = null;
+    for (int i = 0; i < warmup; i++) sink = build.get();
+    long start = tmx.getThreadAllocatedBytes(tid);
+    for (int i = 0; i < n; i++) sink = build.get();
+    long bytes = tmx.getThreadAllocatedBytes(tid) - start;
+    assertThat(sink).isNotNull();
+    return bytes / n;
+  }
+}
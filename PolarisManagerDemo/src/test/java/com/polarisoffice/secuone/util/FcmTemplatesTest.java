@@ -0,0 +1,49 @@
+package com.polarisoffice.secuone.util;
+
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.firebase.messaging.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * FcmTemplates 테스트
+ * - 페이로드: 공지(BADGE) / /api/push(CONTENT_AVAILABLE) APNs 구성 유지
+ * - 템플릿 공유 (할당량 측정은 FcmTemplatesAllocationBenchTest, @Tag("bench"))
+ */
+class FcmTemplatesTest {
+
+  private static final Map<String, String> DATA = Map.of("type", "notice", "id", "42");
+
+  private static String json(Message m) throws Exception {
+    return GsonFactory.getDefaultInstance().toString(m);
+  }
+
+  @Test
+  void noticePayloadCarriesBadge() throws Exception {
+    var t = FcmTemplates.of(FcmTemplates.NOTICE_CHANNEL_ID, true);
+    String js = json(FcmTemplates.message(t, FcmTemplates.notification("t", "b"), DATA).setTopic("all").build());
+
+    assertThat(js).contains("\"badge\":1").doesNotContain("content-available")
+        .contains("\"channel_id\":\"NOTICE_CHANNEL_ID\"").contains("\"apns-priority\":\"10\"");
+  }
+
+  @Test
+  void apiPushPayloadKeepsContentAvailableWithoutBadge() throws Exception {
+    var t = FcmTemplates.of(null, false, FcmTemplates.Apns.CONTENT_AVAILABLE);
+    String js = json(FcmTemplates.message(t, FcmTemplates.notification("t", "b"), DATA).setToken("tok").build());
+
+    assertThat(js).contains("\"content-available\":1").doesNotContain("badge")
+        .contains("\"apns-priority\":\"5\"").contains("\"priority\":\"normal\"");
+  }
+
+  @Test
+  void templatesAreShared() {
+    assertThat(FcmTemplates.of(FcmTemplates.EVENT_CHANNEL_ID, true))
+        .isSameAs(FcmTemplates.of(FcmTemplates.EVENT_CHANNEL_ID, true));
+    assertThat(FcmTemplates.of("CUSTOM", false, FcmTemplates.Apns.CONTENT_AVAILABLE).android())
+        .isSameAs(FcmTemplates.of("CUSTOM", false, FcmTemplates.Apns.BADGE).android());
+  }
+}